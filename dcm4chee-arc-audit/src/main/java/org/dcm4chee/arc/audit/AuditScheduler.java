@@ -116,7 +116,7 @@ public class AuditScheduler extends Scheduler {
                     if (arcDev.getAuditPollingInterval() == null)
                         return;
 
-                    service.auditAndProcessFile(logger, path);
+                    service.auditAndProcessSpoolFile(logger, path);
                 }
             } catch (IOException e) {
                 LOG.warn("Failed to access Audit Spool Directory - {}", dir, e);
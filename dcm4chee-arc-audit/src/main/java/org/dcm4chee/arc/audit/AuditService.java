@@ -64,6 +64,7 @@ import org.dcm4chee.arc.event.BulkQueueMessageEvent;
 import org.dcm4chee.arc.event.QueueMessageEvent;
 import org.dcm4chee.arc.event.SoftwareConfiguration;
 import org.dcm4chee.arc.keycloak.KeycloakContext;
+import org.dcm4chee.arc.metrics.MetricsService;
 import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
 import org.dcm4chee.arc.delete.StudyDeleteContext;
 import org.dcm4chee.arc.entity.RejectionState;
@@ -94,6 +95,7 @@ import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.FileTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -110,9 +112,14 @@ public class AuditService {
     @Inject
     private Device device;
 
+    @Inject
+    private MetricsService metricsService;
+
     @Inject
     private IHL7ApplicationCache hl7AppCache;
 
+    private final Map<String, SpoolFileAppender> spoolFileAppenders = new ConcurrentHashMap<>();
+
     private void aggregateAuditMessage(AuditLogger auditLogger, Path path) throws Exception {
         AuditServiceUtils.EventType eventType = AuditServiceUtils.EventType.fromFile(path);
         if (path.toFile().length() == 0) {
@@ -688,6 +695,13 @@ public class AuditService {
         return msg;
     }
 
+    void auditAndProcessSpoolFile(AuditLogger auditLogger, Path file) {
+        SpoolFileAppender appender = spoolFileAppenders.get(auditLogger.getCommonName());
+        Path detached = appender != null ? appender.detach(file) : file;
+        if (detached != null)
+            auditAndProcessFile(auditLogger, detached);
+    }
+
     void auditAndProcessFile(AuditLogger auditLogger, Path file) {
         try {
             aggregateAuditMessage(auditLogger, file);
@@ -905,7 +919,7 @@ public class AuditService {
 
     private void auditStoreOrWADORetrieve(AuditLogger auditLogger, Path path,
                                           AuditServiceUtils.EventType eventType) throws IOException {
-        if (path.toFile().getName().endsWith("_ERROR")) {
+        if (SpoolFileAppender.fileNameOf(path).endsWith("_ERROR")) {
             auditStoreError(auditLogger, path, eventType);
             return;
         }
@@ -1845,37 +1859,31 @@ public class AuditService {
             LOG.warn("Attempt to write empty file : " + fileName);
             return;
         }
-        FileTime eventTime = null;
         boolean auditAggregate = getArchiveDevice().isAuditAggregate();
+        AuditInfo patStudyAuditInfo = new AuditInfo(patStudyInfo);
+        AuditInfo instanceAuditInfo = new AuditInfo(instanceInfo);
         AuditLoggerDeviceExtension ext = device.getDeviceExtension(AuditLoggerDeviceExtension.class);
         for (AuditLogger auditLogger : ext.getAuditLoggers()) {
             if (auditLogger.isInstalled()) {
-                Path dir = toDirPath(auditLogger);
-                Path file = dir.resolve(fileName);
-                boolean append = Files.exists(file);
+                Path file = toDirPath(auditLogger).resolve(fileName);
                 try {
-                    if (!append)
-                        Files.createDirectories(dir);
-                    try (SpoolFileWriter writer = new SpoolFileWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8,
-                            append ? StandardOpenOption.APPEND : StandardOpenOption.CREATE_NEW))) {
-                        if (!append) {
-                            writer.writeLine(new AuditInfo(patStudyInfo));
-                        }
-                        writer.writeLine(new AuditInfo(instanceInfo));
-                    }
-                    if (eventTime == null)
-                        eventTime = Files.getLastModifiedTime(file);
-                    else
-                        Files.setLastModifiedTime(file, eventTime);
-                    if (!auditAggregate)
-                        auditAndProcessFile(auditLogger, file);
-                } catch (Exception e) {
-                    LOG.warn("Failed to write to Audit Spool File - {} ", auditLogger.getCommonName(), file, e);
+                    spoolFileAppenders.computeIfAbsent(auditLogger.getCommonName(), this::newSpoolFileAppender)
+                            .append(auditLogger, file, patStudyAuditInfo, instanceAuditInfo, auditAggregate);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    LOG.warn("Failed to write to Audit Spool File {} of Audit Logger {}",
+                            file, auditLogger.getCommonName(), e);
                 }
             }
         }
     }
 
+    private SpoolFileAppender newSpoolFileAppender(String auditLoggerName) {
+        SpoolFileAppender appender = new SpoolFileAppender(this, device);
+        metricsService.gauge("audit_spool_queue_size", appender::queueSize, "auditLogger", auditLoggerName);
+        return appender;
+    }
+
     private void emitAuditMessage(
             AuditLogger logger, EventIdentificationBuilder eventIdentificationBuilder, ActiveParticipantBuilder[] activeParticipantBuilder,
             ParticipantObjectIdentificationBuilder... participantObjectIdentificationBuilder) {
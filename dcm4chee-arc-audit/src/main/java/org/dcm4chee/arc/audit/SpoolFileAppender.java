@@ -0,0 +1,204 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.audit;
+
+import org.dcm4che3.net.Device;
+import org.dcm4che3.net.audit.AuditLogger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Appends records of stored and WADO retrieved instances to the per Study Audit Spool Files of one Audit Logger.
+ * Records are queued by the calling threads and written in batches by one background thread, which opens each
+ * Audit Spool File once per batch and syncs it to disk before closing it.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+class SpoolFileAppender implements Runnable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SpoolFileAppender.class);
+    private static final int QUEUE_CAPACITY = 10000;
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final String PROCESSING = ".processing";
+
+    private final AuditService service;
+    private final Device device;
+    private final BlockingQueue<Record> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    SpoolFileAppender(AuditService service, Device device) {
+        this.service = service;
+        this.device = device;
+    }
+
+    int queueSize() {
+        return queue.size();
+    }
+
+    void append(AuditLogger auditLogger, Path file, AuditInfo patStudyInfo, AuditInfo instanceInfo,
+            boolean aggregate) throws InterruptedException {
+        queue.put(new Record(auditLogger, file, patStudyInfo, instanceInfo, aggregate));
+        if (running.compareAndSet(false, true))
+            try {
+                device.execute(this);
+            } catch (RejectedExecutionException e) {
+                run();
+            }
+    }
+
+    /**
+     * Returns the name of the Audit Spool File, without the suffix appended by {@link #detach}.
+     */
+    static String fileNameOf(Path file) {
+        String fileName = file.getFileName().toString();
+        return fileName.endsWith(PROCESSING)
+                ? fileName.substring(0, fileName.length() - PROCESSING.length())
+                : fileName;
+    }
+
+    /**
+     * Renames the Audit Spool File, so records received afterwards are appended to a new Audit Spool File.
+     *
+     * @return renamed Audit Spool File or {@code null}, if the file does not exist anymore
+     */
+    Path detach(Path file) {
+        String fileName = file.getFileName().toString();
+        if (fileName.endsWith(PROCESSING))
+            return file;
+
+        lock.lock();
+        try {
+            return Files.move(file, file.resolveSibling(fileName + PROCESSING), StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            LOG.warn("Failed to rename Audit Spool File - {}", file, e);
+            return file;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void run() {
+        List<Record> batch = new ArrayList<>();
+        do {
+            while (queue.drainTo(batch, MAX_BATCH_SIZE) > 0) {
+                write(batch);
+                batch.clear();
+            }
+            running.set(false);
+        } while (!queue.isEmpty() && running.compareAndSet(false, true));
+    }
+
+    private void write(List<Record> batch) {
+        Map<Path, List<Record>> aggregated = new LinkedHashMap<>();
+        for (Record record : batch) {
+            if (record.aggregate) {
+                aggregated.computeIfAbsent(record.file, file -> new ArrayList<>()).add(record);
+            } else if (write(record.file, Collections.singletonList(record))) {
+                service.auditAndProcessFile(record.auditLogger, record.file);
+            }
+        }
+        lock.lock();
+        try {
+            for (Map.Entry<Path, List<Record>> entry : aggregated.entrySet())
+                write(entry.getKey(), entry.getValue());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean write(Path file, List<Record> records) {
+        try {
+            Files.createDirectories(file.getParent());
+            boolean append = Files.exists(file);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+                    append ? StandardOpenOption.APPEND : StandardOpenOption.CREATE_NEW);
+                 SpoolFileWriter writer = new SpoolFileWriter(new BufferedWriter(
+                         Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), -1)))) {
+                if (!append)
+                    writer.writeLine(records.get(0).patStudyInfo);
+                for (Record record : records)
+                    writer.writeLine(record.instanceInfo);
+                writer.flush();
+                channel.force(false);
+            }
+            return true;
+        } catch (Exception e) {
+            LOG.warn("Failed to write to Audit Spool File {} of Audit Logger {}",
+                    file, records.get(0).auditLogger.getCommonName(), e);
+            return false;
+        }
+    }
+
+    private static class Record {
+        final AuditLogger auditLogger;
+        final Path file;
+        final AuditInfo patStudyInfo;
+        final AuditInfo instanceInfo;
+        final boolean aggregate;
+
+        Record(AuditLogger auditLogger, Path file, AuditInfo patStudyInfo, AuditInfo instanceInfo,
+                boolean aggregate) {
+            this.auditLogger = auditLogger;
+            this.file = file;
+            this.patStudyInfo = patStudyInfo;
+            this.instanceInfo = instanceInfo;
+            this.aggregate = aggregate;
+        }
+    }
+}
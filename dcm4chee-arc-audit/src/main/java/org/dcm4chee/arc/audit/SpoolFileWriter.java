@@ -66,6 +66,10 @@ class SpoolFileWriter implements Closeable {
         writer.write(data);
     }
 
+    void flush() throws IOException {
+        writer.flush();
+    }
+
     @Override
     public void close() throws IOException {
         writer.close();
@@ -86,6 +86,7 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
         writer.writeNotNullOrDef("dcmSeriesMetadataDelay", arcDev.getSeriesMetadataDelay(), null);
         writer.writeNotNullOrDef("dcmSeriesMetadataPollingInterval", arcDev.getSeriesMetadataPollingInterval(), null);
         writer.writeNotDef("dcmSeriesMetadataFetchSize", arcDev.getSeriesMetadataFetchSize(), 100);
+        writer.writeNotDef("dcmSeriesMetadataThreads", arcDev.getSeriesMetadataThreads(), 1);
         writer.writeNotDef("dcmPurgeInstanceRecords", arcDev.isPurgeInstanceRecords(), false);
         writer.writeNotNullOrDef("dcmPurgeInstanceRecordsDelay", arcDev.getPurgeInstanceRecordsDelay(), null);
         writer.writeNotNullOrDef("dcmPurgeInstanceRecordsPollingInterval",
@@ -101,6 +102,9 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
                 arcDev.isPersonNameComponentOrderInsensitiveMatching(), false);
         writer.writeNotDef("dcmSendPendingCGet", arcDev.isSendPendingCGet(), false);
         writer.writeNotNullOrDef("dcmSendPendingCMoveInterval", arcDev.getSendPendingCMoveInterval(), null);
+        writer.writeNotDef("dcmRetrieveStoreAssociations", arcDev.getRetrieveStoreAssociations(), 1);
+        writer.writeNotNullOrDef("dcmRetrievePrefetchBufferSize", arcDev.getRetrievePrefetchBufferSize(),
+                ArchiveDeviceExtension.DEFAULT_RETRIEVE_PREFETCH_BUFFER_SIZE);
         writer.writeNotEmpty("dcmWadoSupportedSRClasses", arcDev.getWadoSupportedSRClasses());
         writer.writeNotNullOrDef("dcmWadoZIPEntryNameFormat",
                 arcDev.getWadoZIPEntryNameFormat(), ArchiveDeviceExtension.DEFAULT_WADO_ZIP_ENTRY_NAME_FORMAT);
@@ -128,8 +132,10 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
         writer.writeNotNullOrDef("dcmAltCMoveSCP", arcDev.getAlternativeCMoveSCP(), null);
         writer.writeNotNullOrDef("dcmExportTaskPollingInterval", arcDev.getExportTaskPollingInterval(), null);
         writer.writeNotDef("dcmExportTaskFetchSize", arcDev.getExportTaskFetchSize(), 5);
+        writer.writeNotNullOrDef("dcmExportTaskCoalescingInterval", arcDev.getExportTaskCoalescingInterval(), null);
         writer.writeNotNullOrDef("dcmPurgeStoragePollingInterval", arcDev.getPurgeStoragePollingInterval(), null);
         writer.writeNotDef("dcmPurgeStorageFetchSize", arcDev.getPurgeStorageFetchSize(), 100);
+        writer.writeNotDef("dcmPurgeStorageThreads", arcDev.getPurgeStorageThreads(), 1);
         writer.writeNotDef("dcmDeleteStudyBatchSize", arcDev.getDeleteStudyBatchSize(), 10);
         writer.writeNotDef("dcmDeletePatientOnDeleteLastStudy", arcDev.isDeletePatientOnDeleteLastStudy(), false);
         writer.writeNotNullOrDef("dcmDeleteRejectedPollingInterval", arcDev.getDeleteRejectedPollingInterval(), null);
@@ -145,6 +151,7 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
         writer.writeNotNullOrDef("dcmAuditAggregateDuration", arcDev.getAuditAggregateDuration(), null);
         writer.writeNotNullOrDef("dcmStowSpoolDirectory",
                 arcDev.getStowSpoolDirectory(), ArchiveDeviceExtension.JBOSS_SERVER_TEMP_DIR);
+        writer.writeNotDef("dcmStowMaxParallelism", arcDev.getStowMaxParallelism(), 1);
         writer.writeNotNullOrDef("hl7PatientUpdateTemplateURI", arcDev.getPatientUpdateTemplateURI(), null);
         writer.writeNotNullOrDef("hl7ImportReportTemplateURI", arcDev.getImportReportTemplateURI(), null);
         writer.writeNotNullOrDef("hl7ScheduleProcedureTemplateURI", arcDev.getScheduleProcedureTemplateURI(), null);
@@ -175,6 +182,8 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
                 arcDev.getMergeMWLCacheSize(), 10);
         writer.writeNotDef("dcmStoreUpdateDBMaxRetries", arcDev.getStoreUpdateDBMaxRetries(), 1);
         writer.writeNotDef("dcmStoreUpdateDBMaxRetryDelay", arcDev.getStoreUpdateDBMaxRetryDelay(), 1000);
+        writer.writeNotNullOrDef("dcmStoreUpdateDBGroupCommitWindow", arcDev.getStoreUpdateDBGroupCommitWindow(), null);
+        writer.writeNotDef("dcmStoreUpdateDBGroupCommitMaxSize", arcDev.getStoreUpdateDBGroupCommitMaxSize(), 100);
         writer.writeNotNullOrDef("dcmAllowRejectionForDataRetentionPolicyExpired",
                 arcDev.getAllowRejectionForDataRetentionPolicyExpired(),
                 AllowRejectionForDataRetentionPolicyExpired.EXPIRED_UNSET);
@@ -232,6 +241,7 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
                 arcDev.getAuditUnknownPatientID(), ArchiveDeviceExtension.AUDIT_UNKNOWN_PATIENT_ID);
         writer.writeNotDef("dcmAuditSoftwareConfigurationVerbose", arcDev.isAuditSoftwareConfigurationVerbose(), false);
         writer.writeNotDef("hl7UseNullValue", arcDev.isHl7UseNullValue(), false);
+        writer.writeNotDef("hl7UseCompiledMapping", arcDev.isHl7UseCompiledMapping(), false);
         writer.writeNotDef("dcmQueueTasksFetchSize", arcDev.getQueueTasksFetchSize(), 100);
         writer.writeNotNullOrDef("dcmRejectionNoteStorageAET", arcDev.getRejectionNoteStorageAET(), null);
         writer.writeNotEmpty("dcmXRoadProperty", descriptorProperties(arcDev.getXRoadProperties()));
@@ -319,6 +329,7 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
             writer.writeNotNullOrDef("dcmExportStorageID", st.getExportStorageID(), null);
             writer.writeNotNullOrDef("dcmRetrieveCacheStorageID", st.getRetrieveCacheStorageID(), null);
             writer.writeNotDef("dcmRetrieveCacheMaxParallel", st.getRetrieveCacheMaxParallel(), 10);
+            writer.writeNotDef("dcmRetrievePrefetchDepth", st.getRetrievePrefetchDepth(), 0);
             writer.writeEnd();
         }
         writer.writeEnd();
@@ -612,6 +623,7 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
                 arcAE.getPersonNameComponentOrderInsensitiveMatching());
         writer.writeNotNull("dcmSendPendingCGet", arcAE.getSendPendingCGet());
         writer.writeNotNullOrDef("dcmSendPendingCMoveInterval", arcAE.getSendPendingCMoveInterval(), null);
+        writer.writeNotNull("dcmRetrieveStoreAssociations", arcAE.getRetrieveStoreAssociations());
         writer.writeNotNullOrDef("dcmWadoZIPEntryNameFormat", arcAE.getWadoZIPEntryNameFormat(), null);
         writer.writeNotNullOrDef("dcmWadoSR2HtmlTemplateURI", arcAE.getWadoSR2HtmlTemplateURI(), null);
         writer.writeNotNullOrDef("dcmWadoSR2TextTemplateURI", arcAE.getWadoSR2TextTemplateURI(), null);
@@ -653,6 +665,8 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
                 arcAE.getExternalRetrieveAEDestination(), null);
         writer.writeNotEmpty("dcmAcceptedMoveDestination", arcAE.getAcceptedMoveDestinations());
         writer.writeNotNull("dcmValidateCallingAEHostname", arcAE.getValidateCallingAEHostname());
+        writer.writeNotNullOrDef("dcmStoreUpdateDBGroupCommitWindow", arcAE.getStoreUpdateDBGroupCommitWindow(), null);
+        writer.writeNotNull("dcmStoreUpdateDBGroupCommitMaxSize", arcAE.getStoreUpdateDBGroupCommitMaxSize());
         writer.writeNotNullOrDef("hl7PSUSendingApplication", arcAE.getHl7PSUSendingApplication(), null);
         writer.writeNotEmpty("hl7PSUReceivingApplication", arcAE.getHl7PSUReceivingApplications());
         writer.writeNotNullOrDef("hl7PSUDelay", arcAE.getHl7PSUDelay(), null);
@@ -710,6 +724,9 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
                 case "dcmSeriesMetadataFetchSize":
                     arcDev.setSeriesMetadataFetchSize(reader.intValue());
                     break;
+                case "dcmSeriesMetadataThreads":
+                    arcDev.setSeriesMetadataThreads(reader.intValue());
+                    break;
                 case "dcmPurgeInstanceRecords":
                     arcDev.setPurgeInstanceRecords(reader.booleanValue());
                     break;
@@ -743,6 +760,12 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
                 case "dcmSendPendingCMoveInterval":
                     arcDev.setSendPendingCMoveInterval(Duration.valueOf(reader.stringValue()));
                     break;
+                case "dcmRetrieveStoreAssociations":
+                    arcDev.setRetrieveStoreAssociations(reader.intValue());
+                    break;
+                case "dcmRetrievePrefetchBufferSize":
+                    arcDev.setRetrievePrefetchBufferSize(reader.stringValue());
+                    break;
                 case "dcmWadoSupportedSRClasses":
                     arcDev.setWadoSupportedSRClasses(reader.stringArray());
                     break;
@@ -818,12 +841,18 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
                 case "dcmExportTaskFetchSize":
                     arcDev.setExportTaskFetchSize(reader.intValue());
                     break;
+                case "dcmExportTaskCoalescingInterval":
+                    arcDev.setExportTaskCoalescingInterval(Duration.valueOf(reader.stringValue()));
+                    break;
                 case "dcmPurgeStoragePollingInterval":
                     arcDev.setPurgeStoragePollingInterval(Duration.valueOf(reader.stringValue()));
                     break;
                 case "dcmPurgeStorageFetchSize":
                     arcDev.setPurgeStorageFetchSize(reader.intValue());
                     break;
+                case "dcmPurgeStorageThreads":
+                    arcDev.setPurgeStorageThreads(reader.intValue());
+                    break;
                 case "dcmDeleteStudyBatchSize":
                     arcDev.setDeleteStudyBatchSize(reader.intValue());
                     break;
@@ -860,6 +889,9 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
                 case "dcmStowSpoolDirectory":
                     arcDev.setStowSpoolDirectory(reader.stringValue());
                     break;
+                case "dcmStowMaxParallelism":
+                    arcDev.setStowMaxParallelism(reader.intValue());
+                    break;
                 case "hl7PatientUpdateTemplateURI":
                     arcDev.setPatientUpdateTemplateURI(reader.stringValue());
                     break;
@@ -929,6 +961,12 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
                 case "dcmStoreUpdateDBMaxRetryDelay":
                     arcDev.setStoreUpdateDBMaxRetryDelay(reader.intValue());
                     break;
+                case "dcmStoreUpdateDBGroupCommitWindow":
+                    arcDev.setStoreUpdateDBGroupCommitWindow(Duration.valueOf(reader.stringValue()));
+                    break;
+                case "dcmStoreUpdateDBGroupCommitMaxSize":
+                    arcDev.setStoreUpdateDBGroupCommitMaxSize(reader.intValue());
+                    break;
                 case "dcmAllowRejectionForDataRetentionPolicyExpired":
                     arcDev.setAllowRejectionForDataRetentionPolicyExpired(
                             AllowRejectionForDataRetentionPolicyExpired.valueOf(reader.stringValue()));
@@ -1068,6 +1106,9 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
                 case "hl7UseNullValue":
                     arcDev.setHl7UseNullValue(reader.booleanValue());
                     break;
+                case "hl7UseCompiledMapping":
+                    arcDev.setHl7UseCompiledMapping(reader.booleanValue());
+                    break;
                 case "dcmQueueTasksFetchSize":
                     arcDev.setQueueTasksFetchSize(reader.intValue());
                     break;
@@ -1272,6 +1313,9 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
                     case "dcmRetrieveCacheMaxParallel":
                         st.setRetrieveCacheMaxParallel(reader.intValue());
                         break;
+                    case "dcmRetrievePrefetchDepth":
+                        st.setRetrievePrefetchDepth(reader.intValue());
+                        break;
                     default:
                         reader.skipUnknownProperty();
                 }
@@ -1970,6 +2014,9 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
                 case "dcmSendPendingCMoveInterval":
                     arcAE.setSendPendingCMoveInterval(Duration.valueOf(reader.stringValue()));
                     break;
+                case "dcmRetrieveStoreAssociations":
+                    arcAE.setRetrieveStoreAssociations(reader.intValue());
+                    break;
                 case "dcmWadoZIPEntryNameFormat":
                     arcAE.setWadoZIPEntryNameFormat(reader.stringValue());
                     break;
@@ -2076,6 +2123,12 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
                 case "dcmValidateCallingAEHostname":
                     arcAE.setValidateCallingAEHostname(reader.booleanValue());
                     break;
+                case "dcmStoreUpdateDBGroupCommitWindow":
+                    arcAE.setStoreUpdateDBGroupCommitWindow(Duration.valueOf(reader.stringValue()));
+                    break;
+                case "dcmStoreUpdateDBGroupCommitMaxSize":
+                    arcAE.setStoreUpdateDBGroupCommitMaxSize(reader.intValue());
+                    break;
                 case "hl7PSUSendingApplication":
                     arcAE.setHl7PSUSendingApplication(reader.stringValue());
                     break;
@@ -90,6 +90,7 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmSeriesMetadataDelay", ext.getSeriesMetadataDelay(), null);
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmSeriesMetadataPollingInterval", ext.getSeriesMetadataPollingInterval(), null);
         LdapUtils.storeNotDef(ldapObj, attrs, "dcmSeriesMetadataFetchSize", ext.getSeriesMetadataFetchSize(), 100);
+        LdapUtils.storeNotDef(ldapObj, attrs, "dcmSeriesMetadataThreads", ext.getSeriesMetadataThreads(), 1);
         LdapUtils.storeNotDef(ldapObj, attrs, "dcmPurgeInstanceRecords", ext.isPurgeInstanceRecords(), false);
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmPurgeInstanceRecordsDelay", ext.getPurgeInstanceRecordsDelay(), null);
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmPurgeInstanceRecordsPollingInterval", ext.getPurgeInstanceRecordsPollingInterval(), null);
@@ -102,6 +103,9 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
                 ext.isPersonNameComponentOrderInsensitiveMatching(), false);
         LdapUtils.storeNotDef(ldapObj, attrs, "dcmSendPendingCGet", ext.isSendPendingCGet(), false);
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmSendPendingCMoveInterval", ext.getSendPendingCMoveInterval(), null);
+        LdapUtils.storeNotDef(ldapObj, attrs, "dcmRetrieveStoreAssociations", ext.getRetrieveStoreAssociations(), 1);
+        LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmRetrievePrefetchBufferSize",
+                ext.getRetrievePrefetchBufferSize(), ArchiveDeviceExtension.DEFAULT_RETRIEVE_PREFETCH_BUFFER_SIZE);
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmSpanningCFindSCP", ext.getSpanningCFindSCP(), null);
         LdapUtils.storeNotEmpty(ldapObj, attrs, "dcmSpanningCFindSCPRetrieveAET", ext.getSpanningCFindSCPRetrieveAETitles());
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmSpanningCFindSCPPolicy",
@@ -136,8 +140,11 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
         LdapUtils.storeNotDef(ldapObj, attrs, "dcmIanTaskFetchSize", ext.getIanTaskFetchSize(), 100);
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmExportTaskPollingInterval", ext.getExportTaskPollingInterval(), null);
         LdapUtils.storeNotDef(ldapObj, attrs, "dcmExportTaskFetchSize", ext.getExportTaskFetchSize(), 5);
+        LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmExportTaskCoalescingInterval",
+                ext.getExportTaskCoalescingInterval(), null);
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmPurgeStoragePollingInterval", ext.getPurgeStoragePollingInterval(), null);
         LdapUtils.storeNotDef(ldapObj, attrs, "dcmPurgeStorageFetchSize", ext.getPurgeStorageFetchSize(), 100);
+        LdapUtils.storeNotDef(ldapObj, attrs, "dcmPurgeStorageThreads", ext.getPurgeStorageThreads(), 1);
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmDeleteRejectedPollingInterval", ext.getDeleteRejectedPollingInterval(), null);
         LdapUtils.storeNotDef(ldapObj, attrs, "dcmDeleteRejectedFetchSize", ext.getDeleteRejectedFetchSize(), 100);
         LdapUtils.storeNotDef(ldapObj, attrs, "dcmDeleteStudyBatchSize", ext.getDeleteStudyBatchSize(), 10);
@@ -153,6 +160,7 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmAuditAggregateDuration", ext.getAuditAggregateDuration(), null);
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmStowSpoolDirectory",
                 ext.getStowSpoolDirectory(), ArchiveDeviceExtension.JBOSS_SERVER_TEMP_DIR);
+        LdapUtils.storeNotDef(ldapObj, attrs, "dcmStowMaxParallelism", ext.getStowMaxParallelism(), 1);
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmPurgeQueueMessagePollingInterval",
                 ext.getPurgeQueueMessagePollingInterval(), null);
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmWadoSpoolDirectory",
@@ -176,6 +184,10 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
         LdapUtils.storeNotDef(ldapObj, attrs, "dcmMergeMWLCacheSize", ext.getMergeMWLCacheSize(), 10);
         LdapUtils.storeNotDef(ldapObj, attrs, "dcmStoreUpdateDBMaxRetries", ext.getStoreUpdateDBMaxRetries(), 1);
         LdapUtils.storeNotDef(ldapObj, attrs, "dcmStoreUpdateDBMaxRetryDelay", ext.getStoreUpdateDBMaxRetryDelay(), 1000);
+        LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmStoreUpdateDBGroupCommitWindow",
+                ext.getStoreUpdateDBGroupCommitWindow(), null);
+        LdapUtils.storeNotDef(ldapObj, attrs, "dcmStoreUpdateDBGroupCommitMaxSize",
+                ext.getStoreUpdateDBGroupCommitMaxSize(), 100);
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmAllowRejectionForDataRetentionPolicyExpired",
                 ext.getAllowRejectionForDataRetentionPolicyExpired(), AllowRejectionForDataRetentionPolicyExpired.EXPIRED_UNSET);
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmAcceptMissingPatientID",
@@ -233,6 +245,7 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
                 ext.getAuditUnknownPatientID(), ArchiveDeviceExtension.AUDIT_UNKNOWN_PATIENT_ID);
         LdapUtils.storeNotDef(ldapObj, attrs, "dcmAuditSoftwareConfigurationVerbose", ext.isAuditSoftwareConfigurationVerbose(), false);
         LdapUtils.storeNotDef(ldapObj, attrs, "hl7UseNullValue", ext.isHl7UseNullValue(), false);
+        LdapUtils.storeNotDef(ldapObj, attrs, "hl7UseCompiledMapping", ext.isHl7UseCompiledMapping(), false);
         LdapUtils.storeNotDef(ldapObj, attrs, "dcmQueueTasksFetchSize", ext.getQueueTasksFetchSize(), 100);
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmRejectionNoteStorageAET",
                 ext.getRejectionNoteStorageAET(), null);
@@ -254,6 +267,7 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
         ext.setSeriesMetadataDelay(toDuration(attrs.get("dcmSeriesMetadataDelay"), null));
         ext.setSeriesMetadataPollingInterval(toDuration(attrs.get("dcmSeriesMetadataPollingInterval"), null));
         ext.setSeriesMetadataFetchSize(LdapUtils.intValue(attrs.get("dcmSeriesMetadataFetchSize"), 100));
+        ext.setSeriesMetadataThreads(LdapUtils.intValue(attrs.get("dcmSeriesMetadataThreads"), 1));
         ext.setPurgeInstanceRecords(LdapUtils.booleanValue(attrs.get("dcmPurgeInstanceRecords"), false));
         ext.setPurgeInstanceRecordsDelay(toDuration(attrs.get("dcmPurgeInstanceRecordsDelay"), null));
         ext.setPurgeInstanceRecordsPollingInterval(toDuration(attrs.get("dcmPurgeInstanceRecordsPollingInterval"), null));
@@ -267,6 +281,9 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
                 LdapUtils.booleanValue(attrs.get("dcmPersonNameComponentOrderInsensitiveMatching"), false));
         ext.setSendPendingCGet(LdapUtils.booleanValue(attrs.get("dcmSendPendingCGet"), false));
         ext.setSendPendingCMoveInterval(toDuration(attrs.get("dcmSendPendingCMoveInterval"), null));
+        ext.setRetrieveStoreAssociations(LdapUtils.intValue(attrs.get("dcmRetrieveStoreAssociations"), 1));
+        ext.setRetrievePrefetchBufferSize(LdapUtils.stringValue(attrs.get("dcmRetrievePrefetchBufferSize"),
+                ArchiveDeviceExtension.DEFAULT_RETRIEVE_PREFETCH_BUFFER_SIZE));
         ext.setSpanningCFindSCP(LdapUtils.stringValue(attrs.get("dcmSpanningCFindSCP"), null));
         ext.setSpanningCFindSCPRetrieveAETitles(LdapUtils.stringArray(attrs.get("dcmSpanningCFindSCPRetrieveAET")));
         ext.setSpanningCFindSCPPolicy(LdapUtils.enumValue(
@@ -301,8 +318,10 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
         ext.setIanTaskFetchSize(LdapUtils.intValue(attrs.get("dcmIanTaskFetchSize"), 100));
         ext.setExportTaskPollingInterval(toDuration(attrs.get("dcmExportTaskPollingInterval"), null));
         ext.setExportTaskFetchSize(LdapUtils.intValue(attrs.get("dcmExportTaskFetchSize"), 5));
+        ext.setExportTaskCoalescingInterval(toDuration(attrs.get("dcmExportTaskCoalescingInterval"), null));
         ext.setPurgeStoragePollingInterval(toDuration(attrs.get("dcmPurgeStoragePollingInterval"), null));
         ext.setPurgeStorageFetchSize(LdapUtils.intValue(attrs.get("dcmPurgeStorageFetchSize"), 100));
+        ext.setPurgeStorageThreads(LdapUtils.intValue(attrs.get("dcmPurgeStorageThreads"), 1));
         ext.setDeleteRejectedPollingInterval(toDuration(attrs.get("dcmDeleteRejectedPollingInterval"), null));
         ext.setDeleteRejectedFetchSize(LdapUtils.intValue(attrs.get("dcmDeleteRejectedFetchSize"), 100));
         ext.setDeleteStudyBatchSize(LdapUtils.intValue(attrs.get("dcmDeleteStudyBatchSize"), 10));
@@ -318,6 +337,7 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
         ext.setAuditAggregateDuration(toDuration(attrs.get("dcmAuditAggregateDuration"), null));
         ext.setStowSpoolDirectory(
                 LdapUtils.stringValue(attrs.get("dcmStowSpoolDirectory"), ArchiveDeviceExtension.JBOSS_SERVER_TEMP_DIR));
+        ext.setStowMaxParallelism(LdapUtils.intValue(attrs.get("dcmStowMaxParallelism"), 1));
         ext.setPurgeQueueMessagePollingInterval(toDuration(attrs.get("dcmPurgeQueueMessagePollingInterval"), null));
         ext.setWadoSpoolDirectory(
                 LdapUtils.stringValue(attrs.get("dcmWadoSpoolDirectory"), ArchiveDeviceExtension.JBOSS_SERVER_TEMP_DIR));
@@ -336,6 +356,9 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
         ext.setMergeMWLCacheSize(LdapUtils.intValue(attrs.get("dcmMergeMWLCacheSize"), 10));
         ext.setStoreUpdateDBMaxRetries(LdapUtils.intValue(attrs.get("dcmStoreUpdateDBMaxRetries"), 1));
         ext.setStoreUpdateDBMaxRetryDelay(LdapUtils.intValue(attrs.get("dcmStoreUpdateDBMaxRetryDelay"), 1000));
+        ext.setStoreUpdateDBGroupCommitWindow(toDuration(attrs.get("dcmStoreUpdateDBGroupCommitWindow"), null));
+        ext.setStoreUpdateDBGroupCommitMaxSize(
+                LdapUtils.intValue(attrs.get("dcmStoreUpdateDBGroupCommitMaxSize"), 100));
         ext.setAllowRejectionForDataRetentionPolicyExpired(
                 LdapUtils.enumValue(AllowRejectionForDataRetentionPolicyExpired.class,
                         attrs.get("dcmAllowRejectionForDataRetentionPolicyExpired"),
@@ -400,6 +423,7 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
                 attrs.get("dcmAuditUnknownPatientID"), ArchiveDeviceExtension.AUDIT_UNKNOWN_PATIENT_ID));
         ext.setAuditSoftwareConfigurationVerbose(LdapUtils.booleanValue(attrs.get("dcmAuditSoftwareConfigurationVerbose"), false));
         ext.setHl7UseNullValue(LdapUtils.booleanValue(attrs.get("hl7UseNullValue"), false));
+        ext.setHl7UseCompiledMapping(LdapUtils.booleanValue(attrs.get("hl7UseCompiledMapping"), false));
         ext.setQueueTasksFetchSize(LdapUtils.intValue(attrs.get("dcmQueueTasksFetchSize"), 100));
         ext.setRejectionNoteStorageAET(LdapUtils.stringValue(
                 attrs.get("dcmRejectionNoteStorageAET"), null));
@@ -436,6 +460,10 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
                 aa.getSeriesMetadataFetchSize(),
                 bb.getSeriesMetadataFetchSize(),
                 100);
+        LdapUtils.storeDiff(ldapObj, mods, "dcmSeriesMetadataThreads",
+                aa.getSeriesMetadataThreads(),
+                bb.getSeriesMetadataThreads(),
+                1);
         LdapUtils.storeDiff(ldapObj, mods, "dcmPurgeInstanceRecords",
                 aa.isPurgeInstanceRecords(),
                 bb.isPurgeInstanceRecords(),
@@ -463,6 +491,11 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
         LdapUtils.storeDiff(ldapObj, mods, "dcmSendPendingCGet", aa.isSendPendingCGet(), bb.isSendPendingCGet(), false);
         LdapUtils.storeDiffObject(ldapObj, mods, "dcmSendPendingCMoveInterval",
                 aa.getSendPendingCMoveInterval(), bb.getSendPendingCMoveInterval(), null);
+        LdapUtils.storeDiff(ldapObj, mods, "dcmRetrieveStoreAssociations",
+                aa.getRetrieveStoreAssociations(), bb.getRetrieveStoreAssociations(), 1);
+        LdapUtils.storeDiffObject(ldapObj, mods, "dcmRetrievePrefetchBufferSize",
+                aa.getRetrievePrefetchBufferSize(), bb.getRetrievePrefetchBufferSize(),
+                ArchiveDeviceExtension.DEFAULT_RETRIEVE_PREFETCH_BUFFER_SIZE);
         LdapUtils.storeDiffObject(ldapObj, mods, "dcmSpanningCFindSCP",
                 aa.getSpanningCFindSCP(), bb.getSpanningCFindSCP(), null);
         LdapUtils.storeDiff(ldapObj, mods, "dcmSpanningCFindSCPRetrieveAET",
@@ -520,10 +553,14 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
                 aa.getExportTaskPollingInterval(), bb.getExportTaskPollingInterval(), null);
         LdapUtils.storeDiff(ldapObj, mods, "dcmExportTaskFetchSize",
                 aa.getExportTaskFetchSize(), bb.getExportTaskFetchSize(), 5);
+        LdapUtils.storeDiffObject(ldapObj, mods, "dcmExportTaskCoalescingInterval",
+                aa.getExportTaskCoalescingInterval(), bb.getExportTaskCoalescingInterval(), null);
         LdapUtils.storeDiffObject(ldapObj, mods, "dcmPurgeStoragePollingInterval",
                 aa.getPurgeStoragePollingInterval(), bb.getPurgeStoragePollingInterval(), null);
         LdapUtils.storeDiff(ldapObj, mods, "dcmPurgeStorageFetchSize",
                 aa.getPurgeStorageFetchSize(), bb.getPurgeStorageFetchSize(), 100);
+        LdapUtils.storeDiff(ldapObj, mods, "dcmPurgeStorageThreads",
+                aa.getPurgeStorageThreads(), bb.getPurgeStorageThreads(), 1);
         LdapUtils.storeDiffObject(ldapObj, mods, "dcmDeleteRejectedPollingInterval",
                 aa.getDeleteRejectedPollingInterval(), bb.getDeleteRejectedPollingInterval(), null);
         LdapUtils.storeDiff(ldapObj, mods, "dcmDeleteRejectedFetchSize",
@@ -552,6 +589,10 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
                 aa.getStowSpoolDirectory(),
                 bb.getStowSpoolDirectory(),
                 ArchiveDeviceExtension.JBOSS_SERVER_TEMP_DIR);
+        LdapUtils.storeDiff(ldapObj, mods, "dcmStowMaxParallelism",
+                aa.getStowMaxParallelism(),
+                bb.getStowMaxParallelism(),
+                1);
         LdapUtils.storeDiffObject(ldapObj, mods, "dcmPurgeQueueMessagePollingInterval", aa.getPurgeQueueMessagePollingInterval(),
                 bb.getPurgeQueueMessagePollingInterval(), null);
         LdapUtils.storeDiffObject(ldapObj, mods, "dcmWadoSpoolDirectory",
@@ -587,6 +628,10 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
                 aa.getStoreUpdateDBMaxRetries(), bb.getStoreUpdateDBMaxRetries(), 1);
         LdapUtils.storeDiff(ldapObj, mods, "dcmStoreUpdateDBMaxRetryDelay",
                 aa.getStoreUpdateDBMaxRetryDelay(), bb.getStoreUpdateDBMaxRetryDelay(), 1000);
+        LdapUtils.storeDiffObject(ldapObj, mods, "dcmStoreUpdateDBGroupCommitWindow",
+                aa.getStoreUpdateDBGroupCommitWindow(), bb.getStoreUpdateDBGroupCommitWindow(), null);
+        LdapUtils.storeDiff(ldapObj, mods, "dcmStoreUpdateDBGroupCommitMaxSize",
+                aa.getStoreUpdateDBGroupCommitMaxSize(), bb.getStoreUpdateDBGroupCommitMaxSize(), 100);
         LdapUtils.storeDiffObject(ldapObj, mods, "dcmAllowRejectionForDataRetentionPolicyExpired",
                 aa.getAllowRejectionForDataRetentionPolicyExpired(), bb.getAllowRejectionForDataRetentionPolicyExpired(),
                 AllowRejectionForDataRetentionPolicyExpired.EXPIRED_UNSET);
@@ -681,6 +726,8 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
                 aa.isAuditSoftwareConfigurationVerbose(), bb.isAuditSoftwareConfigurationVerbose(), false);
         LdapUtils.storeDiff(ldapObj, mods, "hl7UseNullValue",
                 aa.isHl7UseNullValue(), bb.isHl7UseNullValue(), false);
+        LdapUtils.storeDiff(ldapObj, mods, "hl7UseCompiledMapping",
+                aa.isHl7UseCompiledMapping(), bb.isHl7UseCompiledMapping(), false);
         LdapUtils.storeDiff(ldapObj, mods, "dcmQueueTasksFetchSize",
                 aa.getQueueTasksFetchSize(),
                 bb.getQueueTasksFetchSize(),
@@ -810,6 +857,7 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
                 ext.getPersonNameComponentOrderInsensitiveMatching(), null);
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmSendPendingCGet", ext.getSendPendingCGet(), null);
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmSendPendingCMoveInterval", ext.getSendPendingCMoveInterval(), null);
+        LdapUtils.storeNotNull(ldapObj, attrs, "dcmRetrieveStoreAssociations", ext.getRetrieveStoreAssociations());
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmSpanningCFindSCP", ext.getSpanningCFindSCP(), null);
         LdapUtils.storeNotEmpty(ldapObj, attrs, "dcmSpanningCFindSCPRetrieveAET", ext.getSpanningCFindSCPRetrieveAETitles());
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmSpanningCFindSCPPolicy", ext.getSpanningCFindSCPPolicy(), null);
@@ -846,6 +894,10 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmExternalRetrieveAEDestination", ext.getExternalRetrieveAEDestination(), null);
         LdapUtils.storeNotEmpty(ldapObj, attrs, "dcmAcceptedMoveDestination", ext.getAcceptedMoveDestinations());
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmValidateCallingAEHostname", ext.getValidateCallingAEHostname(), null);
+        LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmStoreUpdateDBGroupCommitWindow",
+                ext.getStoreUpdateDBGroupCommitWindow(), null);
+        LdapUtils.storeNotNull(ldapObj, attrs, "dcmStoreUpdateDBGroupCommitMaxSize",
+                ext.getStoreUpdateDBGroupCommitMaxSize());
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "hl7PSUSendingApplication", ext.getHl7PSUSendingApplication(), null);
         LdapUtils.storeNotEmpty(ldapObj, attrs, "hl7PSUReceivingApplication", ext.getHl7PSUReceivingApplications());
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "hl7PSUDelay", ext.getHl7PSUDelay(), null);
@@ -884,6 +936,7 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
                 LdapUtils.booleanValue(attrs.get("dcmPersonNameComponentOrderInsensitiveMatching"), null));
         ext.setSendPendingCGet(LdapUtils.booleanValue(attrs.get("dcmSendPendingCGet"), null));
         ext.setSendPendingCMoveInterval(toDuration(attrs.get("dcmSendPendingCMoveInterval"), null));
+        ext.setRetrieveStoreAssociations(LdapUtils.intValue(attrs.get("dcmRetrieveStoreAssociations"), null));
         ext.setSpanningCFindSCP(LdapUtils.stringValue(attrs.get("dcmSpanningCFindSCP"), null));
         ext.setSpanningCFindSCPRetrieveAETitles(LdapUtils.stringArray(attrs.get("dcmSpanningCFindSCPRetrieveAET")));
         ext.setSpanningCFindSCPPolicy(LdapUtils.enumValue(
@@ -926,6 +979,9 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
         ext.setExternalRetrieveAEDestination(LdapUtils.stringValue(attrs.get("dcmExternalRetrieveAEDestination"), null));
         ext.setAcceptedMoveDestinations(LdapUtils.stringArray(attrs.get("dcmAcceptedMoveDestination")));
         ext.setValidateCallingAEHostname(LdapUtils.booleanValue(attrs.get("dcmValidateCallingAEHostname"), null));
+        ext.setStoreUpdateDBGroupCommitWindow(toDuration(attrs.get("dcmStoreUpdateDBGroupCommitWindow"), null));
+        ext.setStoreUpdateDBGroupCommitMaxSize(
+                LdapUtils.intValue(attrs.get("dcmStoreUpdateDBGroupCommitMaxSize"), null));
         ext.setHl7PSUSendingApplication(LdapUtils.stringValue(attrs.get("hl7PSUSendingApplication"), null));
         ext.setHl7PSUReceivingApplications(LdapUtils.stringArray(attrs.get("hl7PSUReceivingApplication")));
         ext.setHl7PSUDelay(toDuration(attrs.get("hl7PSUDelay"), null));
@@ -989,6 +1045,8 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
                 aa.getSendPendingCGet(), bb.getSendPendingCGet(), null);
         LdapUtils.storeDiffObject(ldapObj, mods, "dcmSendPendingCMoveInterval",
                 aa.getSendPendingCMoveInterval(), bb.getSendPendingCMoveInterval(), null);
+        LdapUtils.storeDiffObject(ldapObj, mods, "dcmRetrieveStoreAssociations",
+                aa.getRetrieveStoreAssociations(), bb.getRetrieveStoreAssociations(), null);
         LdapUtils.storeDiffObject(ldapObj, mods, "dcmSpanningCFindSCP",
                 aa.getSpanningCFindSCP(), bb.getSpanningCFindSCP(), null);
         LdapUtils.storeDiff(ldapObj, mods, "dcmSpanningCFindSCPRetrieveAET",
@@ -1067,6 +1125,10 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
                 aa.getAcceptedMoveDestinations(), bb.getAcceptedMoveDestinations());
         LdapUtils.storeDiffObject(ldapObj, mods, "dcmValidateCallingAEHostname",
                 aa.getValidateCallingAEHostname(), bb.getValidateCallingAEHostname(), null);
+        LdapUtils.storeDiffObject(ldapObj, mods, "dcmStoreUpdateDBGroupCommitWindow",
+                aa.getStoreUpdateDBGroupCommitWindow(), bb.getStoreUpdateDBGroupCommitWindow(), null);
+        LdapUtils.storeDiffObject(ldapObj, mods, "dcmStoreUpdateDBGroupCommitMaxSize",
+                aa.getStoreUpdateDBGroupCommitMaxSize(), bb.getStoreUpdateDBGroupCommitMaxSize(), null);
         LdapUtils.storeDiffObject(ldapObj, mods, "hl7PSUSendingApplication",
                 aa.getHl7PSUSendingApplication(), bb.getHl7PSUSendingApplication(), null);
         LdapUtils.storeDiff(ldapObj, mods, "hl7PSUReceivingApplication",
@@ -1468,6 +1530,8 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
                 descriptor.getRetrieveCacheStorageID(), null);
         LdapUtils.storeNotDef(ldapObj, attrs, "dcmRetrieveCacheMaxParallel",
                 descriptor.getRetrieveCacheMaxParallel(), 10);
+        LdapUtils.storeNotDef(ldapObj, attrs, "dcmRetrievePrefetchDepth",
+                descriptor.getRetrievePrefetchDepth(), 0);
         return attrs;
     }
 
@@ -1502,6 +1566,8 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
                         LdapUtils.stringValue(attrs.get("dcmRetrieveCacheStorageID"), null));
                 desc.setRetrieveCacheMaxParallel(
                         LdapUtils.intValue(attrs.get("dcmRetrieveCacheMaxParallel"), 10));
+                desc.setRetrievePrefetchDepth(
+                        LdapUtils.intValue(attrs.get("dcmRetrievePrefetchDepth"), 0));
                 arcdev.addStorageDescriptor(desc);
             }
         } finally {
@@ -1569,6 +1635,8 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
                 prev.getRetrieveCacheStorageID(), desc.getRetrieveCacheStorageID(), null);
         LdapUtils.storeDiff(ldapObj, mods, "dcmRetrieveCacheMaxParallel",
                 prev.getRetrieveCacheMaxParallel(), desc.getRetrieveCacheMaxParallel(), 10);
+        LdapUtils.storeDiff(ldapObj, mods, "dcmRetrievePrefetchDepth",
+                prev.getRetrievePrefetchDepth(), desc.getRetrievePrefetchDepth(), 0);
         return mods;
     }
 
@@ -69,9 +69,12 @@ public class ArchiveAEExtension extends AEExtension {
     private String bulkDataSpoolDirectory;
     private String queryRetrieveViewID;
     private Boolean validateCallingAEHostname;
+    private Duration storeUpdateDBGroupCommitWindow;
+    private Integer storeUpdateDBGroupCommitMaxSize;
     private Boolean personNameComponentOrderInsensitiveMatching;
     private Boolean sendPendingCGet;
     private Duration sendPendingCMoveInterval;
+    private Integer retrieveStoreAssociations;
     private String wadoZIPEntryNameFormat;
     private String wadoSR2HtmlTemplateURI;
     private String wadoSR2TextTemplateURI;
@@ -126,6 +129,11 @@ public class ArchiveAEExtension extends AEExtension {
     private final ArrayList<ArchiveAttributeCoercion> attributeCoercions = new ArrayList<>();
     private final ArrayList<StudyRetentionPolicy> studyRetentionPolicies = new ArrayList<>();
     private final ArrayList<StoreAccessControlIDRule> storeAccessControlIDRules = new ArrayList<>();
+    private final RuleCache<ExportRule> exportRuleCache = new RuleCache<>();
+    private final RuleCache<ArchiveCompressionRule> compressionRuleCache = new RuleCache<>();
+    private final RuleCache<ArchiveAttributeCoercion> attributeCoercionCache = new RuleCache<>();
+    private final RuleCache<StudyRetentionPolicy> studyRetentionPolicyCache = new RuleCache<>();
+    private final RuleCache<StoreAccessControlIDRule> storeAccessControlIDRuleCache = new RuleCache<>();
 
     public String getDefaultCharacterSet() {
         return defaultCharacterSet;
@@ -286,6 +294,34 @@ public class ArchiveAEExtension extends AEExtension {
                 : getArchiveDeviceExtension().isValidateCallingAEHostname();
     }
 
+    public Duration getStoreUpdateDBGroupCommitWindow() {
+        return storeUpdateDBGroupCommitWindow;
+    }
+
+    public void setStoreUpdateDBGroupCommitWindow(Duration storeUpdateDBGroupCommitWindow) {
+        this.storeUpdateDBGroupCommitWindow = storeUpdateDBGroupCommitWindow;
+    }
+
+    public Duration storeUpdateDBGroupCommitWindow() {
+        return storeUpdateDBGroupCommitWindow != null
+                ? storeUpdateDBGroupCommitWindow
+                : getArchiveDeviceExtension().getStoreUpdateDBGroupCommitWindow();
+    }
+
+    public Integer getStoreUpdateDBGroupCommitMaxSize() {
+        return storeUpdateDBGroupCommitMaxSize;
+    }
+
+    public void setStoreUpdateDBGroupCommitMaxSize(Integer storeUpdateDBGroupCommitMaxSize) {
+        this.storeUpdateDBGroupCommitMaxSize = storeUpdateDBGroupCommitMaxSize;
+    }
+
+    public int storeUpdateDBGroupCommitMaxSize() {
+        return storeUpdateDBGroupCommitMaxSize != null
+                ? storeUpdateDBGroupCommitMaxSize
+                : getArchiveDeviceExtension().getStoreUpdateDBGroupCommitMaxSize();
+    }
+
     public Boolean getPersonNameComponentOrderInsensitiveMatching() {
         return personNameComponentOrderInsensitiveMatching;
     }
@@ -328,6 +364,20 @@ public class ArchiveAEExtension extends AEExtension {
                 : getArchiveDeviceExtension().getSendPendingCMoveInterval();
     }
 
+    public Integer getRetrieveStoreAssociations() {
+        return retrieveStoreAssociations;
+    }
+
+    public void setRetrieveStoreAssociations(Integer retrieveStoreAssociations) {
+        this.retrieveStoreAssociations = retrieveStoreAssociations;
+    }
+
+    public int retrieveStoreAssociations() {
+        return retrieveStoreAssociations != null
+                ? retrieveStoreAssociations
+                : getArchiveDeviceExtension().getRetrieveStoreAssociations();
+    }
+
     public String getWadoZIPEntryNameFormat() {
         return wadoZIPEntryNameFormat;
     }
@@ -1113,9 +1163,12 @@ public class ArchiveAEExtension extends AEExtension {
         bulkDataSpoolDirectory = aeExt.bulkDataSpoolDirectory;
         queryRetrieveViewID = aeExt.queryRetrieveViewID;
         validateCallingAEHostname = aeExt.validateCallingAEHostname;
+        storeUpdateDBGroupCommitWindow = aeExt.storeUpdateDBGroupCommitWindow;
+        storeUpdateDBGroupCommitMaxSize = aeExt.storeUpdateDBGroupCommitMaxSize;
         personNameComponentOrderInsensitiveMatching = aeExt.personNameComponentOrderInsensitiveMatching;
         sendPendingCGet = aeExt.sendPendingCGet;
         sendPendingCMoveInterval = aeExt.sendPendingCMoveInterval;
+        retrieveStoreAssociations = aeExt.retrieveStoreAssociations;
         wadoSR2HtmlTemplateURI = aeExt.wadoSR2HtmlTemplateURI;
         wadoSR2TextTemplateURI = aeExt.wadoSR2TextTemplateURI;
         wadoCDA2HtmlTemplateURI = aeExt.wadoCDA2HtmlTemplateURI;
@@ -1185,15 +1238,15 @@ public class ArchiveAEExtension extends AEExtension {
     public Map<String, ExportRule> findExportRules(
             String hostName, String sendingAET, String receivingAET, Attributes attrs, Calendar cal) {
         HashMap<String, ExportRule> result = new HashMap<>();
-        for (Collection<ExportRule> rules
-                : new Collection[]{exportRules, getArchiveDeviceExtension().getExportRules() })
-            for (ExportRule rule : rules)
-                if (rule.match(hostName, sendingAET, receivingAET, attrs, cal))
-                    for (String exporterID : rule.getExporterIDs()) {
-                        ExportRule rule1 = result.get(exporterID);
-                        if (rule1 == null || rule1.getEntity().compareTo(rule.getEntity()) > 0)
-                            result.put(exporterID, rule);
-                    }
+        for (ExportRule rule : exportRuleCache.select(exportRules, getArchiveDeviceExtension().getExportRules(),
+                rule -> rule.getConditions().matchAssociation(hostName, sendingAET, receivingAET),
+                hostName, sendingAET, receivingAET))
+            if (rule.match(attrs, cal))
+                for (String exporterID : rule.getExporterIDs()) {
+                    ExportRule rule1 = result.get(exporterID);
+                    if (rule1 == null || rule1.getEntity().compareTo(rule.getEntity()) > 0)
+                        result.put(exporterID, rule);
+                }
         return result;
     }
 
@@ -1210,50 +1263,50 @@ public class ArchiveAEExtension extends AEExtension {
     public ArchiveCompressionRule findCompressionRule(
             String hostName, String sendingAET, String receivingAET, Attributes attrs) {
         ArchiveCompressionRule rule1 = null;
-        for (Collection<ArchiveCompressionRule> rules
-                : new Collection[]{ compressionRules, getArchiveDeviceExtension().getCompressionRules() })
-            for (ArchiveCompressionRule rule : rules)
-                if (rule.match(hostName, sendingAET, receivingAET, attrs))
-                    if (rule1 == null || rule1.getPriority() < rule.getPriority())
-                        rule1 = rule;
+        for (ArchiveCompressionRule rule : compressionRuleCache.select(
+                compressionRules, getArchiveDeviceExtension().getCompressionRules(),
+                rule -> rule.getConditions().matchAssociation(hostName, sendingAET, receivingAET),
+                hostName, sendingAET, receivingAET))
+            if (rule.getConditions().matchAttributes(attrs))
+                if (rule1 == null || rule1.getPriority() < rule.getPriority())
+                    rule1 = rule;
         return rule1;
     }
 
     public ArchiveAttributeCoercion findAttributeCoercion(
             String hostName, String aet, TransferCapability.Role role, Dimse dimse, String sopClass) {
         ArchiveAttributeCoercion coercion1 = null;
-        for (Collection<ArchiveAttributeCoercion> coercions
-                : new Collection[]{ attributeCoercions, getArchiveDeviceExtension().getAttributeCoercions() })
-            for (ArchiveAttributeCoercion coercion : coercions)
-                if (coercion.match(hostName, aet, role, dimse, sopClass))
-                    if (coercion1 == null || coercion1.getPriority() < coercion.getPriority())
-                        coercion1 = coercion;
+        for (ArchiveAttributeCoercion coercion : attributeCoercionCache.select(
+                attributeCoercions, getArchiveDeviceExtension().getAttributeCoercions(),
+                coercion -> coercion.match(hostName, aet, role, dimse, sopClass),
+                hostName, aet, role, dimse, sopClass))
+            if (coercion1 == null || coercion1.getPriority() < coercion.getPriority())
+                coercion1 = coercion;
         return coercion1;
     }
 
     public StudyRetentionPolicy findStudyRetentionPolicy(
             String hostName, String sendingAET, String receivingAET, Attributes attrs) {
         StudyRetentionPolicy policy1 = null;
-        for (Collection<StudyRetentionPolicy> policies
-                : new Collection[]{ studyRetentionPolicies, getArchiveDeviceExtension().getStudyRetentionPolicies() })
-            for (StudyRetentionPolicy policy : policies)
-                if (policy.match(hostName, sendingAET, receivingAET, attrs))
-                    if (policy1 == null || policy1.getPriority() < policy.getPriority())
-                        policy1 = policy;
+        for (StudyRetentionPolicy policy : studyRetentionPolicyCache.select(
+                studyRetentionPolicies, getArchiveDeviceExtension().getStudyRetentionPolicies(),
+                policy -> policy.getConditions().matchAssociation(hostName, sendingAET, receivingAET),
+                hostName, sendingAET, receivingAET))
+            if (policy.getConditions().matchAttributes(attrs))
+                if (policy1 == null || policy1.getPriority() < policy.getPriority())
+                    policy1 = policy;
         return policy1;
     }
 
     public String storeAccessControlID(String hostName, String sendingAET, String receivingAET, Attributes attrs) {
         StoreAccessControlIDRule rule1 = null;
-        for (Collection<StoreAccessControlIDRule> rules : new Collection[]{
-                storeAccessControlIDRules,
-                    getArchiveDeviceExtension().getStoreAccessControlIDRules()
-        }) {
-            for (StoreAccessControlIDRule rule : rules)
-                if (rule.match(hostName, sendingAET, receivingAET, attrs))
-                    if (rule1 == null || rule.getPriority() < rule.getPriority())
-                        rule1 = rule;
-        }
+        for (StoreAccessControlIDRule rule : storeAccessControlIDRuleCache.select(
+                storeAccessControlIDRules, getArchiveDeviceExtension().getStoreAccessControlIDRules(),
+                rule -> rule.getConditions().matchAssociation(hostName, sendingAET, receivingAET),
+                hostName, sendingAET, receivingAET))
+            if (rule.getConditions().matchAttributes(attrs))
+                if (rule1 == null || rule1.getPriority() < rule.getPriority())
+                    rule1 = rule;
         return rule1 != null ? rule1.getStoreAccessControlID() : storeAccessControlID;
     }
 }
@@ -67,6 +67,7 @@ public class ArchiveDeviceExtension extends DeviceExtension {
     public static final String JBOSS_SERVER_TEMP_DIR = "${jboss.server.temp.dir}";
     public static final String DEFAULT_WADO_ZIP_ENTRY_NAME_FORMAT =
             "DICOM/{0020000D,hash}/{0020000E,hash}/{00080018,hash}";
+    public static final String DEFAULT_RETRIEVE_PREFETCH_BUFFER_SIZE = "64MB";
 
     private String defaultCharacterSet;
     private String fuzzyAlgorithmClass;
@@ -74,6 +75,7 @@ public class ArchiveDeviceExtension extends DeviceExtension {
     private Duration seriesMetadataDelay;
     private Duration seriesMetadataPollingInterval;
     private int seriesMetadataFetchSize = 100;
+    private int seriesMetadataThreads = 1;
     private boolean purgeInstanceRecords;
     private Duration purgeInstanceRecordsDelay;
     private Duration purgeInstanceRecordsPollingInterval;
@@ -86,6 +88,9 @@ public class ArchiveDeviceExtension extends DeviceExtension {
     private boolean validateCallingAEHostname = false;
     private boolean sendPendingCGet = false;
     private Duration sendPendingCMoveInterval;
+    private int retrieveStoreAssociations = 1;
+    private String retrievePrefetchBufferSize = DEFAULT_RETRIEVE_PREFETCH_BUFFER_SIZE;
+    private long retrievePrefetchBufferSizeInBytes = BinaryPrefix.parse(DEFAULT_RETRIEVE_PREFETCH_BUFFER_SIZE);
     private boolean personNameComponentOrderInsensitiveMatching = false;
     private int queryFetchSize = 100;
     private int queryMaxNumberOfResults = 0;
@@ -118,10 +123,12 @@ public class ArchiveDeviceExtension extends DeviceExtension {
     private String alternativeCMoveSCP;
     private Duration exportTaskPollingInterval;
     private int exportTaskFetchSize = 5;
+    private Duration exportTaskCoalescingInterval;
     private Duration deleteRejectedPollingInterval;
     private int deleteRejectedFetchSize = 100;
     private Duration purgeStoragePollingInterval;
     private int purgeStorageFetchSize = 100;
+    private int purgeStorageThreads = 1;
     private int deleteStudyBatchSize = 10;
     private boolean deletePatientOnDeleteLastStudy = false;
     private Duration maxAccessTimeStaleness;
@@ -132,6 +139,7 @@ public class ArchiveDeviceExtension extends DeviceExtension {
     private Duration auditPollingInterval;
     private Duration auditAggregateDuration;
     private String stowSpoolDirectory = JBOSS_SERVER_TEMP_DIR;
+    private int stowMaxParallelism = 1;
     private String wadoSpoolDirectory = JBOSS_SERVER_TEMP_DIR;
     private Duration purgeQueueMessagePollingInterval;
     private Duration purgeStgCmtPollingInterval;
@@ -156,6 +164,8 @@ public class ArchiveDeviceExtension extends DeviceExtension {
     private int mergeMWLCacheSize = 10;
     private int storeUpdateDBMaxRetries = 1;
     private int storeUpdateDBMaxRetryDelay = 1000;
+    private Duration storeUpdateDBGroupCommitWindow;
+    private int storeUpdateDBGroupCommitMaxSize = 100;
     private AllowRejectionForDataRetentionPolicyExpired allowRejectionForDataRetentionPolicyExpired =
             AllowRejectionForDataRetentionPolicyExpired.EXPIRED_UNSET;
     private AcceptMissingPatientID acceptMissingPatientID = AcceptMissingPatientID.CREATE;
@@ -181,6 +191,7 @@ public class ArchiveDeviceExtension extends DeviceExtension {
     private boolean hl7TrackChangedPatientID = true;
     private boolean auditSoftwareConfigurationVerbose = false;
     private boolean hl7UseNullValue = false;
+    private boolean hl7UseCompiledMapping = false;
     private String invokeImageDisplayPatientURL;
     private String invokeImageDisplayStudyURL;
     private String[] hl7ADTReceivingApplication = {};
@@ -337,6 +348,14 @@ public class ArchiveDeviceExtension extends DeviceExtension {
         this.seriesMetadataFetchSize =  greaterZero(seriesMetadataFetchSize, "seriesMetadataFetchSize");
     }
 
+    public int getSeriesMetadataThreads() {
+        return seriesMetadataThreads;
+    }
+
+    public void setSeriesMetadataThreads(int seriesMetadataThreads) {
+        this.seriesMetadataThreads = greaterZero(seriesMetadataThreads, "seriesMetadataThreads");
+    }
+
     public boolean isPurgeInstanceRecords() {
         return purgeInstanceRecords;
     }
@@ -409,6 +428,27 @@ public class ArchiveDeviceExtension extends DeviceExtension {
         this.sendPendingCMoveInterval = sendPendingCMoveInterval;
     }
 
+    public int getRetrieveStoreAssociations() {
+        return retrieveStoreAssociations;
+    }
+
+    public void setRetrieveStoreAssociations(int retrieveStoreAssociations) {
+        this.retrieveStoreAssociations = greaterZero(retrieveStoreAssociations, "retrieveStoreAssociations");
+    }
+
+    public String getRetrievePrefetchBufferSize() {
+        return retrievePrefetchBufferSize;
+    }
+
+    public void setRetrievePrefetchBufferSize(String retrievePrefetchBufferSize) {
+        this.retrievePrefetchBufferSizeInBytes = BinaryPrefix.parse(retrievePrefetchBufferSize);
+        this.retrievePrefetchBufferSize = retrievePrefetchBufferSize;
+    }
+
+    public long getRetrievePrefetchBufferSizeInBytes() {
+        return retrievePrefetchBufferSizeInBytes;
+    }
+
     public String[] getWadoSupportedSRClasses() {
         return wadoSupportedSRClasses.toArray(StringUtils.EMPTY_STRING);
     }
@@ -670,6 +710,14 @@ public class ArchiveDeviceExtension extends DeviceExtension {
         this.exportTaskPollingInterval = exportTaskPollingInterval;
     }
 
+    public Duration getExportTaskCoalescingInterval() {
+        return exportTaskCoalescingInterval;
+    }
+
+    public void setExportTaskCoalescingInterval(Duration exportTaskCoalescingInterval) {
+        this.exportTaskCoalescingInterval = exportTaskCoalescingInterval;
+    }
+
     public Duration getDeleteRejectedPollingInterval() {
         return deleteRejectedPollingInterval;
     }
@@ -702,6 +750,14 @@ public class ArchiveDeviceExtension extends DeviceExtension {
         this.purgeStorageFetchSize = greaterZero(purgeStorageFetchSize, "purgeStorageFetchSize");
     }
 
+    public int getPurgeStorageThreads() {
+        return purgeStorageThreads;
+    }
+
+    public void setPurgeStorageThreads(int purgeStorageThreads) {
+        this.purgeStorageThreads = greaterZero(purgeStorageThreads, "purgeStorageThreads");
+    }
+
     public int getDeleteStudyBatchSize() {
         return deleteStudyBatchSize;
     }
@@ -799,6 +855,14 @@ public class ArchiveDeviceExtension extends DeviceExtension {
         this.stowSpoolDirectory = Objects.requireNonNull(stowSpoolDirectory, "StowSpoolDirectory");
     }
 
+    public int getStowMaxParallelism() {
+        return stowMaxParallelism;
+    }
+
+    public void setStowMaxParallelism(int stowMaxParallelism) {
+        this.stowMaxParallelism = greaterZero(stowMaxParallelism, "stowMaxParallelism");
+    }
+
     public String getWadoSpoolDirectory() {
         return wadoSpoolDirectory;
     }
@@ -1001,6 +1065,23 @@ public class ArchiveDeviceExtension extends DeviceExtension {
         this.storeUpdateDBMaxRetryDelay = storeUpdateDBMaxRetryDelay;
     }
 
+    public Duration getStoreUpdateDBGroupCommitWindow() {
+        return storeUpdateDBGroupCommitWindow;
+    }
+
+    public void setStoreUpdateDBGroupCommitWindow(Duration storeUpdateDBGroupCommitWindow) {
+        this.storeUpdateDBGroupCommitWindow = storeUpdateDBGroupCommitWindow;
+    }
+
+    public int getStoreUpdateDBGroupCommitMaxSize() {
+        return storeUpdateDBGroupCommitMaxSize;
+    }
+
+    public void setStoreUpdateDBGroupCommitMaxSize(int storeUpdateDBGroupCommitMaxSize) {
+        this.storeUpdateDBGroupCommitMaxSize =
+                greaterZero(storeUpdateDBGroupCommitMaxSize, "storeUpdateDBGroupCommitMaxSize");
+    }
+
     public AllowRejectionForDataRetentionPolicyExpired getAllowRejectionForDataRetentionPolicyExpired() {
         return allowRejectionForDataRetentionPolicyExpired;
     }
@@ -1719,6 +1800,14 @@ public class ArchiveDeviceExtension extends DeviceExtension {
         this.hl7UseNullValue = hl7UseNullValue;
     }
 
+    public boolean isHl7UseCompiledMapping() {
+        return hl7UseCompiledMapping;
+    }
+
+    public void setHl7UseCompiledMapping(boolean hl7UseCompiledMapping) {
+        this.hl7UseCompiledMapping = hl7UseCompiledMapping;
+    }
+
     public int getQueueTasksFetchSize() {
         return queueTasksFetchSize;
     }
@@ -1800,6 +1889,7 @@ public class ArchiveDeviceExtension extends DeviceExtension {
         seriesMetadataDelay = arcdev.seriesMetadataDelay;
         seriesMetadataPollingInterval = arcdev.seriesMetadataPollingInterval;
         seriesMetadataFetchSize = arcdev.seriesMetadataFetchSize;
+        seriesMetadataThreads = arcdev.seriesMetadataThreads;
         purgeInstanceRecords = arcdev.purgeInstanceRecords;
         purgeInstanceRecordsDelay = arcdev.purgeInstanceRecordsDelay;
         purgeInstanceRecordsPollingInterval = arcdev.purgeInstanceRecordsPollingInterval;
@@ -1813,6 +1903,9 @@ public class ArchiveDeviceExtension extends DeviceExtension {
         validateCallingAEHostname = arcdev.validateCallingAEHostname;
         sendPendingCGet = arcdev.sendPendingCGet;
         sendPendingCMoveInterval = arcdev.sendPendingCMoveInterval;
+        retrieveStoreAssociations = arcdev.retrieveStoreAssociations;
+        retrievePrefetchBufferSize = arcdev.retrievePrefetchBufferSize;
+        retrievePrefetchBufferSizeInBytes = arcdev.retrievePrefetchBufferSizeInBytes;
         wadoSupportedSRClasses.clear();
         wadoSupportedSRClasses.addAll(arcdev.wadoSupportedSRClasses);
         wadoZIPEntryNameFormat = arcdev.wadoZIPEntryNameFormat;
@@ -1847,10 +1940,12 @@ public class ArchiveDeviceExtension extends DeviceExtension {
         alternativeCMoveSCP = arcdev.alternativeCMoveSCP;
         exportTaskPollingInterval = arcdev.exportTaskPollingInterval;
         exportTaskFetchSize = arcdev.exportTaskFetchSize;
+        exportTaskCoalescingInterval = arcdev.exportTaskCoalescingInterval;
         deleteRejectedPollingInterval = arcdev.deleteRejectedPollingInterval;
         deleteRejectedFetchSize = arcdev.deleteRejectedFetchSize;
         purgeStoragePollingInterval = arcdev.purgeStoragePollingInterval;
         purgeStorageFetchSize = arcdev.purgeStorageFetchSize;
+        purgeStorageThreads = arcdev.purgeStorageThreads;
         deleteStudyBatchSize = arcdev.deleteStudyBatchSize;
         deletePatientOnDeleteLastStudy = arcdev.deletePatientOnDeleteLastStudy;
         maxAccessTimeStaleness = arcdev.maxAccessTimeStaleness;
@@ -1861,6 +1956,7 @@ public class ArchiveDeviceExtension extends DeviceExtension {
         auditPollingInterval = arcdev.auditPollingInterval;
         auditAggregateDuration = arcdev.auditAggregateDuration;
         stowSpoolDirectory = arcdev.stowSpoolDirectory;
+        stowMaxParallelism = arcdev.stowMaxParallelism;
         wadoSpoolDirectory = arcdev.wadoSpoolDirectory;
         hl7LogFilePattern = arcdev.hl7LogFilePattern;
         hl7ErrorLogFilePattern = arcdev.hl7ErrorLogFilePattern;
@@ -1885,6 +1981,8 @@ public class ArchiveDeviceExtension extends DeviceExtension {
         mergeMWLCacheSize = arcdev.mergeMWLCacheSize;
         storeUpdateDBMaxRetries = arcdev.storeUpdateDBMaxRetries;
         storeUpdateDBMaxRetryDelay = arcdev.storeUpdateDBMaxRetryDelay;
+        storeUpdateDBGroupCommitWindow = arcdev.storeUpdateDBGroupCommitWindow;
+        storeUpdateDBGroupCommitMaxSize = arcdev.storeUpdateDBGroupCommitMaxSize;
         allowRejectionForDataRetentionPolicyExpired = arcdev.allowRejectionForDataRetentionPolicyExpired;
         acceptMissingPatientID = arcdev.acceptMissingPatientID;
         allowDeleteStudyPermanently = arcdev.allowDeleteStudyPermanently;
@@ -1917,6 +2015,7 @@ public class ArchiveDeviceExtension extends DeviceExtension {
         auditUnknownPatientID = arcdev.auditUnknownPatientID;
         auditSoftwareConfigurationVerbose = arcdev.auditSoftwareConfigurationVerbose;
         hl7UseNullValue = arcdev.hl7UseNullValue;
+        hl7UseCompiledMapping = arcdev.hl7UseCompiledMapping;
         queueTasksFetchSize = arcdev.queueTasksFetchSize;
         rejectionNoteStorageAET = arcdev.rejectionNoteStorageAET;
         uiConfigurationDeviceName = arcdev.uiConfigurationDeviceName;
@@ -4,6 +4,7 @@ import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.Sequence;
 import org.dcm4che3.util.TagUtils;
 
+import java.util.ArrayList;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.regex.Pattern;
@@ -18,7 +19,11 @@ public class Conditions {
     public static final String SENDING_APPLICATION_ENTITY_TITLE = "SendingApplicationEntityTitle";
     public static final String SENDING_HOSTNAME = "SendingHostname";
 
+    private static final Condition[] NO_CONDITIONS = {};
+
     private final Map<String, Pattern> map = new TreeMap<>();
+    private Condition[] associationConditions = NO_CONDITIONS;
+    private Condition[] attributeConditions = NO_CONDITIONS;
 
     public Conditions(String... props) {
          for (String s : props) {
@@ -56,6 +61,18 @@ public class Conditions {
     public void setCondition(String tagPath, String value) {
         Pattern pattern = Pattern.compile(value);
         map.put(tagPath, pattern);
+        compile();
+    }
+
+    private void compile() {
+        ArrayList<Condition> association = new ArrayList<>();
+        ArrayList<Condition> attribute = new ArrayList<>();
+        for (Map.Entry<String, Pattern> entry : map.entrySet()) {
+            Condition condition = new Condition(entry.getKey(), entry.getValue());
+            (condition.isAssociationCondition() ? association : attribute).add(condition);
+        }
+        associationConditions = association.toArray(NO_CONDITIONS);
+        attributeConditions = attribute.toArray(NO_CONDITIONS);
     }
 
     public Map<String,Pattern> getMap() {
@@ -63,59 +80,65 @@ public class Conditions {
     }
 
     public boolean match(String hostName, String sendingAET, String receivingAET, Attributes attrs) {
-        for (Map.Entry<String, Pattern> entry : map.entrySet()) {
-            String tagPath = entry.getKey();
-            Pattern pattern = entry.getValue();
-            boolean ne = tagPath.endsWith("!");
-            if (ne)
-                tagPath = tagPath.substring(0, tagPath.length()-1);
-            switch (tagPath) {
+        return matchAssociation(hostName, sendingAET, receivingAET) && matchAttributes(attrs);
+    }
+
+    /**
+     * Evaluates only conditions on the Sending Hostname, the Sending and the Receiving AE Title, which do not change
+     * within one association, so callers may cache the result per association.
+     */
+    public boolean matchAssociation(String hostName, String sendingAET, String receivingAET) {
+        for (Condition condition : associationConditions) {
+            String value;
+            switch (condition.name) {
                 case RECEIVING_APPLICATION_ENTITY_TITLE:
-                    if (ne ? (receivingAET != null && pattern.matcher(receivingAET).matches())
-                           : (receivingAET == null || !pattern.matcher(receivingAET).matches()))
-                        return false;
+                    value = receivingAET;
                     break;
                 case SENDING_APPLICATION_ENTITY_TITLE:
-                    if (ne ? (sendingAET != null && pattern.matcher(sendingAET).matches())
-                           : (sendingAET == null || !pattern.matcher(sendingAET).matches()))
-                        return false;
-                    break;
-                case SENDING_HOSTNAME:
-                    if (ne ? (hostName != null && pattern.matcher(hostName).matches())
-                           : (hostName == null || !pattern.matcher(hostName).matches()))
-                        return false;
+                    value = sendingAET;
                     break;
                 default:
-                    if (!match(attrs, TagUtils.parseTagPath(tagPath), pattern, 0, ne))
-                        return false;
+                    value = hostName;
             }
+            if (condition.ne ? (value != null && condition.matches(value))
+                             : (value == null || !condition.matches(value)))
+                return false;
         }
         return true;
     }
 
-    private boolean match(Attributes attrs, int[] tagPath, Pattern pattern, int level, boolean ne) {
+    /**
+     * Evaluates only conditions on attributes of the DICOM object.
+     */
+    public boolean matchAttributes(Attributes attrs) {
+        for (Condition condition : attributeConditions)
+            if (!match(attrs, condition.tagPath(), condition, 0, condition.ne))
+                return false;
+        return true;
+    }
+
+    public boolean hasAttributeConditions() {
+        return attributeConditions.length > 0;
+    }
+
+    private boolean match(Attributes attrs, int[] tagPath, Condition condition, int level, boolean ne) {
         if (level < tagPath.length-1) {
             Sequence seq = attrs.getSequence(tagPath[level]);
             if (seq != null)
                 for (Attributes item : seq)
-                    if (match(item, tagPath, pattern, level+1, false))
+                    if (match(item, tagPath, condition, level+1, false))
                         return true;
         } else {
             String[] ss = attrs.getStrings(tagPath[level]);
-            if (ss != null)
-                for (String s : ss)
-                    if (pattern != null && s != null && pattern.matcher(s).matches() && !ne)
-                        return true;
-                    else if (pattern == null || s == null)
-                        return false;
-                    else if (ne && !pattern.matcher(s).matches())
-                        return true;
-//            if (pattern.matcher(s).matches())
-//                        return true;
-            if (ss == null && ne)
-                return true;
-            if (ss == null && !ne)
-                return false;
+            if (ss == null)
+                return ne;
+
+            for (String s : ss) {
+                if (s == null)
+                    return false;
+                if (condition.matches(s) != ne)
+                    return true;
+            }
         }
         return false;
     }
@@ -132,4 +155,58 @@ public class Conditions {
 
         return toString().equals(obj.toString());
     }
+
+    private static final class Condition {
+        final String name;
+        final boolean ne;
+        final Pattern pattern;
+        final String literal;
+        final int[] tagPath;
+
+        Condition(String key, Pattern pattern) {
+            this.ne = key.endsWith("!");
+            this.name = ne ? key.substring(0, key.length()-1) : key;
+            this.pattern = pattern;
+            this.literal = isLiteral(pattern) ? pattern.pattern() : null;
+            this.tagPath = isAssociationCondition() ? null : parseTagPath(name);
+        }
+
+        boolean isAssociationCondition() {
+            switch (name) {
+                case RECEIVING_APPLICATION_ENTITY_TITLE:
+                case SENDING_APPLICATION_ENTITY_TITLE:
+                case SENDING_HOSTNAME:
+                    return true;
+            }
+            return false;
+        }
+
+        boolean matches(String s) {
+            return literal != null ? literal.equals(s) : pattern.matcher(s).matches();
+        }
+
+        int[] tagPath() {
+            // invalid tag paths are reported on evaluation, as before compilation of conditions
+            return tagPath != null ? tagPath : TagUtils.parseTagPath(name);
+        }
+
+        private static int[] parseTagPath(String tagPath) {
+            try {
+                return TagUtils.parseTagPath(tagPath);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        private static boolean isLiteral(Pattern pattern) {
+            if (pattern.flags() != 0)
+                return false;
+
+            String regex = pattern.pattern();
+            for (int i = 0; i < regex.length(); i++)
+                if ("\\^$.|?*+()[]{}".indexOf(regex.charAt(i)) >= 0)
+                    return false;
+            return true;
+        }
+    }
 }
@@ -93,6 +93,10 @@ public class ExportRule {
         return match(cal) && conditions.match(hostName, sendingAET, receivingAET, attrs);
     }
 
+    public boolean match(Attributes attrs, Calendar cal) {
+        return match(cal) && conditions.matchAttributes(attrs);
+    }
+
     public boolean isExportPreviousEntity() {
         return exportPreviousEntity;
     }
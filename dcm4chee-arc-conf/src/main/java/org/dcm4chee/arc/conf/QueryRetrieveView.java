@@ -97,8 +97,15 @@ public class QueryRetrieveView {
                 : !containsCode(showInstancesRejectedByCode, codeItem);
     }
 
+    public boolean hideRejectionNote(Code conceptNameCode) {
+        return containsCode(hideRejectionNotesWithCode, conceptNameCode);
+    }
+
     private boolean containsCode(Code[] codes, Attributes codeItem) {
-        Code code = new Code(codeItem);
+        return containsCode(codes, new Code(codeItem));
+    }
+
+    private static boolean containsCode(Code[] codes, Code code) {
         for (Code code1 : codes) {
             if (code1.equalsIgnoreMeaning(code))
                 return true;
@@ -0,0 +1,111 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.conf;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Memoizes the rules of an Archive AE and its Device which are selected by association specific parameters, so they
+ * are only evaluated once per association and not for each received object. Cached selections are dropped, as soon
+ * as the configured rules differ from the rules from which they were selected.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+class RuleCache<T> {
+
+    private static final int MAX_ENTRIES = 1000;
+
+    private volatile Snapshot<T> snapshot = new Snapshot<>(new Object[0]);
+
+    @SuppressWarnings("unchecked")
+    List<T> select(Collection<T> aeRules, Collection<T> deviceRules, Predicate<T> filter, Object... key) {
+        Snapshot<T> snapshot = snapshot(aeRules, deviceRules);
+        List<Object> cacheKey = Arrays.asList(key);
+        List<T> selected = snapshot.selected.get(cacheKey);
+        if (selected == null) {
+            selected = new ArrayList<>();
+            for (Object rule : snapshot.rules)
+                if (filter.test((T) rule))
+                    selected.add((T) rule);
+            if (snapshot.selected.size() >= MAX_ENTRIES)
+                snapshot.selected.clear();
+            snapshot.selected.put(cacheKey, selected);
+        }
+        return selected;
+    }
+
+    private Snapshot<T> snapshot(Collection<T> aeRules, Collection<T> deviceRules) {
+        Snapshot<T> snapshot = this.snapshot;
+        if (!snapshot.isSnapshotOf(aeRules, deviceRules)) {
+            ArrayList<T> rules = new ArrayList<>(aeRules.size() + deviceRules.size());
+            rules.addAll(aeRules);
+            rules.addAll(deviceRules);
+            this.snapshot = snapshot = new Snapshot<>(rules.toArray());
+        }
+        return snapshot;
+    }
+
+    private static class Snapshot<T> {
+        final Object[] rules;
+        final Map<List<Object>, List<T>> selected = new ConcurrentHashMap<>();
+
+        Snapshot(Object[] rules) {
+            this.rules = rules;
+        }
+
+        boolean isSnapshotOf(Collection<T> aeRules, Collection<T> deviceRules) {
+            if (rules.length != aeRules.size() + deviceRules.size())
+                return false;
+
+            int i = 0;
+            for (T rule : aeRules)
+                if (rules[i++] != rule)
+                    return false;
+            for (T rule : deviceRules)
+                if (rules[i++] != rule)
+                    return false;
+            return true;
+        }
+    }
+}
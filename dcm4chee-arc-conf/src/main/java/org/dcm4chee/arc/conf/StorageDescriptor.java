@@ -13,6 +13,9 @@ import java.util.*;
  * @since Jul 2015
  */
 public final class StorageDescriptor {
+    public static final String MULTIPART_UPLOAD_PART_SIZE = "multipartUploadPartSize";
+    public static final int MIN_MULTIPART_UPLOAD_PART_SIZE = 5 * 1024 * 1024;
+
     private String storageID;
     private String storageURIStr;
     private URI storageURI;
@@ -22,6 +25,7 @@ public final class StorageDescriptor {
     private String exportStorageID;
     private String retrieveCacheStorageID;
     private int retrieveCacheStorageMaxParallel = 10;
+    private int retrievePrefetchDepth;
     private String externalRetrieveAETitle;
     private boolean readOnly;
     private boolean noDeletionConstraint;
@@ -118,6 +122,16 @@ public final class StorageDescriptor {
         this.retrieveCacheStorageMaxParallel = retrieveCacheStorageMaxParallel;
     }
 
+    public int getRetrievePrefetchDepth() {
+        return retrievePrefetchDepth;
+    }
+
+    public void setRetrievePrefetchDepth(int retrievePrefetchDepth) {
+        if (retrievePrefetchDepth < 0)
+            throw new IllegalArgumentException("retrievePrefetchDepth: " + retrievePrefetchDepth);
+        this.retrievePrefetchDepth = retrievePrefetchDepth;
+    }
+
     public boolean isReadOnly() {
         return readOnly;
     }
@@ -168,9 +182,23 @@ public final class StorageDescriptor {
     }
 
     public void setProperty(String name, String value) {
+        if (name.equals(MULTIPART_UPLOAD_PART_SIZE))
+            checkMultipartUploadPartSize(value);
         properties.put(name, value);
     }
 
+    private static void checkMultipartUploadPartSize(String value) {
+        int partSize;
+        try {
+            partSize = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(MULTIPART_UPLOAD_PART_SIZE + ": " + value);
+        }
+        if (partSize < MIN_MULTIPART_UPLOAD_PART_SIZE)
+            throw new IllegalArgumentException(MULTIPART_UPLOAD_PART_SIZE + ": " + value
+                    + " - less than minimal part size " + MIN_MULTIPART_UPLOAD_PART_SIZE + " of S3 multipart uploads");
+    }
+
     public String getProperty(String name, String defValue) {
         String value = properties.get(name);
         return value != null ? value : defValue;
@@ -91,6 +91,48 @@ public class ConditionsTest {
         assertTrue(notmodality.match(null, null, null, empty));
     }
 
+    @Test
+    public void matchRegex() throws Exception {
+        Conditions literal = new Conditions("Modality=CT");
+        assertFalse(literal.match(null, null, null, modality("CTX")));
+        Conditions regex = new Conditions("Modality=CT|MR");
+        assertTrue(regex.match(null, null, null, modality("CT")));
+        assertTrue(regex.match(null, null, null, modality("MR")));
+        assertFalse(regex.match(null, null, null, modality("CR")));
+        Conditions wildcard = new Conditions("SendingApplicationEntityTitle=STORE.*");
+        assertTrue(wildcard.match(null, "STORESCU", null, new Attributes()));
+        assertFalse(wildcard.match(null, "DCMQRSCP", null, new Attributes()));
+    }
+
+    @Test
+    public void matchSequence() throws Exception {
+        Attributes attrs = new Attributes(1);
+        Attributes item = new Attributes(1);
+        item.setString(Tag.CodeValue, VR.SH, "113001");
+        attrs.newSequence(Tag.ConceptNameCodeSequence, 1).add(item);
+        assertTrue(new Conditions("ConceptNameCodeSequence.CodeValue=113001").match(null, null, null, attrs));
+        assertFalse(new Conditions("ConceptNameCodeSequence.CodeValue=113002").match(null, null, null, attrs));
+        assertFalse(new Conditions("ConceptNameCodeSequence.CodeValue=113001")
+                .match(null, null, null, new Attributes()));
+    }
+
+    @Test
+    public void matchAssociationAndAttributes() throws Exception {
+        Conditions conditions = new Conditions(
+                "SendingApplicationEntityTitle=STORESCU",
+                "ReceivingApplicationEntityTitle!=DCMQRSCP",
+                "Modality=CT");
+        assertTrue(conditions.hasAttributeConditions());
+        assertTrue(conditions.matchAssociation(null, "STORESCU", "DCM4CHEE"));
+        assertFalse(conditions.matchAssociation(null, "STORESCU", "DCMQRSCP"));
+        assertFalse(conditions.matchAssociation(null, "DCMQRSCP", "DCM4CHEE"));
+        assertTrue(conditions.matchAttributes(modality("CT")));
+        assertFalse(conditions.matchAttributes(modality("MR")));
+        assertTrue(conditions.match(null, "STORESCU", "DCM4CHEE", modality("CT")));
+        assertFalse(conditions.match(null, "STORESCU", "DCM4CHEE", modality("MR")));
+        assertFalse(new Conditions("SendingHostname=storescu").hasAttributeConditions());
+    }
+
     private Attributes modality(String modality) {
         Attributes attrs = new Attributes(1);
         attrs.setString(Tag.Modality, VR.CS, modality);
@@ -156,6 +156,19 @@ public class DeletionServiceEJB {
         em.remove(em.merge(location));
     }
 
+    public void updateLocationStatus(Collection<Long> pks, Location.Status status) {
+        em.createNamedQuery(Location.SET_STATUS_BY_PKS)
+                .setParameter(1, pks)
+                .setParameter(2, status)
+                .executeUpdate();
+    }
+
+    public void removeLocations(Collection<Long> pks) {
+        em.createNamedQuery(Location.DELETE_BY_PKS)
+                .setParameter(1, pks)
+                .executeUpdate();
+    }
+
     public void removeMetadata(Metadata metadata) {
         em.remove(em.merge(metadata));
     }
@@ -238,21 +251,22 @@ public class DeletionServiceEJB {
 
     private void deleteInstances(Collection<Instance> insts) {
         HashMap<Long, Series> series = new HashMap<>();
+        HashMap<Long, Study> studies = new HashMap<>();
         for (Instance inst : insts) {
             Series ser = inst.getSeries();
             if (!series.containsKey(ser.getPk())) {
                 series.put(ser.getPk(), ser);
+                Study study = ser.getStudy();
+                if (!studies.containsKey(study.getPk())) {
+                    studies.put(study.getPk(), study);
+                    deleteStudyQueryAttributes(study);
+                }
                 deleteSeriesQueryAttributes(ser);
             }
             em.remove(inst);
         }
-        HashMap<Long, Study> studies = new HashMap<>();
         for (Series ser : series.values()) {
             Study study = ser.getStudy();
-            if (!studies.containsKey(study.getPk())) {
-                studies.put(study.getPk(), study);
-                deleteStudyQueryAttributes(study);
-            }
             if (countInstancesOfSeries(ser) == 0) {
                 if (ser.getMetadata() != null)
                     ser.getMetadata().setStatus(Metadata.Status.TO_DELETE);
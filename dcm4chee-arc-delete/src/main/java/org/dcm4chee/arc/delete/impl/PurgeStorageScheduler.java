@@ -47,6 +47,7 @@ import org.dcm4che3.json.JSONReader;
 import org.dcm4che3.net.ApplicationEntity;
 import org.dcm4che3.net.Device;
 import org.dcm4che3.util.SafeClose;
+import org.dcm4che3.util.StringUtils;
 import org.dcm4chee.arc.Scheduler;
 import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
 import org.dcm4chee.arc.conf.BinaryPrefix;
@@ -60,6 +61,7 @@ import org.dcm4chee.arc.entity.Study;
 import org.dcm4chee.arc.storage.ReadContext;
 import org.dcm4chee.arc.storage.Storage;
 import org.dcm4chee.arc.storage.StorageFactory;
+import org.dcm4chee.arc.storage.ZipIndex;
 import org.dcm4chee.arc.store.StoreService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -73,7 +75,11 @@ import javax.persistence.PersistenceContext;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.file.NoSuchFileException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.zip.ZipInputStream;
 
 /**
@@ -104,6 +110,9 @@ public class PurgeStorageScheduler extends Scheduler {
     @Inject
     private Event<StudyDeleteContext> studyDeletedEvent;
 
+    // Studies with objects on several Storages are found by the purge of each of these Storages
+    private final Set<Long> studiesInProcess = ConcurrentHashMap.newKeySet();
+
     protected PurgeStorageScheduler() {
         super(Mode.scheduleWithFixedDelay);
     }
@@ -125,33 +134,61 @@ public class PurgeStorageScheduler extends Scheduler {
     @Override
     protected void execute() {
         ArchiveDeviceExtension arcDev = arcdev();
-        int fetchSize = arcDev.getPurgeStorageFetchSize();
-        int deleteStudyBatchSize = arcDev.getDeleteStudyBatchSize();
-        boolean deletePatient = arcDev.isDeletePatientOnDeleteLastStudy();
+        int threads = arcDev.getPurgeStorageThreads();
+        Semaphore semaphore = new Semaphore(threads);
         for (StorageDescriptor desc : arcDev.getStorageDescriptors()) {
             if (desc.isReadOnly())
                 continue;
 
-            long minUsableSpace = desc.hasDeleterThresholds() ? desc.getDeleterThresholdMinUsableSpace(Calendar.getInstance()) : -1L;
-            long deleteSize = deleteSize(desc, minUsableSpace);
-            if (deleteSize > 0L) {
-                LOG.info("Usable Space on {} below {} - start deleting {}", desc,
-                        BinaryPrefix.formatDecimal(minUsableSpace), BinaryPrefix.formatDecimal(deleteSize));
+            if (getPollingInterval() == null)
+                break;
+
+            if (threads == 1) {
+                purgeStorage(arcDev, desc);
+                continue;
             }
-            for (int i = 0; i == 0 || deleteSize > 0L; i++) {
-                if (getPollingInterval() == null)
-                    return;
-                if (deleteSize > 0L) {
-                    if (deleteStudies(desc, deleteStudyBatchSize, deletePatient) == 0)
-                        deleteSize = 0L;
-                }
-                while (deleteNextObjectsFromStorage(desc, fetchSize)) ;
-                if (deleteSize > 0L) {
-                    deleteSize = deleteSize(desc, minUsableSpace);
-                }
-            } while (deleteSize > 0L);
-            while (deleteSeriesMetadata(desc, fetchSize));
+            semaphore.acquireUninterruptibly();
+            try {
+                device.execute(() -> {
+                    try {
+                        purgeStorage(arcDev, desc);
+                    } catch (Exception e) {
+                        LOG.warn("Failed to purge {}:\n", desc, e);
+                    } finally {
+                        semaphore.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                semaphore.release();
+                purgeStorage(arcDev, desc);
+            }
+        }
+        semaphore.acquireUninterruptibly(threads);
+    }
+
+    private void purgeStorage(ArchiveDeviceExtension arcDev, StorageDescriptor desc) {
+        int fetchSize = arcDev.getPurgeStorageFetchSize();
+        int deleteStudyBatchSize = arcDev.getDeleteStudyBatchSize();
+        boolean deletePatient = arcDev.isDeletePatientOnDeleteLastStudy();
+        long minUsableSpace = desc.hasDeleterThresholds() ? desc.getDeleterThresholdMinUsableSpace(Calendar.getInstance()) : -1L;
+        long deleteSize = deleteSize(desc, minUsableSpace);
+        if (deleteSize > 0L) {
+            LOG.info("Usable Space on {} below {} - start deleting {}", desc,
+                    BinaryPrefix.formatDecimal(minUsableSpace), BinaryPrefix.formatDecimal(deleteSize));
         }
+        for (int i = 0; i == 0 || deleteSize > 0L; i++) {
+            if (getPollingInterval() == null)
+                return;
+            if (deleteSize > 0L) {
+                if (deleteStudies(desc, deleteStudyBatchSize, deletePatient) == 0)
+                    deleteSize = 0L;
+            }
+            while (deleteNextObjectsFromStorage(desc, fetchSize)) ;
+            if (deleteSize > 0L) {
+                deleteSize = deleteSize(desc, minUsableSpace);
+            }
+        } while (deleteSize > 0L);
+        while (deleteSeriesMetadata(desc, fetchSize));
     }
 
     private long deleteSize(StorageDescriptor desc, long minUsableSpace) {
@@ -167,26 +204,42 @@ public class PurgeStorageScheduler extends Scheduler {
     }
 
     private int deleteStudies(StorageDescriptor desc, int fetchSize, boolean deletePatient) {
-        List<Long> studyPks;
+        List<Long> claimed = new ArrayList<>();
         try {
-           studyPks = findStudiesForDeletion(desc, fetchSize);
-        } catch (Exception e) {
-            LOG.warn("Query for studies for deletion on {} failed", desc, e);
-            return 0;
-        }
-        if (studyPks.isEmpty()) {
-            LOG.warn("No studies for deletion found on {}", desc);
-            return 0;
+            List<Long> studyPks;
+            try {
+                studyPks = findStudiesForDeletion(desc, fetchSize, claimed);
+            } catch (Exception e) {
+                LOG.warn("Query for studies for deletion on {} failed", desc, e);
+                return 0;
+            }
+            if (studyPks.isEmpty()) {
+                if (claimed.isEmpty())
+                    LOG.warn("No studies for deletion found on {}", desc);
+                return 0;
+            }
+            return desc.getExternalRetrieveAETitle() != null || desc.getExportStorageID() != null
+                    ? deleteObjectsOfStudies(desc, studyPks)
+                    : deleteStudiesFromDB(desc, studyPks, deletePatient);
+        } finally {
+            studiesInProcess.removeAll(claimed);
         }
-        return desc.getExternalRetrieveAETitle() != null || desc.getExportStorageID() != null
-                ? deleteObjectsOfStudies(desc, studyPks)
-                : deleteStudiesFromDB(desc, studyPks, deletePatient);
     }
 
-    private List<Long> findStudiesForDeletion(StorageDescriptor desc, int fetchSize) {
+    private List<Long> findStudiesForDeletion(StorageDescriptor desc, int fetchSize, List<Long> claimed) {
         List<Long> studyPks = desc.getExternalRetrieveAETitle() != null
                 ? ejb.findStudiesForDeletionOnStorageWithExternalRetrieveAET(desc, fetchSize)
                 : ejb.findStudiesForDeletionOnStorage(desc, fetchSize);
+        for (Iterator<Long> iter = studyPks.iterator(); iter.hasNext();) {
+            Long studyPk = iter.next();
+            if (studiesInProcess.add(studyPk)) {
+                claimed.add(studyPk);
+            } else {
+                LOG.info("Study[pk={}] found for deletion on {} is already processed by the purge of another Storage",
+                        studyPk, desc);
+                iter.remove();
+            }
+        }
 
         String storageID = desc.getStorageID();
         String exportStorageID = desc.getExportStorageID();
@@ -202,7 +255,8 @@ public class PurgeStorageScheduler extends Scheduler {
                         Storage storage = getStorage(series.getMetadata().getStorageID(), storageMap);
                         ReadContext readContext = storage.createReadContext();
                         readContext.setStoragePath(series.getMetadata().getStoragePath());
-                        notStoredOnOtherStorage += instancesNotStoredOnOtherStorage(readContext, storageID, exportStorageID);
+                        notStoredOnOtherStorage += instancesNotStoredOnOtherStorage(readContext,
+                                series.getMetadata().getSize(), storageID, exportStorageID);
                     }
                 } finally {
                     for (Storage storage : storageMap.values()) {
@@ -247,7 +301,25 @@ public class PurgeStorageScheduler extends Scheduler {
         return storage;
     }
 
-    private static int instancesNotStoredOnOtherStorage(ReadContext ctx, String storageID, String exportStorageID) {
+    private static int instancesNotStoredOnOtherStorage(ReadContext ctx, long size, String storageID,
+            String exportStorageID) {
+        try {
+            ZipIndex zipIndex = ZipIndex.read(ctx, size);
+            if (zipIndex != null && containsStorageIDsOfAllEntries(zipIndex)) {
+                int count = 0;
+                for (ZipIndex.Entry entry : zipIndex.getEntries()) {
+                    String[] storageIDs = StringUtils.split(entry.getComment(), '\\');
+                    if (contains(storageIDs, storageID) && !contains(storageIDs, exportStorageID))
+                        count++;
+                }
+                return count;
+            }
+        } catch (Exception e) {
+            LOG.info("Failed to read central directory of Metadata {} from {} - read it sequentially:\n",
+                    ctx.getStoragePath(), ctx.getStorage().getStorageDescriptor(), e);
+        }
+        ctx.setOffset(0L);
+        ctx.setLength(-1L);
         int count = 0;
         try (InputStream in = ctx.getStorage().openInputStream(ctx)) {
             ZipInputStream zip = new ZipInputStream(in);
@@ -267,6 +339,22 @@ public class PurgeStorageScheduler extends Scheduler {
         return count;
     }
 
+    private static boolean containsStorageIDsOfAllEntries(ZipIndex zipIndex) {
+        for (ZipIndex.Entry entry : zipIndex.getEntries())
+            if (entry.getComment() == null)
+                return false;
+
+        return true;
+    }
+
+    private static boolean contains(String[] ss, String s) {
+        for (String s1 : ss)
+            if (s1.equals(s))
+                return true;
+
+        return false;
+    }
+
     private static boolean containsStorageID(Attributes attrs, String storageID) {
         if (matchStorageID(attrs, storageID))
             return true;
@@ -335,7 +423,11 @@ public class PurgeStorageScheduler extends Scheduler {
                 if (getPollingInterval() == null)
                     return false;
                 try {
-                    storage.deleteObject(m.getStoragePath());
+                    try {
+                        storage.deleteObject(m.getStoragePath());
+                    } catch (NoSuchFileException e) {
+                        LOG.info("{} already deleted from {}", m, desc);
+                    }
                     ejb.removeMetadata(m);
                     LOG.debug("Successfully delete {} from {}", m, desc);
                 } catch (Exception e) {
@@ -354,21 +446,35 @@ public class PurgeStorageScheduler extends Scheduler {
         if (locations.isEmpty())
             return false;
 
+        if (getPollingInterval() == null)
+            return false;
+
+        List<String> storagePaths = new ArrayList<>(locations.size());
+        for (Location location : locations)
+            storagePaths.add(location.getStoragePath());
+        // Locations keep status TO_DELETE until their objects are deleted, so objects of a batch interrupted
+        // by a failure or a shutdown are deleted again by the next purge, which treats missing objects as deleted
         try (Storage storage = storageFactory.getStorage(desc)) {
+            Map<String,Exception> failed = storage.deleteObjects(storagePaths);
+            List<Long> deletedPks = new ArrayList<>(locations.size());
+            List<Long> failedPks = new ArrayList<>(failed.size());
             for (Location location : locations) {
-                if (getPollingInterval() == null)
-                    return false;
-                try {
-                    storage.deleteObject(location.getStoragePath());
-                    ejb.removeLocation(location);
+                Exception e = failed.get(location.getStoragePath());
+                if (e == null || e instanceof NoSuchFileException) {
+                    deletedPks.add(location.getPk());
                     LOG.debug("Successfully delete {} from {}", location, desc);
-                } catch (Exception e) {
-                    ejb.failedToDelete(location);
+                } else {
+                    failedPks.add(location.getPk());
                     LOG.warn("Failed to delete {} from {}", location, desc, e);
                 }
             }
+            if (!deletedPks.isEmpty())
+                ejb.removeLocations(deletedPks);
+            if (!failedPks.isEmpty())
+                ejb.updateLocationStatus(failedPks, Location.Status.FAILED_TO_DELETE);
         } catch (Exception e) {
             LOG.warn("Failed to access {}", desc, e);
+            return false;
         }
         return locations.size() == fetchSize;
     }
@@ -86,7 +86,11 @@ import java.util.Date;
         @NamedQuery(name = Location.SET_DIGEST,
                 query="update Location l set l.digest = ?2 where l.pk = ?1"),
         @NamedQuery(name = Location.SET_STATUS,
-                query="update Location l set l.status = ?2 where l.pk = ?1")
+                query="update Location l set l.status = ?2 where l.pk = ?1"),
+        @NamedQuery(name = Location.SET_STATUS_BY_PKS,
+                query="update Location l set l.status = ?2 where l.pk in ?1"),
+        @NamedQuery(name = Location.DELETE_BY_PKS,
+                query="delete from Location l where l.pk in ?1")
 })
 @NamedNativeQueries({
         @NamedNativeQuery(name = Location.SIZE_OF_SERIES,
@@ -111,6 +115,8 @@ public class Location {
     public static final String COUNT_BY_UIDMAP = "Location.CountByUIDMap";
     public static final String SET_DIGEST = "Location.SetDigest";
     public static final String SET_STATUS = "Location.SetStatus";
+    public static final String SET_STATUS_BY_PKS = "Location.SetStatusByPks";
+    public static final String DELETE_BY_PKS = "Location.DeleteByPks";
     public static final String SIZE_OF_SERIES = "Location.SizeOfSeries";
 
     public enum Status {
@@ -157,6 +157,10 @@ import java.util.Date;
                 "left join se.metadata metadata " +
                 "where se.metadataScheduledUpdateTime < current_timestamp " +
                 "order by se.metadataScheduledUpdateTime"),
+@NamedQuery(
+        name = Series.COUNT_SCHEDULED_METADATA_UPDATE,
+        query = "select count(se) from Series se " +
+                "where se.metadataScheduledUpdateTime < current_timestamp"),
 @NamedQuery(
         name = Series.SCHEDULED_PURGE_INSTANCES,
         query = "select new org.dcm4chee.arc.entity.Series$MetadataUpdate(se.pk, se.instancePurgeState, metadata.storageID, metadata.storagePath) from Series se " +
@@ -248,6 +252,7 @@ public class Series {
     public static final String COUNT_SERIES_OF_STUDY_WITH_OTHER_REJECTION_STATE = "Series.countSeriesOfStudyWithOtherRejectionState";
     public static final String SERIES_IUIDS_OF_STUDY = "Series.seriesIUIDsOfStudy";
     public static final String SCHEDULED_METADATA_UPDATE = "Series.scheduledMetadataUpdate";
+    public static final String COUNT_SCHEDULED_METADATA_UPDATE = "Series.countScheduledMetadataUpdate";
     public static final String SCHEDULED_PURGE_INSTANCES = "Series.scheduledPurgeInstances";
     public static final String SCHEDULE_METADATA_UPDATE_FOR_PATIENT = "Series.scheduleMetadataUpdateForPatient";
     public static final String SCHEDULE_METADATA_UPDATE_FOR_STUDY = "Series.scheduleMetadataUpdateForStudy";
@@ -40,6 +40,7 @@
 
 package org.dcm4chee.arc.entity;
 
+import org.dcm4che3.util.StringUtils;
 import org.dcm4chee.arc.conf.Availability;
 
 import javax.persistence.*;
@@ -53,6 +54,10 @@ import javax.persistence.*;
     name = SeriesQueryAttributes.FIND_BY_VIEW_ID_AND_SERIES_PK,
     query = "select a from SeriesQueryAttributes a where a.viewID = ?1 and a.series.pk = ?2"
 ),
+@NamedQuery(
+    name = SeriesQueryAttributes.FIND_FOR_SERIES,
+    query = "select a from SeriesQueryAttributes a where a.series = ?1"
+),
 @NamedQuery(
     name = SeriesQueryAttributes.DELETE_FOR_SERIES,
     query = "delete from SeriesQueryAttributes a where a.series = ?1"
@@ -68,6 +73,7 @@ import javax.persistence.*;
 public class SeriesQueryAttributes {
 
     public static final String FIND_BY_VIEW_ID_AND_SERIES_PK = "SeriesQueryAttributes.findByViewIDAndSeriesPk";
+    public static final String FIND_FOR_SERIES = "SeriesQueryAttributes.findForSeries";
     public static final String DELETE_FOR_SERIES = "SeriesQueryAttributes.deleteForSeries";
     public static final String VIEW_IDS_FOR_SERIES_PK = "SeriesQueryAttributes.viewIDsForSeriesPk";
 
@@ -146,4 +152,45 @@ public class SeriesQueryAttributes {
     public void setSeries(Series series) {
         this.series = series;
     }
+
+    public void addInstance(String sopClassUID, String[] retrieveAETs, Availability availability) {
+        if (numberOfInstances++ == 0) {
+            this.sopClassesInSeries = sopClassUID;
+            this.retrieveAETs = StringUtils.concat(retrieveAETs, '\\');
+            this.availability = availability;
+        } else {
+            this.sopClassesInSeries = union(this.sopClassesInSeries, sopClassUID);
+            this.retrieveAETs = intersection(this.retrieveAETs, retrieveAETs);
+            if (this.availability.compareTo(availability) < 0)
+                this.availability = availability;
+        }
+    }
+
+    static String union(String values, String value) {
+        if (values == null || values.isEmpty())
+            return value;
+
+        for (String s : StringUtils.split(values, '\\'))
+            if (s.equals(value))
+                return values;
+
+        return values + '\\' + value;
+    }
+
+    static String intersection(String values, String[] ss) {
+        if (values == null || values.isEmpty())
+            return values;
+
+        StringBuilder sb = new StringBuilder(values.length());
+        for (String s : StringUtils.split(values, '\\'))
+            for (String s1 : ss)
+                if (s.equals(s1)) {
+                    if (sb.length() > 0)
+                        sb.append('\\');
+                    sb.append(s);
+                    break;
+                }
+
+        return sb.toString();
+    }
 }
@@ -40,6 +40,7 @@
 
 package org.dcm4chee.arc.entity;
 
+import org.dcm4che3.util.StringUtils;
 import org.dcm4chee.arc.conf.Availability;
 
 import javax.persistence.*;
@@ -49,6 +50,10 @@ import javax.persistence.*;
  *
  */
 @NamedQueries({
+@NamedQuery(
+        name = StudyQueryAttributes.FIND_FOR_STUDY,
+        query = "select a from StudyQueryAttributes a where a.study = ?1"
+),
 @NamedQuery(
         name = StudyQueryAttributes.DELETE_FOR_STUDY,
         query = "delete from StudyQueryAttributes a where a.study = ?1"
@@ -62,6 +67,7 @@ import javax.persistence.*;
     @UniqueConstraint(columnNames = { "view_id", "study_fk" }))
 public class StudyQueryAttributes {
 
+    public static final String FIND_FOR_STUDY = "StudyQueryAttributes.findForStudy";
     public static final String DELETE_FOR_STUDY = "StudyQueryAttributes.deleteForStudy";
     public static final String VIEW_IDS_FOR_STUDY_PK = "StudyQueryAttributes.viewIDsForStudyPk";
 
@@ -162,4 +168,24 @@ public class StudyQueryAttributes {
     public void setStudy(Study study) {
         this.study = study;
     }
+
+    public void addInstance(String modality, boolean firstOfSeries, String sopClassUID, String[] retrieveAETs,
+            Availability availability) {
+        if (numberOfInstances++ == 0) {
+            this.numberOfSeries = 1;
+            this.modalitiesInStudy = modality.equals("*") ? "" : modality;
+            this.sopClassesInStudy = sopClassUID;
+            this.retrieveAETs = StringUtils.concat(retrieveAETs, '\\');
+            this.availability = availability;
+        } else {
+            if (firstOfSeries)
+                this.numberOfSeries++;
+            if (!modality.equals("*"))
+                this.modalitiesInStudy = SeriesQueryAttributes.union(this.modalitiesInStudy, modality);
+            this.sopClassesInStudy = SeriesQueryAttributes.union(this.sopClassesInStudy, sopClassUID);
+            this.retrieveAETs = SeriesQueryAttributes.intersection(this.retrieveAETs, retrieveAETs);
+            if (this.availability.compareTo(availability) < 0)
+                this.availability = availability;
+        }
+    }
 }
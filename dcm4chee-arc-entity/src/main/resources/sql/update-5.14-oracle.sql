@@ -0,0 +1,29 @@
+-- shall be applied before starting archive 5.14, which allocates 50 primary keys per sequence call
+alter sequence dicomattrs_pk_seq increment by 50;
+alter sequence uidmap_pk_seq increment by 50;
+alter sequence code_pk_seq increment by 50;
+alter sequence content_item_pk_seq increment by 50;
+alter sequence export_task_pk_seq increment by 50;
+alter sequence retrieve_task_pk_seq increment by 50;
+alter sequence diff_task_pk_seq increment by 50;
+alter sequence ian_task_pk_seq increment by 50;
+alter sequence hl7psu_task_pk_seq increment by 50;
+alter sequence instance_pk_seq increment by 50;
+alter sequence issuer_pk_seq increment by 50;
+alter sequence location_pk_seq increment by 50;
+alter sequence metadata_pk_seq increment by 50;
+alter sequence mpps_pk_seq increment by 50;
+alter sequence mwl_item_pk_seq increment by 50;
+alter sequence patient_pk_seq increment by 50;
+alter sequence patient_id_pk_seq increment by 50;
+alter sequence person_name_pk_seq increment by 50;
+alter sequence queue_msg_pk_seq increment by 50;
+alter sequence series_pk_seq increment by 50;
+alter sequence series_query_attrs_pk_seq increment by 50;
+alter sequence series_req_pk_seq increment by 50;
+alter sequence soundex_code_pk_seq increment by 50;
+alter sequence stgcmt_result_pk_seq increment by 50;
+alter sequence stgcmt_task_pk_seq increment by 50;
+alter sequence study_pk_seq increment by 50;
+alter sequence study_query_attrs_pk_seq increment by 50;
+alter sequence verify_observer_pk_seq increment by 50;
@@ -0,0 +1,151 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.entity;
+
+import org.dcm4chee.arc.conf.Availability;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class QueryAttributesTest {
+
+    private static final String CT_IMAGE = "1.2.840.10008.5.1.4.1.1.2";
+    private static final String KO_DOCUMENT = "1.2.840.10008.5.1.4.1.1.88.59";
+
+    @Test
+    public void testSeriesAddInstance() {
+        SeriesQueryAttributes queryAttrs = new SeriesQueryAttributes();
+        queryAttrs.addInstance(CT_IMAGE, new String[]{ "DCM4CHEE", "DCM4CHEE2" }, Availability.ONLINE);
+        assertEquals(1, queryAttrs.getNumberOfInstances());
+        assertEquals(CT_IMAGE, queryAttrs.getSOPClassesInSeries());
+        assertEquals("DCM4CHEE\\DCM4CHEE2", queryAttrs.getRetrieveAETs());
+        assertEquals(Availability.ONLINE, queryAttrs.getAvailability());
+
+        queryAttrs.addInstance(CT_IMAGE, new String[]{ "DCM4CHEE2" }, Availability.NEARLINE);
+        assertEquals(2, queryAttrs.getNumberOfInstances());
+        assertEquals(CT_IMAGE, queryAttrs.getSOPClassesInSeries());
+        assertEquals("DCM4CHEE2", queryAttrs.getRetrieveAETs());
+        assertEquals(Availability.NEARLINE, queryAttrs.getAvailability());
+
+        queryAttrs.addInstance(KO_DOCUMENT, new String[]{ "DCM4CHEE", "DCM4CHEE2" }, Availability.ONLINE);
+        assertEquals(3, queryAttrs.getNumberOfInstances());
+        assertEquals(CT_IMAGE + '\\' + KO_DOCUMENT, queryAttrs.getSOPClassesInSeries());
+        assertEquals("DCM4CHEE2", queryAttrs.getRetrieveAETs());
+        assertEquals(Availability.NEARLINE, queryAttrs.getAvailability());
+
+        queryAttrs.addInstance(KO_DOCUMENT, new String[]{ "DCM4CHEE" }, Availability.ONLINE);
+        assertEquals(4, queryAttrs.getNumberOfInstances());
+        assertEquals(CT_IMAGE + '\\' + KO_DOCUMENT, queryAttrs.getSOPClassesInSeries());
+        assertEquals("", queryAttrs.getRetrieveAETs());
+        assertEquals(Availability.NEARLINE, queryAttrs.getAvailability());
+    }
+
+    @Test
+    public void testStudyAddInstance() {
+        StudyQueryAttributes queryAttrs = new StudyQueryAttributes();
+        queryAttrs.addInstance("CT", true, CT_IMAGE, new String[]{ "DCM4CHEE" }, Availability.ONLINE);
+        assertEquals(1, queryAttrs.getNumberOfSeries());
+        assertEquals(1, queryAttrs.getNumberOfInstances());
+        assertEquals("CT", queryAttrs.getModalitiesInStudy());
+        assertEquals(CT_IMAGE, queryAttrs.getSOPClassesInStudy());
+        assertEquals("DCM4CHEE", queryAttrs.getRetrieveAETs());
+        assertEquals(Availability.ONLINE, queryAttrs.getAvailability());
+
+        queryAttrs.addInstance("CT", false, CT_IMAGE, new String[]{ "DCM4CHEE" }, Availability.ONLINE);
+        assertEquals(1, queryAttrs.getNumberOfSeries());
+        assertEquals(2, queryAttrs.getNumberOfInstances());
+        assertEquals("CT", queryAttrs.getModalitiesInStudy());
+
+        queryAttrs.addInstance("KO", true, KO_DOCUMENT, new String[]{ "DCM4CHEE" }, Availability.OFFLINE);
+        assertEquals(2, queryAttrs.getNumberOfSeries());
+        assertEquals(3, queryAttrs.getNumberOfInstances());
+        assertEquals("CT\\KO", queryAttrs.getModalitiesInStudy());
+        assertEquals(CT_IMAGE + '\\' + KO_DOCUMENT, queryAttrs.getSOPClassesInStudy());
+        assertEquals("DCM4CHEE", queryAttrs.getRetrieveAETs());
+        assertEquals(Availability.OFFLINE, queryAttrs.getAvailability());
+
+        queryAttrs.addInstance("CT", true, CT_IMAGE, new String[]{ "DCM4CHEE" }, Availability.NEARLINE);
+        assertEquals(3, queryAttrs.getNumberOfSeries());
+        assertEquals(4, queryAttrs.getNumberOfInstances());
+        assertEquals("CT\\KO", queryAttrs.getModalitiesInStudy());
+        assertEquals(Availability.OFFLINE, queryAttrs.getAvailability());
+    }
+
+    @Test
+    public void testStudyAddInstanceOfSeriesWithoutModality() {
+        StudyQueryAttributes queryAttrs = new StudyQueryAttributes();
+        queryAttrs.addInstance("*", true, KO_DOCUMENT, new String[]{ "DCM4CHEE" }, Availability.ONLINE);
+        assertEquals(1, queryAttrs.getNumberOfSeries());
+        assertEquals("", queryAttrs.getModalitiesInStudy());
+
+        queryAttrs.addInstance("CT", true, CT_IMAGE, new String[]{ "DCM4CHEE" }, Availability.ONLINE);
+        assertEquals(2, queryAttrs.getNumberOfSeries());
+        assertEquals("CT", queryAttrs.getModalitiesInStudy());
+
+        queryAttrs.addInstance("*", false, KO_DOCUMENT, new String[]{ "DCM4CHEE" }, Availability.ONLINE);
+        assertEquals(2, queryAttrs.getNumberOfSeries());
+        assertEquals(3, queryAttrs.getNumberOfInstances());
+        assertEquals("CT", queryAttrs.getModalitiesInStudy());
+    }
+
+    @Test
+    public void testStudyAddInstanceToRecalculatedAttributes() {
+        StudyQueryAttributes queryAttrs = new StudyQueryAttributes();
+        queryAttrs.setNumberOfSeries(2);
+        queryAttrs.setNumberOfInstances(5);
+        queryAttrs.setModalitiesInStudy("CT\\PR");
+        queryAttrs.setSOPClassesInStudy(CT_IMAGE);
+        queryAttrs.setRetrieveAETs("DCM4CHEE\\DCM4CHEE2");
+        queryAttrs.setAvailability(Availability.NEARLINE);
+
+        queryAttrs.addInstance("PR", false, CT_IMAGE, new String[]{ "DCM4CHEE2", "DCM4CHEE3" }, Availability.ONLINE);
+        assertEquals(2, queryAttrs.getNumberOfSeries());
+        assertEquals(6, queryAttrs.getNumberOfInstances());
+        assertEquals("CT\\PR", queryAttrs.getModalitiesInStudy());
+        assertEquals(CT_IMAGE, queryAttrs.getSOPClassesInStudy());
+        assertEquals("DCM4CHEE2", queryAttrs.getRetrieveAETs());
+        assertEquals(Availability.NEARLINE, queryAttrs.getAvailability());
+    }
+}
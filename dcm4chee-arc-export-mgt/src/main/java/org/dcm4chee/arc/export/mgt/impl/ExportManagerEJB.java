@@ -101,6 +101,9 @@ public class ExportManagerEJB implements ExportManager {
     @Inject
     private QueueManager queueManager;
 
+    @Inject
+    private ExportTaskCoalescer coalescer;
+
     private static final Expression<?>[] SELECT = {
             QQueueMessage.queueMessage.processingStartTime.min(),
             QQueueMessage.queueMessage.processingStartTime.max(),
@@ -127,6 +130,7 @@ public class ExportManagerEJB implements ExportManager {
         Calendar now = Calendar.getInstance();
         ArchiveAEExtension arcAE = session.getArchiveAEExtension();
         ArchiveDeviceExtension arcDev = arcAE.getArchiveDeviceExtension();
+        Duration coalescingInterval = arcDev.getExportTaskCoalescingInterval();
         for (Map.Entry<String, ExportRule> entry
                 : arcAE.findExportRules(hostname, sendingAET, receivingAET, ctx.getAttributes(), now).entrySet()) {
             String exporterID = entry.getKey();
@@ -135,14 +139,20 @@ public class ExportManagerEJB implements ExportManager {
             Date scheduledTime = scheduledTime(now, rule.getExportDelay(), desc.getSchedules());
             switch (rule.getEntity()) {
                 case Study:
-                    createOrUpdateStudyExportTask(exporterID, ctx.getStudyInstanceUID(), scheduledTime);
+                    Date studyScheduledTime = coalesce(session, coalescingInterval,
+                            exporterID, ctx.getStudyInstanceUID(), "*", scheduledTime);
+                    if (studyScheduledTime != null)
+                        createOrUpdateStudyExportTask(exporterID, ctx.getStudyInstanceUID(), studyScheduledTime);
                     if (rule.isExportPreviousEntity() && ctx.isPreviousDifferentStudy())
                         createOrUpdateStudyExportTask(exporterID,
                                 ctx.getPreviousInstance().getSeries().getStudy().getStudyInstanceUID(), scheduledTime);
                     break;
                 case Series:
-                    createOrUpdateSeriesExportTask(exporterID, ctx.getStudyInstanceUID(), ctx.getSeriesInstanceUID(),
-                            scheduledTime);
+                    Date seriesScheduledTime = coalesce(session, coalescingInterval,
+                            exporterID, ctx.getStudyInstanceUID(), ctx.getSeriesInstanceUID(), scheduledTime);
+                    if (seriesScheduledTime != null)
+                        createOrUpdateSeriesExportTask(exporterID, ctx.getStudyInstanceUID(),
+                                ctx.getSeriesInstanceUID(), seriesScheduledTime);
                     if (rule.isExportPreviousEntity() && ctx.isPreviousDifferentSeries())
                         createOrUpdateSeriesExportTask(exporterID,
                                 ctx.getPreviousInstance().getSeries().getStudy().getStudyInstanceUID(),
@@ -157,6 +167,13 @@ public class ExportManagerEJB implements ExportManager {
         }
     }
 
+    private Date coalesce(StoreSession session, Duration interval,
+            String exporterID, String studyIUID, String seriesIUID, Date scheduledTime) {
+        return interval != null
+                ? coalescer.coalesce(session, interval.toMillis(), exporterID, studyIUID, seriesIUID, scheduledTime)
+                : scheduledTime;
+    }
+
     private void createOrUpdateStudyExportTask(String exporterID, String studyIUID, Date scheduledTime) {
         try {
             ExportTask task = em.createNamedQuery(ExportTask.FIND_BY_EXPORTER_ID_AND_STUDY_IUID, ExportTask.class)
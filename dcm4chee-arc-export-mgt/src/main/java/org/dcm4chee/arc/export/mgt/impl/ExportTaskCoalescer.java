@@ -0,0 +1,91 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.export.mgt.impl;
+
+import org.dcm4chee.arc.store.StoreSession;
+import org.dcm4chee.arc.store.StoreSessionClosed;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coalesces updates of Study and Series Export Tasks triggered by objects received in one Store Session.
+ * <p>
+ * The Export Task is persisted with its scheduled time postponed by the coalescing interval. Further objects
+ * of the Store Session only update the Export Task again, if their scheduled time exceeds the persisted one.
+ * So no update is ever deferred, and nothing is lost if the Store Session is not closed regularly.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+@ApplicationScoped
+public class ExportTaskCoalescer {
+
+    private final Map<StoreSession, Map<String, Entry>> sessions =
+            Collections.synchronizedMap(new WeakHashMap<StoreSession, Map<String, Entry>>());
+
+    /**
+     * Returns the scheduled time to persist in the Export Task, or {@code null} if the Export Task was already
+     * persisted in the Store Session with a scheduled time not before the passed scheduled time.
+     */
+    public Date coalesce(StoreSession session, long interval,
+            String exporterID, String studyIUID, String seriesIUID, Date scheduledTime) {
+        Map<String, Entry> entries = sessions.computeIfAbsent(session, key -> new ConcurrentHashMap<>());
+        Entry entry = entries.computeIfAbsent(exporterID + '\\' + studyIUID + '\\' + seriesIUID,
+                key -> new Entry());
+        synchronized (entry) {
+            if (entry.scheduledTime != null && !scheduledTime.after(entry.scheduledTime))
+                return null;
+
+            return entry.scheduledTime = new Date(scheduledTime.getTime() + interval);
+        }
+    }
+
+    public void onStoreSessionClosed(@Observes @StoreSessionClosed StoreSession session) {
+        sessions.remove(session);
+    }
+
+    private static class Entry {
+        private Date scheduledTime;
+    }
+}
@@ -54,16 +54,14 @@ import org.dcm4chee.arc.conf.ArchiveHL7ApplicationExtension;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import javax.inject.Inject;
-import java.io.*;
 import java.net.Socket;
 
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
 import java.text.SimpleDateFormat;
 import java.util.Collection;
 import java.util.Date;
+import java.util.concurrent.CompletableFuture;
 
 
 /**
@@ -80,15 +78,18 @@ abstract class AbstractHL7Service extends DefaultHL7Service {
     @Inject
     HL7Sender hl7sender;
 
+    @Inject
+    HL7LogAppender hl7LogAppender;
+
     @Override
     public byte[] onMessage(HL7Application hl7App, Connection conn, Socket s, UnparsedHL7Message msg)
             throws HL7Exception {
         ArchiveHL7ApplicationExtension arcHl7App =
                 hl7App.getHL7ApplicationExtension(ArchiveHL7ApplicationExtension.class);
-        log(msg, arcHl7App.hl7LogFilePattern());
+        CompletableFuture<Void> logged = log(msg, arcHl7App.hl7LogFilePattern());
         try {
             process(hl7App, s, msg);
-            forwardHL7(arcHl7App, s, msg);
+            forwardHL7(arcHl7App, s, msg, logged);
         } catch (HL7Exception e) {
             log(msg, arcHl7App.hl7ErrorLogFilePattern());
             throw e;
@@ -101,34 +102,34 @@ abstract class AbstractHL7Service extends DefaultHL7Service {
         return super.onMessage(hl7App, conn, s, msg);
     }
 
-    private void forwardHL7(ArchiveHL7ApplicationExtension arcHL7App, Socket s, UnparsedHL7Message msg) {
+    private void forwardHL7(ArchiveHL7ApplicationExtension arcHL7App, Socket s, UnparsedHL7Message msg,
+            CompletableFuture<Void> logged) {
         String host = ReverseDNS.hostNameOf(s.getLocalAddress());
         HL7Segment msh = msg.msh();
         byte[] hl7msg = msg.data();
         Collection<String> destinations = arcHL7App.forwardDestinations(host, msh);
-        if (!destinations.isEmpty())
+        if (!destinations.isEmpty()) {
+            // do not forward HL7 messages which failed to be written to the HL7 Log File, but reject them
+            // by the CompletionException thrown by join()
+            if (logged != null)
+                logged.join();
             hl7sender.forwardMessage(msh, hl7msg,
                     destinations.toArray(new String[0]));
+        }
     }
 
-    private void log(UnparsedHL7Message msg, String dirpath) {
+    private CompletableFuture<Void> log(UnparsedHL7Message msg, String dirpath) {
         if (dirpath == null)
-            return;
-        String filePath = getPath(StringUtils.replaceSystemProperties(dirpath), msg.getSerialNo(), msg.msh());
-        Path dir = Paths.get(filePath.substring(0,filePath.lastIndexOf("/")));
-        Path file = dir.resolve(filePath.substring(filePath.lastIndexOf("/")+1));
+            return null;
+        Path file = Paths.get(getPath(StringUtils.replaceSystemProperties(dirpath), msg.getSerialNo(), msg.msh()));
         try {
-            if (!Files.exists(dir))
-                Files.createDirectories(dir);
-            if (!Files.exists(file))
-                Files.createFile(file);
-            try (BufferedOutputStream out = new BufferedOutputStream(
-                    Files.newOutputStream(file, StandardOpenOption.APPEND))) {
-                new DataOutputStream(out);
-                out.write(msg.data());
-            }
-        } catch (Exception e) {
-            LOG.warn("Failed to write log file : ", dir, file, e);
+            return hl7LogAppender.append(file, msg.data());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.warn("Interrupted while queuing HL7 message for HL7 Log File - {}", file);
+            CompletableFuture<Void> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
         }
     }
 
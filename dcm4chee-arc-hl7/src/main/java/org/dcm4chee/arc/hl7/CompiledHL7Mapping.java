@@ -0,0 +1,607 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.hl7;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.PersonName;
+import org.dcm4che3.data.Sequence;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.hl7.HL7Charset;
+import org.dcm4che3.hl7.HL7Message;
+import org.dcm4che3.hl7.HL7Segment;
+import org.dcm4chee.arc.conf.ScheduledProtocolCodeInOrder;
+import org.dcm4chee.arc.conf.ScheduledStationAETInOrder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Maps HL7 messages to DICOM attributes in the same way as the default {@code hl7-adt2dcm.xsl} and
+ * {@code hl7-order2dcm.xsl} stylesheets, but directly from the parsed HL7 segments, without XSL transformation.
+ * Fields are accessed with the same node semantics as the XML representation of the message generated by
+ * {@link org.dcm4che3.hl7.HL7Parser}, to provide identical results also for edge cases.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+class CompiledHL7Mapping {
+
+    private static final String NULL_VALUE = "\"\"";
+
+    private final List<HL7Segment> segments;
+    private final String delimiters;
+
+    private CompiledHL7Mapping(HL7Message msg) {
+        this.segments = msg;
+        this.delimiters = msg.get(0).getField(1, "^~\\&");
+    }
+
+    public static Attributes adt2dcm(byte[] data, String hl7charset) {
+        Attributes attrs = newAttributes(hl7charset);
+        CompiledHL7Mapping mapping = new CompiledHL7Mapping(HL7Message.parse(data, hl7charset));
+        for (HL7Segment seg : mapping.segments("PID"))
+            mapping.pid(seg, attrs);
+        for (HL7Segment seg : mapping.segments("MRG"))
+            mapping.mrg(seg, attrs);
+        return attrs;
+    }
+
+    public static Attributes order2dcm(byte[] data, String hl7charset,
+            ScheduledProtocolCodeInOrder protocolCodeInOrder, ScheduledStationAETInOrder stationAETInOrder) {
+        Attributes attrs = newAttributes(hl7charset);
+        CompiledHL7Mapping mapping = new CompiledHL7Mapping(HL7Message.parse(data, hl7charset));
+        for (HL7Segment seg : mapping.segments("PID"))
+            mapping.pid(seg, attrs);
+        for (HL7Segment seg : mapping.segments("PV1"))
+            mapping.pv1(seg, attrs);
+        List<HL7Segment> orcs = mapping.segments("ORC");
+        if (!orcs.isEmpty())
+            mapping.orc(orcs.get(0), attrs);
+        List<HL7Segment> obrs = mapping.segments("OBR");
+        if (!obrs.isEmpty())
+            mapping.obr(obrs.get(0), attrs);
+        List<HL7Segment> tq1s = mapping.segments("TQ1");
+        if (!tq1s.isEmpty())
+            attr(attrs, Tag.RequestedProcedurePriority, VR.CS,
+                    procedurePriority(mapping.field(tq1s.get(0), 9).texts()));
+        Sequence spsSeq = attrs.newSequence(Tag.ScheduledProcedureStepSequence, orcs.size());
+        for (int i = 0, n = mapping.segments.size(); i < n; i++)
+            if ("ORC".equals(mapping.segments.get(i).getField(0, null)))
+                spsSeq.add(mapping.sps(i, protocolCodeInOrder, stationAETInOrder));
+        for (HL7Segment seg : mapping.segments("ZDS"))
+            attr(attrs, Tag.StudyInstanceUID, VR.UI, string(mapping.field(seg, 1).text()));
+        for (HL7Segment seg : mapping.segments("IPC"))
+            mapping.ipc(seg, attrs);
+        return attrs;
+    }
+
+    private static Attributes newAttributes(String hl7charset) {
+        Attributes attrs = new Attributes();
+        String dicomCharset = HL7Charset.toDicomCharacterSetCode(hl7charset);
+        if (dicomCharset != null)
+            attrs.setString(Tag.SpecificCharacterSet, VR.CS, dicomCharset);
+        return attrs;
+    }
+
+    private List<HL7Segment> segments(String name) {
+        List<HL7Segment> list = new ArrayList<>(1);
+        for (HL7Segment seg : segments)
+            if (name.equals(seg.getField(0, null)))
+                list.add(seg);
+        return list;
+    }
+
+    private int following(int index, String name) {
+        for (int i = index + 1, n = segments.size(); i < n; i++)
+            if (name.equals(segments.get(i).getField(0, null)))
+                return i;
+        return -1;
+    }
+
+    private Node field(HL7Segment seg, int index) {
+        return Node.parse(seg.getField(index, ""), delimiters);
+    }
+
+    private void pid(HL7Segment pid, Attributes attrs) {
+        xpn2pnAttr(attrs, Tag.PatientName, field(pid, 5));
+        cx2pidAttrs(attrs, field(pid, 3));
+        attr(attrs, Tag.PatientBirthDate, VR.DA, substring(field(pid, 7).string(), 8));
+        Node sex = field(pid, 8);
+        attr(attrs, Tag.PatientSex, VR.CS, sex(sex.texts()));
+        xpn2pnAttr(attrs, Tag.PatientMotherBirthName, field(pid, 6));
+        vetPID2attr(attrs, field(pid, 2), field(pid, 4));
+        Node owner = field(pid, 9);
+        String ownerName = owner.text();
+        if (ownerName != null) {
+            xpn2pnAttr(attrs, Tag.ResponsiblePerson, owner);
+            attr(attrs, Tag.ResponsiblePersonRole, VR.CS, ownerName.contains(NULL_VALUE) ? ownerName : "OWNER");
+        }
+        ce2codeItemWithDesc(attrs, Tag.PatientSpeciesDescription, Tag.PatientSpeciesCodeSequence, field(pid, 35), 0);
+        ce2codeItemWithDesc(attrs, Tag.PatientBreedDescription, Tag.PatientBreedCodeSequence, field(pid, 36), 0);
+        List<String> neutered = new ArrayList<>();
+        for (Node component : sex.children(Node.COMPONENT))
+            neutered.addAll(component.texts());
+        attr(attrs, Tag.PatientSexNeutered, VR.CS,
+                neutered.contains("Y") ? "ALTERED" : neutered.contains("N") ? "UNALTERED" : "");
+    }
+
+    private void mrg(HL7Segment mrg, Attributes attrs) {
+        Attributes item = new Attributes();
+        xpn2pnAttr(item, Tag.PatientName, field(mrg, 7));
+        cx2pidAttrs(item, field(mrg, 1));
+        attrs.newSequence(Tag.ModifiedAttributesSequence, 1).add(item);
+    }
+
+    private void pv1(HL7Segment pv1, Attributes attrs) {
+        cn2pnAttr(attrs, Tag.ReferringPhysicianName, field(pv1, 8));
+        List<String> ambulantStatus = field(pv1, 15).texts();
+        if (!ambulantStatus.isEmpty()) {
+            if (ambulantStatus.contains("B6"))
+                attrs.setInt(Tag.PregnancyStatus, VR.US, 3);
+            else
+                attrs.setNull(Tag.PregnancyStatus, VR.US);
+        }
+        Node ei = field(pv1, 19);
+        List<String> val = ei.texts();
+        if (!val.isEmpty()) {
+            boolean notNull = anyNotNullValue(val);
+            setStringOrNull(attrs, Tag.AdmissionID, VR.LO, notNull ? val.get(0) : null);
+            Attributes item = new Attributes(1);
+            if (notNull && ei.hasChildren(Node.COMPONENT))
+                item.setString(Tag.LocalNamespaceEntityID, VR.UT, text(ei.child(Node.COMPONENT, 3)));
+            attrs.newSequence(Tag.IssuerOfAdmissionIDSequence, 1).add(item);
+        }
+    }
+
+    private void orc(HL7Segment orc, Attributes attrs) {
+        ei2attr(attrs, Tag.PlacerOrderNumberImagingServiceRequest, VR.LO,
+                Tag.OrderPlacerIdentifierSequence, field(orc, 2));
+        ei2attr(attrs, Tag.FillerOrderNumberImagingServiceRequest, VR.LO,
+                Tag.OrderFillerIdentifierSequence, field(orc, 3));
+        Node priority = field(orc, 7).child(Node.COMPONENT, 5);
+        attr(attrs, Tag.RequestedProcedurePriority, VR.CS,
+                procedurePriority(priority != null ? priority.texts() : Collections.emptyList()));
+    }
+
+    private void obr(HL7Segment obr, Attributes attrs) {
+        attr(attrs, Tag.MedicalAlerts, VR.LO, substring(string(field(obr, 13).text()), 64));
+        cn2pnAttr(attrs, Tag.RequestingPhysician, field(obr, 16));
+        ce2codeItemWithDesc(attrs, Tag.RequestedProcedureDescription, Tag.RequestedProcedureCodeSequence,
+                field(obr, 44), 0);
+        attr(attrs, Tag.PatientState, VR.LO, substring(string(field(obr, 12).text()), 64));
+        attr(attrs, Tag.AccessionNumber, VR.SH, string(field(obr, 18).text()));
+        attr(attrs, Tag.RequestedProcedureID, VR.SH, string(field(obr, 19).text()));
+        ce2codeItemWithDesc(attrs, Tag.ReasonForTheRequestedProcedure, Tag.ReasonForRequestedProcedureCodeSequence,
+                field(obr, 31), 0);
+        attr(attrs, Tag.PatientTransportArrangements, VR.LO, substring(string(field(obr, 30).text()), 64));
+    }
+
+    private Attributes sps(int index, ScheduledProtocolCodeInOrder protocolCodeInOrder,
+            ScheduledStationAETInOrder stationAETInOrder) {
+        HL7Segment orc = segments.get(index);
+        Attributes sps = new Attributes();
+        if (stationAETInOrder == ScheduledStationAETInOrder.ORC_18)
+            attr(sps, Tag.ScheduledStationAETitle, VR.AE, multiValue(field(orc, 18)));
+        attrDATM(sps, Tag.ScheduledProcedureStepStartDate, Tag.ScheduledProcedureStepStartTime,
+                string(text(field(orc, 7).child(Node.COMPONENT, 3))));
+        attr(sps, Tag.ScheduledProcedureStepStatus, VR.CS,
+                field(orc, 1).string() + '_' + field(orc, 5).string());
+        int tq1Index = following(index, "TQ1");
+        if (tq1Index >= 0)
+            attrDATM(sps, Tag.ScheduledProcedureStepStartDate, Tag.ScheduledProcedureStepStartTime,
+                    field(segments.get(tq1Index), 7).string());
+        int obrIndex = following(index, "OBR");
+        if (obrIndex >= 0) {
+            HL7Segment obr = segments.get(obrIndex);
+            cn2pnAttr(sps, Tag.ScheduledPerformingPhysicianName, field(obr, 34));
+            ce2codeItemWithDesc(sps, Tag.ScheduledProcedureStepDescription, Tag.ScheduledProtocolCodeSequence,
+                    field(obr, 4), protocolCodeInOrder == ScheduledProtocolCodeInOrder.OBR_4_1 ? 0 : 3);
+            attr(sps, Tag.Modality, VR.CS, string(field(obr, 24).text()));
+            attr(sps, Tag.ScheduledProcedureStepID, VR.SH, string(field(obr, 20).text()));
+            int ipcIndex = following(obrIndex, "IPC");
+            if (ipcIndex >= 0) {
+                HL7Segment ipc = segments.get(ipcIndex);
+                attr(sps, Tag.Modality, VR.CS, string(field(ipc, 5).text()));
+                attr(sps, Tag.ScheduledProcedureStepID, VR.SH, string(field(ipc, 4).text()));
+                ce2codeItemWithDesc(sps, Tag.ScheduledProcedureStepDescription, Tag.ScheduledProtocolCodeSequence,
+                        field(ipc, 6), 0);
+                attr(sps, Tag.ScheduledStationName, VR.SH, multiValue(field(ipc, 7)));
+                attr(sps, Tag.ScheduledProcedureStepLocation, VR.SH, string(field(ipc, 8).text()));
+                attr(sps, Tag.ScheduledStationAETitle, VR.AE, multiValue(field(ipc, 9)));
+            }
+        }
+        return sps;
+    }
+
+    private void ipc(HL7Segment ipc, Attributes attrs) {
+        attr(attrs, Tag.StudyInstanceUID, VR.UI, string(field(ipc, 3).text()));
+        ei2attr(attrs, Tag.AccessionNumber, VR.SH, Tag.IssuerOfAccessionNumberSequence, field(ipc, 1));
+        attr(attrs, Tag.RequestedProcedureID, VR.SH, string(field(ipc, 2).text()));
+    }
+
+    private static void attr(Attributes attrs, int tag, VR vr, String val) {
+        if (!val.isEmpty())
+            setStringOrNull(attrs, tag, vr, val.equals(NULL_VALUE) ? null : val);
+    }
+
+    private static void attr(Attributes attrs, int tag, VR vr, List<String> val) {
+        if (!val.isEmpty())
+            setStringOrNull(attrs, tag, vr, anyNotNullValue(val) ? val.get(0) : null);
+    }
+
+    private static void setStringOrNull(Attributes attrs, int tag, VR vr, String val) {
+        if (val != null)
+            attrs.setString(tag, vr, val);
+        else
+            attrs.setNull(tag, vr);
+    }
+
+    private static boolean anyNotNullValue(List<String> val) {
+        for (String s : val)
+            if (!s.equals(NULL_VALUE))
+                return true;
+        return false;
+    }
+
+    private static String sex(List<String> val) {
+        if (val.isEmpty())
+            return "";
+        if (val.contains("F") || val.contains("M") || val.contains("O"))
+            return val.get(0);
+        if (val.contains("Female"))
+            return "F";
+        if (val.contains("Male"))
+            return "M";
+        if (val.contains("Other") || val.contains("A") || val.contains("N"))
+            return "O";
+        return NULL_VALUE;
+    }
+
+    private static String procedurePriority(List<String> priority) {
+        if (priority.isEmpty())
+            return "";
+        if (priority.contains("S"))
+            return "STAT";
+        if (priority.contains("A") || priority.contains("P") || priority.contains("C"))
+            return "HIGH";
+        if (priority.contains("R"))
+            return "ROUTINE";
+        if (priority.contains("T"))
+            return "MEDIUM";
+        return NULL_VALUE;
+    }
+
+    private static String multiValue(Node field) {
+        StringBuilder sb = new StringBuilder(string(field.text()));
+        for (Node repeat : field.children(Node.REPEAT))
+            sb.append('\\').append(string(repeat.text()));
+        return sb.toString();
+    }
+
+    private static void xpn2pnAttr(Attributes attrs, int tag, Node xpn) {
+        pnAttr(attrs, tag, string(xpn.text()), string(xpn.text()),
+                text(xpn.child(Node.COMPONENT, 1)),
+                text(xpn.child(Node.COMPONENT, 2)),
+                text(xpn.child(Node.COMPONENT, 4)),
+                text(xpn.child(Node.COMPONENT, 3)),
+                text(xpn.child(Node.COMPONENT, 5)));
+    }
+
+    private static void cn2pnAttr(Attributes attrs, int tag, Node cn) {
+        if (cn.hasChildren(Node.COMPONENT) || cn.string().equals(NULL_VALUE))
+            pnAttr(attrs, tag, string(cn.text()),
+                    text(cn.child(Node.COMPONENT, 1)),
+                    text(cn.child(Node.COMPONENT, 2)),
+                    text(cn.child(Node.COMPONENT, 3)),
+                    text(cn.child(Node.COMPONENT, 5)),
+                    text(cn.child(Node.COMPONENT, 4)),
+                    text(cn.child(Node.COMPONENT, 6)));
+    }
+
+    private static void pnAttr(Attributes attrs, int tag, String val,
+            String fn, String gn, String mn, String np, String ns, String deg) {
+        if (val.isEmpty())
+            return;
+
+        if (val.equals(NULL_VALUE)) {
+            attrs.setNull(tag, VR.PN);
+            return;
+        }
+        PersonName pn = new PersonName();
+        pnComp(pn, PersonName.Component.FamilyName, fn);
+        pnComp(pn, PersonName.Component.GivenName, gn);
+        pnComp(pn, PersonName.Component.MiddleName, mn);
+        pnComp(pn, PersonName.Component.NamePrefix, np);
+        pnComp(pn, PersonName.Component.NameSuffix,
+                !isValue(ns) ? deg : !isValue(deg) ? ns : ns + ' ' + deg);
+        attrs.setString(tag, VR.PN, pn.toString());
+    }
+
+    private static void pnComp(PersonName pn, PersonName.Component c, String val) {
+        if (isValue(val))
+            pn.set(c, val);
+    }
+
+    private static boolean isValue(String val) {
+        return !val.isEmpty() && !val.equals(NULL_VALUE);
+    }
+
+    private static void cx2pidAttrs(Attributes attrs, Node cx) {
+        attrs.setString(Tag.PatientID, VR.LO, string(cx.text()));
+        Node hd = cx.child(Node.COMPONENT, 3);
+        if (hd == null)
+            return;
+
+        attrs.setString(Tag.IssuerOfPatientID, VR.LO, string(hd.text()));
+        Node type = hd.child(Node.SUBCOMPONENT, 2);
+        if (type != null) {
+            Attributes item = new Attributes(2);
+            item.setString(Tag.UniversalEntityID, VR.UT, hd.child(Node.SUBCOMPONENT, 1).string());
+            item.setString(Tag.UniversalEntityIDType, VR.CS, type.string());
+            attrs.newSequence(Tag.IssuerOfPatientIDQualifiersSequence, 1).add(item);
+        }
+    }
+
+    private static void vetPID2attr(Attributes attrs, Node chip, Node tattoo) {
+        String chipID = chip.text();
+        String tattooID = tattoo.text();
+        if (chipID == null && tattooID == null)
+            return;
+
+        Sequence seq = attrs.newSequence(Tag.OtherPatientIDsSequence, 2);
+        if (chipID != null && !chipID.contains(NULL_VALUE))
+            seq.add(pidItem(chip, "CHIP", "RFID"));
+        if (tattooID != null && !tattooID.contains(NULL_VALUE))
+            seq.add(pidItem(tattoo, "TATTOO", "BARCODE"));
+    }
+
+    private static Attributes pidItem(Node cx, String defaultIssuer, String type) {
+        Attributes item = new Attributes(4);
+        cx2pidAttrs(item, cx);
+        if (cx.child(Node.COMPONENT, 3) == null)
+            item.setString(Tag.IssuerOfPatientID, VR.LO, defaultIssuer);
+        item.setString(Tag.TypeOfPatientID, VR.CS, type);
+        return item;
+    }
+
+    private static void ei2attr(Attributes attrs, int tag, VR vr, int sqtag, Node ei) {
+        List<String> val = ei.texts();
+        if (val.isEmpty())
+            return;
+
+        boolean notNull = anyNotNullValue(val);
+        setStringOrNull(attrs, tag, vr, notNull ? val.get(0) : null);
+        Attributes item = new Attributes(3);
+        if (notNull && ei.hasChildren(Node.COMPONENT)) {
+            Node c1 = ei.child(Node.COMPONENT, 1);
+            Node c2 = ei.child(Node.COMPONENT, 2);
+            Node c3 = ei.child(Node.COMPONENT, 3);
+            if (c1 != null)
+                item.setString(Tag.LocalNamespaceEntityID, VR.UT, string(c1.text()));
+            if (c2 != null && c3 != null) {
+                item.setString(Tag.UniversalEntityID, VR.UT, string(c2.text()));
+                item.setString(Tag.UniversalEntityIDType, VR.CS, string(c3.text()));
+            }
+        }
+        attrs.newSequence(sqtag, 1).add(item);
+    }
+
+    private static void ce2codeItemWithDesc(Attributes attrs, int descTag, int seqTag, Node ce, int offset) {
+        Node meaning = ce.child(Node.COMPONENT, offset + 1);
+        String desc = text(meaning);
+        if (!desc.isEmpty()) {
+            attr(attrs, descTag, VR.LO, substring(desc, 64));
+            String code = offset != 0 ? string(ce.child(Node.COMPONENT, offset)) : string(ce.text());
+            Node scheme = ce.child(Node.COMPONENT, offset + 2);
+            if (!code.isEmpty() && scheme != null) {
+                Attributes item = new Attributes(3);
+                item.setString(Tag.CodeValue, VR.SH, substring(code, 16));
+                item.setString(Tag.CodingSchemeDesignator, VR.SH, substring(scheme.string(), 16));
+                item.setString(Tag.CodeMeaning, VR.LO, substring(meaning.string(), 64));
+                attrs.newSequence(seqTag, 1).add(item);
+            }
+        } else if (offset == 0)
+            attr(attrs, descTag, VR.LO, ce.texts());
+    }
+
+    private static void attrDATM(Attributes attrs, int datag, int tmtag, String val) {
+        String str = normalizeSpace(val);
+        if (str.isEmpty())
+            return;
+
+        if (str.equals(NULL_VALUE)) {
+            attrs.setNull(datag, VR.DA);
+            attrs.setNull(tmtag, VR.TM);
+            return;
+        }
+        attrs.setString(datag, VR.DA, substring(str, 8));
+        String tm = str.length() > 8 ? str.substring(8) : "";
+        int endTime = tm.indexOf('+');
+        if (endTime <= 0)
+            endTime = tm.indexOf('-');
+        attrs.setString(tmtag, VR.TM, endTime > 0 ? tm.substring(0, endTime) : tm);
+    }
+
+    private static String normalizeSpace(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (String token : s.split("[ \t\r\n]+"))
+            if (!token.isEmpty())
+                (sb.length() > 0 ? sb.append(' ') : sb).append(token);
+        return sb.toString();
+    }
+
+    private static String substring(String s, int maxLength) {
+        return s.length() > maxLength ? s.substring(0, maxLength) : s;
+    }
+
+    private static String string(String s) {
+        return s != null ? s : "";
+    }
+
+    private static String string(Node node) {
+        return node != null ? node.string() : "";
+    }
+
+    private static String text(Node node) {
+        return node != null ? string(node.text()) : "";
+    }
+
+    /**
+     * Element of the XML representation of a HL7 field, as generated by {@link org.dcm4che3.hl7.HL7Parser}.
+     * Content is either a {@code String} for text or a nested {@code Node} for components, repetitions,
+     * subcomponents and escape sequences.
+     */
+    private static final class Node {
+        static final int FIELD = 0;
+        static final int REPEAT = 1;
+        static final int COMPONENT = 2;
+        static final int SUBCOMPONENT = 3;
+        static final int ESCAPE = 4;
+
+        final int level;
+        final List<Object> content = new ArrayList<>(1);
+
+        Node(int level) {
+            this.level = level;
+        }
+
+        static Node parse(String s, String delimiters) {
+            Node field = new Node(FIELD);
+            if (s.isEmpty())
+                return field;
+
+            char componentDelimiter = delimiters.charAt(0);
+            char repeatDelimiter = delimiters.length() > 1 ? delimiters.charAt(1) : 0;
+            char escapeDelimiter = delimiters.length() > 2 ? delimiters.charAt(2) : 0;
+            char subcomponentDelimiter = delimiters.length() > 3 ? delimiters.charAt(3) : 0;
+            List<Node> stack = new ArrayList<>(4);
+            Node top = field;
+            stack.add(top);
+            int start = 0;
+            boolean escape = false;
+            for (int i = 0, n = s.length(); i < n; i++) {
+                char ch = s.charAt(i);
+                int level = escape && ch != escapeDelimiter ? -1
+                        : ch == componentDelimiter ? COMPONENT
+                        : ch == repeatDelimiter ? REPEAT
+                        : ch == subcomponentDelimiter ? SUBCOMPONENT
+                        : ch == escapeDelimiter ? ESCAPE
+                        : -1;
+                if (level < 0)
+                    continue;
+
+                if (start < i)
+                    top.content.add(s.substring(start, i));
+                start = i + 1;
+                if (level == ESCAPE && escape) {
+                    stack.remove(stack.size() - 1);
+                } else {
+                    if (level != ESCAPE)
+                        while (top.level >= level) {
+                            stack.remove(stack.size() - 1);
+                            top = stack.get(stack.size() - 1);
+                        }
+                    Node node = new Node(level);
+                    top.content.add(node);
+                    stack.add(node);
+                }
+                escape = level == ESCAPE && !escape;
+                top = stack.get(stack.size() - 1);
+            }
+            if (start < s.length())
+                top.content.add(s.substring(start));
+            return field;
+        }
+
+        String text() {
+            for (Object o : content)
+                if (o instanceof String)
+                    return (String) o;
+            return null;
+        }
+
+        List<String> texts() {
+            List<String> list = new ArrayList<>(1);
+            for (Object o : content)
+                if (o instanceof String)
+                    list.add((String) o);
+            return list;
+        }
+
+        String string() {
+            if (content.size() == 1 && content.get(0) instanceof String)
+                return (String) content.get(0);
+
+            StringBuilder sb = new StringBuilder();
+            appendTo(sb);
+            return sb.toString();
+        }
+
+        private void appendTo(StringBuilder sb) {
+            for (Object o : content)
+                if (o instanceof String)
+                    sb.append((String) o);
+                else
+                    ((Node) o).appendTo(sb);
+        }
+
+        List<Node> children(int level) {
+            List<Node> list = new ArrayList<>();
+            for (Object o : content)
+                if (o instanceof Node && ((Node) o).level == level)
+                    list.add((Node) o);
+            return list;
+        }
+
+        boolean hasChildren(int level) {
+            return child(level, 1) != null;
+        }
+
+        Node child(int level, int position) {
+            for (Object o : content)
+                if (o instanceof Node && ((Node) o).level == level && --position == 0)
+                    return (Node) o;
+            return null;
+        }
+    }
+}
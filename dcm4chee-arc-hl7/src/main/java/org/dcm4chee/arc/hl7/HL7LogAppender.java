@@ -0,0 +1,200 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.hl7;
+
+import org.dcm4che3.net.Device;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Appends received HL7 messages to HL7 Log Files. Messages are queued by the receiving threads and written in
+ * batches by one background thread, which first writes all HL7 Log Files of a batch and then syncs them to disk
+ * before completing the returned futures.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+@ApplicationScoped
+class HL7LogAppender implements Runnable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HL7LogAppender.class);
+    private static final int QUEUE_CAPACITY = 10000;
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    @Inject
+    private Device device;
+
+    private final BlockingQueue<Record> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    HL7LogAppender() {
+    }
+
+    HL7LogAppender(Device device) {
+        this.device = device;
+    }
+
+    /**
+     * Queues HL7 message for being appended to the HL7 Log File. Blocks, if the queue is full.
+     *
+     * @return future completed after the HL7 message was written and synced to disk, or completed exceptionally
+     *         if the write failed
+     */
+    CompletableFuture<Void> append(Path file, byte[] data) throws InterruptedException {
+        Record record = new Record(file, data);
+        queue.put(record);
+        if (running.compareAndSet(false, true))
+            try {
+                device.execute(this);
+            } catch (RejectedExecutionException e) {
+                run();
+            }
+        return record.written;
+    }
+
+    @Override
+    public void run() {
+        List<Record> batch = new ArrayList<>();
+        do {
+            try {
+                while (queue.drainTo(batch, MAX_BATCH_SIZE) > 0) {
+                    write(batch);
+                    batch.clear();
+                }
+            } finally {
+                running.set(false);
+            }
+        } while (!queue.isEmpty() && running.compareAndSet(false, true));
+    }
+
+    private void write(List<Record> batch) {
+        Map<Path, List<Record>> byFile = new LinkedHashMap<>();
+        for (Record record : batch)
+            byFile.computeIfAbsent(record.file, file -> new ArrayList<>()).add(record);
+        Map<Path, Throwable> failed = new HashMap<>();
+        Set<Path> synced = new HashSet<>();
+        try {
+            for (Map.Entry<Path, List<Record>> entry : byFile.entrySet()) {
+                Path file = entry.getKey();
+                try {
+                    write(file, entry.getValue());
+                } catch (Exception e) {
+                    LOG.warn("Failed to write HL7 Log File - {}", file, e);
+                    failed.put(file, e);
+                }
+            }
+            for (Path file : byFile.keySet()) {
+                if (failed.containsKey(file))
+                    continue;
+                try {
+                    sync(file);
+                    synced.add(file);
+                } catch (Exception e) {
+                    LOG.warn("Failed to sync HL7 Log File - {}", file, e);
+                    failed.put(file, e);
+                }
+            }
+        } catch (Throwable e) {
+            for (Path file : byFile.keySet())
+                failed.putIfAbsent(file, e);
+            throw e;
+        } finally {
+            for (Map.Entry<Path, List<Record>> entry : byFile.entrySet()) {
+                Throwable e = synced.contains(entry.getKey()) ? null : failed.get(entry.getKey());
+                for (Record record : entry.getValue())
+                    if (e == null)
+                        record.written.complete(null);
+                    else
+                        record.written.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static void write(Path file, List<Record> records) throws IOException {
+        Path dir = file.getParent();
+        if (dir != null)
+            Files.createDirectories(dir);
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            for (Record record : records) {
+                ByteBuffer buf = ByteBuffer.wrap(record.data);
+                while (buf.hasRemaining())
+                    channel.write(buf);
+            }
+        }
+    }
+
+    /**
+     * Syncs the content of the file to disk. Deferred after writing all files of the batch, so the file system
+     * may persist them by fewer disk flushes.
+     */
+    private static void sync(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(false);
+        }
+    }
+
+    private static class Record {
+        final Path file;
+        final byte[] data;
+        final CompletableFuture<Void> written = new CompletableFuture<>();
+
+        Record(Path file, byte[] data) {
+            this.file = file;
+            this.data = data;
+        }
+    }
+}
@@ -59,12 +59,11 @@ import org.dcm4chee.arc.procedure.ProcedureContext;
 import org.dcm4chee.arc.procedure.ProcedureService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.xml.sax.SAXException;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.inject.Typed;
 import javax.inject.Inject;
-import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
 import java.io.IOException;
 import java.net.Socket;
 import java.util.*;
@@ -97,17 +96,20 @@ public class ProcedureUpdateService extends AbstractHL7Service {
     }
 
     private void updateProcedure(HL7Application hl7App, Socket s, UnparsedHL7Message msg, Patient pat)
-            throws IOException, SAXException, TransformerConfigurationException {
+            throws IOException, TransformerException {
         ArchiveHL7ApplicationExtension arcHL7App =
                 hl7App.getHL7ApplicationExtension(ArchiveHL7ApplicationExtension.class);
         HL7Segment msh = msg.msh();
         String hl7cs = msh.getField(17, hl7App.getHL7DefaultCharacterSet());
-        Attributes attrs = SAXTransformer.transform(
-                msg.data(), hl7cs, arcHL7App.scheduleProcedureTemplateURI(), tr -> {
-                    tr.setParameter("hl7ScheduledProtocolCodeInOrder", arcHL7App.hl7ScheduledProtocolCodeInOrder().toString());
-                    if (arcHL7App.hl7ScheduledStationAETInOrder() != null)
-                        tr.setParameter("hl7ScheduledStationAETInOrder", arcHL7App.hl7ScheduledStationAETInOrder().toString());
-                });
+        Attributes attrs = arcHL7App.getArchiveDeviceExtension().isHl7UseCompiledMapping()
+                ? CompiledHL7Mapping.order2dcm(msg.data(), hl7cs,
+                    arcHL7App.hl7ScheduledProtocolCodeInOrder(), arcHL7App.hl7ScheduledStationAETInOrder())
+                : SAXTransformer.transform(
+                    msg.data(), hl7cs, arcHL7App.scheduleProcedureTemplateURI(), tr -> {
+                        tr.setParameter("hl7ScheduledProtocolCodeInOrder", arcHL7App.hl7ScheduledProtocolCodeInOrder().toString());
+                        if (arcHL7App.hl7ScheduledStationAETInOrder() != null)
+                            tr.setParameter("hl7ScheduledStationAETInOrder", arcHL7App.hl7ScheduledStationAETInOrder().toString());
+                    });
         boolean result = adjust(attrs, arcHL7App, msh, s);
         if (!result) {
             LOG.warn("MWL item not created/updated for HL7 message : " + msh.getMessageType()
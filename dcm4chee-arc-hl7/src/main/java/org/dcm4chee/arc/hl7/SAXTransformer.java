@@ -11,17 +11,27 @@ import org.dcm4che3.io.SAXTransformer.SetupTransformer;
 import org.dcm4che3.io.SAXWriter;
 import org.dcm4che3.io.TemplatesCache;
 import org.dcm4che3.util.StringUtils;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
+import org.xml.sax.helpers.XMLFilterImpl;
 
+import javax.xml.transform.Result;
 import javax.xml.transform.Templates;
-import javax.xml.transform.TransformerConfigurationException;
-import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
 import javax.xml.transform.sax.SAXResult;
-import javax.xml.transform.sax.SAXTransformerFactory;
-import javax.xml.transform.sax.TransformerHandler;
+import javax.xml.transform.sax.SAXSource;
 import java.io.*;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Queue;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
+ * Applies XSL stylesheets to HL7 messages and DICOM attributes with Transformers pooled per stylesheet, so each
+ * message only pays for the transformation itself and not for creating a new Transformer.
+ *
  * @author Gunter Zeilinger <gunterze@gmail.com>
  * @since Sep 2015
  */
@@ -29,41 +39,85 @@ class SAXTransformer {
 
     private SAXTransformer() {}
 
-    private static SAXTransformerFactory factory = (SAXTransformerFactory) TransformerFactory.newInstance();
+    private static final Map<Templates, Queue<Transformer>> transformerPools =
+            Collections.synchronizedMap(new WeakHashMap<>());
 
     public static Attributes transform(byte[] data, String hl7charset, String uri, SetupTransformer setup)
-            throws TransformerConfigurationException, IOException, SAXException {
-        Templates tpl = TemplatesCache.getDefault().get(StringUtils.replaceSystemProperties(uri));
+            throws TransformerException, IOException {
         Attributes attrs = new Attributes();
         String dicomCharset = HL7Charset.toDicomCharacterSetCode(hl7charset);
         if (dicomCharset != null)
             attrs.setString(Tag.SpecificCharacterSet, VR.CS, dicomCharset);
-        TransformerHandler th = factory.newTransformerHandler(tpl);
-        th.setResult(new SAXResult(new ContentHandlerAdapter(attrs)));
-        if (setup != null)
-            setup.setup(th.getTransformer());
-        new HL7Parser(th).parse(new InputStreamReader(
-                new ByteArrayInputStream(data),
-                HL7Charset.toCharsetName(hl7charset)));
+        Reader reader = new InputStreamReader(new ByteArrayInputStream(data), HL7Charset.toCharsetName(hl7charset));
+        transform(uri, setup, new SAXEmitter() {
+            @Override
+            public void parse(InputSource input) throws IOException, SAXException {
+                new HL7Parser(getContentHandler()).parse(reader);
+            }
+        }, new SAXResult(new ContentHandlerAdapter(attrs)));
         return attrs;
     }
 
     public static byte[] transform(Attributes attrs, String hl7charset, String uri, SetupTransformer setup)
-            throws TransformerConfigurationException, SAXException, UnsupportedEncodingException {
+            throws TransformerException, UnsupportedEncodingException {
         ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Writer writer = new OutputStreamWriter(out, HL7Charset.toCharsetName(hl7charset));
+        transform(uri, setup, new SAXEmitter() {
+            @Override
+            public void parse(InputSource input) throws SAXException {
+                SAXWriter saxWriter = new SAXWriter(getContentHandler());
+                saxWriter.setIncludeKeyword(true);
+                saxWriter.setIncludeNamespaceDeclaration(false);
+                saxWriter.write(attrs);
+            }
+        }, new SAXResult(new HL7ContentHandler(writer)));
+        return out.toByteArray();
+    }
 
+    private static void transform(String uri, SetupTransformer setup, SAXEmitter emitter, Result result)
+            throws TransformerException {
         Templates tpl = TemplatesCache.getDefault().get(StringUtils.replaceSystemProperties(uri));
-        TransformerHandler th = factory.newTransformerHandler(tpl);
-        th.setResult(new SAXResult(new HL7ContentHandler(new OutputStreamWriter(out, HL7Charset.toCharsetName(hl7charset)))));
+        Queue<Transformer> pool = transformerPools.computeIfAbsent(tpl, x -> new ConcurrentLinkedQueue<>());
+        Transformer tr = pool.poll();
+        if (tr == null)
+            tr = tpl.newTransformer();
         if (setup != null)
-            setup.setup(th.getTransformer());
+            setup.setup(tr);
+        tr.transform(new SAXSource(emitter, new InputSource()), result);
+        tr.reset();
+        pool.offer(tr);
+    }
 
-        SAXWriter saxWriter = new SAXWriter(th);
-        saxWriter.setIncludeKeyword(true);
-        saxWriter.setIncludeNamespaceDeclaration(false);
-        saxWriter.write(attrs);
+    /**
+     * Source of SAX events for {@link Transformer#transform}, which ignores all features and properties requested
+     * by the Transformer.
+     */
+    private static abstract class SAXEmitter extends XMLFilterImpl {
 
-        return out.toByteArray();
-    }
+        @Override
+        public boolean getFeature(String name) {
+            return false;
+        }
+
+        @Override
+        public void setFeature(String name, boolean value) {
+        }
+
+        @Override
+        public Object getProperty(String name) {
+            return null;
+        }
 
+        @Override
+        public void setProperty(String name, Object value) {
+        }
+
+        @Override
+        public void parse(String systemId) throws IOException, SAXException {
+            parse(new InputSource(systemId));
+        }
+
+        @Override
+        public abstract void parse(InputSource input) throws IOException, SAXException;
+    }
 }
@@ -0,0 +1,163 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.hl7;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4chee.arc.conf.ScheduledProtocolCodeInOrder;
+import org.dcm4chee.arc.conf.ScheduledStationAETInOrder;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Verifies that {@link CompiledHL7Mapping} provides the same attributes as the stock XSL stylesheets.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class CompiledHL7MappingTest {
+
+    private static final String HL7_CS = "8859/1";
+    private static final String XSL_DIR = "../dcm4chee-arc-conf-data/src/main/resources/";
+    private static final String MSH = "MSH|^~\\&|SENDER|FACILITY|DCM4CHEE|DCM4CHEE|20180801120000||";
+
+    @Test
+    public void adt2dcm() throws Exception {
+        assertADT(msg("ADT^A28^ADT_A05",
+                seg("PID", 3, "P1^^^ISSUER", 5, "Doe^John^M^Jr^Dr^MD", 6, "Mother^Mary",
+                        7, "19700101120000", 8, "M")));
+        assertADT(msg("ADT^A28^ADT_A05",
+                seg("PID", 3, "P1^^^ISSUER&1.2.3&ISO~P2^^^OTHER", 5, "Doe\\S\\Jane^^^^^PhD", 7, "\"\"",
+                        8, "Female")));
+        assertADT(msg("ADT^A31^ADT_A05",
+                seg("PID", 3, "P1", 5, "\"\"", 6, "\"\"", 8, "\"\"")));
+        assertADT(msg("ADT^A28^ADT_A05",
+                seg("PID", 2, "CHIP1", 3, "P1^^^ISSUER", 4, "TATTOO1^^^VET", 5, "Rex", 7, "20100101", 8, "M^Y",
+                        9, "Owner^Joe", 35, "L-80700^Canine species^SRT", 36, "Beagle"),
+                seg("PV1", 2, "O")));
+        assertADT(msg("ADT^A28^ADT_A05",
+                seg("PID", 2, "\"\"", 3, "P1", 4, "TATTOO1", 8, "F^N", 9, "\"\"",
+                        35, "^Feline species", 36, "\"\"")));
+        assertADT(msg("ADT^A40^ADT_A39",
+                seg("PID", 3, "P1^^^ISSUER", 5, "Doe^John"),
+                seg("MRG", 1, "P0^^^ISSUER", 7, "Doe^Jon")));
+        assertADT(msg("ADT^A47^ADT_A30",
+                seg("PID", 3, "P1^^^ISSUER&1.2.3&ISO"),
+                seg("MRG", 1, "P0^^^ISSUER&1.2.3&ISO")));
+    }
+
+    @Test
+    public void order2dcm() throws Exception {
+        String single = msg("ORM^O01^ORM_O01",
+                seg("PID", 3, "P1^^^ISSUER", 5, "Doe^John", 7, "19700101", 8, "M"),
+                seg("PV1", 8, "REF1^Referring^Rita", 15, "B6", 19, "V1^^^ADM"),
+                seg("ORC", 1, "NW", 2, "PL1^PLACER^1.2.3^ISO", 3, "FL1^FILLER", 5, "SC",
+                        7, "^^^20180802101500+0200^^S", 18, "AET1~AET2"),
+                seg("OBR", 4, "P1^Procedure^LOCAL^SP1^Step^LOCAL", 12, "Ambulant", 13, "Allergy",
+                        16, "REQ1^Requesting^Ron", 18, "ACC1", 19, "RP1", 20, "SPS1", 24, "CT",
+                        30, "WALK", 31, "R1^Reason^LOCAL", 34, "PERF1&Performing&Pete",
+                        44, "RPC1^Requested Procedure^LOCAL"),
+                seg("ZDS", 1, "1.2.3.4.5^DCM4CHEE^Application^DICOM"));
+        assertOrder(single, ScheduledProtocolCodeInOrder.OBR_4_4, null);
+        assertOrder(single, ScheduledProtocolCodeInOrder.OBR_4_1, ScheduledStationAETInOrder.ORC_18);
+        String multiple = msg("OMI^O23^OMI_O23",
+                seg("PID", 3, "P1", 5, "Doe^John"),
+                seg("PV1", 15, "A0", 19, "\"\""),
+                seg("ORC", 1, "XO", 2, "PL1", 5, "IP"),
+                seg("TQ1", 7, "201808021015-0500", 9, "R"),
+                seg("OBR", 4, "^^^SP1^Step 1^LOCAL", 18, "ACC1", 24, "MR"),
+                seg("IPC", 1, "ACC1^^1.2.3^ISO", 2, "RP1", 3, "1.2.3.4.6", 4, "SPS1", 5, "MR",
+                        6, "PC1^Protocol 1^LOCAL", 7, "STATION1~STATION2", 8, "ROOM1", 9, "AET1~AET2"),
+                seg("ORC", 1, "XO", 2, "PL1", 5, "IP", 7, "^^^\"\""),
+                seg("OBR", 4, "P2^Procedure 2^LOCAL", 20, "SPS2", 24, "CT"),
+                seg("IPC", 1, "\"\"", 2, "RP1", 4, "SPS2", 5, "CT", 6, "\"\"", 9, "\"\""));
+        assertOrder(multiple, ScheduledProtocolCodeInOrder.OBR_4_4, ScheduledStationAETInOrder.ORC_18);
+        assertOrder(multiple, ScheduledProtocolCodeInOrder.OBR_4_1, null);
+    }
+
+    private static void assertADT(String msg) throws Exception {
+        byte[] data = msg.getBytes(StandardCharsets.ISO_8859_1);
+        assertEquals(msg,
+                SAXTransformer.transform(data, HL7_CS, xsl("hl7-adt2dcm.xsl"), null),
+                CompiledHL7Mapping.adt2dcm(data, HL7_CS));
+    }
+
+    private static void assertOrder(String msg, ScheduledProtocolCodeInOrder protocolCodeInOrder,
+            ScheduledStationAETInOrder stationAETInOrder) throws Exception {
+        byte[] data = msg.getBytes(StandardCharsets.ISO_8859_1);
+        Attributes expected = SAXTransformer.transform(data, HL7_CS, xsl("hl7-order2dcm.xsl"), tr -> {
+            tr.setParameter("hl7ScheduledProtocolCodeInOrder", protocolCodeInOrder.toString());
+            if (stationAETInOrder != null)
+                tr.setParameter("hl7ScheduledStationAETInOrder", stationAETInOrder.toString());
+        });
+        assertEquals(msg, expected,
+                CompiledHL7Mapping.order2dcm(data, HL7_CS, protocolCodeInOrder, stationAETInOrder));
+    }
+
+    private static String xsl(String name) {
+        return new File(XSL_DIR + name).toURI().toString();
+    }
+
+    private static String msg(String msgType, String... segments) {
+        StringBuilder sb = new StringBuilder(MSH)
+                .append(msgType).append("|1|P|2.5||||||").append(HL7_CS).append('\r');
+        for (String segment : segments)
+            sb.append(segment).append('\r');
+        return sb.toString();
+    }
+
+    private static String seg(String name, Object... fields) {
+        List<String> list = new ArrayList<>();
+        list.add(name);
+        for (int i = 0; i < fields.length; i += 2) {
+            int index = (Integer) fields[i];
+            while (list.size() <= index)
+                list.add("");
+            list.set(index, (String) fields[i + 1]);
+        }
+        return String.join("|", list);
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.hl7;
+
+import org.dcm4che3.net.Device;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link HL7LogAppender} and logs the latency until a received HL7 message is synced to its HL7 Log File,
+ * which has to be awaited before the message is forwarded. The latency is measured for messages received over
+ * concurrent connections, written to one HL7 Log File per message, as by the HL7 Log File Pattern
+ * {@code ${SerialNo}-${MSH-9}.hl7}, either by the receiving thread or queued to the {@link HL7LogAppender}.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class HL7LogAppenderTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HL7LogAppenderTest.class);
+
+    private static final int CONNECTIONS = 10;
+    private static final int MESSAGES_PER_CONNECTION = 50;
+    private static final String MESSAGE_TYPE = "ADT^A28^ADT_A05";
+    private static final byte[] MSG = ("MSH|^~\\&|SENDER|FACILITY|DCM4CHEE|DCM4CHEE|20180801120000||" + MESSAGE_TYPE
+            + "|1|P|2.5\r" + "PID|||P1^^^ISSUER||Doe^John||19700101|M\r").getBytes(StandardCharsets.ISO_8859_1);
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void append() throws Exception {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            Path syncDir = tmp.newFolder("sync").toPath();
+            long syncLatency = receive(executor, serialNo -> writeAndSync(logFile(syncDir, serialNo)));
+
+            Device device = new Device("hl7logtest");
+            device.setExecutor(executor);
+            HL7LogAppender appender = new HL7LogAppender(device);
+            Path asyncDir = tmp.newFolder("async").toPath();
+            long asyncLatency = receive(executor, serialNo -> appender.append(logFile(asyncDir, serialNo), MSG).join());
+
+            for (int serialNo = 0; serialNo < CONNECTIONS * MESSAGES_PER_CONNECTION; serialNo++)
+                assertArrayEquals(MSG, Files.readAllBytes(logFile(asyncDir, serialNo)));
+            LOG.info("Latency until HL7 message is synced to HL7 Log File with HL7LogAppender: {} ns, "
+                    + "by receiving thread: {} ns", asyncLatency, syncLatency);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void appendFailed() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Device device = new Device("hl7logtest");
+            device.setExecutor(executor);
+            HL7LogAppender appender = new HL7LogAppender(device);
+            Path notADirectory = tmp.newFile("hl7.log").toPath();
+            CompletableFuture<Void> written = appender.append(notADirectory.resolve("hl7.log"), MSG);
+            try {
+                written.get(1, TimeUnit.MINUTES);
+                fail("Expected ExecutionException");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IOException);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Receives {@link #MESSAGES_PER_CONNECTION} messages on each of {@link #CONNECTIONS} concurrent connections.
+     *
+     * @return average latency of {@code log} in ns
+     */
+    private static long receive(ExecutorService executor, Log log) throws Exception {
+        List<Future<Long>> connections = new ArrayList<>(CONNECTIONS);
+        for (int i = 0; i < CONNECTIONS; i++) {
+            int connectionNo = i;
+            connections.add(executor.submit(() -> {
+                long latency = 0L;
+                for (int j = 0; j < MESSAGES_PER_CONNECTION; j++) {
+                    long start = System.nanoTime();
+                    log.log(connectionNo * MESSAGES_PER_CONNECTION + j);
+                    latency += System.nanoTime() - start;
+                }
+                return latency;
+            }));
+        }
+        long latency = 0L;
+        for (Future<Long> connection : connections)
+            latency += connection.get(1, TimeUnit.MINUTES);
+        return latency / (CONNECTIONS * MESSAGES_PER_CONNECTION);
+    }
+
+    private static void writeAndSync(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buf = ByteBuffer.wrap(MSG);
+            while (buf.hasRemaining())
+                channel.write(buf);
+            channel.force(false);
+        }
+    }
+
+    private static Path logFile(Path dir, int serialNo) {
+        return dir.resolve("hl7").resolve(serialNo + "-" + MESSAGE_TYPE + ".hl7");
+    }
+
+    @FunctionalInterface
+    private interface Log {
+        void log(int serialNo) throws Exception;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.metadata;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4chee.arc.retrieve.RetrieveContext;
+import org.dcm4chee.arc.retrieve.RetrieveService;
+import org.dcm4chee.arc.store.InstanceLocations;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Loads the metadata of the matching instances of a Series ahead of writing them into the Series Metadata ZIP.
+ * If no thread of the executor picks up the reader, the writing thread loads the metadata itself.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+class MetadataReader implements Runnable {
+
+    private final RetrieveService retrieveService;
+    private final RetrieveContext ctx;
+    private final BlockingQueue<Object> queue;
+    private final AtomicBoolean claimed = new AtomicBoolean();
+    private volatile boolean cancelled;
+    private boolean inline;
+
+    MetadataReader(RetrieveService retrieveService, RetrieveContext ctx, int capacity) {
+        this.retrieveService = retrieveService;
+        this.ctx = ctx;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public void run() {
+        if (!claimed.compareAndSet(false, true))
+            return;
+
+        try {
+            for (InstanceLocations match : ctx.getMatches()) {
+                Object item;
+                try {
+                    item = load(match);
+                } catch (Throwable e) {
+                    item = e;
+                }
+                while (!queue.offer(item, 100, TimeUnit.MILLISECONDS))
+                    if (cancelled)
+                        return;
+                if (item instanceof Throwable)
+                    return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the metadata of the next matching instance. Must be invoked in the order of
+     * {@link RetrieveContext#getMatches()} by one thread.
+     */
+    Attributes next(InstanceLocations match) throws IOException {
+        if (inline)
+            return load(match);
+
+        Object item;
+        try {
+            while ((item = queue.poll(10, TimeUnit.MILLISECONDS)) == null) {
+                if (claimed.compareAndSet(false, true)) {
+                    inline = true;
+                    return load(match);
+                }
+            }
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException();
+        }
+        if (item instanceof IOException)
+            throw (IOException) item;
+        if (item instanceof RuntimeException)
+            throw (RuntimeException) item;
+        if (item instanceof Error)
+            throw (Error) item;
+        return (Attributes) item;
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+
+    private Attributes load(InstanceLocations match) throws IOException {
+        return match.isContainsMetadata() ? match.getAttributes() : retrieveService.loadMetadata(ctx, match);
+    }
+}
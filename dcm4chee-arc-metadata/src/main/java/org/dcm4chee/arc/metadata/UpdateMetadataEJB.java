@@ -64,6 +64,10 @@ public class UpdateMetadataEJB {
                 .getResultList();
     }
 
+    public long countSeriesForScheduledMetadataUpdate() {
+        return em.createNamedQuery(Series.COUNT_SCHEDULED_METADATA_UPDATE, Long.class).getSingleResult();
+    }
+
     public boolean claim(Long seriesPk) {
         Series series = em.find(Series.class, seriesPk);
         if (series.getMetadataScheduledUpdateTime() == null)
@@ -44,6 +44,8 @@ import org.dcm4che3.conf.api.ConfigurationChanges;
 import org.dcm4che3.conf.api.ConfigurationException;
 import org.dcm4che3.conf.api.DicomConfiguration;
 import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Sequence;
+import org.dcm4che3.dict.archive.ArchiveTag;
 import org.dcm4che3.json.JSONWriter;
 import org.dcm4che3.net.Device;
 import org.dcm4chee.arc.Scheduler;
@@ -53,6 +55,7 @@ import org.dcm4chee.arc.conf.StorageDescriptor;
 import org.dcm4chee.arc.entity.Metadata;
 import org.dcm4chee.arc.entity.Series;
 import org.dcm4chee.arc.event.SoftwareConfiguration;
+import org.dcm4chee.arc.metrics.MetricsService;
 import org.dcm4chee.arc.retrieve.RetrieveContext;
 import org.dcm4chee.arc.retrieve.RetrieveService;
 import org.dcm4chee.arc.storage.Storage;
@@ -62,6 +65,7 @@ import org.dcm4chee.arc.store.InstanceLocations;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.event.Event;
 import javax.inject.Inject;
@@ -70,6 +74,9 @@ import javax.json.stream.JsonGenerator;
 import java.io.IOException;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -81,6 +88,7 @@ import java.util.zip.ZipOutputStream;
 public class UpdateMetadataScheduler extends Scheduler {
 
     private static final Logger LOG = LoggerFactory.getLogger(UpdateMetadataScheduler.class);
+    private static final int PREFETCH_INSTANCES = 10;
 
     @Inject
     private DicomConfiguration conf;
@@ -100,10 +108,26 @@ public class UpdateMetadataScheduler extends Scheduler {
     @Inject
     private StorageFactory storageFactory;
 
+    @Inject
+    private MetricsService metricsService;
+
+    private final LongAdder updatedSeries = new LongAdder();
+    private final LongAdder updatedInstances = new LongAdder();
+    private final LongAdder failedSeries = new LongAdder();
+    private volatile long backlog;
+
     protected UpdateMetadataScheduler() {
         super(Mode.scheduleWithFixedDelay);
     }
 
+    @PostConstruct
+    private void registerMetrics() {
+        metricsService.counter("metadata_updated_series_total", updatedSeries::sum);
+        metricsService.counter("metadata_updated_instances_total", updatedInstances::sum);
+        metricsService.counter("metadata_failed_series_total", failedSeries::sum);
+        metricsService.gauge("metadata_scheduled_series", () -> backlog);
+    }
+
     @Override
     protected Logger log() {
         return LOG;
@@ -132,32 +156,90 @@ public class UpdateMetadataScheduler extends Scheduler {
 
         List<StorageDescriptor> descriptors = arcDev.getStorageDescriptors(storageIDs);
         int fetchSize = arcDev.getSeriesMetadataFetchSize();
+        int threads = arcDev.getSeriesMetadataThreads();
+        long startTime = System.currentTimeMillis();
+        long seriesBefore = updatedSeries.sum();
+        long instancesBefore = updatedInstances.sum();
         List<Series.MetadataUpdate> metadataUpdates;
         do {
             metadataUpdates = ejb.findSeriesForScheduledMetadataUpdate(fetchSize);
-            if (!metadataUpdates.isEmpty())
-                try (Storage storage = storageFactory.getUsableStorage(descriptors)) {
-                    for (Series.MetadataUpdate metadataUpdate : metadataUpdates) {
-                        if (getPollingInterval() == null)
-                            return;
-
-                        try (RetrieveContext ctx = retrieveService.newRetrieveContextSeriesMetadata(metadataUpdate)) {
-                            updateMetadata(ctx, storage);
-                        } catch (Exception e) {
-                            LOG.error("{} failed:\n", metadataUpdate, e);
-                        }
-                    }
+            if (!metadataUpdates.isEmpty()) {
+                List<Storage> storages;
+                try {
+                    storages = storageFactory.getUsableStorages(descriptors);
                 } catch (IOException e) {
                     LOG.error("Failed to access Storage:\n", e);
+                    break;
+                }
+                try {
+                    updateMetadata(metadataUpdates, storages, threads);
+                } finally {
+                    for (Storage storage : storages)
+                        close(storage);
                 }
+            }
+        }
+        while (metadataUpdates.size() == fetchSize && getPollingInterval() != null);
+        backlog = ejb.countSeriesForScheduledMetadataUpdate();
+        long series = updatedSeries.sum() - seriesBefore;
+        if (series > 0) {
+            long time = Math.max(1, System.currentTimeMillis() - startTime);
+            LOG.info("Created/Updated Metadata for {} Series with {} Instances in {} ms ({} Series/s)" +
+                            " - {} Series still scheduled for Metadata update",
+                    series, updatedInstances.sum() - instancesBefore, time, series * 1000 / time, backlog);
         }
-        while (metadataUpdates.size() == fetchSize);
         if (descriptors.size() < storageIDs.length) {
             arcDev.setSeriesMetadataStorageIDs(StorageDescriptor.storageIDsOf(descriptors));
             updateDeviceConfiguration(arcDev);
         }
     }
 
+    private void updateMetadata(List<Series.MetadataUpdate> metadataUpdates, List<Storage> storages, int threads) {
+        Semaphore semaphore = new Semaphore(threads);
+        int i = 0;
+        for (Series.MetadataUpdate metadataUpdate : metadataUpdates) {
+            if (getPollingInterval() == null)
+                break;
+
+            Storage storage = storages.get(i++ % storages.size());
+            if (threads == 1) {
+                updateMetadata(metadataUpdate, storage);
+                continue;
+            }
+            semaphore.acquireUninterruptibly();
+            try {
+                device.execute(() -> {
+                    try {
+                        updateMetadata(metadataUpdate, storage);
+                    } finally {
+                        semaphore.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                semaphore.release();
+                updateMetadata(metadataUpdate, storage);
+            }
+        }
+        semaphore.acquireUninterruptibly(threads);
+    }
+
+    private void updateMetadata(Series.MetadataUpdate metadataUpdate, Storage storage) {
+        try (RetrieveContext ctx = retrieveService.newRetrieveContextSeriesMetadata(metadataUpdate)) {
+            updateMetadata(ctx, storage);
+        } catch (Exception e) {
+            failedSeries.increment();
+            LOG.error("{} failed:\n", metadataUpdate, e);
+        }
+    }
+
+    private static void close(Storage storage) {
+        try {
+            storage.close();
+        } catch (IOException e) {
+            LOG.warn("Failed to close {}:\n", storage, e);
+        }
+    }
+
     private void updateDeviceConfiguration(ArchiveDeviceExtension arcDev) {
         try {
             LOG.info("Update Storage configuration of Device: {}:\n", device.getDeviceName());
@@ -181,12 +263,22 @@ public class UpdateMetadataScheduler extends Scheduler {
                 ctx.getSeriesMetadataUpdate().seriesPk,
                 storage.getStorageDescriptor());
         WriteContext writeCtx = createWriteContext(storage, ctx.getMatches().iterator().next());
+        MetadataReader reader = new MetadataReader(retrieveService, ctx, PREFETCH_INSTANCES);
+        try {
+            device.execute(reader);
+        } catch (RejectedExecutionException e) {
+            LOG.debug("Failed to prefetch Metadata for Series[pk={}] - load it sequentially",
+                    ctx.getSeriesMetadataUpdate().seriesPk);
+        }
         try {
             try (ZipOutputStream out = new ZipOutputStream(storage.openOutputStream(writeCtx))) {
                 for (InstanceLocations match : ctx.getMatches()) {
-                    out.putNextEntry(new ZipEntry(match.getSopInstanceUID()));
+                    Attributes metadata = reader.next(match);
+                    ZipEntry entry = new ZipEntry(match.getSopInstanceUID());
+                    entry.setComment(storageIDs(metadata));
+                    out.putNextEntry(entry);
                     JsonGenerator gen = Json.createGenerator(out);
-                    new JSONWriter(gen).write(loadMetadata(ctx, match));
+                    new JSONWriter(gen).write(metadata);
                     gen.flush();
                     out.closeEntry();
                 }
@@ -194,7 +286,10 @@ public class UpdateMetadataScheduler extends Scheduler {
             }
             storage.commitStorage(writeCtx);
             ejb.commit(ctx.getSeriesMetadataUpdate().seriesPk, createMetadata(writeCtx));
+            updatedSeries.increment();
+            updatedInstances.add(ctx.getMatches().size());
         } catch (Exception e) {
+            reader.cancel();
             LOG.warn("Failed to create/update Metadata for Series[pk={}] on {}:\n",
                     ctx.getSeriesMetadataUpdate().seriesPk,
                     storage.getStorageDescriptor(),
@@ -211,6 +306,25 @@ public class UpdateMetadataScheduler extends Scheduler {
                 storage.getStorageDescriptor());
     }
 
+    private static String storageIDs(Attributes metadata) {
+        StringBuilder sb = new StringBuilder();
+        appendStorageID(sb, metadata);
+        Sequence otherStorageSeq = metadata.getSequence(ArchiveTag.PrivateCreator, ArchiveTag.OtherStorageSequence);
+        if (otherStorageSeq != null)
+            for (Attributes otherStorageItem : otherStorageSeq)
+                appendStorageID(sb, otherStorageItem);
+        return sb.length() > 0 ? sb.toString() : null;
+    }
+
+    private static void appendStorageID(StringBuilder sb, Attributes attrs) {
+        String storageID = attrs.getString(ArchiveTag.PrivateCreator, ArchiveTag.StorageID);
+        if (storageID != null) {
+            if (sb.length() > 0)
+                sb.append('\\');
+            sb.append(storageID);
+        }
+    }
+
     private boolean claim(RetrieveContext ctx, Storage storage) {
         try {
             return ejb.claim(ctx.getSeriesMetadataUpdate().seriesPk);
@@ -223,10 +337,6 @@ public class UpdateMetadataScheduler extends Scheduler {
         }
     }
 
-    private Attributes loadMetadata(RetrieveContext ctx, InstanceLocations match) throws IOException {
-        return match.isContainsMetadata() ? match.getAttributes() : retrieveService.loadMetadata(ctx, match);
-    }
-
     private Metadata createMetadata(WriteContext writeContext) {
         Metadata metadata = new Metadata();
         metadata.setStorageID(writeContext.getStorage().getStorageDescriptor().getStorageID());
@@ -48,6 +48,13 @@ package org.dcm4chee.arc.monitor.rs;
 import org.dcm4che3.net.Association;
 import org.dcm4che3.net.Device;
 import org.dcm4che3.net.Dimse;
+import org.dcm4chee.arc.Cache;
+import org.dcm4chee.arc.LeadingCFindSCPQueryCache;
+import org.dcm4chee.arc.MergeMWLCache;
+import org.dcm4chee.arc.PatientIDLock;
+import org.dcm4chee.arc.StorePermissionCache;
+import org.dcm4chee.arc.StripedLock;
+import org.dcm4chee.arc.metrics.*;
 import org.jboss.resteasy.annotations.cache.NoCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -74,6 +81,21 @@ public class ArchiveMonitor {
     @Inject
     private Device device;
 
+    @Inject
+    private LeadingCFindSCPQueryCache leadingCFindSCPQueryCache;
+
+    @Inject
+    private MergeMWLCache mergeMWLCache;
+
+    @Inject
+    private StorePermissionCache storePermissionCache;
+
+    @Inject
+    private PatientIDLock patientIDLock;
+
+    @Inject
+    private MetricsService metricsService;
+
     @Context
     private HttpServletRequest request;
 
@@ -136,6 +158,247 @@ public class ArchiveMonitor {
                 + new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ").format(new Date()) + "\"}";
     }
 
+    @GET
+    @NoCache
+    @Path("caches")
+    @Produces("application/json")
+    public StreamingOutput listCaches() {
+        logRequest();
+        return out -> {
+                Writer w = new OutputStreamWriter(out, "UTF-8");
+                w.write('[');
+                writeCache(w, "leadingCFindSCPQueryCache", leadingCFindSCPQueryCache);
+                w.write(',');
+                writeCache(w, "mergeMWLCache", mergeMWLCache);
+                w.write(',');
+                writeCache(w, "storePermissionCache", storePermissionCache);
+                w.write(']');
+                w.flush();
+        };
+    }
+
+    @GET
+    @NoCache
+    @Path("locks")
+    @Produces("application/json")
+    public StreamingOutput listLocks() {
+        logRequest();
+        return out -> {
+                Writer w = new OutputStreamWriter(out, "UTF-8");
+                w.write('[');
+                writeLock(w, "patientIDLock", patientIDLock);
+                w.write(']');
+                w.flush();
+        };
+    }
+
+    @GET
+    @NoCache
+    @Path("metrics")
+    @Produces("application/json")
+    public StreamingOutput listMetricsAsJSON() {
+        logRequest();
+        return out -> {
+                Writer w = new OutputStreamWriter(out, "UTF-8");
+                w.write('[');
+                int count = 0;
+                for (Metric metric : metricsService.getMetrics()) {
+                    if (count++ > 0)
+                        w.write(',');
+                    writeJSON(w, metric);
+                }
+                w.write(']');
+                w.flush();
+        };
+    }
+
+    @GET
+    @NoCache
+    @Path("metrics")
+    @Produces("text/plain")
+    public StreamingOutput listMetricsAsPrometheusText() {
+        logRequest();
+        return out -> {
+                Writer w = new OutputStreamWriter(out, "UTF-8");
+                String prevName = null;
+                for (Metric metric : metricsService.getMetrics()) {
+                    if (!metric.getName().equals(prevName))
+                        writeType(w, prevName = metric.getName(), metric.getType());
+                    writePrometheus(w, metric);
+                }
+                w.flush();
+        };
+    }
+
+    private static void writeJSON(Writer w, Metric metric) throws IOException {
+        writeJSON(w, metric.getName(), metric.getType(), metric.getLabels());
+        switch (metric.getType()) {
+            case counter:
+            case gauge:
+                w.write(",\"value\":");
+                w.write(String.valueOf(valueOf(metric)));
+                break;
+            case histogram:
+                Timer timer = (Timer) metric;
+                long[] counts = timer.getCumulativeCounts();
+                w.write(",\"count\":");
+                w.write(String.valueOf(counts[Timer.BUCKETS - 1]));
+                w.write(",\"sum\":");
+                w.write(String.valueOf(timer.getSum()));
+                w.write(",\"max\":");
+                w.write(String.valueOf(timer.getMax()));
+                w.write(",\"buckets\":{");
+                long prev = 0L;
+                for (int i = 0; i < Timer.BUCKETS - 1; i++) {
+                    if (counts[i] > prev) {
+                        if (prev > 0L)
+                            w.write(',');
+                        w.write('\"');
+                        w.write(String.valueOf(Timer.upperBound(i)));
+                        w.write("\":");
+                        w.write(String.valueOf(prev = counts[i]));
+                    }
+                }
+                w.write('}');
+                break;
+        }
+        w.write('}');
+    }
+
+    private static void writeJSON(Writer w, String name, Metric.Type type, String[] labels) throws IOException {
+        w.write("{\"name\":\"");
+        w.write(name);
+        w.write("\",\"type\":\"");
+        w.write(type.name());
+        w.write('\"');
+        if (labels.length > 0) {
+            w.write(",\"labels\":{");
+            for (int i = 0; i < labels.length; i += 2) {
+                if (i > 0)
+                    w.write(',');
+                w.write('\"');
+                w.write(labels[i]);
+                w.write("\":\"");
+                writeEscaped(w, labels[i + 1]);
+                w.write('\"');
+            }
+            w.write('}');
+        }
+    }
+
+    private static long valueOf(Metric metric) {
+        return metric instanceof Counter ? ((Counter) metric).get() : ((Gauge) metric).get();
+    }
+
+    private static void writeType(Writer w, String name, Metric.Type type) throws IOException {
+        w.write("# TYPE ");
+        w.write(name);
+        w.write(' ');
+        w.write(type.name());
+        w.write('\n');
+    }
+
+    private static void writePrometheus(Writer w, Metric metric) throws IOException {
+        String name = metric.getName();
+        String[] labels = metric.getLabels();
+        switch (metric.getType()) {
+            case counter:
+            case gauge:
+                writeSample(w, name, labels, null, null, valueOf(metric));
+                break;
+            case histogram:
+                Timer timer = (Timer) metric;
+                long[] counts = timer.getCumulativeCounts();
+                String bucket = name + "_bucket";
+                for (int i = 0; i < Timer.BUCKETS - 1; i++)
+                    writeSample(w, bucket, labels, "le", String.valueOf(Timer.upperBound(i)), counts[i]);
+                writeSample(w, bucket, labels, "le", "+Inf", counts[Timer.BUCKETS - 1]);
+                writeSample(w, name + "_sum", labels, null, null, timer.getSum());
+                writeSample(w, name + "_count", labels, null, null, counts[Timer.BUCKETS - 1]);
+                break;
+        }
+    }
+
+    private static void writeSample(Writer w, String name, String[] labels, String extraLabel, String extraValue,
+            Object value) throws IOException {
+        w.write(name);
+        if (labels.length > 0 || extraLabel != null) {
+            w.write('{');
+            for (int i = 0; i < labels.length; i += 2) {
+                if (i > 0)
+                    w.write(',');
+                w.write(labels[i]);
+                w.write("=\"");
+                writeEscaped(w, labels[i + 1]);
+                w.write('\"');
+            }
+            if (extraLabel != null) {
+                if (labels.length > 0)
+                    w.write(',');
+                w.write(extraLabel);
+                w.write("=\"");
+                w.write(extraValue);
+                w.write('\"');
+            }
+            w.write('}');
+        }
+        w.write(' ');
+        w.write(String.valueOf(value));
+        w.write('\n');
+    }
+
+    private static void writeEscaped(Writer w, String s) throws IOException {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '\\':
+                case '\"':
+                    w.write('\\');
+                    w.write(c);
+                    break;
+                case '\n':
+                    w.write("\\n");
+                    break;
+                default:
+                    w.write(c);
+            }
+        }
+    }
+
+    private static void writeLock(Writer w, String name, StripedLock lock) throws IOException {
+        w.write("{\"name\":\"");
+        w.write(name);
+        w.write("\",\"stripes\":");
+        w.write(String.valueOf(lock.getStripes()));
+        w.write(",\"acquisitions\":");
+        w.write(String.valueOf(lock.getAcquisitions()));
+        w.write(",\"contentions\":");
+        w.write(String.valueOf(lock.getContentions()));
+        w.write(",\"waitTime\":");
+        w.write(String.valueOf(lock.getWaitTime()));
+        w.write('}');
+    }
+
+    private static void writeCache(Writer w, String name, Cache<?,?> cache) throws IOException {
+        w.write("{\"name\":\"");
+        w.write(name);
+        w.write("\",\"size\":");
+        w.write(String.valueOf(cache.size()));
+        w.write(",\"maxSize\":");
+        w.write(String.valueOf(cache.getMaxSize()));
+        w.write(",\"staleTimeout\":");
+        w.write(String.valueOf(cache.getStaleTimeout()));
+        w.write(",\"hits\":");
+        w.write(String.valueOf(cache.getHits()));
+        w.write(",\"misses\":");
+        w.write(String.valueOf(cache.getMisses()));
+        w.write(",\"loads\":");
+        w.write(String.valueOf(cache.getLoads()));
+        w.write(",\"evictions\":");
+        w.write(String.valueOf(cache.getEvictions()));
+        w.write('}');
+    }
+
     private void writeOtherProperties(Writer w, Association as) throws IOException {
         for (String key : as.getPropertyNames()) {
             Object value = as.getProperty(key);
@@ -64,6 +64,7 @@ import org.jboss.resteasy.plugins.providers.multipart.MultipartRelatedOutput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
 import javax.json.Json;
@@ -128,6 +129,14 @@ public class QidoRS {
     @Pattern(regexp = "[1-9]\\d{0,4}")
     private String limit;
 
+    @QueryParam("continuationtoken")
+    @Pattern(regexp = "[A-Za-z0-9_-]*")
+    private String continuationtoken;
+
+    private Query streamedQuery;
+
+    private Transaction streamedTransaction;
+
     @QueryParam("withoutstudies")
     @Pattern(regexp = "true|false")
     private String withoutstudies;
@@ -411,53 +420,93 @@ public class QidoRS {
         QueryContext ctx = newQueryContext(method, queryAttrs, studyInstanceUID, seriesInstanceUID, model);
         ctx.setReturnKeys(queryAttrs.getReturnKeys(qido.includetags));
         ArchiveAEExtension arcAE = ctx.getArchiveAEExtension();
-        try (Query query = model.createQuery(service, ctx)) {
+        boolean keyset = continuationtoken != null && !ctx.isConsiderPurgedInstances();
+        Query query = model.createQuery(service, ctx);
+        Transaction transaction = null;
+        try {
             query.initQuery();
             int maxResults = arcAE.qidoMaxNumberOfResults();
             int offsetInt = parseInt(offset);
             int limitInt = parseInt(limit);
             int remaining = 0;
-            if (maxResults > 0 && (limitInt == 0 || limitInt > maxResults) && !ctx.isConsiderPurgedInstances()) {
-                int numResults = (int) (query.fetchCount() - offsetInt);
-                if (numResults <= 0)
-                    return Response.noContent().build();
-
-                remaining = numResults - maxResults;
+            if (keyset) {
+                try {
+                    query.keyset(continuationtoken);
+                } catch (IllegalArgumentException e) {
+                    return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).type("text/plain")
+                            .build();
+                }
+                if (maxResults > 0 && (limitInt == 0 || limitInt > maxResults))
+                    limitInt = maxResults;
+            } else {
+                if (maxResults > 0 && (limitInt == 0 || limitInt > maxResults) && !ctx.isConsiderPurgedInstances()) {
+                    int numResults = (int) (query.fetchCount() - offsetInt);
+                    if (numResults <= 0)
+                        return Response.noContent().build();
+
+                    remaining = numResults - maxResults;
+                }
+                if (offsetInt > 0)
+                    query.offset(offsetInt);
             }
-            if (offsetInt > 0)
-                query.offset(offsetInt);
 
             if (remaining > 0)
                 query.limit(maxResults);
             else if (limitInt > 0)
                 query.limit(limitInt);
 
-            Transaction transaction = query.beginTransaction();
-            try {
-                query.setFetchSize(arcAE.getArchiveDeviceExtension().getQueryFetchSize());
-                query.executeQuery();
-                if (!query.hasMoreMatches())
-                    return Response.noContent().build();
-
-                Response.ResponseBuilder builder = Response.ok();
-                if (remaining > 0)
-                    builder.header("Warning", warning(remaining));
-
-                return builder.entity(
-                        output.entity(this, method, query, model, model.getAttributesCoercion(service, ctx)))
-                        .build();
-            } finally {
-                try {
-                    transaction.commit();
-                } catch (Exception e) {
-                    LOG.warn("Failed to commit transaction:\n{}", e);
-                }
+            transaction = query.beginTransaction();
+            query.setFetchSize(arcAE.getArchiveDeviceExtension().getQueryFetchSize());
+            query.executeQuery();
+            if (!query.hasMoreMatches())
+                return Response.noContent().build();
+
+            Response.ResponseBuilder builder = Response.ok();
+            if (remaining > 0)
+                builder.header("Warning", warning(remaining));
+
+            AttributesCoercion coercion = model.getAttributesCoercion(service, ctx);
+            if (!keyset && output == Output.JSON) {
+                streamedQuery = query;
+                streamedTransaction = transaction;
+                query = null;
+                return builder.entity(streamJSON(method, model, coercion)).build();
+            }
+            builder.entity(output.entity(this, method, query, model, coercion));
+            if (keyset) {
+                String nextContinuationToken = query.continuationToken();
+                if (nextContinuationToken != null)
+                    builder.header("Continuation-Token", nextContinuationToken);
             }
+            return builder.build();
         } catch (Exception e) {
             throw new WebApplicationException(errResponseAsTextPlain(e));
+        } finally {
+            if (query != null)
+                close(query, transaction);
         }
     }
 
+    @PreDestroy
+    private void closeStreamedQuery() {
+        // if the response entity was not written - e.g. on failure to build or send the response
+        if (streamedQuery != null) {
+            close(streamedQuery, streamedTransaction);
+            streamedQuery = null;
+            streamedTransaction = null;
+        }
+    }
+
+    private static void close(Query query, Transaction transaction) {
+        if (transaction != null)
+            try {
+                transaction.commit();
+            } catch (Exception e) {
+                LOG.warn("Failed to commit transaction:\n{}", e);
+            }
+        query.close();
+    }
+
     private void logRequest() {
         LOG.info("Process GET {} from {}@{}", request.getRequestURI(), request.getRemoteUser(), request.getRemoteHost());
     }
@@ -670,6 +719,33 @@ public class QidoRS {
         };
     }
 
+    private StreamingOutput streamJSON(String method, Model model, AttributesCoercion coercion) {
+        Query query = streamedQuery;
+        return out -> {
+            try {
+                JsonGenerator gen = Json.createGenerator(out);
+                JSONWriter writer = new JSONWriter(gen);
+                gen.writeStartArray();
+                int count = 0;
+                while (query.hasMoreMatches()) {
+                    Attributes tmp = query.nextMatch();
+                    if (tmp == null)
+                        continue;
+                    Attributes match = adjust(tmp, model, query, coercion);
+                    LOG.debug("{}: Match #{}:\n{}", method, ++count, match);
+                    writer.write(match);
+                }
+                gen.writeEnd();
+                gen.flush();
+                LOG.info("{}: {} Matches", method, count);
+            } catch (DicomServiceException e) {
+                throw new WebApplicationException(errResponseAsTextPlain(e));
+            } finally {
+                closeStreamedQuery();
+            }
+        };
+    }
+
     private Attributes adjust(Attributes match, Model model, Query query, AttributesCoercion coercion) {
         if (coercion != null)
             coercion.coerce(match, null);
@@ -75,6 +75,10 @@ public interface Query extends Closeable {
 
     void offset(long offset);
 
+    void keyset(String continuationToken);
+
+    String continuationToken();
+
     boolean hasMoreMatches() throws DicomServiceException;
 
     Attributes nextMatch();
@@ -40,13 +40,20 @@
 
 package org.dcm4chee.arc.query.impl;
 
+import com.querydsl.core.QueryMetadata;
 import com.querydsl.core.Tuple;
-import com.querydsl.core.types.Order;
-import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.*;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.StringExpression;
 import com.querydsl.jpa.hibernate.HibernateQuery;
 import org.dcm4che3.data.Attributes;
 import org.dcm4che3.net.service.DicomServiceException;
 import org.dcm4che3.util.StringUtils;
+import org.dcm4chee.arc.entity.AttributesBlob;
+import org.dcm4chee.arc.entity.QAttributesBlob;
+import org.dcm4chee.arc.metrics.MetricsService;
 import org.dcm4chee.arc.query.Query;
 import org.dcm4chee.arc.query.QueryContext;
 import org.dcm4chee.arc.query.util.OrderByTag;
@@ -54,9 +61,8 @@ import org.dcm4chee.arc.query.util.QueryBuilder;
 import org.hibernate.StatelessSession;
 import org.hibernate.Transaction;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
+import java.io.*;
+import java.util.*;
 
 /**
  * @author Gunter Zeilinger <gunterze@gmail.com>
@@ -64,18 +70,37 @@ import java.util.List;
  */
 abstract class AbstractQuery implements Query {
 
+    private static final int MAX_DECODED_ATTRIBUTES = 256;
+
     protected final QueryContext context;
     protected final StatelessSession session;
+    private final MetricsService metricsService;
     protected HibernateQuery<Tuple> query;
     private Iterator<Tuple> results;
     private long offset;
     private long limit;
     private int rejected;
     private int matches;
+    private long totalMatches;
+    private long fetchNanos;
+    private Expression<?>[] keys;
+    private Order[] keyOrders;
+    private int keysIndex;
+    private Tuple lastTuple;
+    private final Map<Long, Attributes> decodedAttributes =
+            new LinkedHashMap<Long, Attributes>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Attributes> eldest) {
+                    return size() > MAX_DECODED_ATTRIBUTES;
+                }
+            };
 
     public AbstractQuery(QueryContext context, StatelessSession session) {
         this.context = context;
         this.session = session;
+        this.metricsService = context.getQueryService() instanceof QueryServiceImpl
+                ? ((QueryServiceImpl) context.getQueryService()).getMetricsService()
+                : null;
     }
 
     public void initQuery() {
@@ -113,6 +138,147 @@ abstract class AbstractQuery implements Query {
 
     protected abstract Attributes toAttributes(Tuple results);
 
+    protected abstract NumberPath<Long> pk();
+
+    @Override
+    public void keyset(String continuationToken) {
+        checkQuery();
+        QueryMetadata metadata = query.getMetadata();
+        List<OrderSpecifier<?>> orderBy = new ArrayList<>(metadata.getOrderBy());
+        metadata.clearOrderBy();
+        int n = orderBy.size();
+        keys = new Expression<?>[n + 1];
+        keyOrders = new Order[n + 1];
+        for (int i = 0; i < n; i++) {
+            OrderSpecifier<?> orderSpecifier = orderBy.get(i);
+            keys[i] = checkKey(orderSpecifier.getTarget());
+            keyOrders[i] = orderSpecifier.getOrder();
+            // sort NULL before any value, independent of the default of the database
+            query.orderBy(keyOrders[i] == Order.ASC ? orderSpecifier.nullsFirst() : orderSpecifier.nullsLast());
+        }
+        keys[n] = pk();
+        keyOrders[n] = Order.ASC;
+        query.orderBy(pk().asc());
+        List<Expression<?>> select = new ArrayList<>(((FactoryExpression<?>) metadata.getProjection()).getArgs());
+        keysIndex = select.size();
+        select.addAll(Arrays.asList(keys));
+        query.select(select.toArray(new Expression<?>[select.size()]));
+        if (continuationToken != null && !continuationToken.isEmpty())
+            query.where(seek(keys, keyOrders, decodeContinuationToken(continuationToken)));
+    }
+
+    @Override
+    public String continuationToken() {
+        return keys != null && limit > 0 && matches == limit ? encodeContinuationToken(keyValues(lastTuple)) : null;
+    }
+
+    private static Expression<?> checkKey(Expression<?> target) {
+        if (target instanceof StringExpression
+                || target instanceof NumberExpression && target.getType() == Integer.class)
+            return target;
+        throw new IllegalArgumentException("Keyset pagination not supported for ordering by " + target);
+    }
+
+    private Object[] keyValues(Tuple tuple) {
+        Object[] values = new Object[keys.length];
+        for (int i = 0; i < values.length; i++)
+            values[i] = tuple.get(keysIndex + i, keys[i].getType());
+        return values;
+    }
+
+    static Predicate seek(Expression<?>[] keys, Order[] keyOrders, Object[] values) {
+        Predicate seek = null;
+        Predicate prefix = null;
+        for (int i = 0; i < keys.length; i++) {
+            Predicate after = after(keys[i], keyOrders[i], values[i]);
+            if (after != null)
+                seek = ExpressionUtils.anyOf(seek, ExpressionUtils.allOf(prefix, after));
+            prefix = ExpressionUtils.allOf(prefix, values[i] != null
+                    ? Expressions.predicate(Ops.EQ, keys[i], Expressions.constant(values[i]))
+                    : ExpressionUtils.isNull(keys[i]));
+        }
+        return seek;
+    }
+
+    /**
+     * Returns predicate matching values of key sorted after the specified value, or {@code null} for NULL in
+     * descending order, which is sorted after any value.
+     */
+    private static Predicate after(Expression<?> key, Order order, Object value) {
+        if (value == null)
+            return order == Order.ASC ? ExpressionUtils.isNotNull(key) : null;
+
+        Predicate predicate = Expressions.predicate(order == Order.ASC ? Ops.GT : Ops.LT, key,
+                Expressions.constant(value));
+        return order == Order.ASC ? predicate : ExpressionUtils.or(predicate, ExpressionUtils.isNull(key));
+    }
+
+    private static String encodeContinuationToken(Object[] values) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DataOutputStream dos = new DataOutputStream(out)) {
+            dos.writeByte(values.length);
+            for (Object value : values) {
+                if (value == null) {
+                    dos.writeByte('N');
+                } else if (value instanceof String) {
+                    dos.writeByte('S');
+                    dos.writeUTF((String) value);
+                } else if (value instanceof Integer) {
+                    dos.writeByte('I');
+                    dos.writeInt((Integer) value);
+                } else {
+                    dos.writeByte('J');
+                    dos.writeLong((Long) value);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(out.toByteArray());
+    }
+
+    private Object[] decodeContinuationToken(String continuationToken) {
+        try (DataInputStream dis = new DataInputStream(
+                new ByteArrayInputStream(Base64.getUrlDecoder().decode(continuationToken)))) {
+            if (dis.readUnsignedByte() != keys.length)
+                throw new IllegalArgumentException("Continuation token does not match ordering");
+
+            Object[] values = new Object[keys.length];
+            for (int i = 0; i < values.length; i++) {
+                int type = dis.readUnsignedByte();
+                Class<?> keyType = keys[i].getType();
+                if (type == 'N' && i < keys.length - 1)
+                    values[i] = null;
+                else if (type == 'S' && keyType == String.class)
+                    values[i] = dis.readUTF();
+                else if (type == 'I' && keyType == Integer.class)
+                    values[i] = dis.readInt();
+                else if (type == 'J' && keyType == Long.class)
+                    values[i] = dis.readLong();
+                else
+                    throw new IllegalArgumentException("Continuation token does not match ordering");
+            }
+            return values;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid continuation token: " + continuationToken);
+        }
+    }
+
+    /**
+     * Returns a copy of the attributes encoded in the specified blob of the result, which is only decoded once
+     * for recently returned blobs - like of the Patient of several matching Studies.
+     */
+    protected Attributes decodeAttributes(Tuple results, QAttributesBlob blob) {
+        Long pk = results.get(blob.pk);
+        if (pk == null)
+            return AttributesBlob.decodeAttributes(results.get(blob.encodedAttributes), null);
+
+        Attributes attrs = decodedAttributes.get(pk);
+        if (attrs == null)
+            decodedAttributes.put(pk, attrs = AttributesBlob.decodeAttributes(results.get(blob.encodedAttributes), null));
+        return new Attributes(attrs);
+    }
+
     private void checkQuery() {
         if (query == null)
             throw new IllegalStateException("query not initalized");
@@ -129,7 +295,10 @@ abstract class AbstractQuery implements Query {
         checkQuery();
         rejected = 0;
         matches = 0;
+        long start = System.nanoTime();
         results = offset > 0 ? query.fetch().iterator() : query.iterate();
+        if (metricsService != null)
+            metricsService.timer("query_execute_seconds", "query", queryName()).recordSince(start);
     }
 
     @Override
@@ -153,11 +322,16 @@ abstract class AbstractQuery implements Query {
 
     @Override
     public boolean hasMoreMatches() throws DicomServiceException {
+        long start = System.nanoTime();
         boolean hasNext = results.hasNext();
+        fetchNanos += System.nanoTime() - start;
         if (hasNext || rejected == 0 || limit != matches)
             return hasNext;
 
-        offset(offset + matches);
+        if (keys != null)
+            query.where(seek(keyValues(lastTuple)));
+        else
+            offset(offset + matches);
         limit(rejected);
         executeQuery();
         return results.hasNext();
@@ -165,7 +339,10 @@ abstract class AbstractQuery implements Query {
 
     @Override
     public Attributes nextMatch() {
-        Attributes attrs = toAttributes(results.next());
+        long start = System.nanoTime();
+        Attributes attrs = toAttributes(lastTuple = results.next());
+        fetchNanos += System.nanoTime() - start;
+        totalMatches++;
         matches++;
         if (attrs == null)
             rejected++;
@@ -190,6 +367,16 @@ abstract class AbstractQuery implements Query {
     public void close() {
         session.close();
         context.close();
+        if (metricsService != null && results != null) {
+            String queryName = queryName();
+            metricsService.timer("query_fetch_seconds", "query", queryName).record(fetchNanos);
+            metricsService.counter("query_matches_total", "query", queryName).add(totalMatches);
+        }
+    }
+
+    private String queryName() {
+        String name = getClass().getSimpleName();
+        return name.substring(0, name.length() - 5);
     }
 
     static String[] splitAndAppend(String s, String append) {
@@ -43,6 +43,7 @@ package org.dcm4chee.arc.query.impl;
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.Tuple;
 import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.dsl.NumberPath;
 import com.querydsl.jpa.hibernate.HibernateQuery;
 import org.dcm4che3.data.*;
 import org.dcm4che3.dict.archive.ArchiveTag;
@@ -171,6 +172,11 @@ class InstanceQuery extends AbstractQuery {
         return query.where(builder);
     }
 
+    @Override
+    protected NumberPath<Long> pk() {
+        return QInstance.instance.pk;
+    }
+
     @Override
     protected Attributes toAttributes(Tuple results) {
         Long seriesPk = results.get(QSeries.series.pk);
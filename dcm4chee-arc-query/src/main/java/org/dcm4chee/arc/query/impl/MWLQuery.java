@@ -45,6 +45,7 @@ import com.querydsl.core.Tuple;
 import com.querydsl.core.types.Expression;
 import com.querydsl.core.types.Order;
 import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.NumberPath;
 import com.querydsl.jpa.hibernate.HibernateQuery;
 import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.Tag;
@@ -65,6 +66,7 @@ public class MWLQuery extends AbstractQuery {
     static final Expression<?>[] SELECT = {
             QPatient.patient.numberOfStudies,
             QueryBuilder.mwlAttributesBlob.encodedAttributes,
+            QueryBuilder.patientAttributesBlob.pk,
             QueryBuilder.patientAttributesBlob.encodedAttributes
     };
 
@@ -111,12 +113,16 @@ public class MWLQuery extends AbstractQuery {
         return q.where(predicates);
     }
 
+    @Override
+    protected NumberPath<Long> pk() {
+        return QMWLItem.mWLItem.pk;
+    }
+
     @Override
     protected Attributes toAttributes(Tuple results) {
         Attributes mwlAttrs = AttributesBlob.decodeAttributes(
                 results.get(QueryBuilder.mwlAttributesBlob.encodedAttributes), null);
-        Attributes patAttrs = AttributesBlob.decodeAttributes(
-                results.get(QueryBuilder.patientAttributesBlob.encodedAttributes), null);
+        Attributes patAttrs = decodeAttributes(results, QueryBuilder.patientAttributesBlob);
         Attributes.unifyCharacterSets(patAttrs, mwlAttrs);
         Attributes attrs = new Attributes(patAttrs.size() + mwlAttrs.size() + 1);
         attrs.addAll(patAttrs);
@@ -43,6 +43,7 @@ package org.dcm4chee.arc.query.impl;
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.Tuple;
 import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.dsl.NumberPath;
 import com.querydsl.jpa.hibernate.HibernateQuery;
 import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.Tag;
@@ -106,8 +107,10 @@ class SeriesQuery extends AbstractQuery {
             QSeriesQueryAttributes.seriesQueryAttributes.retrieveAETs,
             QSeriesQueryAttributes.seriesQueryAttributes.availability,
             QueryBuilder.seriesAttributesBlob.encodedAttributes,
+            QueryBuilder.studyAttributesBlob.pk,
             QueryBuilder.studyAttributesBlob.encodedAttributes,
-            QueryBuilder.patientAttributesBlob.encodedAttributes 
+            QueryBuilder.patientAttributesBlob.pk,
+            QueryBuilder.patientAttributesBlob.encodedAttributes
     };
 
     private Long studyPk;
@@ -159,6 +162,11 @@ class SeriesQuery extends AbstractQuery {
         return q.where(predicates);
     }
 
+    @Override
+    protected NumberPath<Long> pk() {
+        return QSeries.series.pk;
+    }
+
     @Override
     protected Attributes toAttributes(Tuple results) {
         Long studyPk = results.get(QStudy.study.pk);
@@ -271,10 +279,8 @@ class SeriesQuery extends AbstractQuery {
             sopClassesInStudy = studyView.getSOPClassesInStudy();
         }
 
-        Attributes patAttrs = AttributesBlob.decodeAttributes(
-                results.get(QueryBuilder.patientAttributesBlob.encodedAttributes), null);
-        Attributes studyAttrs = AttributesBlob.decodeAttributes(
-                results.get(QueryBuilder.studyAttributesBlob.encodedAttributes), null);
+        Attributes patAttrs = decodeAttributes(results, QueryBuilder.patientAttributesBlob);
+        Attributes studyAttrs = decodeAttributes(results, QueryBuilder.studyAttributesBlob);
         Attributes.unifyCharacterSets(patAttrs, studyAttrs);
         Attributes attrs = new Attributes(patAttrs.size() + studyAttrs.size() + 4);
         attrs.addAll(patAttrs);
@@ -44,6 +44,7 @@ import com.mysema.commons.lang.CloseableIterator;
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.Tuple;
 import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.dsl.NumberPath;
 import com.querydsl.jpa.hibernate.HibernateQuery;
 import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.Tag;
@@ -91,6 +92,7 @@ class StudyQuery extends AbstractQuery {
             QStudyQueryAttributes.studyQueryAttributes.retrieveAETs,
             QStudyQueryAttributes.studyQueryAttributes.availability,
             QueryBuilder.studyAttributesBlob.encodedAttributes,
+            QueryBuilder.patientAttributesBlob.pk,
             QueryBuilder.patientAttributesBlob.encodedAttributes
     };
 
@@ -165,6 +167,11 @@ class StudyQuery extends AbstractQuery {
         };
     }
 
+    @Override
+    protected NumberPath<Long> pk() {
+        return QStudy.study.pk;
+    }
+
     @Override
     protected Attributes toAttributes(Tuple results) {
         Long studyPk = results.get(QStudy.study.pk);
@@ -204,8 +211,7 @@ class StudyQuery extends AbstractQuery {
         }
         Attributes studyAttrs = AttributesBlob.decodeAttributes(
                 results.get(QueryBuilder.studyAttributesBlob.encodedAttributes), null);
-        Attributes patAttrs = AttributesBlob.decodeAttributes(
-                results.get(QueryBuilder.patientAttributesBlob.encodedAttributes), null);
+        Attributes patAttrs = decodeAttributes(results, QueryBuilder.patientAttributesBlob);
         Attributes.unifyCharacterSets(patAttrs, studyAttrs);
         Attributes attrs = new Attributes(patAttrs.size() + studyAttrs.size() + 6);
         attrs.addAll(patAttrs);
@@ -0,0 +1,167 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.query.impl;
+
+import com.querydsl.core.types.*;
+import com.querydsl.core.types.dsl.Expressions;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class AbstractQueryTest {
+
+    private static final Expression<?>[] KEYS = {
+            Expressions.stringPath("name"),
+            Expressions.numberPath(Integer.class, "number"),
+            Expressions.numberPath(Long.class, "pk")
+    };
+
+    private static final Object[][] ROWS = {
+            { "A", 1, 1L },
+            { null, 2, 2L },
+            { "B", null, 3L },
+            { "A", null, 4L },
+            { null, null, 5L },
+            { "B", 1, 6L },
+            { null, 1, 7L },
+            { "A", 1, 8L },
+            { "B", null, 9L },
+    };
+
+    @Test
+    public void testSeekAscending() {
+        assertPagesVisitAllRows(Order.ASC, Order.ASC);
+    }
+
+    @Test
+    public void testSeekDescending() {
+        assertPagesVisitAllRows(Order.DESC, Order.DESC);
+    }
+
+    @Test
+    public void testSeekAscendingDescending() {
+        assertPagesVisitAllRows(Order.ASC, Order.DESC);
+    }
+
+    @Test
+    public void testSeekDescendingAscending() {
+        assertPagesVisitAllRows(Order.DESC, Order.ASC);
+    }
+
+    private static void assertPagesVisitAllRows(Order order1, Order order2) {
+        Order[] keyOrders = { order1, order2, Order.ASC };
+        List<Object[]> sorted = new ArrayList<>(Arrays.asList(ROWS));
+        sorted.sort(comparator(keyOrders));
+        List<Object[]> visited = new ArrayList<>();
+        Object[] last = null;
+        while (visited.size() <= ROWS.length) {
+            Object[] next = null;
+            for (Object[] row : sorted)
+                if (last == null || eval(AbstractQuery.seek(KEYS, keyOrders, last), row)) {
+                    next = row;
+                    break;
+                }
+            if (next == null)
+                break;
+            visited.add(next);
+            last = next;
+        }
+        assertEquals(toString(sorted), toString(visited));
+    }
+
+    /**
+     * Sorts NULL before any value in ascending and after any value in descending order, as the query does.
+     */
+    @SuppressWarnings("unchecked")
+    private static Comparator<Object[]> comparator(Order[] keyOrders) {
+        return (row1, row2) -> {
+            for (int i = 0; i < keyOrders.length; i++) {
+                Comparable<Object> v1 = (Comparable<Object>) row1[i];
+                Object v2 = row2[i];
+                int cmp = v1 == null ? (v2 == null ? 0 : -1) : v2 == null ? 1 : v1.compareTo(v2);
+                if (cmp != 0)
+                    return keyOrders[i] == Order.ASC ? cmp : -cmp;
+            }
+            return 0;
+        };
+    }
+
+    /**
+     * Evaluates predicate on row like SQL, treating comparisons with NULL as not matching.
+     */
+    @SuppressWarnings("unchecked")
+    private static boolean eval(Expression<?> predicate, Object[] row) {
+        Operation<?> op = (Operation<?>) predicate;
+        Operator operator = op.getOperator();
+        if (operator == Ops.AND)
+            return eval(op.getArg(0), row) && eval(op.getArg(1), row);
+        if (operator == Ops.OR)
+            return eval(op.getArg(0), row) || eval(op.getArg(1), row);
+        Object value = row[Arrays.asList(KEYS).indexOf(op.getArg(0))];
+        if (operator == Ops.IS_NULL)
+            return value == null;
+        if (operator == Ops.IS_NOT_NULL)
+            return value != null;
+        if (value == null)
+            return false;
+        int cmp = ((Comparable<Object>) value).compareTo(((Constant<?>) op.getArg(1)).getConstant());
+        if (operator == Ops.EQ)
+            return cmp == 0;
+        if (operator == Ops.GT)
+            return cmp > 0;
+        if (operator == Ops.LT)
+            return cmp < 0;
+        throw new IllegalArgumentException("Unexpected operator: " + operator);
+    }
+
+    private static String toString(List<Object[]> rows) {
+        StringBuilder sb = new StringBuilder();
+        for (Object[] row : rows)
+            sb.append(Arrays.toString(row)).append('\n');
+        return sb.toString();
+    }
+}
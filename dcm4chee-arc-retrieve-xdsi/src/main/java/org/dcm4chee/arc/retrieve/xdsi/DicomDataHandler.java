@@ -40,6 +40,7 @@ package org.dcm4chee.arc.retrieve.xdsi;
 
 import org.dcm4che3.data.Attributes;
 import org.dcm4che3.imageio.codec.Transcoder;
+import org.dcm4che3.util.SafeClose;
 import org.dcm4che3.ws.rs.MediaTypes;
 import org.dcm4chee.arc.retrieve.RetrieveContext;
 import org.dcm4chee.arc.store.InstanceLocations;
@@ -82,8 +83,10 @@ public class DicomDataHandler extends DataHandler {
                 }
             });
         }
-        if (retrieveEnd != null)
+        if (retrieveEnd != null) {
             retrieveEnd.fire(ctx);
+            SafeClose.close(ctx);
+        }
     }
 
 }
@@ -47,6 +47,7 @@ import org.dcm4che3.image.PixelAspectRatio;
 import org.dcm4che3.imageio.plugins.dcm.DicomImageReadParam;
 import org.dcm4che3.imageio.plugins.dcm.DicomMetaData;
 import org.dcm4che3.io.DicomInputStream;
+import org.dcm4che3.util.SafeClose;
 import org.dcm4che3.ws.rs.MediaTypes;
 import org.dcm4chee.arc.retrieve.RetrieveContext;
 import org.dcm4chee.arc.store.InstanceLocations;
@@ -104,6 +105,7 @@ public class RenderedImageDataHandler extends DataHandler {
             imageWriter.dispose();
             imageReader.dispose();
             retrieveEnd.fire(ctx);
+            SafeClose.close(ctx);
         }
     }
 
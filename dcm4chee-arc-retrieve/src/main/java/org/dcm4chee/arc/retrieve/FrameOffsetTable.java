@@ -0,0 +1,96 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.retrieve;
+
+import org.dcm4chee.arc.entity.Location;
+
+/**
+ * Offsets of the uncompressed frames in the Pixel Data of a stored DICOM object, which allow to read
+ * particular frames by ranged reads from the storage, without reading all preceding frames.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class FrameOffsetTable {
+
+    private final Location location;
+    private final long pixelDataOffset;
+    private final int frameLength;
+    private final int numberOfFrames;
+
+    public FrameOffsetTable(Location location, long pixelDataOffset, int frameLength, int numberOfFrames) {
+        this.location = location;
+        this.pixelDataOffset = pixelDataOffset;
+        this.frameLength = frameLength;
+        this.numberOfFrames = numberOfFrames;
+    }
+
+    public Location getLocation() {
+        return location;
+    }
+
+    public long getPixelDataOffset() {
+        return pixelDataOffset;
+    }
+
+    public int getFrameLength() {
+        return frameLength;
+    }
+
+    public int getNumberOfFrames() {
+        return numberOfFrames;
+    }
+
+    public long offsetOf(int frame) {
+        if (frame < 1 || frame > numberOfFrames)
+            throw new IllegalArgumentException("frame: " + frame);
+
+        return pixelDataOffset + (long) (frame - 1) * frameLength;
+    }
+
+    @Override
+    public String toString() {
+        return "FrameOffsetTable[pixelDataOffset=" + pixelDataOffset
+                + ", frameLength=" + frameLength
+                + ", numberOfFrames=" + numberOfFrames
+                + "] of " + location;
+    }
+}
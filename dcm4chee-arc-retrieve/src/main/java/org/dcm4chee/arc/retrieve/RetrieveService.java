@@ -52,6 +52,7 @@ import org.dcm4che3.net.service.DicomServiceException;
 import org.dcm4che3.net.service.QueryRetrieveLevel2;
 import org.dcm4chee.arc.conf.ArchiveAEExtension;
 import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
+import org.dcm4chee.arc.entity.Location;
 import org.dcm4chee.arc.entity.Series;
 import org.dcm4chee.arc.qmgt.HttpServletRequestInfo;
 import org.dcm4chee.arc.storage.Storage;
@@ -61,6 +62,7 @@ import org.dcm4chee.arc.store.StoreSession;
 
 import javax.servlet.http.HttpServletRequest;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.util.Collection;
 import java.util.Date;
 import java.util.Map;
@@ -125,6 +127,13 @@ public interface RetrieveService {
     LocationInputStream openLocationInputStream(RetrieveContext ctx, InstanceLocations inst)
             throws IOException;
 
+    FrameOffsetTable getFrameOffsetTable(RetrieveContext ctx, InstanceLocations inst) throws IOException;
+
+    LocationInputStream openFramesInputStream(RetrieveContext ctx, InstanceLocations inst,
+            FrameOffsetTable frameOffsetTable, int frame, int numFrames) throws IOException;
+
+    FileChannel openFileChannel(RetrieveContext ctx, InstanceLocations inst, Location location) throws IOException;
+
     Storage getStorage(String storageID, RetrieveContext ctx);
 
     Attributes loadMetadata(RetrieveContext ctx, InstanceLocations inst) throws IOException;
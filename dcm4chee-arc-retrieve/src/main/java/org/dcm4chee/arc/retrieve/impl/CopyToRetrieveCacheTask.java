@@ -43,7 +43,7 @@ package org.dcm4chee.arc.retrieve.impl;
 
 import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.Tag;
-import org.dcm4che3.net.ApplicationEntity;
+import org.dcm4che3.util.SafeClose;
 import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
 import org.dcm4chee.arc.conf.StorageDescriptor;
 import org.dcm4chee.arc.entity.Instance;
@@ -59,12 +59,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author Gunter Zeilinger <gunterze@gmail.com>
@@ -73,15 +74,21 @@ import java.util.concurrent.Semaphore;
 public class CopyToRetrieveCacheTask implements Runnable {
 
     private static final Logger LOG = LoggerFactory.getLogger(CopyToRetrieveCacheTask.class);
+    private static final int LOCATION_BATCH_SIZE = 50;
 
     private final RetrieveContextImpl ctx;
     private final ArchiveDeviceExtension arcdev;
+    private final StoreService storeService;
+    private final StoreSession storeSession;
     private final String storageID;
     private final int maxParallel;
     private final Semaphore semaphore;
-    private final LinkedBlockingQueue<WrappedInstanceLocations> scheduled = new LinkedBlockingQueue();
-    private final LinkedBlockingQueue<WrappedInstanceLocations> completed = new LinkedBlockingQueue();
+    private final BlockingQueue<WrappedInstanceLocations> scheduled;
+    private final BlockingQueue<WrappedInstanceLocations> completed = new LinkedBlockingQueue<>();
     private final Map<String,Set<String>> uidMap = new HashMap<>();
+    private final List<CopiedInstance> copied = new ArrayList<>(LOCATION_BATCH_SIZE);
+    private final AtomicInteger copiedCount = new AtomicInteger();
+    private final AtomicLong copiedSize = new AtomicLong();
 
     public CopyToRetrieveCacheTask(RetrieveContextImpl ctx, InstanceLocations match) {
         this.ctx = ctx;
@@ -90,6 +97,9 @@ public class CopyToRetrieveCacheTask implements Runnable {
         this.storageID = storageDescriptor.getRetrieveCacheStorageID();
         this.maxParallel = storageDescriptor.getRetrieveCacheMaxParallel();
         this.semaphore = new Semaphore(maxParallel);
+        this.scheduled = new ArrayBlockingQueue<>(maxParallel);
+        this.storeService = ctx.getRetrieveService().getStoreService();
+        this.storeSession = storeService.newStoreSession(ctx.getLocalApplicationEntity(), storageID);
     }
 
     public boolean schedule(InstanceLocations match) {
@@ -101,14 +111,17 @@ public class CopyToRetrieveCacheTask implements Runnable {
                 return false;
             }
         }
-        scheduled.offer(new WrappedInstanceLocations(match));
+        try {
+            scheduled.put(new WrappedInstanceLocations(match));
+        } catch (InterruptedException e) {
+            LOG.error("Failed to schedule copy to retrieve cache:\n", e);
+            return false;
+        }
         return true;
     }
 
     private void restoreInstances(Attributes attrs) throws IOException {
-        StoreService storeService = ctx.getRetrieveService().getStoreService();
-        for (Instance inst : storeService.restoreInstances(storeService.newStoreSession(ctx
-                        .getLocalApplicationEntity(), storageID),
+        for (Instance inst : storeService.restoreInstances(storeSession,
                 attrs.getString(Tag.StudyInstanceUID),
                 attrs.getString(Tag.SeriesInstanceUID),
                 ctx.getArchiveAEExtension().purgeInstanceRecordsDelay())) {
@@ -122,6 +135,7 @@ public class CopyToRetrieveCacheTask implements Runnable {
 
     @Override
     public void run() {
+        long startTime = System.currentTimeMillis();
         try {
             InstanceLocations instanceLocations;
             while ((instanceLocations = scheduled.take().instanceLocations) != null) {
@@ -129,17 +143,7 @@ public class CopyToRetrieveCacheTask implements Runnable {
                 semaphore.acquire();
                 arcdev.getDevice().execute(() -> {
                     try {
-                        if (copy(inst)) {
-                            String studyIUID = inst.getAttributes().getString(Tag.StudyInstanceUID);
-                            String seriesIUID = inst.getAttributes().getString(Tag.SeriesInstanceUID);
-                            synchronized (uidMap) {
-                                Set<String> seriesIUIDs = uidMap.get(studyIUID);
-                                if (seriesIUIDs == null)
-                                    uidMap.put(studyIUID, seriesIUIDs = new HashSet<>());
-                                seriesIUIDs.add(seriesIUID);
-                            }
-                        }
-                        completed.offer(new WrappedInstanceLocations(inst));
+                        copy(inst);
                     } finally {
                         semaphore.release();
                     }
@@ -152,7 +156,7 @@ public class CopyToRetrieveCacheTask implements Runnable {
         } catch (InterruptedException e) {
             LOG.error("Failed to schedule copy to retrieve cache:\n", e);
         }
-        StoreService storeService = ctx.getRetrieveService().getStoreService();
+        addLocations(removeCopied());
         for (Map.Entry<String, Set<String>> entry : uidMap.entrySet()) {
             String studyIUID = entry.getKey();
             storeService.addStorageID(studyIUID, storageID);
@@ -160,11 +164,23 @@ public class CopyToRetrieveCacheTask implements Runnable {
                 storeService.scheduleMetadataUpdate(studyIUID, seriesIUID);
             }
         }
+        SafeClose.close(storeSession);
+        logThroughput(System.currentTimeMillis() - startTime);
         completed.offer(new WrappedInstanceLocations(null));
         LOG.debug("Leave run()");
     }
 
-    private boolean copy(InstanceLocations match) {
+    private void logThroughput(long ms) {
+        int count = copiedCount.get();
+        if (count == 0)
+            return;
+
+        long size = copiedSize.get();
+        LOG.info("Copied {} objects ({} MB) to {} in {} ms ({} MB/s)",
+                count, size / 1000000.f, storageID, ms, ms > 0 ? size / (ms * 1000.f) : Float.NaN);
+    }
+
+    private void copy(InstanceLocations match) {
         Storage storage = ctx.getRetrieveService().getStorage(storageID, ctx);
         WriteContext writeCtx = storage.createWriteContext();
         writeCtx.setAttributes(match.getAttributes());
@@ -172,23 +188,73 @@ public class CopyToRetrieveCacheTask implements Runnable {
         try {
             LOG.debug("Start copying {} to {}", match, storage.getStorageDescriptor());
             location = copyTo(match, storage, writeCtx);
-            StoreService storeService = ctx.getRetrieveService().getStoreService();
-            ApplicationEntity ae = ctx.getLocalApplicationEntity();
-            StoreSession storeSession = storeService.newStoreSession(ae, storageID);
-            storeService.addLocation(storeSession, match.getInstancePk(), location);
             storage.commitStorage(writeCtx);
-            match.getLocations().add(location);
             LOG.debug("Finished copying {} to {}:\n", match, storage.getStorageDescriptor());
-            return true;
         } catch (Exception e) {
             LOG.warn("Failed to copy {} to {}:\n", match, storage.getStorageDescriptor(), e);
             if (location != null)
-                try {
-                    storage.revokeStorage(writeCtx);
-                } catch (Exception e1) {
-                    LOG.warn("Failed to revoke storage", e1);
-                }
-            return false;
+                revokeStorage(storage, writeCtx);
+            completed.offer(new WrappedInstanceLocations(match));
+            return;
+        }
+        List<CopiedInstance> batch = null;
+        synchronized (copied) {
+            copied.add(new CopiedInstance(match, location, storage, writeCtx));
+            if (copied.size() >= LOCATION_BATCH_SIZE)
+                batch = removeCopied();
+        }
+        if (batch != null)
+            addLocations(batch);
+    }
+
+    private List<CopiedInstance> removeCopied() {
+        synchronized (copied) {
+            List<CopiedInstance> batch = new ArrayList<>(copied);
+            copied.clear();
+            return batch;
+        }
+    }
+
+    private void addLocations(List<CopiedInstance> batch) {
+        if (batch.isEmpty())
+            return;
+
+        Map<Long, Location> locations = new LinkedHashMap<>(batch.size() * 4 / 3 + 1);
+        for (CopiedInstance copiedInstance : batch)
+            locations.put(copiedInstance.match.getInstancePk(), copiedInstance.location);
+        try {
+            storeService.addLocations(storeSession, locations);
+        } catch (Exception e) {
+            LOG.warn("Failed to persist {} Locations of objects copied to {}:\n", batch.size(), storageID, e);
+            for (CopiedInstance copiedInstance : batch) {
+                revokeStorage(copiedInstance.storage, copiedInstance.writeCtx);
+                completed.offer(new WrappedInstanceLocations(copiedInstance.match));
+            }
+            return;
+        }
+        long size = 0L;
+        synchronized (uidMap) {
+            for (CopiedInstance copiedInstance : batch) {
+                copiedInstance.match.getLocations().add(copiedInstance.location);
+                completed.offer(new WrappedInstanceLocations(copiedInstance.match));
+                Attributes attrs = copiedInstance.match.getAttributes();
+                String studyIUID = attrs.getString(Tag.StudyInstanceUID);
+                Set<String> seriesIUIDs = uidMap.get(studyIUID);
+                if (seriesIUIDs == null)
+                    uidMap.put(studyIUID, seriesIUIDs = new HashSet<>());
+                seriesIUIDs.add(attrs.getString(Tag.SeriesInstanceUID));
+                size += copiedInstance.location.getSize();
+            }
+        }
+        copiedCount.addAndGet(batch.size());
+        copiedSize.addAndGet(size);
+    }
+
+    private static void revokeStorage(Storage storage, WriteContext writeCtx) {
+        try {
+            storage.revokeStorage(writeCtx);
+        } catch (Exception e) {
+            LOG.warn("Failed to revoke storage", e);
         }
     }
 
@@ -222,6 +288,20 @@ public class CopyToRetrieveCacheTask implements Runnable {
         }
     }
 
+    private static class CopiedInstance {
+        final InstanceLocations match;
+        final Location location;
+        final Storage storage;
+        final WriteContext writeCtx;
+
+        CopiedInstance(InstanceLocations match, Location location, Storage storage, WriteContext writeCtx) {
+            this.match = match;
+            this.location = location;
+            this.storage = storage;
+            this.writeCtx = writeCtx;
+        }
+    }
+
     private class WrappedInstanceLocations {
         final InstanceLocations instanceLocations;
 
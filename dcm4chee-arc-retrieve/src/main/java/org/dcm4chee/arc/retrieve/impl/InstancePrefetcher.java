@@ -0,0 +1,249 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.retrieve.impl;
+
+import org.dcm4che3.util.SafeClose;
+import org.dcm4che3.util.StreamUtils;
+import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
+import org.dcm4chee.arc.conf.StorageDescriptor;
+import org.dcm4chee.arc.entity.Location;
+import org.dcm4chee.arc.retrieve.LocationInputStream;
+import org.dcm4chee.arc.retrieve.RetrieveContext;
+import org.dcm4chee.arc.store.InstanceLocations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Reads the objects following the currently retrieved object in {@link RetrieveContext#getMatches()} ahead into
+ * memory, as configured by the Retrieve Prefetch Depth of their Storage Descriptors. Objects which do not fit into
+ * the remaining Retrieve Prefetch Buffer Size of the Archive Device are streamed from the Storage as before.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+class InstancePrefetcher implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InstancePrefetcher.class);
+
+    private final RetrieveServiceImpl service;
+    private final RetrieveContext ctx;
+    private final int maxDepth;
+    private final Map<InstanceLocations, Prefetch> prefetches = new IdentityHashMap<>();
+    private final Set<InstanceLocations> taken = Collections.newSetFromMap(new IdentityHashMap<>());
+    private Map<InstanceLocations, Integer> indexes;
+    private boolean closed;
+
+    InstancePrefetcher(RetrieveServiceImpl service, RetrieveContext ctx) {
+        this.service = service;
+        this.ctx = ctx;
+        this.maxDepth = service.getArchiveDeviceExtension().getStorageDescriptors().stream()
+                .mapToInt(StorageDescriptor::getRetrievePrefetchDepth)
+                .max()
+                .orElse(0);
+    }
+
+    LocationInputStream take(InstanceLocations inst) {
+        if (maxDepth == 0)
+            return null;
+
+        Prefetch prefetch;
+        synchronized (this) {
+            if (closed)
+                return null;
+
+            prefetch = prefetches.remove(inst);
+            taken.add(inst);
+            prefetchFollowing(inst);
+        }
+        return prefetch != null ? prefetch.get() : null;
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        for (Prefetch prefetch : prefetches.values())
+            prefetch.discard();
+        prefetches.clear();
+    }
+
+    private void prefetchFollowing(InstanceLocations inst) {
+        List<InstanceLocations> matches = ctx.getMatches();
+        if (indexes == null) {
+            indexes = new IdentityHashMap<>(matches.size());
+            for (int i = 0; i < matches.size(); i++)
+                indexes.put(matches.get(i), i);
+        }
+        Integer index = indexes.get(inst);
+        if (index == null)
+            return;
+
+        ArchiveDeviceExtension arcDev = service.getArchiveDeviceExtension();
+        int end = Math.min(index + maxDepth, matches.size() - 1);
+        for (int i = index + 1; i <= end; i++) {
+            InstanceLocations next = matches.get(i);
+            if (prefetches.containsKey(next) || taken.contains(next))
+                continue;
+
+            int depth = 0;
+            long size = 0L;
+            for (Location location : next.getLocations()) {
+                StorageDescriptor desc;
+                if (Location.isDicomFile(location)
+                        && (desc = arcDev.getStorageDescriptor(location.getStorageID())) != null) {
+                    depth = Math.max(depth, desc.getRetrievePrefetchDepth());
+                    size = Math.max(size, location.getSize());
+                }
+            }
+            if (i - index > depth || size <= 0L || size > Integer.MAX_VALUE || !service.reservePrefetchBuffer(size))
+                continue;
+
+            Prefetch prefetch = new Prefetch(next, size);
+            try {
+                service.getDevice().execute(prefetch);
+            } catch (RejectedExecutionException e) {
+                service.releasePrefetchBuffer(size);
+                return;
+            }
+            prefetches.put(next, prefetch);
+        }
+    }
+
+    private final class Prefetch implements Runnable {
+        private final InstanceLocations inst;
+        private final long size;
+        private LocationInputStream result;
+        private IOException exception;
+        private boolean done;
+        private boolean discarded;
+
+        Prefetch(InstanceLocations inst, long size) {
+            this.inst = inst;
+            this.size = size;
+        }
+
+        @Override
+        public void run() {
+            LocationInputStream lis = null;
+            IOException ex = null;
+            try {
+                lis = read();
+            } catch (IOException e) {
+                ex = e;
+            } catch (RuntimeException e) {
+                ex = new IOException(e);
+            }
+            boolean discard;
+            synchronized (this) {
+                discard = discarded;
+                if (!discard) {
+                    result = lis;
+                    exception = ex;
+                    done = true;
+                    notifyAll();
+                }
+            }
+            if (lis == null)
+                service.releasePrefetchBuffer(size);
+            else if (discard)
+                SafeClose.close(lis);
+        }
+
+        private LocationInputStream read() throws IOException {
+            LOG.debug("Prefetch {}", inst);
+            try (LocationInputStream lis = service.openStorageLocationInputStream(ctx, inst)) {
+                long length = lis.location.getSize();
+                if (length > size)
+                    throw new IOException("Size of " + lis.location + " exceeds reserved buffer size " + size);
+
+                byte[] b = new byte[(int) length];
+                StreamUtils.readFully(lis.stream, b, 0, b.length);
+                return new LocationInputStream(new PrefetchedInputStream(b, size), lis.ctx, lis.location);
+            }
+        }
+
+        synchronized LocationInputStream get() {
+            try {
+                while (!done)
+                    wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                discarded = true;
+                return null;
+            }
+            if (exception != null) {
+                LOG.info("Failed to prefetch {} - read it again:\n", inst, exception);
+                return null;
+            }
+            return result;
+        }
+
+        synchronized void discard() {
+            if (done)
+                SafeClose.close(result);
+            else
+                discarded = true;
+        }
+    }
+
+    private final class PrefetchedInputStream extends ByteArrayInputStream {
+        private final long reserved;
+        private boolean released;
+
+        PrefetchedInputStream(byte[] buf, long reserved) {
+            super(buf);
+            this.reserved = reserved;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!released) {
+                released = true;
+                service.releasePrefetchBuffer(reserved);
+            }
+        }
+    }
+}
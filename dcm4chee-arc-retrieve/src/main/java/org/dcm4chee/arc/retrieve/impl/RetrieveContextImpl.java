@@ -114,6 +114,7 @@ class RetrieveContextImpl implements RetrieveContext {
     private AttributeSet metadataFilter;
     private HttpServletRequestInfo httpServletRequestInfo;
     private CopyToRetrieveCacheTask copyToRetrieveCacheTask;
+    private InstancePrefetcher instancePrefetcher;
 
     RetrieveContextImpl(RetrieveService retrieveService, ArchiveAEExtension arcAE, String localAETitle,
                         QueryRetrieveView qrView) {
@@ -485,12 +486,12 @@ class RetrieveContextImpl implements RetrieveContext {
     }
 
     @Override
-    public Storage getStorage(String storageID) {
+    public synchronized Storage getStorage(String storageID) {
         return storageMap.get(storageID);
     }
 
     @Override
-    public void putStorage(String storageID, Storage storage) {
+    public synchronized void putStorage(String storageID, Storage storage) {
         storageMap.put(storageID, storage);
     }
 
@@ -566,9 +567,22 @@ class RetrieveContextImpl implements RetrieveContext {
         this.fallbackMoveRSPFailedIUIDs = fallbackMoveRSPFailedIUIDs;
     }
 
+    synchronized InstancePrefetcher getInstancePrefetcher() {
+        if (instancePrefetcher == null)
+            instancePrefetcher = new InstancePrefetcher((RetrieveServiceImpl) retrieveService, this);
+        return instancePrefetcher;
+    }
+
     @Override
     public void close() throws IOException {
-        for (Storage storage : storageMap.values())
+        List<Storage> storages;
+        synchronized (this) {
+            if (instancePrefetcher != null)
+                instancePrefetcher.close();
+            storages = new ArrayList<>(storageMap.values());
+            storageMap.clear();
+        }
+        for (Storage storage : storages)
             SafeClose.close(storage);
     }
 
@@ -51,6 +51,7 @@ import org.dcm4che3.conf.api.IApplicationEntityCache;
 import org.dcm4che3.data.*;
 import org.dcm4che3.deident.DeIdentificationAttributesCoercion;
 import org.dcm4che3.dict.archive.ArchiveTag;
+import org.dcm4che3.imageio.codec.ImageDescriptor;
 import org.dcm4che3.imageio.codec.Transcoder;
 import org.dcm4che3.io.*;
 import org.dcm4che3.json.JSONReader;
@@ -62,6 +63,7 @@ import org.dcm4che3.util.StringUtils;
 import org.dcm4che3.util.UIDUtils;
 import org.dcm4chee.arc.LeadingCFindSCPQueryCache;
 import org.dcm4chee.arc.conf.*;
+import org.dcm4chee.arc.metrics.MetricsService;
 import org.dcm4chee.arc.entity.*;
 import org.dcm4chee.arc.query.scu.CFindSCU;
 import org.dcm4chee.arc.query.scu.CFindSCUAttributeCoercion;
@@ -71,6 +73,7 @@ import org.dcm4chee.arc.query.util.QueryBuilder;
 import org.dcm4chee.arc.storage.ReadContext;
 import org.dcm4chee.arc.storage.Storage;
 import org.dcm4chee.arc.storage.StorageFactory;
+import org.dcm4chee.arc.storage.ZipIndex;
 import org.dcm4chee.arc.qmgt.HttpServletRequestInfo;
 import org.dcm4chee.arc.store.InstanceLocations;
 import org.dcm4chee.arc.store.StoreService;
@@ -81,6 +84,7 @@ import org.hibernate.engine.spi.SessionFactoryImplementor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.json.Json;
@@ -92,7 +96,9 @@ import javax.xml.transform.TransformerConfigurationException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.channels.FileChannel;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
@@ -158,6 +164,7 @@ public class RetrieveServiceImpl implements RetrieveService {
             QSeries.series.pk,
             QMetadata.metadata.storageID,
             QMetadata.metadata.storagePath,
+            QMetadata.metadata.size,
     };
 
     @PersistenceContext(unitName = "dcm4chee-arc")
@@ -187,6 +194,22 @@ public class RetrieveServiceImpl implements RetrieveService {
     @Inject
     private LeadingCFindSCPQueryCache leadingCFindSCPQueryCache;
 
+    @Inject
+    private FrameOffsetTableCache frameOffsetTableCache;
+
+    @Inject
+    private MetadataZipIndexCache metadataZipIndexCache;
+
+    @Inject
+    private MetricsService metricsService;
+
+    private final AtomicLong prefetchBufferSize = new AtomicLong();
+
+    @PostConstruct
+    private void registerMetrics() {
+        metricsService.gauge("retrieve_prefetch_buffer_bytes", prefetchBufferSize::get);
+    }
+
     StatelessSession openStatelessSession() {
         return em.unwrap(Session.class).getSessionFactory().openStatelessSession();
     }
@@ -424,6 +447,7 @@ public class RetrieveServiceImpl implements RetrieveService {
                         addLocationsFromMetadata(ctx,
                                 tuple.get(QMetadata.metadata.storageID),
                                 tuple.get(QMetadata.metadata.storagePath),
+                                tuple.get(QMetadata.metadata.size),
                                 seriesAttributes.attrs);
                     }
                 }
@@ -508,29 +532,69 @@ public class RetrieveServiceImpl implements RetrieveService {
     private void addLocationsFromMetadata(
             RetrieveContext ctx, String storageID, String storagePath, Attributes seriesAttrs)
             throws IOException {
-        QueryRetrieveView qrView = ctx.getQueryRetrieveView();
+        addLocationsFromMetadata(ctx, storageID, storagePath, 0L, seriesAttrs);
+    }
+
+    private void addLocationsFromMetadata(
+            RetrieveContext ctx, String storageID, String storagePath, long size, Attributes seriesAttrs)
+            throws IOException {
         Storage storage = getStorage(storageID, ctx);
+        String[] sopIUIDs = ctx.getSopInstanceUIDs();
+        if (sopIUIDs.length > 0 && size > 0) {
+            ZipIndex zipIndex = getMetadataZipIndex(storage, storagePath, size);
+            if (zipIndex != null) {
+                for (String sopIUID : sopIUIDs) {
+                    ZipIndex.Entry entry = zipIndex.getEntry(sopIUID);
+                    if (entry != null)
+                        try (InputStream in = ZipIndex.openInputStream(
+                                createReadContext(storage, storagePath, null), entry)) {
+                            addLocationsFromMetadata(ctx, parseJSON(in, !ctx.isRetrieveMetadata()), seriesAttrs);
+                        }
+                }
+                return;
+            }
+        }
         try (InputStream in = storage.openInputStream(
                 createReadContext(storage, storagePath, null))) {
             ZipInputStream zip = new ZipInputStream(in);
             ZipEntry entry;
             while ((entry = zip.getNextEntry()) != null) {
-                if (isEmptyOrContains(ctx.getSopInstanceUIDs(), entry.getName())) {
-                    Attributes metadata = parseJSON(zip, !ctx.isRetrieveMetadata());
-                    if (qrView == null
-                            || !qrView.hideRejectedInstance(
-                                metadata.getNestedDataset(ArchiveTag.PrivateCreator, ArchiveTag.RejectionCodeSequence))
-                            && !qrView.hideRejectionNote(metadata)) {
-                        Attributes.unifyCharacterSets(seriesAttrs, metadata);
-                        metadata.addAll(seriesAttrs);
-                        ctx.getMatches().add(instanceLocationsFromMetadata(ctx, metadata));
-                    }
-                }
+                if (isEmptyOrContains(sopIUIDs, entry.getName()))
+                    addLocationsFromMetadata(ctx, parseJSON(zip, !ctx.isRetrieveMetadata()), seriesAttrs);
                 zip.closeEntry();
             }
         }
     }
 
+    private void addLocationsFromMetadata(RetrieveContext ctx, Attributes metadata, Attributes seriesAttrs) {
+        QueryRetrieveView qrView = ctx.getQueryRetrieveView();
+        if (qrView == null
+                || !qrView.hideRejectedInstance(
+                    metadata.getNestedDataset(ArchiveTag.PrivateCreator, ArchiveTag.RejectionCodeSequence))
+                && !qrView.hideRejectionNote(metadata)) {
+            Attributes.unifyCharacterSets(seriesAttrs, metadata);
+            metadata.addAll(seriesAttrs);
+            ctx.getMatches().add(instanceLocationsFromMetadata(ctx, metadata));
+        }
+    }
+
+    private ZipIndex getMetadataZipIndex(Storage storage, String storagePath, long size) {
+        String key = storage.getStorageDescriptor().getStorageID() + '/' + storagePath + '/' + size;
+        ZipIndex zipIndex = metadataZipIndexCache.get(key);
+        if (zipIndex == null) {
+            try {
+                zipIndex = ZipIndex.read(createReadContext(storage, storagePath, null), size);
+            } catch (IOException e) {
+                LOG.info("Failed to read central directory of Metadata {} from {} - read it sequentially:\n",
+                        storagePath, storage.getStorageDescriptor(), e);
+                return null;
+            }
+            if (zipIndex != null)
+                metadataZipIndexCache.put(key, zipIndex);
+        }
+        return zipIndex;
+    }
+
     private static boolean isEmptyOrContains(String[] ss, String s) {
         if (ss.length == 0)
             return true;
@@ -1052,6 +1116,16 @@ public class RetrieveServiceImpl implements RetrieveService {
     @Override
     public LocationInputStream openLocationInputStream(RetrieveContext ctx, InstanceLocations inst)
             throws IOException {
+        if (ctx instanceof RetrieveContextImpl) {
+            LocationInputStream lis = ((RetrieveContextImpl) ctx).getInstancePrefetcher().take(inst);
+            if (lis != null)
+                return lis;
+        }
+        return openStorageLocationInputStream(ctx, inst);
+    }
+
+    LocationInputStream openStorageLocationInputStream(RetrieveContext ctx, InstanceLocations inst)
+            throws IOException {
         String studyInstanceUID = inst.getAttributes().getString(Tag.StudyInstanceUID);
         ArchiveDeviceExtension arcdev = getArchiveDeviceExtension();
         Map<Availability, List<Location>> locationsByAvailability = inst.getLocations()
@@ -1085,10 +1159,77 @@ public class RetrieveServiceImpl implements RetrieveService {
             Storage storage, Location location, String studyInstanceUID)
             throws IOException {
         ReadContext readContext = createReadContext(storage, location.getStoragePath(), studyInstanceUID);
+        String storageID = location.getStorageID();
+        InputStream stream = metricsService.meter(storage.openInputStream(readContext),
+                metricsService.timer("storage_read_seconds", "storage", storageID),
+                metricsService.counter("storage_read_bytes_total", "storage", storageID));
+        return new LocationInputStream(stream, readContext, location);
+    }
+
+    @Override
+    public FrameOffsetTable getFrameOffsetTable(RetrieveContext ctx, InstanceLocations inst) throws IOException {
+        boolean rangeable = false;
+        for (Location location : inst.getLocations()) {
+            if (!Location.isDicomFile(location) || !isNativeNotDeflated(location.getTransferSyntaxUID()))
+                continue;
+
+            rangeable = true;
+            FrameOffsetTable frameOffsetTable = frameOffsetTableCache.get(location.getPk());
+            if (frameOffsetTable != null)
+                return frameOffsetTable;
+        }
+        if (!rangeable)
+            return null;
+
+        LocationInputStream lis = openLocationInputStream(ctx, inst);
+        try (DicomInputStream dis = toDicomInputStream(lis)) {
+            if (!isNativeNotDeflated(lis.location.getTransferSyntaxUID()))
+                return null;
+
+            Attributes attrs = dis.readDataset(-1, Tag.PixelData);
+            if (dis.tag() != Tag.PixelData || dis.length() == -1)
+                return null;
+
+            ImageDescriptor imageDescriptor = new ImageDescriptor(attrs);
+            FrameOffsetTable frameOffsetTable = new FrameOffsetTable(lis.location, dis.getPosition(),
+                    imageDescriptor.getFrameLength(), imageDescriptor.getFrames());
+            LOG.debug("Calculated {}", frameOffsetTable);
+            frameOffsetTableCache.put(lis.location.getPk(), frameOffsetTable);
+            return frameOffsetTable;
+        }
+    }
+
+    private static boolean isNativeNotDeflated(String tsuid) {
+        switch (tsuid) {
+            case UID.ImplicitVRLittleEndian:
+            case UID.ExplicitVRLittleEndian:
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public LocationInputStream openFramesInputStream(RetrieveContext ctx, InstanceLocations inst,
+            FrameOffsetTable frameOffsetTable, int frame, int numFrames) throws IOException {
+        Location location = frameOffsetTable.getLocation();
+        Storage storage = getStorage(location.getStorageID(), ctx);
+        ReadContext readContext = createReadContext(storage, location.getStoragePath(),
+                inst.getAttributes().getString(Tag.StudyInstanceUID));
+        readContext.setOffset(frameOffsetTable.offsetOf(frame));
+        readContext.setLength((long) frameOffsetTable.getFrameLength() * numFrames);
+        LOG.debug("Read frames #{}-{} of {} from {}", frame, frame + numFrames - 1, inst, location);
         InputStream stream = storage.openInputStream(readContext);
         return new LocationInputStream(stream, readContext, location);
     }
 
+    @Override
+    public FileChannel openFileChannel(RetrieveContext ctx, InstanceLocations inst, Location location)
+            throws IOException {
+        Storage storage = getStorage(location.getStorageID(), ctx);
+        return storage.openFileChannel(createReadContext(storage, location.getStoragePath(),
+                inst.getAttributes().getString(Tag.StudyInstanceUID)));
+    }
+
     private ReadContext createReadContext(Storage storage, String storagePath, String studyInstanceUID) {
         ReadContext readContext = storage.createReadContext();
         readContext.setStoragePath(storagePath);
@@ -1098,13 +1239,30 @@ public class RetrieveServiceImpl implements RetrieveService {
 
     @Override
     public Storage getStorage(String storageID, RetrieveContext ctx) {
-        Storage storage = ctx.getStorage(storageID);
-        if (storage == null) {
-            ArchiveDeviceExtension arcDev = getArchiveDeviceExtension();
-            storage = storageFactory.getStorage(arcDev.getStorageDescriptorNotNull(storageID));
-            ctx.putStorage(storageID, storage);
+        synchronized (ctx) {
+            Storage storage = ctx.getStorage(storageID);
+            if (storage == null) {
+                ArchiveDeviceExtension arcDev = getArchiveDeviceExtension();
+                storage = storageFactory.getStorage(arcDev.getStorageDescriptorNotNull(storageID));
+                ctx.putStorage(storageID, storage);
+            }
+            return storage;
         }
-        return storage;
+    }
+
+    boolean reservePrefetchBuffer(long size) {
+        long limit = getArchiveDeviceExtension().getRetrievePrefetchBufferSizeInBytes();
+        long used;
+        do {
+            used = prefetchBufferSize.get();
+            if (used + size > limit)
+                return false;
+        } while (!prefetchBufferSize.compareAndSet(used, used + size));
+        return true;
+    }
+
+    void releasePrefetchBuffer(long size) {
+        prefetchBufferSize.addAndGet(-size);
     }
 
     @Override
@@ -0,0 +1,152 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.retrieve;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.UID;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.imageio.codec.ImageDescriptor;
+import org.dcm4che3.io.DicomInputStream;
+import org.dcm4che3.io.DicomOutputStream;
+import org.dcm4che3.util.StreamUtils;
+import org.dcm4chee.arc.storage.LimitedInputStream;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the calculation of frame offsets as performed by {@code RetrieveServiceImpl.getFrameOffsetTable()}, and
+ * the ranged read of particular frames at the calculated offsets.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class FrameOffsetTableTest {
+
+    private static final int ROWS = 4;
+    private static final int COLUMNS = 5;
+    private static final int FRAMES = 3;
+
+    @Test
+    public void testOffsetOf() {
+        FrameOffsetTable table = new FrameOffsetTable(null, 1000L, 20, 3);
+        assertEquals(1000L, table.offsetOf(1));
+        assertEquals(1020L, table.offsetOf(2));
+        assertEquals(1040L, table.offsetOf(3));
+    }
+
+    @Test
+    public void testOffsetOfLargeFrames() {
+        FrameOffsetTable table = new FrameOffsetTable(null, 1000L, Integer.MAX_VALUE, 3);
+        assertEquals(1000L + 2L * Integer.MAX_VALUE, table.offsetOf(3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFrameZero() {
+        new FrameOffsetTable(null, 1000L, 20, 3).offsetOf(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFrameBeyondNumberOfFrames() {
+        new FrameOffsetTable(null, 1000L, 20, 3).offsetOf(4);
+    }
+
+    @Test
+    public void testReadFrames() throws Exception {
+        testReadFrames(UID.ExplicitVRLittleEndian);
+        testReadFrames(UID.ImplicitVRLittleEndian);
+    }
+
+    private static void testReadFrames(String tsuid) throws IOException {
+        byte[] file = multiFrameImage(tsuid);
+        FrameOffsetTable table;
+        try (DicomInputStream dis = new DicomInputStream(new ByteArrayInputStream(file))) {
+            Attributes attrs = dis.readDataset(-1, Tag.PixelData);
+            assertEquals(Tag.PixelData, dis.tag());
+            ImageDescriptor imageDescriptor = new ImageDescriptor(attrs);
+            table = new FrameOffsetTable(null, dis.getPosition(),
+                    imageDescriptor.getFrameLength(), imageDescriptor.getFrames());
+        }
+        assertEquals(ROWS * COLUMNS, table.getFrameLength());
+        assertEquals(FRAMES, table.getNumberOfFrames());
+        for (int frame = 1; frame <= FRAMES; frame++) {
+            byte[] expected = new byte[ROWS * COLUMNS];
+            Arrays.fill(expected, (byte) frame);
+            try (InputStream in = LimitedInputStream.skipAndLimit(new ByteArrayInputStream(file),
+                    table.offsetOf(frame), table.getFrameLength())) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                StreamUtils.copy(in, out);
+                assertArrayEquals(tsuid + " frame #" + frame, expected, out.toByteArray());
+            }
+        }
+    }
+
+    private static byte[] multiFrameImage(String tsuid) throws IOException {
+        Attributes attrs = new Attributes();
+        attrs.setString(Tag.SOPClassUID, VR.UI, UID.MultiFrameGrayscaleByteSecondaryCaptureImageStorage);
+        attrs.setString(Tag.SOPInstanceUID, VR.UI, "1.2.3.4");
+        attrs.setInt(Tag.SamplesPerPixel, VR.US, 1);
+        attrs.setString(Tag.PhotometricInterpretation, VR.CS, "MONOCHROME2");
+        attrs.setInt(Tag.NumberOfFrames, VR.IS, FRAMES);
+        attrs.setInt(Tag.Rows, VR.US, ROWS);
+        attrs.setInt(Tag.Columns, VR.US, COLUMNS);
+        attrs.setInt(Tag.BitsAllocated, VR.US, 8);
+        attrs.setInt(Tag.BitsStored, VR.US, 8);
+        attrs.setInt(Tag.HighBit, VR.US, 7);
+        attrs.setInt(Tag.PixelRepresentation, VR.US, 0);
+        byte[] pixelData = new byte[ROWS * COLUMNS * FRAMES];
+        for (int i = 0; i < pixelData.length; i++)
+            pixelData[i] = (byte) (i / (ROWS * COLUMNS) + 1);
+        attrs.setBytes(Tag.PixelData, VR.OB, pixelData);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DicomOutputStream dos = new DicomOutputStream(out, UID.ExplicitVRLittleEndian)) {
+            dos.writeDataset(attrs.createFileMetaInformation(tsuid), attrs);
+        }
+        return out.toByteArray();
+    }
+}
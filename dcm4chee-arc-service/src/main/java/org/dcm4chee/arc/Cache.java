@@ -43,51 +43,90 @@ package org.dcm4chee.arc;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 
 /**
+ * Thread-safe cache, striped over a fixed number of segments, with per-entry expiry after
+ * {@link #getStaleTimeout()} ms and eviction of the least recently put entries over all segments
+ * if the number of entries exceeds {@link #getMaxSize()}.
+ *
  * @author Gunter Zeilinger <gunterze@gmail.com>
  * @since May 2016
  */
 public class Cache<K,V> {
 
+    private static final int SEGMENTS = 16;
+
     public static final class Entry<V> {
         final V value;
         final long fetchTime;
-        Entry(V value, long fetchTime) {
+        final long seqNo;
+        Entry(V value, long fetchTime, long seqNo) {
             this.value = value;
             this.fetchTime = fetchTime;
+            this.seqNo = seqNo;
         }
         public V value() {
             return value;
         }
     }
 
-    private int maxSize;
-    private long staleTimeout;
+    private static final class Segment<K,V> extends LinkedHashMap<K,Entry<V>> {
+        long eldestSeqNo() {
+            Iterator<Entry<V>> iter = values().iterator();
+            return iter.hasNext() ? iter.next().seqNo : Long.MAX_VALUE;
+        }
+
+        boolean removeEldest(long seqNo) {
+            Iterator<Entry<V>> iter = values().iterator();
+            if (!iter.hasNext() || iter.next().seqNo != seqNo)
+                return false;
 
-    private final LinkedHashMap<K,Entry<V>> cache = new LinkedHashMap<K,Entry<V>>(){
-        @Override
-        protected boolean removeEldestEntry(Map.Entry<K, Cache.Entry<V>> eldest) {
-            return maxSize > 0 && size() > maxSize;
+            iter.remove();
+            return true;
+        }
+
+        int removeStale(long minFetchTime) {
+            int removed = 0;
+            for (Iterator<Entry<V>> iter = values().iterator(); iter.hasNext() && iter.next().fetchTime <= minFetchTime;) {
+                iter.remove();
+                removed++;
+            }
+            return removed;
         }
-    };
+    }
+
+    private final Segment<K,V>[] segments;
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong seqNo = new AtomicLong();
+    private final Map<K,FutureTask<V>> loading = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private volatile int maxSize;
+    private volatile long staleTimeout;
+
+    @SuppressWarnings("unchecked")
+    public Cache() {
+        segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++)
+            segments[i] = new Segment<>();
+    }
 
     public int getMaxSize() {
         return maxSize;
     }
 
     public void setMaxSize(int maxSize) {
-        if (maxSize > 0) {
-            int remove = cache.size() - maxSize;
-            if (remove > 0) {
-                Iterator<Map.Entry<K, Entry<V>>> iter = cache.entrySet().iterator();
-                do {
-                    iter.next();
-                    iter.remove();
-                } while (--remove > 0);
-            }
-        }
         this.maxSize = maxSize;
+        evict();
     }
 
     public long getStaleTimeout() {
@@ -98,14 +137,47 @@ public class Cache<K,V> {
         this.staleTimeout = staleTimeout;
     }
 
+    public int size() {
+        return size.get();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
     public Entry<V> getEntry(K key) {
-        if (staleTimeout <= 0)
-            return cache.get(key);
+        Entry<V> entry = peekEntry(key);
+        if (entry != null)
+            hits.increment();
+        else
+            misses.increment();
+        return entry;
+    }
 
-        long minFetchTime = System.currentTimeMillis() - staleTimeout;
-        for (Iterator<Entry<V>> iter = cache.values().iterator(); iter.hasNext(); iter.remove())
-            if (iter.next().fetchTime > minFetchTime)
-                return cache.get(key);
+    private Entry<V> peekEntry(K key) {
+        Segment<K,V> segment = segmentFor(key);
+        long timeout = staleTimeout;
+        synchronized (segment) {
+            Entry<V> entry = segment.get(key);
+            if (entry == null || timeout <= 0 || entry.fetchTime > System.currentTimeMillis() - timeout)
+                return entry;
+
+            segment.remove(key);
+        }
+        size.decrementAndGet();
+        evictions.increment();
         return null;
     }
 
@@ -114,17 +186,133 @@ public class Cache<K,V> {
         return entry != null ? entry.value : null;
     }
 
+    /**
+     * Returns the cached value for the specified key or loads it by the specified function.
+     * Concurrent invocations for the same key, which is not yet cached, invoke the function only once;
+     * the other invocations wait for and return its result. {@code null} values are also cached.
+     *
+     * @throws IllegalStateException if the current thread was interrupted while waiting for the result of
+     *         the invocation by another thread. The interrupt status of the thread is restored.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> loader) {
+        Entry<V> entry = getEntry(key);
+        if (entry != null)
+            return entry.value;
+
+        FutureTask<V> task = new FutureTask<>(() -> {
+            Entry<V> loaded = peekEntry(key);
+            if (loaded != null)
+                return loaded.value;
+
+            loads.increment();
+            V value = loader.apply(key);
+            put(key, value);
+            return value;
+        });
+        FutureTask<V> running = loading.putIfAbsent(key, task);
+        if (running == null) {
+            try {
+                task.run();
+            } finally {
+                loading.remove(key, task);
+            }
+            running = task;
+        }
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for load of " + key, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+
     public V put(K key, V value) {
-        Entry<V> entry = cache.put(key, new Entry<V>(value, System.currentTimeMillis()));
-        return entry != null ? entry.value : null;
+        Segment<K,V> segment = segmentFor(key);
+        long now = System.currentTimeMillis();
+        long timeout = staleTimeout;
+        Entry<V> prev;
+        int removed = 0;
+        synchronized (segment) {
+            prev = segment.remove(key);
+            segment.put(key, new Entry<>(value, now, seqNo.incrementAndGet()));
+            if (timeout > 0)
+                removed = segment.removeStale(now - timeout);
+        }
+        if (prev == null)
+            size.incrementAndGet();
+        if (removed > 0) {
+            size.addAndGet(-removed);
+            evictions.add(removed);
+        }
+        evict();
+        return prev != null ? prev.value : null;
     }
 
     public V remove(K key) {
-        Entry<V> entry = cache.remove(key);
-        return entry != null ? entry.value : null;
+        Segment<K,V> segment = segmentFor(key);
+        Entry<V> entry;
+        synchronized (segment) {
+            entry = segment.remove(key);
+        }
+        if (entry == null)
+            return null;
+
+        size.decrementAndGet();
+        return entry.value;
     }
 
     public void clear() {
-        cache.clear();
+        for (Segment<K,V> segment : segments) {
+            int removed;
+            synchronized (segment) {
+                removed = segment.size();
+                segment.clear();
+            }
+            size.addAndGet(-removed);
+        }
+    }
+
+    private void evict() {
+        int max = maxSize;
+        if (max <= 0)
+            return;
+
+        while (size.get() > max) {
+            Segment<K,V> eldest = null;
+            long eldestSeqNo = Long.MAX_VALUE;
+            for (Segment<K,V> segment : segments) {
+                long seqNo;
+                synchronized (segment) {
+                    seqNo = segment.eldestSeqNo();
+                }
+                if (seqNo < eldestSeqNo) {
+                    eldest = segment;
+                    eldestSeqNo = seqNo;
+                }
+            }
+            if (eldest == null)
+                return;
+
+            boolean removed;
+            synchronized (eldest) {
+                removed = eldest.removeEldest(eldestSeqNo);
+            }
+            if (removed) {
+                size.decrementAndGet();
+                evictions.increment();
+            }
+        }
+    }
+
+    private Segment<K,V> segmentFor(Object key) {
+        int h = key.hashCode();
+        return segments[(h ^ (h >>> 16)) & (SEGMENTS - 1)];
     }
 }
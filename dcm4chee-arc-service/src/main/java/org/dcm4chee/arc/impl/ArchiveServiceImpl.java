@@ -66,6 +66,8 @@ import javax.enterprise.concurrent.ManagedScheduledExecutorService;
 import javax.enterprise.event.Event;
 import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import javax.servlet.http.HttpServletRequest;
 
 /**
@@ -124,6 +126,9 @@ public class ArchiveServiceImpl implements ArchiveService {
     @Inject
     private ConnectionEventSource connectionEventSource;
 
+    @PersistenceContext(unitName = "dcm4chee-arc")
+    private EntityManager em;
+
     private Status status = Status.STOPPED;
 
     private final DicomService echoscp = new BasicCEchoSCP();
@@ -151,6 +156,7 @@ public class ArchiveServiceImpl implements ArchiveService {
             if (hl7Extension != null) {
                 hl7Extension.setHL7MessageListener(hl7ServiceRegistry);
             }
+            SequenceIncrementCheck.check(em);
             configure();
             start(null);
         } catch (RuntimeException re) {
@@ -0,0 +1,115 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.impl;
+
+import org.hibernate.Session;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.Oracle8iDialect;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.enhanced.DatabaseStructure;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Verifies that the increment of each database sequence matches the allocation size of its mapping.
+ * The pooled optimizer assumes that each sequence call reserves allocation size primary keys, so with a
+ * smaller increment it would assign the same primary key twice.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+class SequenceIncrementCheck {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SequenceIncrementCheck.class);
+
+    private static final String PSQL_INCREMENT =
+            "select increment from information_schema.sequences where sequence_name = ?1";
+    private static final String ORACLE_INCREMENT =
+            "select increment_by from user_sequences where sequence_name = upper(?1)";
+
+    static void check(EntityManager em) {
+        SessionFactoryImplementor sf = (SessionFactoryImplementor) em.unwrap(Session.class).getSessionFactory();
+        String query = incrementQuery(sf.getDialect());
+        if (query == null)
+            return;
+
+        Map<String, Integer> allocationSizes = new TreeMap<>();
+        for (String entityName : sf.getAllClassMetadata().keySet()) {
+            IdentifierGenerator generator = sf.getIdentifierGenerator(entityName);
+            if (generator instanceof SequenceStyleGenerator) {
+                DatabaseStructure structure = ((SequenceStyleGenerator) generator).getDatabaseStructure();
+                if (structure.isPhysicalSequence())
+                    allocationSizes.put(structure.getName(), structure.getIncrementSize());
+            }
+        }
+        StringBuilder mismatches = new StringBuilder();
+        for (Map.Entry<String, Integer> entry : allocationSizes.entrySet()) {
+            List<?> result = em.createNativeQuery(query).setParameter(1, entry.getKey()).getResultList();
+            if (result.isEmpty()) {
+                LOG.warn("Missing sequence {}", entry.getKey());
+                continue;
+            }
+            long increment = Long.parseLong(result.get(0).toString());
+            if (increment != entry.getValue())
+                mismatches.append("\n  ").append(entry.getKey())
+                        .append(": increment ").append(increment)
+                        .append(", allocation-size ").append(entry.getValue());
+        }
+        if (mismatches.length() > 0)
+            throw new IllegalStateException(
+                    "Increment of database sequences does not match allocation-size - apply update-5.14 SQL script:"
+                            + mismatches);
+    }
+
+    private static String incrementQuery(Dialect dialect) {
+        return dialect instanceof PostgreSQL81Dialect ? PSQL_INCREMENT
+                : dialect instanceof Oracle8iDialect ? ORACLE_INCREMENT
+                : null;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.metrics;
+
+import org.dcm4chee.arc.Cache;
+import org.dcm4chee.arc.LeadingCFindSCPQueryCache;
+import org.dcm4chee.arc.MergeMWLCache;
+import org.dcm4chee.arc.PatientIDLock;
+import org.dcm4chee.arc.StorePermissionCache;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Registry of {@link Counter}s, {@link Gauge}s and {@link Timer}s, exposed by the Archive Monitor REST service.
+ * Metrics are created on first access and live as long as the application. A name with equal labels identifies
+ * one metric, so accessing it as another kind of metric fails with {@link IllegalStateException}.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+@ApplicationScoped
+public class MetricsService {
+
+    private final ConcurrentHashMap<String, Metric> metrics = new ConcurrentHashMap<>();
+
+    @Inject
+    private LeadingCFindSCPQueryCache leadingCFindSCPQueryCache;
+
+    @Inject
+    private MergeMWLCache mergeMWLCache;
+
+    @Inject
+    private StorePermissionCache storePermissionCache;
+
+    @Inject
+    private PatientIDLock patientIDLock;
+
+    @PostConstruct
+    private void registerCacheAndLockMetrics() {
+        registerCacheMetrics("leadingCFindSCPQueryCache", leadingCFindSCPQueryCache);
+        registerCacheMetrics("mergeMWLCache", mergeMWLCache);
+        registerCacheMetrics("storePermissionCache", storePermissionCache);
+        counter("lock_acquisitions_total", patientIDLock::getAcquisitions, "lock", "patientIDLock");
+        counter("lock_contentions_total", patientIDLock::getContentions, "lock", "patientIDLock");
+    }
+
+    private void registerCacheMetrics(String name, Cache<?,?> cache) {
+        gauge("cache_size", cache::size, "cache", name);
+        counter("cache_hits_total", cache::getHits, "cache", name);
+        counter("cache_misses_total", cache::getMisses, "cache", name);
+        counter("cache_evictions_total", cache::getEvictions, "cache", name);
+    }
+
+    public Counter counter(String name, String... labels) {
+        return cast(Counter.class,
+                metrics.computeIfAbsent(keyOf(name, labels), key -> new Counter(name, labels)));
+    }
+
+    public Timer timer(String name, String... labels) {
+        return cast(Timer.class,
+                metrics.computeIfAbsent(keyOf(name, labels), key -> new Timer(name, labels)));
+    }
+
+    public void gauge(String name, LongSupplier supplier, String... labels) {
+        register(new Gauge(name, labels, Metric.Type.gauge, supplier));
+    }
+
+    /**
+     * Registers counter maintained by some other component, which value is provided by the specified supplier.
+     */
+    public void counter(String name, LongSupplier supplier, String... labels) {
+        register(new Gauge(name, labels, Metric.Type.counter, supplier));
+    }
+
+    private void register(Gauge gauge) {
+        metrics.compute(keyOf(gauge.getName(), gauge.getLabels()), (key, prev) -> {
+            if (prev != null && !(prev instanceof Gauge))
+                throw alreadyRegistered(prev, Gauge.class);
+            return gauge;
+        });
+    }
+
+    private static <T extends Metric> T cast(Class<T> type, Metric metric) {
+        if (!type.isInstance(metric))
+            throw alreadyRegistered(metric, type);
+        return type.cast(metric);
+    }
+
+    private static IllegalStateException alreadyRegistered(Metric metric, Class<? extends Metric> type) {
+        return new IllegalStateException("Metric " + metric.getName() + Arrays.toString(metric.getLabels())
+                + " already registered as " + metric.getClass().getSimpleName()
+                + " - cannot access it as " + type.getSimpleName());
+    }
+
+    public void remove(String name, String... labels) {
+        metrics.remove(keyOf(name, labels));
+    }
+
+    /**
+     * Returns all metrics, sorted by name and labels.
+     */
+    public Collection<Metric> getMetrics() {
+        return new TreeMap<>(metrics).values();
+    }
+
+    /**
+     * Returns stream which records the time spent in reading from the specified stream by the specified timer and
+     * the number of read bytes by the specified counter on close.
+     */
+    public InputStream meter(InputStream in, Timer timer, Counter bytes) {
+        return new MeteredInputStream(in, timer, bytes);
+    }
+
+    /**
+     * Returns stream which records the time spent in writing to the specified stream by the specified timer and
+     * the number of written bytes by the specified counter on close.
+     */
+    public OutputStream meter(OutputStream out, Timer timer, Counter bytes) {
+        return new MeteredOutputStream(out, timer, bytes);
+    }
+
+    private static String keyOf(String name, String[] labels) {
+        if (labels.length == 0)
+            return name;
+
+        StringBuilder sb = new StringBuilder(name);
+        for (String label : labels)
+            sb.append('\u0000').append(label);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of durations with fixed buckets of powers of 2 microseconds, from 1 &micro;s to 2<sup>30</sup> &micro;s
+ * (~18 min), recorded in nanoseconds without locking.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public final class Timer extends Metric {
+
+    public static final int BUCKETS = 32;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder sumNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+    Timer(String name, String[] labels) {
+        super(name, labels);
+        for (int i = 0; i < BUCKETS; i++)
+            buckets[i] = new LongAdder();
+    }
+
+    @Override
+    public Type getType() {
+        return Type.histogram;
+    }
+
+    public void record(long nanos) {
+        int i = bucketOf(nanos);
+        buckets[i].increment();
+        sumNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Returns first bucket, which {@link #upperBound} is not less than the specified duration in nanoseconds.
+     */
+    static int bucketOf(long nanos) {
+        long micros = (nanos + 999) / 1000;
+        return micros <= 1 ? 0 : Math.min(64 - Long.numberOfLeadingZeros(micros - 1), BUCKETS - 1);
+    }
+
+    /**
+     * Returns upper bound of specified bucket in seconds; {@link Double#POSITIVE_INFINITY} for the last bucket.
+     */
+    public static double upperBound(int bucket) {
+        return bucket < BUCKETS - 1 ? (1L << bucket) / 1e6 : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns cumulative counts of durations less or equal the {@link #upperBound} of each bucket.
+     */
+    public long[] getCumulativeCounts() {
+        long[] counts = new long[BUCKETS];
+        long count = 0L;
+        for (int i = 0; i < BUCKETS; i++)
+            counts[i] = count += buckets[i].sum();
+        return counts;
+    }
+
+    public long getCount() {
+        long count = 0L;
+        for (LongAdder bucket : buckets)
+            count += bucket.sum();
+        return count;
+    }
+
+    public double getSum() {
+        return sumNanos.sum() / 1e9;
+    }
+
+    public double getMax() {
+        return maxNanos.get() / 1e9;
+    }
+}
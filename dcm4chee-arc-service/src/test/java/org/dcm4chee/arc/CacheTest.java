@@ -0,0 +1,219 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class CacheTest {
+
+    @Test
+    public void testConcurrentLoad() throws Exception {
+        int threads = 8;
+        Cache<String,String> cache = new Cache<>();
+        AtomicInteger invocations = new AtomicInteger();
+        CountDownLatch entered = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++)
+                results.add(executor.submit(() -> {
+                    entered.countDown();
+                    return cache.computeIfAbsent("key", key -> {
+                        invocations.incrementAndGet();
+                        try {
+                            entered.await(10, TimeUnit.SECONDS);
+                            Thread.sleep(100);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return "value";
+                    });
+                }));
+            for (Future<String> result : results)
+                assertEquals("value", result.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, invocations.get());
+        assertEquals(1L, cache.getLoads());
+        assertEquals(threads, cache.getHits() + cache.getMisses());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testLoaderException() throws Exception {
+        Cache<String,String> cache = new Cache<>();
+        try {
+            cache.computeIfAbsent("key", key -> {
+                throw new IllegalStateException("failed");
+            });
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException e) {
+            assertEquals("failed", e.getMessage());
+        }
+        assertEquals(0, cache.size());
+        assertNull(cache.get("key"));
+        assertEquals("value", cache.computeIfAbsent("key", key -> "value"));
+        assertEquals(2L, cache.getLoads());
+    }
+
+    @Test
+    public void testNullValue() throws Exception {
+        Cache<String,String> cache = new Cache<>();
+        AtomicInteger invocations = new AtomicInteger();
+        assertNull(cache.computeIfAbsent("key", key -> { invocations.incrementAndGet(); return null; }));
+        assertNull(cache.computeIfAbsent("key", key -> { invocations.incrementAndGet(); return null; }));
+        assertEquals(1, invocations.get());
+        assertNotNull(cache.getEntry("key"));
+    }
+
+    @Test
+    public void testStatistics() throws Exception {
+        Cache<String,String> cache = new Cache<>();
+        cache.setMaxSize(2);
+        assertNull(cache.get("a"));
+        cache.computeIfAbsent("a", key -> "A");
+        cache.computeIfAbsent("a", key -> "X");
+        cache.put("b", "B");
+        cache.put("c", "C");
+        assertEquals(2, cache.size());
+        assertEquals(2L, cache.getMisses());
+        assertEquals(1L, cache.getHits());
+        assertEquals(1L, cache.getLoads());
+        assertEquals(1L, cache.getEvictions());
+        assertEquals("B", cache.get("b"));
+        assertEquals("C", cache.get("c"));
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    public void testEvictEldestOverAllSegments() throws Exception {
+        Cache<Integer,String> cache = new Cache<>();
+        cache.setMaxSize(3);
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, "V" + i);
+            assertEquals("V" + i, cache.get(i));
+        }
+        assertEquals(3, cache.size());
+        assertEquals(97L, cache.getEvictions());
+        for (int i = 0; i < 97; i++)
+            assertNull(cache.get(i));
+        for (int i = 97; i < 100; i++)
+            assertEquals("V" + i, cache.get(i));
+    }
+
+    @Test
+    public void testSetMaxSize() throws Exception {
+        Cache<Integer,String> cache = new Cache<>();
+        for (int i = 0; i < 10; i++)
+            cache.put(i, "V" + i);
+        cache.setMaxSize(2);
+        assertEquals(2, cache.size());
+        assertEquals("V8", cache.get(8));
+        assertEquals("V9", cache.get(9));
+    }
+
+    @Test
+    public void testInterruptedWhileWaitingForLoad() throws Exception {
+        Cache<String,String> cache = new Cache<>();
+        AtomicInteger invocations = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> result = executor.submit(() -> cache.computeIfAbsent("key", key -> {
+                invocations.incrementAndGet();
+                loading.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "value";
+            }));
+            assertTrue(loading.await(10, TimeUnit.SECONDS));
+            Thread.currentThread().interrupt();
+            try {
+                cache.computeIfAbsent("key", key -> {
+                    invocations.incrementAndGet();
+                    return "other";
+                });
+                fail("IllegalStateException expected");
+            } catch (IllegalStateException e) {
+                assertTrue(Thread.interrupted());
+            }
+            release.countDown();
+            assertEquals("value", result.get(10, TimeUnit.SECONDS));
+        } finally {
+            Thread.interrupted();
+            executor.shutdownNow();
+        }
+        assertEquals(1, invocations.get());
+        assertEquals("value", cache.get("key"));
+    }
+
+    @Test
+    public void testStaleTimeout() throws Exception {
+        Cache<String,String> cache = new Cache<>();
+        cache.setStaleTimeout(50);
+        cache.put("key", "value");
+        assertEquals("value", cache.get("key"));
+        Thread.sleep(100);
+        assertNull(cache.get("key"));
+        assertEquals(0, cache.size());
+        assertEquals(1L, cache.getEvictions());
+    }
+}
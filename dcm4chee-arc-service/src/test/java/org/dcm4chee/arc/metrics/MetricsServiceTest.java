@@ -0,0 +1,127 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class MetricsServiceTest {
+
+    @Test
+    public void testCounter() {
+        MetricsService service = new MetricsService();
+        Counter counter = service.counter("stored_total", "ae", "DCM4CHEE");
+        counter.increment();
+        assertSame(counter, service.counter("stored_total", "ae", "DCM4CHEE"));
+        assertNotSame(counter, service.counter("stored_total", "ae", "STORESCP"));
+        assertEquals(1L, service.counter("stored_total", "ae", "DCM4CHEE").get());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCounterRegisteredBySupplier() {
+        MetricsService service = new MetricsService();
+        service.counter("cache_hits_total", () -> 1L, "cache", "mergeMWLCache");
+        service.counter("cache_hits_total", "cache", "mergeMWLCache");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testTimerRegisteredAsCounter() {
+        MetricsService service = new MetricsService();
+        service.counter("store_seconds");
+        service.timer("store_seconds");
+    }
+
+    @Test
+    public void testGaugeReplacesGauge() {
+        MetricsService service = new MetricsService();
+        service.gauge("cache_size", () -> 1L, "cache", "mergeMWLCache");
+        service.gauge("cache_size", () -> 2L, "cache", "mergeMWLCache");
+        assertEquals(1, service.getMetrics().size());
+        assertEquals(2L, ((Gauge) service.getMetrics().iterator().next()).get());
+    }
+
+    @Test
+    public void testGaugeDoesNotReplaceCounter() {
+        MetricsService service = new MetricsService();
+        Counter counter = service.counter("cache_hits_total", "cache", "mergeMWLCache");
+        try {
+            service.counter("cache_hits_total", () -> 1L, "cache", "mergeMWLCache");
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException expected) {
+        }
+        assertSame(counter, service.counter("cache_hits_total", "cache", "mergeMWLCache"));
+    }
+
+    @Test
+    public void testTimerBuckets() {
+        assertEquals(0, Timer.bucketOf(0L));
+        assertEquals(0, Timer.bucketOf(1000L));
+        assertEquals(1, Timer.bucketOf(1001L));
+        assertEquals(1, Timer.bucketOf(1999L));
+        assertEquals(1, Timer.bucketOf(2000L));
+        assertEquals(2, Timer.bucketOf(2001L));
+        assertEquals(10, Timer.bucketOf(1024_000L));
+        assertEquals(11, Timer.bucketOf(1024_001L));
+        assertEquals(Timer.BUCKETS - 1, Timer.bucketOf(Long.MAX_VALUE / 2));
+    }
+
+    @Test
+    public void testTimerRecord() {
+        Timer timer = new MetricsService().timer("retrieve_seconds");
+        timer.record(999L);
+        timer.record(1999L);
+        timer.record(3_000_000L);
+        long[] counts = timer.getCumulativeCounts();
+        assertEquals(1L, counts[0]);
+        assertEquals(2L, counts[1]);
+        assertEquals(2L, counts[11]);
+        assertEquals(3L, counts[12]);
+        assertEquals(3L, counts[Timer.BUCKETS - 1]);
+        assertEquals(3L, timer.getCount());
+        assertEquals(3_002_998L / 1e9, timer.getSum(), 1e-12);
+        assertEquals(3_000_000L / 1e9, timer.getMax(), 1e-12);
+    }
+}
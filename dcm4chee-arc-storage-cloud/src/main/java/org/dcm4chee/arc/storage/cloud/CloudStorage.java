@@ -45,19 +45,23 @@ import org.dcm4che3.net.Device;
 import org.dcm4che3.util.AttributesFormat;
 import org.dcm4chee.arc.conf.StorageDescriptor;
 import org.dcm4chee.arc.storage.AbstractStorage;
+import org.dcm4chee.arc.storage.PartBufferPool;
 import org.dcm4chee.arc.storage.ReadContext;
+import org.dcm4chee.arc.storage.TransferStatistics;
 import org.dcm4chee.arc.storage.WriteContext;
 import org.jclouds.ContextBuilder;
 import org.jclouds.blobstore.BlobStore;
 import org.jclouds.blobstore.BlobStoreContext;
 import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.options.GetOptions;
 import org.jclouds.io.Payload;
 import org.jclouds.io.payloads.InputStreamPayload;
 import org.jclouds.logging.slf4j.config.SLF4JLoggingModule;
 
 import java.io.*;
 import java.nio.file.NoSuchFileException;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Properties;
@@ -88,19 +92,23 @@ public class CloudStorage extends AbstractStorage {
     private final String container;
     private final BlobStoreContext context;
     private final Uploader uploader;
-    private int count;
+    private final boolean uniqueStoragePath;
+    private final PartBufferPool partBufferPool;
+    private final TransferStatistics writeStatistics;
+    private volatile boolean containerExists;
 
     @Override
     public WriteContext createWriteContext() {
         return new CloudWriteContext(this);
     }
 
-    protected CloudStorage(StorageDescriptor descriptor, Device device) {
+    protected CloudStorage(StorageDescriptor descriptor, Device device, TransferStatistics writeStatistics) {
         super(descriptor);
         this.device = device;
+        this.writeStatistics = writeStatistics;
         pathFormat = new AttributesFormat(descriptor.getProperty("pathFormat", DEFAULT_PATH_FORMAT));
         container = descriptor.getProperty("container", DEFAULT_CONTAINER);
-        if (Boolean.parseBoolean(descriptor.getProperty("containerExists", null))) count++;
+        containerExists = Boolean.parseBoolean(descriptor.getProperty("containerExists", null));
         String api = descriptor.getStorageURI().getSchemeSpecificPart();
         String endpoint = null;
         int endApi = api.indexOf(':');
@@ -109,6 +117,11 @@ public class CloudStorage extends AbstractStorage {
             api = api.substring(0, endApi);
         }
         this.uploader = api.endsWith("s3") ? new S3Uploader() : DEFAULT_UPLOADER;
+        this.uniqueStoragePath = Boolean.parseBoolean(descriptor.getProperty(PROPERTY_UNIQUE_STORAGE_PATH, null));
+        this.partBufferPool = api.endsWith("s3")
+                && Boolean.parseBoolean(descriptor.getProperty(PROPERTY_MULTIPART_UPLOAD, null))
+                ? createPartBufferPool()
+                : null;
         ContextBuilder ctxBuilder = ContextBuilder.newBuilder(api);
         String identity = descriptor.getProperty("identity", null);
         if (identity != null)
@@ -128,13 +141,22 @@ public class CloudStorage extends AbstractStorage {
 
     @Override
     protected OutputStream openOutputStreamA(final WriteContext ctx) throws IOException {
+        if (partBufferPool != null) {
+            String storagePath = storagePath(ctx);
+            ctx.setStoragePath(storagePath);
+            return new S3MultipartUploadOutputStream(device.getExecutor(), partBufferPool,
+                    multipartUploadMaxPartsInFlight(), writeStatistics, context, container, storagePath);
+        }
         final PipedInputStream in = new PipedInputStream();
         PipedOutputStream out = new PipedOutputStream(in);
         FutureTask<Void> task = new FutureTask<>(new Callable<Void>() {
             @Override
             public Void call() throws Exception {
+                long startTime = System.nanoTime();
                 try {
                     upload(ctx, in);
+                    if (writeStatistics != null)
+                        writeStatistics.add(ctx.getSize(), System.nanoTime() - startTime);
                 } finally {
                     in.close();
                 }
@@ -154,6 +176,9 @@ public class CloudStorage extends AbstractStorage {
     @Override
     protected void afterOutputStreamClosed(WriteContext ctx) throws IOException {
         FutureTask<Void> task = ((CloudWriteContext) ctx).getUploadTask();
+        if (task == null)
+            return;
+
         try {
             task.get();
         } catch (InterruptedException e) {
@@ -167,17 +192,38 @@ public class CloudStorage extends AbstractStorage {
     }
 
     private void upload(WriteContext ctx, InputStream in) throws IOException {
+        String storagePath = storagePath(ctx);
+        uploader.upload(context, in, context.getBlobStore(), container, storagePath);
+        ctx.setStoragePath(storagePath);
+    }
+
+    private String storagePath(WriteContext ctx) {
         BlobStore blobStore = context.getBlobStore();
         String storagePath = pathFormat.format(ctx.getAttributes());
-        if (count++ == 0 && !blobStore.containerExists(container))
-            blobStore.createContainerInLocation(null, container);
-        else {
+        boolean created = !containerExists && createContainer(blobStore);
+        if (!created && !uniqueStoragePath) {
             while (blobStore.blobExists(container, storagePath))
                 storagePath = storagePath.substring(0, storagePath.lastIndexOf('/') + 1)
                         .concat(String.format("%08X", ThreadLocalRandom.current().nextInt()));
         }
-        uploader.upload(context, in, blobStore, container, storagePath);
-        ctx.setStoragePath(storagePath);
+        return uniqueStoragePath ? uniqueStoragePath(storagePath) : storagePath;
+    }
+
+    /**
+     * Checks on first write if the container exists, and creates it if not. The container is marked as existing
+     * if neither the check nor the creation throws an exception, otherwise both are retried on next write.
+     *
+     * @return {@code true} if the container was created by this call, so it cannot contain an object with the
+     *         storage path of the written object; {@code false} if it already existed or was created concurrently
+     */
+    private synchronized boolean createContainer(BlobStore blobStore) {
+        if (containerExists)
+            return false;
+
+        boolean created = !blobStore.containerExists(container)
+                && blobStore.createContainerInLocation(null, container);
+        containerExists = true;
+        return created;
     }
 
     @Override
@@ -189,6 +235,17 @@ public class CloudStorage extends AbstractStorage {
         return blob.getPayload().openStream();
     }
 
+    @Override
+    protected InputStream openInputStreamA(ReadContext ctx, long offset, long length) throws IOException {
+        BlobStore blobStore = context.getBlobStore();
+        Blob blob = blobStore.getBlob(container, ctx.getStoragePath(), length >= 0
+                ? GetOptions.Builder.range(offset, offset + length - 1)
+                : GetOptions.Builder.startAt(offset));
+        if (blob == null)
+            throw objectNotFound(ctx.getStoragePath());
+        return blob.getPayload().openStream();
+    }
+
     @Override
     public boolean exists(ReadContext ctx) {
         BlobStore blobStore = context.getBlobStore();
@@ -224,6 +281,17 @@ public class CloudStorage extends AbstractStorage {
         blobStore.removeBlob(container, storagePath);
     }
 
+    @Override
+    public Map<String,Exception> deleteObjects(Collection<String> storagePaths) {
+        try {
+            context.getBlobStore().removeBlobs(container, storagePaths);
+            return Collections.emptyMap();
+        } catch (RuntimeException e) {
+            // fall back to delete one object after the other, to determine which objects could not be deleted
+            return super.deleteObjects(storagePaths);
+        }
+    }
+
     private IOException objectNotFound(String storagePath) {
         return new NoSuchFileException("No Object[" + storagePath
                 + "] in Container[" + container
@@ -44,6 +44,7 @@ import org.dcm4che3.net.Device;
 import org.dcm4chee.arc.conf.StorageDescriptor;
 import org.dcm4chee.arc.storage.Storage;
 import org.dcm4chee.arc.storage.StorageProvider;
+import org.dcm4chee.arc.storage.StorageStatistics;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
@@ -60,8 +61,12 @@ public class CloudStorageProvider implements StorageProvider {
     @Inject
     private Device device;
 
+    @Inject
+    private StorageStatistics storageStatistics;
+
     @Override
     public Storage openStorage(StorageDescriptor descriptor) {
-        return new CloudStorage(descriptor, device);
+        return new CloudStorage(descriptor, device,
+                storageStatistics.getWriteStatistics(descriptor.getStorageID()));
     }
 }
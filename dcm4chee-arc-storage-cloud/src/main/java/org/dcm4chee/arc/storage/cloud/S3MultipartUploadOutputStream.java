@@ -0,0 +1,125 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.storage.cloud;
+
+import org.dcm4chee.arc.storage.MultipartUploadOutputStream;
+import org.dcm4chee.arc.storage.PartBufferPool;
+import org.dcm4chee.arc.storage.TransferStatistics;
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.io.Payload;
+import org.jclouds.io.payloads.InputStreamPayload;
+import org.jclouds.s3.S3Client;
+import org.jclouds.s3.domain.ObjectMetadataBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+class S3MultipartUploadOutputStream extends MultipartUploadOutputStream<String> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(S3MultipartUploadOutputStream.class);
+
+    private final BlobStoreContext context;
+    private final String container;
+    private final String storagePath;
+    private String uploadId;
+
+    S3MultipartUploadOutputStream(Executor executor, PartBufferPool bufferPool, int maxPartsInFlight,
+            TransferStatistics statistics, BlobStoreContext context, String container, String storagePath) {
+        super(executor, bufferPool, maxPartsInFlight, statistics);
+        this.context = context;
+        this.container = container;
+        this.storagePath = storagePath;
+    }
+
+    @Override
+    protected void initiateMultipartUpload() {
+        uploadId = context.unwrapApi(S3Client.class).initiateMultipartUpload(container,
+                ObjectMetadataBuilder.create().key(storagePath).build());
+    }
+
+    @Override
+    protected String uploadPart(int partNumber, byte[] b, int len) {
+        return context.unwrapApi(S3Client.class).uploadPart(
+                container, storagePath, partNumber, uploadId, createPayload(b, len));
+    }
+
+    @Override
+    protected void completeMultipartUpload(List<String> parts) {
+        Map<Integer, String> map = new HashMap<>();
+        int partNumber = 1;
+        for (String etag : parts)
+            map.put(partNumber++, etag);
+        context.unwrapApi(S3Client.class).completeMultipartUpload(container, storagePath, uploadId, map);
+    }
+
+    @Override
+    protected void abortMultipartUpload() {
+        try {
+            context.unwrapApi(S3Client.class).abortMultipartUpload(container, storagePath, uploadId);
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to abort multipart upload of Object[{}] in Container[{}]", storagePath, container, e);
+        }
+    }
+
+    @Override
+    protected void uploadSinglePart(byte[] b, int len) {
+        BlobStore blobStore = context.getBlobStore();
+        Blob blob = blobStore.blobBuilder(storagePath).payload(createPayload(b, len)).build();
+        blobStore.putBlob(container, blob);
+    }
+
+    private static Payload createPayload(byte[] b, int len) {
+        Payload payload = new InputStreamPayload(new ByteArrayInputStream(b, 0, len));
+        payload.getContentMetadata().setContentLength((long) len);
+        return payload;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.storage.cloud;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.net.Device;
+import org.dcm4che3.util.StreamUtils;
+import org.dcm4chee.arc.conf.StorageDescriptor;
+import org.dcm4chee.arc.storage.ReadContext;
+import org.dcm4chee.arc.storage.WriteContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the concurrent use of one {@link CloudStorage} instance - as shared by the {@code StorageFactory} -
+ * against the in-memory jclouds "transient" provider.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class CloudStorageTest {
+
+    private ExecutorService executor;
+    private CloudStorage storage;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+        Device device = new Device("test");
+        device.setExecutor(executor);
+        StorageDescriptor descriptor = new StorageDescriptor("cloud1");
+        descriptor.setStorageURIStr("jclouds:transient");
+        descriptor.setProperty("container", "test-container");
+        descriptor.setProperty("pathFormat", "{00080018}");
+        storage = new CloudStorage(descriptor, device, null);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        storage.close();
+        executor.shutdown();
+    }
+
+    @Test
+    public void testConcurrentWritesToMissingContainer() throws Exception {
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            String iuid = "1.2.3." + i;
+            results.add(executor.submit(() -> {
+                start.await();
+                return write(iuid, iuid);
+            }));
+        }
+        start.countDown();
+        HashSet<String> storagePaths = new HashSet<>();
+        for (int i = 0; i < threads; i++) {
+            String storagePath = results.get(i).get();
+            assertTrue(storagePaths.add(storagePath));
+            assertEquals("1.2.3." + i, read(storagePath));
+        }
+    }
+
+    @Test
+    public void testWriteToExistingContainer() throws Exception {
+        String storagePath = write("1.2.3", "first");
+        String storagePath2 = write("1.2.3", "second");
+        assertNotEquals(storagePath, storagePath2);
+        assertEquals("first", read(storagePath));
+        assertEquals("second", read(storagePath2));
+    }
+
+    private String write(String iuid, String content) throws IOException {
+        Attributes attrs = new Attributes(1);
+        attrs.setString(Tag.SOPInstanceUID, VR.UI, iuid);
+        WriteContext ctx = storage.createWriteContext();
+        ctx.setAttributes(attrs);
+        try (OutputStream out = storage.openOutputStream(ctx)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        storage.commitStorage(ctx);
+        return ctx.getStoragePath();
+    }
+
+    private String read(String storagePath) throws IOException {
+        ReadContext ctx = storage.createReadContext();
+        ctx.setStoragePath(storagePath);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = storage.openInputStream(ctx)) {
+            StreamUtils.copy(in, out);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -40,24 +40,33 @@
 
 package org.dcm4chee.arc.storage.emc.ecs;
 
+import com.emc.object.Range;
 import com.emc.object.s3.S3Client;
 import com.emc.object.s3.S3Config;
 import com.emc.object.s3.S3Exception;
 import com.emc.object.s3.S3ObjectMetadata;
+import com.emc.object.s3.bean.AbstractDeleteResult;
+import com.emc.object.s3.bean.DeleteError;
+import com.emc.object.s3.bean.DeleteObjectsResult;
 import com.emc.object.s3.bean.GetObjectResult;
 import com.emc.object.s3.jersey.S3JerseyClient;
+import com.emc.object.s3.request.DeleteObjectsRequest;
+import com.emc.object.s3.request.GetObjectRequest;
 import com.sun.jersey.client.urlconnection.URLConnectionClientHandler;
 import org.dcm4che3.net.Device;
 import org.dcm4che3.util.AttributesFormat;
 import org.dcm4che3.util.TagUtils;
 import org.dcm4chee.arc.conf.StorageDescriptor;
 import org.dcm4chee.arc.storage.AbstractStorage;
+import org.dcm4chee.arc.storage.PartBufferPool;
 import org.dcm4chee.arc.storage.ReadContext;
+import org.dcm4chee.arc.storage.TransferStatistics;
 import org.dcm4chee.arc.storage.WriteContext;
 
 import java.io.*;
 import java.net.URI;
 import java.nio.file.NoSuchFileException;
+import java.util.*;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.ThreadLocalRandom;
@@ -70,6 +79,7 @@ public class EMCECSStorage extends AbstractStorage {
 
     public static final String PROPERTY_STREAMING = "emc-ecs-s3.streaming";
     public static final String PROPERTY_URL_CONNECTION_CLIENT_HANDLER = "emc-ecs-s3.URLConnectionClientHandler";
+    private static final int MAX_KEYS_PER_DELETE_OBJECTS = 1000;
 
     private static final String DEFAULT_CONTAINER = "org.dcm4chee.arc";
     private static final Uploader STREAMING_UPLOADER = new Uploader() {
@@ -84,14 +94,18 @@ public class EMCECSStorage extends AbstractStorage {
     private final String container;
     private final S3Client s3;
     private final Uploader uploader;
-    private int count;
+    private final boolean uniqueStoragePath;
+    private final PartBufferPool partBufferPool;
+    private final TransferStatistics writeStatistics;
+    private volatile boolean containerExists;
 
-    public EMCECSStorage(StorageDescriptor descriptor, Device device) {
+    public EMCECSStorage(StorageDescriptor descriptor, Device device, TransferStatistics writeStatistics) {
         super(descriptor);
         this.device = device;
+        this.writeStatistics = writeStatistics;
         pathFormat = new AttributesFormat(descriptor.getProperty("pathFormat", DEFAULT_PATH_FORMAT));
         container = descriptor.getProperty("container", DEFAULT_CONTAINER);
-        if (Boolean.parseBoolean(descriptor.getProperty("containerExists", null))) count++;
+        containerExists = Boolean.parseBoolean(descriptor.getProperty("containerExists", null));
         String endpoint = descriptor.getStorageURI().getSchemeSpecificPart();
         S3Config config = new S3Config(URI.create(endpoint));
         String identity = descriptor.getProperty("identity", null);
@@ -100,6 +114,10 @@ public class EMCECSStorage extends AbstractStorage {
         this.uploader = Boolean.parseBoolean(descriptor.getProperty(PROPERTY_STREAMING, null))
                 ? STREAMING_UPLOADER
                 : new S3Uploader();
+        this.uniqueStoragePath = Boolean.parseBoolean(descriptor.getProperty(PROPERTY_UNIQUE_STORAGE_PATH, null));
+        this.partBufferPool = Boolean.parseBoolean(descriptor.getProperty(PROPERTY_MULTIPART_UPLOAD, null))
+                ? createPartBufferPool()
+                : null;
         s3 = new S3JerseyClient(config,
                 Boolean.parseBoolean(descriptor.getProperty(PROPERTY_URL_CONNECTION_CLIENT_HANDLER, null))
                         ? new URLConnectionClientHandler()
@@ -129,9 +147,28 @@ public class EMCECSStorage extends AbstractStorage {
 
     @Override
     protected OutputStream openOutputStreamA(final WriteContext ctx) throws IOException {
+        if (partBufferPool != null) {
+            String storagePath = storagePath(ctx);
+            ctx.setStoragePath(storagePath);
+            return new S3MultipartUploadOutputStream(device.getExecutor(), partBufferPool,
+                    multipartUploadMaxPartsInFlight(), writeStatistics, s3, container, storagePath);
+        }
         final PipedInputStream in = new PipedInputStream();
-        copy(in, ctx);
-        return new PipedOutputStream(in);
+        PipedOutputStream out = new PipedOutputStream(in);
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            long startTime = System.nanoTime();
+            try {
+                upload(ctx, in);
+                if (writeStatistics != null)
+                    writeStatistics.add(ctx.getSize(), System.nanoTime() - startTime);
+            } finally {
+                in.close();
+            }
+            return null;
+        });
+        ((EMCECSWriteContext) ctx).setUploadTask(task);
+        device.execute(task);
+        return out;
     }
 
     @Override
@@ -142,6 +179,9 @@ public class EMCECSStorage extends AbstractStorage {
     @Override
     protected void afterOutputStreamClosed(WriteContext ctx) throws IOException {
         FutureTask<Void> task = ((EMCECSWriteContext) ctx).getUploadTask();
+        if (task == null)
+            return;
+
         try {
             task.get();
         } catch (InterruptedException e) {
@@ -155,15 +195,37 @@ public class EMCECSStorage extends AbstractStorage {
     }
 
     private void upload(WriteContext ctx, InputStream in) throws IOException {
+        String storagePath = storagePath(ctx);
+        uploader.upload(s3, in, container, storagePath);
+        ctx.setStoragePath(storagePath);
+    }
+
+    private String storagePath(WriteContext ctx) {
         String storagePath = pathFormat.format(ctx.getAttributes());
-        if (count++ == 0 && !s3.bucketExists(container))
-            s3.createBucket(container);
-        else while (exists(storagePath)) {
+        boolean created = !containerExists && createBucket();
+        if (!created && !uniqueStoragePath) while (exists(storagePath)) {
             storagePath = storagePath.substring(0, storagePath.lastIndexOf('/') + 1)
                     .concat(String.format("%08X", ThreadLocalRandom.current().nextInt()));
         }
-        uploader.upload(s3, in, container, storagePath);
-        ctx.setStoragePath(storagePath);
+        return uniqueStoragePath ? uniqueStoragePath(storagePath) : storagePath;
+    }
+
+    /**
+     * Checks on first write if the bucket exists, and creates it if not. The bucket is marked as existing
+     * if neither the check nor the creation throws an exception, otherwise both are retried on next write.
+     *
+     * @return {@code true} if the bucket was created by this call, so it cannot contain an object with the
+     *         storage path of the written object
+     */
+    private synchronized boolean createBucket() {
+        if (containerExists)
+            return false;
+
+        boolean created = !s3.bucketExists(container);
+        if (created)
+            s3.createBucket(container);
+        containerExists = true;
+        return created;
     }
 
     private boolean exists(String storagePath) {
@@ -195,6 +257,17 @@ public class EMCECSStorage extends AbstractStorage {
         return s3Object.getObject();
     }
 
+    @Override
+    protected InputStream openInputStreamA(ReadContext readContext, long offset, long length) throws IOException {
+        GetObjectRequest request = new GetObjectRequest(container, readContext.getStoragePath())
+                .withRange(new Range(offset, length >= 0 ? offset + length - 1 : null));
+        GetObjectResult<InputStream> s3Object = s3.getObject(request, InputStream.class);
+        if (s3Object == null)
+            throw objectNotFound(readContext.getStoragePath());
+
+        return s3Object.getObject();
+    }
+
     private IOException objectNotFound(String storagePath) {
         return new NoSuchFileException("No Object[" + storagePath
                 + "] in Container[" + container
@@ -213,6 +286,38 @@ public class EMCECSStorage extends AbstractStorage {
         s3.deleteObject(container, storagePath);
     }
 
+    @Override
+    public Map<String,Exception> deleteObjects(Collection<String> storagePaths) {
+        Map<String,Exception> failed = new HashMap<>();
+        List<String> keys = new ArrayList<>(storagePaths);
+        for (int fromIndex = 0; fromIndex < keys.size(); fromIndex += MAX_KEYS_PER_DELETE_OBJECTS) {
+            List<String> batch = keys.subList(fromIndex,
+                    Math.min(keys.size(), fromIndex + MAX_KEYS_PER_DELETE_OBJECTS));
+            DeleteObjectsResult result;
+            try {
+                result = s3.deleteObjects(
+                        new DeleteObjectsRequest(container).withKeys(batch.toArray(new String[batch.size()])));
+            } catch (RuntimeException e) {
+                failed.putAll(super.deleteObjects(batch));
+                continue;
+            }
+            for (AbstractDeleteResult deleteResult : result.getResults()) {
+                if (deleteResult instanceof DeleteError) {
+                    DeleteError error = (DeleteError) deleteResult;
+                    failed.put(error.getKey(), "NoSuchKey".equals(error.getCode())
+                            ? new NoSuchFileException("No Object[" + error.getKey()
+                                + "] in Container[" + container
+                                + "] on " + getStorageDescriptor())
+                            : new IOException("Failed to delete Object[" + error.getKey()
+                                + "] in Container[" + container
+                                + "] on " + getStorageDescriptor()
+                                + ": " + error.getCode() + " - " + error.getMessage()));
+                }
+            }
+        }
+        return failed;
+    }
+
     @Override
     public void close() throws IOException {
         s3.destroy();
@@ -0,0 +1,115 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.storage.emc.ecs;
+
+import com.emc.object.s3.S3Client;
+import com.emc.object.s3.S3ObjectMetadata;
+import com.emc.object.s3.bean.MultipartPartETag;
+import com.emc.object.s3.request.AbortMultipartUploadRequest;
+import com.emc.object.s3.request.CompleteMultipartUploadRequest;
+import com.emc.object.s3.request.InitiateMultipartUploadRequest;
+import com.emc.object.s3.request.PutObjectRequest;
+import com.emc.object.s3.request.UploadPartRequest;
+import org.dcm4chee.arc.storage.MultipartUploadOutputStream;
+import org.dcm4chee.arc.storage.PartBufferPool;
+import org.dcm4chee.arc.storage.TransferStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+class S3MultipartUploadOutputStream extends MultipartUploadOutputStream<MultipartPartETag> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(S3MultipartUploadOutputStream.class);
+
+    private final S3Client s3;
+    private final String container;
+    private final String storagePath;
+    private String uploadId;
+
+    S3MultipartUploadOutputStream(Executor executor, PartBufferPool bufferPool, int maxPartsInFlight,
+            TransferStatistics statistics, S3Client s3, String container, String storagePath) {
+        super(executor, bufferPool, maxPartsInFlight, statistics);
+        this.s3 = s3;
+        this.container = container;
+        this.storagePath = storagePath;
+    }
+
+    @Override
+    protected void initiateMultipartUpload() {
+        uploadId = s3.initiateMultipartUpload(new InitiateMultipartUploadRequest(container, storagePath))
+                .getUploadId();
+    }
+
+    @Override
+    protected MultipartPartETag uploadPart(int partNumber, byte[] b, int len) {
+        return s3.uploadPart(new UploadPartRequest(container, storagePath, uploadId, partNumber,
+                new ByteArrayInputStream(b, 0, len)).withContentLength(Long.valueOf(len)));
+    }
+
+    @Override
+    protected void completeMultipartUpload(List<MultipartPartETag> parts) {
+        s3.completeMultipartUpload(new CompleteMultipartUploadRequest(container, storagePath, uploadId)
+                .withParts(new TreeSet<>(parts)));
+    }
+
+    @Override
+    protected void abortMultipartUpload() {
+        try {
+            s3.abortMultipartUpload(new AbortMultipartUploadRequest(container, storagePath, uploadId));
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to abort multipart upload of Object[{}] in Container[{}]", storagePath, container, e);
+        }
+    }
+
+    @Override
+    protected void uploadSinglePart(byte[] b, int len) {
+        s3.putObject(new PutObjectRequest(container, storagePath, new ByteArrayInputStream(b, 0, len))
+                .withObjectMetadata(new S3ObjectMetadata().withContentLength((long) len)));
+    }
+}
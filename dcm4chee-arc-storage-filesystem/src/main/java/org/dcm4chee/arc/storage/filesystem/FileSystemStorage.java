@@ -43,6 +43,7 @@ package org.dcm4chee.arc.storage.filesystem;
 import org.dcm4che3.util.AttributesFormat;
 import org.dcm4chee.arc.conf.StorageDescriptor;
 import org.dcm4chee.arc.storage.AbstractStorage;
+import org.dcm4chee.arc.storage.LimitedInputStream;
 import org.dcm4chee.arc.storage.ReadContext;
 import org.dcm4chee.arc.storage.WriteContext;
 import org.slf4j.Logger;
@@ -52,6 +53,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.*;
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -150,6 +154,29 @@ public class FileSystemStorage extends AbstractStorage {
         return Files.newInputStream(path);
     }
 
+    @Override
+    protected InputStream openInputStreamA(ReadContext ctx, long offset, long length) throws IOException {
+        Path path = Paths.get(rootURI.resolve(ctx.getStoragePath()));
+        SeekableByteChannel channel = Files.newByteChannel(path);
+        try {
+            channel.position(offset);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        InputStream stream = Channels.newInputStream(channel);
+        return length >= 0 ? new LimitedInputStream(stream, length) : stream;
+    }
+
+    @Override
+    public FileChannel openFileChannel(ReadContext ctx) throws IOException {
+        if (!isAccessable())
+            throw new IOException(descriptor + " not accessable");
+
+        Path path = Paths.get(rootURI.resolve(ctx.getStoragePath()));
+        return FileChannel.open(path, StandardOpenOption.READ);
+    }
+
     @Override
     public void deleteObject(String storagePath) throws IOException {
         Path path = Paths.get(rootURI.resolve(storagePath));
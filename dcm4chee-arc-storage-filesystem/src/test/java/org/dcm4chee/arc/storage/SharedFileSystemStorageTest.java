@@ -0,0 +1,173 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.storage;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.util.StreamUtils;
+import org.dcm4chee.arc.conf.StorageDescriptor;
+import org.dcm4chee.arc.storage.filesystem.FileSystemStorage;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class SharedFileSystemStorageTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testConcurrentWritesThroughHandles() throws Exception {
+        int threads = 8;
+        SharedStorage shared = new SharedStorage(new FileSystemStorage(descriptor()));
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                String content = "object-" + i;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try (Storage storage = shared.acquire()) {
+                        return write(storage, content);
+                    }
+                }));
+            }
+            start.countDown();
+            HashSet<String> storagePaths = new HashSet<>();
+            try (Storage storage = shared.acquire()) {
+                for (int i = 0; i < threads; i++) {
+                    String storagePath = results.get(i).get();
+                    assertTrue(storagePaths.add(storagePath));
+                    assertEquals("object-" + i, read(storage, storagePath));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testCloseAfterRetireAndRelease() throws Exception {
+        AtomicInteger closed = new AtomicInteger();
+        SharedStorage shared = new SharedStorage(new FileSystemStorage(descriptor()) {
+            @Override
+            public void close() {
+                closed.incrementAndGet();
+            }
+        });
+        Storage handle1 = shared.acquire();
+        Storage handle2 = shared.acquire();
+        handle1.close();
+        handle1.close();
+        assertEquals(0, closed.get());
+        write(handle2, "object");
+        shared.retire();
+        assertEquals(0, closed.get());
+        handle2.close();
+        assertEquals(1, closed.get());
+    }
+
+    @Test
+    public void testRetireUnused() throws Exception {
+        AtomicInteger closed = new AtomicInteger();
+        SharedStorage shared = new SharedStorage(new FileSystemStorage(descriptor()) {
+            @Override
+            public void close() {
+                closed.incrementAndGet();
+            }
+        });
+        shared.acquire().close();
+        assertEquals(0, closed.get());
+        shared.retire();
+        assertEquals(1, closed.get());
+    }
+
+    private StorageDescriptor descriptor() {
+        StorageDescriptor descriptor = new StorageDescriptor("fs1");
+        descriptor.setStorageURIStr(folder.getRoot().toURI().toString());
+        descriptor.setProperty("pathFormat", "{00080018}");
+        return descriptor;
+    }
+
+    private static String write(Storage storage, String content) throws IOException {
+        Attributes attrs = new Attributes(1);
+        attrs.setString(Tag.SOPInstanceUID, VR.UI, "1.2.3");
+        WriteContext ctx = storage.createWriteContext();
+        ctx.setAttributes(attrs);
+        try (OutputStream out = storage.openOutputStream(ctx)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        storage.commitStorage(ctx);
+        return ctx.getStoragePath();
+    }
+
+    private static String read(Storage storage, String storagePath) throws IOException {
+        ReadContext ctx = storage.createReadContext();
+        ctx.setStoragePath(storagePath);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = storage.openInputStream(ctx)) {
+            StreamUtils.copy(in, out);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -51,6 +51,8 @@ import org.dcm4chee.arc.conf.DeleterThreshold;
 import org.dcm4chee.arc.conf.StorageDescriptor;
 import org.dcm4chee.arc.storage.Storage;
 import org.dcm4chee.arc.storage.StorageFactory;
+import org.dcm4chee.arc.storage.StorageStatistics;
+import org.dcm4chee.arc.storage.TransferStatistics;
 import org.jboss.resteasy.annotations.cache.NoCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -88,6 +90,9 @@ public class StorageRS {
     @Inject
     private StorageFactory storageFactory;
 
+    @Inject
+    private StorageStatistics storageStatistics;
+
     @Context
     private HttpServletRequest request;
 
@@ -135,6 +140,7 @@ public class StorageRS {
                         gen.write("dcmRetrieveCacheStorageID", desc.getRetrieveCacheStorageID());
                         gen.write("dcmRetrieveCacheMaxParallel", desc.getRetrieveCacheMaxParallel());
                     }
+                    writer.writeNotDef("dcmRetrievePrefetchDepth", desc.getRetrievePrefetchDepth(), 0);
                     writer.writeNotEmpty("dcmProperty", descriptorProperties(desc.getProperties()));
                     writer.writeNotEmpty("dicomAETitle", ss.aets);
                     writer.writeNotNullOrDef("dcmStorageClusterID", desc.getStorageClusterID(), null);
@@ -143,6 +149,8 @@ public class StorageRS {
                         gen.write("usableSpace", ss.usableSpace);
                     if (ss.usableSpace > 0L)
                         gen.write("totalSpace", ss.totalSpace);
+                    writeTransferStatistics(gen, "writeStatistics",
+                            storageStatistics.getWriteStatistics(desc.getStorageID()));
                     gen.writeEnd();
                 }
                 gen.writeEnd();
@@ -158,6 +166,18 @@ public class StorageRS {
         return ss;
     }
 
+    private void writeTransferStatistics(JsonGenerator gen, String name, TransferStatistics statistics) {
+        if (statistics.getCount() == 0)
+            return;
+
+        gen.writeStartObject(name);
+        gen.write("count", statistics.getCount());
+        gen.write("bytes", statistics.getBytes());
+        gen.write("ms", statistics.getMillis());
+        gen.write("bytesPerSecond", statistics.getBytesPerSecond());
+        gen.writeEnd();
+    }
+
     private void writeDeleterThresholds(JsonWriter writer, JsonGenerator gen, List<DeleterThreshold> deleterThresholds) {
         if (deleterThresholds.isEmpty())
             return;
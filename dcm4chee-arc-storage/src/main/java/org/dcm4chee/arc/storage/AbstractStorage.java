@@ -43,8 +43,13 @@ package org.dcm4chee.arc.storage;
 import org.dcm4chee.arc.conf.StorageDescriptor;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
 import java.security.DigestInputStream;
 import java.security.DigestOutputStream;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * @author Gunter Zeilinger <gunterze@gmail.com>
@@ -54,13 +59,48 @@ public abstract class AbstractStorage implements Storage {
 
     protected static final String DEFAULT_PATH_FORMAT =
             "{now,date,yyyy/MM/dd}/{0020000D,hash}/{0020000E,hash}/{00080018,hash}";
+    protected static final String PROPERTY_UNIQUE_STORAGE_PATH = "uniqueStoragePath";
+    protected static final String PROPERTY_MULTIPART_UPLOAD = "multipartUpload";
+    protected static final String PROPERTY_MULTIPART_UPLOAD_PART_SIZE = StorageDescriptor.MULTIPART_UPLOAD_PART_SIZE;
+    protected static final String PROPERTY_MULTIPART_UPLOAD_MAX_PARTS_IN_FLIGHT = "multipartUploadMaxPartsInFlight";
+    protected static final String PROPERTY_MULTIPART_UPLOAD_MAX_BUFFERS = "multipartUploadMaxBuffers";
+    protected static final int DEFAULT_MULTIPART_UPLOAD_PART_SIZE = StorageDescriptor.MIN_MULTIPART_UPLOAD_PART_SIZE;
+    protected static final int DEFAULT_MULTIPART_UPLOAD_MAX_PARTS_IN_FLIGHT = 4;
 
-    protected final StorageDescriptor descriptor;
+    protected volatile StorageDescriptor descriptor;
 
     protected AbstractStorage(StorageDescriptor descriptor) {
         this.descriptor = descriptor;
     }
 
+    /**
+     * Replaces the descriptor by a reconfigured one, which refers to the same storage with equal properties.
+     */
+    void updateStorageDescriptor(StorageDescriptor descriptor) {
+        this.descriptor = descriptor;
+    }
+
+    protected PartBufferPool createPartBufferPool() {
+        return new PartBufferPool(
+                Integer.parseInt(descriptor.getProperty(PROPERTY_MULTIPART_UPLOAD_PART_SIZE,
+                        Integer.toString(DEFAULT_MULTIPART_UPLOAD_PART_SIZE))),
+                Integer.parseInt(descriptor.getProperty(PROPERTY_MULTIPART_UPLOAD_MAX_BUFFERS,
+                        Integer.toString(4 * (multipartUploadMaxPartsInFlight() + 1)))));
+    }
+
+    protected int multipartUploadMaxPartsInFlight() {
+        return Integer.parseInt(descriptor.getProperty(PROPERTY_MULTIPART_UPLOAD_MAX_PARTS_IN_FLIGHT,
+                Integer.toString(DEFAULT_MULTIPART_UPLOAD_MAX_PARTS_IN_FLIGHT)));
+    }
+
+    /**
+     * Append a random UUID to the file name of the given storage path, so it is unique without checking
+     * for an existing object with the same name.
+     */
+    protected static String uniqueStoragePath(String storagePath) {
+        return storagePath + '-' + UUID.randomUUID();
+    }
+
     @Override
     public StorageDescriptor getStorageDescriptor() {
         return descriptor;
@@ -190,10 +230,29 @@ public abstract class AbstractStorage implements Storage {
         deleteObject(ctx.getStoragePath());
     }
 
+    /**
+     * Delete objects and return the Storage Paths of objects which could not be deleted, mapped to the cause.
+     * Storage implementations which provide a bulk delete operation shall override the default implementation,
+     * which deletes one object after the other.
+     */
+    @Override
+    public Map<String,Exception> deleteObjects(Collection<String> storagePaths) {
+        Map<String,Exception> failed = new HashMap<>();
+        for (String storagePath : storagePaths) {
+            try {
+                deleteObject(storagePath);
+            } catch (Exception e) {
+                failed.put(storagePath, e);
+            }
+        }
+        return failed;
+    }
+
     @Override
     public InputStream openInputStream(final ReadContext ctx) throws IOException {
         checkAccessable();
-        InputStream stream = openInputStreamA(ctx);
+        InputStream stream = ctx.isRangeRequest() ? openInputStreamA(ctx, ctx.getOffset(), ctx.getLength())
+                : openInputStreamA(ctx);
         if (ctx.getMessageDigest() != null) {
             stream = new DigestInputStream(stream, ctx.getMessageDigest());
         }
@@ -258,8 +317,22 @@ public abstract class AbstractStorage implements Storage {
         };
     }
 
+    @Override
+    public FileChannel openFileChannel(ReadContext ctx) throws IOException {
+        return null;
+    }
+
     protected abstract InputStream openInputStreamA(ReadContext ctx) throws IOException;
 
+    /**
+     * Open stream to read {@code length} bytes starting at {@code offset}. A negative {@code length} reads to
+     * the end of the object. Storage implementations which support random access shall override the default
+     * implementation, which reads and discards the first {@code offset} bytes of the object.
+     */
+    protected InputStream openInputStreamA(ReadContext ctx, long offset, long length) throws IOException {
+        return LimitedInputStream.skipAndLimit(openInputStreamA(ctx), offset, length);
+    }
+
     protected void beforeInputStreamClosed(ReadContext ctx, InputStream stream)  throws IOException {}
 
     protected void afterInputStreamClosed(ReadContext ctx)  throws IOException {}
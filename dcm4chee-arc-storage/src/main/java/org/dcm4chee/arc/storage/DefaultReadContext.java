@@ -54,6 +54,8 @@ public class DefaultReadContext implements ReadContext {
     private String studyInstanceUID;
     private MessageDigest messageDigest;
     private byte[] digest;
+    private long offset;
+    private long length = -1L;
 
     public DefaultReadContext(Storage storage) {
         this.storage = storage;
@@ -116,4 +118,29 @@ public class DefaultReadContext implements ReadContext {
     public void setStudyInstanceUID(String studyInstanceUID) {
         this.studyInstanceUID = studyInstanceUID;
     }
+
+    @Override
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public void setOffset(long offset) {
+        this.offset = offset;
+    }
+
+    @Override
+    public long getLength() {
+        return length;
+    }
+
+    @Override
+    public void setLength(long length) {
+        this.length = length;
+    }
+
+    @Override
+    public boolean isRangeRequest() {
+        return offset > 0 || length >= 0;
+    }
 }
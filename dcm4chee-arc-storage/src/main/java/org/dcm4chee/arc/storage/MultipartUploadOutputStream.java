@@ -0,0 +1,295 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.storage;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Output stream which splits the written data into parts of fixed size, which are uploaded concurrently
+ * by tasks of the specified executor, with a bounded number of parts in flight. Objects not exceeding the
+ * part size are buffered in a growing buffer and uploaded by a single request on {@link #close()}; only larger
+ * objects use part buffers of the {@link PartBufferPool}.
+ *
+ * @param <P> type of the part reference returned by the upload of one part
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public abstract class MultipartUploadOutputStream<P> extends OutputStream {
+
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+
+    private final Executor executor;
+    private final PartBufferPool bufferPool;
+    private final int maxPartsInFlight;
+    private final TransferStatistics statistics;
+    private final long startTime = System.nanoTime();
+    private final Deque<PartUpload> partsInFlight = new ArrayDeque<>();
+    private final List<P> parts = new ArrayList<>();
+    private byte[] buffer;
+    private boolean pooled;
+    private int count;
+    private long size;
+    private boolean initiated;
+    private boolean closed;
+
+    protected MultipartUploadOutputStream(Executor executor, PartBufferPool bufferPool, int maxPartsInFlight,
+            TransferStatistics statistics) {
+        this.executor = executor;
+        this.bufferPool = bufferPool;
+        this.maxPartsInFlight = maxPartsInFlight;
+        this.statistics = statistics;
+        this.buffer = new byte[Math.min(INITIAL_BUFFER_SIZE, bufferPool.getPartSize())];
+    }
+
+    protected abstract void initiateMultipartUpload() throws IOException;
+
+    protected abstract P uploadPart(int partNumber, byte[] b, int len) throws IOException;
+
+    protected abstract void completeMultipartUpload(List<P> parts) throws IOException;
+
+    protected abstract void abortMultipartUpload();
+
+    protected abstract void uploadSinglePart(byte[] b, int len) throws IOException;
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (count == buffer.length)
+            nextBuffer();
+        buffer[count++] = (byte) b;
+        size++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            if (count == buffer.length)
+                nextBuffer();
+            int n = Math.min(len, buffer.length - count);
+            System.arraycopy(b, off, buffer, count, n);
+            count += n;
+            size += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed)
+            throw new IOException("Stream closed");
+    }
+
+    private void nextBuffer() throws IOException {
+        if (buffer.length < bufferPool.getPartSize()) {
+            growBuffer();
+        } else {
+            submitPart();
+            acquireBuffer();
+        }
+    }
+
+    private void growBuffer() throws IOException {
+        int newLength = buffer.length << 1;
+        byte[] newBuffer;
+        if (newLength < bufferPool.getPartSize()) {
+            newBuffer = new byte[newLength];
+        } else {
+            newBuffer = bufferPool.acquire();
+            pooled = true;
+        }
+        System.arraycopy(buffer, 0, newBuffer, 0, count);
+        buffer = newBuffer;
+    }
+
+    private void submitPart() throws IOException {
+        try {
+            if (!initiated) {
+                initiateMultipartUpload();
+                initiated = true;
+            }
+            while (partsInFlight.size() >= maxPartsInFlight)
+                parts.add(waitFor(partsInFlight.removeFirst()));
+        } catch (IOException | RuntimeException e) {
+            abort();
+            throw e;
+        }
+        PartUpload task = new PartUpload(
+                new Part(parts.size() + partsInFlight.size() + 1, buffer, count, pooled));
+        partsInFlight.addLast(task);
+        executor.execute(task);
+        buffer = null;
+        pooled = false;
+        count = 0;
+    }
+
+    private void acquireBuffer() throws IOException {
+        try {
+            buffer = bufferPool.acquire();
+            pooled = true;
+        } catch (IOException e) {
+            abort();
+            throw e;
+        }
+    }
+
+    private P waitFor(PartUpload task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            Throwable c = e.getCause();
+            if (c instanceof IOException)
+                throw (IOException) c;
+            throw new IOException("Upload of part failed", c);
+        }
+    }
+
+    private void abort() {
+        closed = true;
+        for (PartUpload task : partsInFlight)
+            task.part.cancel();
+        partsInFlight.clear();
+        if (initiated)
+            abortMultipartUpload();
+        releaseBuffer();
+    }
+
+    private void releaseBuffer() {
+        if (pooled)
+            bufferPool.release(buffer);
+        buffer = null;
+        pooled = false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+
+        if (!initiated) {
+            try {
+                uploadSinglePart(buffer, count);
+            } finally {
+                closed = true;
+                releaseBuffer();
+            }
+        } else {
+            if (count > 0)
+                submitPart();
+            try {
+                while (!partsInFlight.isEmpty())
+                    parts.add(waitFor(partsInFlight.removeFirst()));
+                completeMultipartUpload(parts);
+            } catch (IOException | RuntimeException e) {
+                abort();
+                throw e;
+            }
+            closed = true;
+            releaseBuffer();
+        }
+        if (statistics != null)
+            statistics.add(size, System.nanoTime() - startTime);
+    }
+
+    private final class Part implements Callable<P> {
+        final int partNumber;
+        final byte[] b;
+        final int len;
+        final boolean pooled;
+        final AtomicBoolean claimed = new AtomicBoolean();
+
+        Part(int partNumber, byte[] b, int len, boolean pooled) {
+            this.partNumber = partNumber;
+            this.b = b;
+            this.len = len;
+            this.pooled = pooled;
+        }
+
+        @Override
+        public P call() throws IOException {
+            if (!claimed.compareAndSet(false, true))
+                throw new CancellationException();
+
+            try {
+                return uploadPart(partNumber, b, len);
+            } finally {
+                release();
+            }
+        }
+
+        /**
+         * Prevents the upload of the part, if not already started, and returns its buffer to the pool.
+         */
+        void cancel() {
+            if (claimed.compareAndSet(false, true))
+                release();
+        }
+
+        private void release() {
+            if (pooled)
+                bufferPool.release(b);
+        }
+    }
+
+    private final class PartUpload extends FutureTask<P> {
+        final Part part;
+
+        PartUpload(Part part) {
+            super(part);
+            this.part = part;
+        }
+    }
+}
@@ -68,4 +68,14 @@ public interface ReadContext {
     String getStudyInstanceUID();
 
     void setStudyInstanceUID(String studyInstanceUID);
+
+    long getOffset();
+
+    void setOffset(long offset);
+
+    long getLength();
+
+    void setLength(long length);
+
+    boolean isRangeRequest();
 }
@@ -0,0 +1,233 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.storage;
+
+import org.dcm4chee.arc.conf.StorageDescriptor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Storage shared by several users, which is only closed after it was retired and all users closed their
+ * {@link #acquire() acquired} handles.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+class SharedStorage {
+
+    private static final long NOT_PROBED = Long.MIN_VALUE;
+
+    private final Storage storage;
+    private final AtomicLong usableSpace = new AtomicLong(NOT_PROBED);
+    private int refCount;
+    private boolean retired;
+
+    SharedStorage(Storage storage) {
+        this.storage = storage;
+    }
+
+    StorageDescriptor getStorageDescriptor() {
+        return storage.getStorageDescriptor();
+    }
+
+    boolean updateStorageDescriptor(StorageDescriptor descriptor) {
+        if (!(storage instanceof AbstractStorage))
+            return false;
+
+        ((AbstractStorage) storage).updateStorageDescriptor(descriptor);
+        return true;
+    }
+
+    boolean isUsableSpaceProbed() {
+        return usableSpace.get() != NOT_PROBED;
+    }
+
+    /**
+     * Returns the estimated usable space, which is only probed from the storage on first invocation. Afterwards
+     * the estimate is decremented by the size of committed objects and refreshed by {@link #probeUsableSpace()}.
+     *
+     * @return estimated usable space in bytes or {@code -1} if the storage does not provide its usable space
+     */
+    long estimatedUsableSpace() throws IOException {
+        long space = usableSpace.get();
+        return space != NOT_PROBED ? space : probeUsableSpace();
+    }
+
+    long probeUsableSpace() throws IOException {
+        long space = storage.getUsableSpace();
+        usableSpace.set(space);
+        return space;
+    }
+
+    private void consumeUsableSpace(long size) {
+        if (size > 0)
+            usableSpace.getAndUpdate(space -> space < 0 ? space : Math.max(0L, space - size));
+    }
+
+    synchronized Storage acquire() {
+        refCount++;
+        return new Handle();
+    }
+
+    synchronized void retire() throws IOException {
+        retired = true;
+        if (refCount == 0)
+            storage.close();
+    }
+
+    private synchronized void release() throws IOException {
+        if (--refCount == 0 && retired)
+            storage.close();
+    }
+
+    @Override
+    public String toString() {
+        return storage.toString();
+    }
+
+    private class Handle implements Storage {
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        @Override
+        public StorageDescriptor getStorageDescriptor() {
+            return storage.getStorageDescriptor();
+        }
+
+        @Override
+        public WriteContext createWriteContext() {
+            return storage.createWriteContext();
+        }
+
+        @Override
+        public ReadContext createReadContext() {
+            return storage.createReadContext();
+        }
+
+        @Override
+        public boolean isAccessable() {
+            return storage.isAccessable();
+        }
+
+        @Override
+        public boolean exists(ReadContext ctx) {
+            return storage.exists(ctx);
+        }
+
+        @Override
+        public long getContentLength(ReadContext ctx) throws IOException {
+            return storage.getContentLength(ctx);
+        }
+
+        @Override
+        public byte[] getContentMD5(ReadContext ctx) throws IOException {
+            return storage.getContentMD5(ctx);
+        }
+
+        @Override
+        public OutputStream openOutputStream(WriteContext ctx) throws IOException {
+            return storage.openOutputStream(ctx);
+        }
+
+        @Override
+        public void copy(InputStream in, WriteContext ctx) throws IOException {
+            storage.copy(in, ctx);
+        }
+
+        @Override
+        public long getUsableSpace() throws IOException {
+            return probeUsableSpace();
+        }
+
+        @Override
+        public long getTotalSpace() throws IOException {
+            return storage.getTotalSpace();
+        }
+
+        @Override
+        public void commitStorage(WriteContext ctx) throws IOException {
+            storage.commitStorage(ctx);
+            consumeUsableSpace(ctx.getSize());
+        }
+
+        @Override
+        public void revokeStorage(WriteContext ctx) throws IOException {
+            storage.revokeStorage(ctx);
+        }
+
+        @Override
+        public void deleteObject(String storagePath) throws IOException {
+            storage.deleteObject(storagePath);
+        }
+
+        @Override
+        public Map<String, Exception> deleteObjects(Collection<String> storagePaths) {
+            return storage.deleteObjects(storagePaths);
+        }
+
+        @Override
+        public InputStream openInputStream(ReadContext ctx) throws IOException {
+            return storage.openInputStream(ctx);
+        }
+
+        @Override
+        public FileChannel openFileChannel(ReadContext ctx) throws IOException {
+            return storage.openFileChannel(ctx);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed.compareAndSet(false, true))
+                release();
+        }
+
+        @Override
+        public String toString() {
+            return storage.toString();
+        }
+    }
+}
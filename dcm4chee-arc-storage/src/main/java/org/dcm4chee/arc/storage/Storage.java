@@ -6,6 +6,9 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.util.Collection;
+import java.util.Map;
 
 /**
  * @author Gunter Zeilinger <gunterze@gmail.com>
@@ -40,5 +43,9 @@ public interface Storage extends Closeable {
 
     void deleteObject(String storagePath) throws IOException;
 
+    Map<String,Exception> deleteObjects(Collection<String> storagePaths);
+
     InputStream openInputStream(ReadContext ctx) throws IOException;
+
+    FileChannel openFileChannel(ReadContext ctx) throws IOException;
 }
@@ -6,12 +6,18 @@ import org.dcm4chee.arc.conf.StorageThreshold;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
 import java.io.IOException;
-import java.util.Iterator;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Gunter Zeilinger <gunterze@gmail.com>
@@ -20,37 +26,174 @@ import java.util.List;
 @ApplicationScoped
 public class StorageFactory {
     private static final Logger LOG = LoggerFactory.getLogger(StorageFactory.class);
+    private static final long USABLE_SPACE_PROBE_INTERVAL = 30;
 
     @Inject
     private Instance<StorageProvider> providers;
 
+    @Resource
+    private ManagedScheduledExecutorService scheduledExecutor;
+
+    private final Map<String, SharedStorage> sharedStorages = new HashMap<>();
+    private ScheduledFuture<?> probeUsableSpace;
+
+    @PostConstruct
+    public void init() {
+        probeUsableSpace = scheduledExecutor.scheduleWithFixedDelay(this::probeUsableSpace,
+                USABLE_SPACE_PROBE_INTERVAL, USABLE_SPACE_PROBE_INTERVAL, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Returns a handle to the Storage shared by all users of the specified descriptor, which is only reopened
+     * if the URI or the properties of the descriptor have changed. Closing the handle does not close the shared
+     * Storage as long as it is still in use and not replaced.
+     */
     public Storage getStorage(StorageDescriptor descriptor) {
+        return getSharedStorage(descriptor).acquire();
+    }
+
+    private SharedStorage getSharedStorage(StorageDescriptor descriptor) {
+        String storageID = descriptor.getStorageID();
+        SharedStorage shared;
+        synchronized (sharedStorages) {
+            shared = sharedStorages.get(storageID);
+            if (shared != null && isCurrent(shared, descriptor))
+                return shared;
+        }
+        if (shared != null)
+            LOG.info("Reopen reconfigured {}", descriptor);
+        // open the Storage without holding the lock, which would block access to all other Storages
+        SharedStorage opened = new SharedStorage(openStorage(descriptor));
+        SharedStorage replaced;
+        synchronized (sharedStorages) {
+            shared = sharedStorages.get(storageID);
+            if (shared != null && isCurrent(shared, descriptor)) {
+                replaced = opened;
+            } else {
+                replaced = shared;
+                sharedStorages.put(storageID, shared = opened);
+            }
+        }
+        if (replaced != null)
+            retire(replaced);
+        return shared;
+    }
+
+    private static boolean isCurrent(SharedStorage shared, StorageDescriptor descriptor) {
+        return shared.getStorageDescriptor() == descriptor
+                || isSameStorage(shared.getStorageDescriptor(), descriptor)
+                    && shared.updateStorageDescriptor(descriptor);
+    }
+
+    private Storage openStorage(StorageDescriptor descriptor) {
         String scheme = descriptor.getStorageURI().getScheme();
         StorageProvider provider = providers.select(new NamedQualifier(scheme)).get();
         return provider.openStorage(descriptor);
     }
 
+    private static boolean isSameStorage(StorageDescriptor prev, StorageDescriptor desc) {
+        return prev.getStorageURI().equals(desc.getStorageURI())
+                && prev.getProperties().equals(desc.getProperties());
+    }
+
+    private static void retire(SharedStorage shared) {
+        try {
+            shared.retire();
+        } catch (IOException e) {
+            LOG.warn("Failed to close {}:\n", shared, e);
+        }
+    }
+
+    @PreDestroy
+    public void closeStorages() {
+        probeUsableSpace.cancel(false);
+        synchronized (sharedStorages) {
+            sharedStorages.values().forEach(StorageFactory::retire);
+            sharedStorages.clear();
+        }
+    }
+
     public Storage getUsableStorage(List<StorageDescriptor> descriptors) throws IOException {
+        return getUsableStorage(descriptors, 1);
+    }
+
+    /**
+     * Removes descriptors of storage systems without sufficient usable space from the specified list and selects
+     * one of the first {@code storageCount} remaining storage systems, weighted by their estimated usable space.
+     * Usable space is probed only once per storage system, and afterwards decremented by the size of stored
+     * objects and refreshed in the background, so the selection does not perform any I/O.
+     */
+    public Storage getUsableStorage(List<StorageDescriptor> descriptors, int storageCount) throws IOException {
+        List<SharedStorage> usable = usableStorages(descriptors);
+        int count = Math.min(storageCount, usable.size());
+        long[] weights = new long[count];
+        long total = 0L;
+        for (int i = 0; i < count; i++) {
+            long space = usable.get(i).estimatedUsableSpace();
+            if (space < 0) {
+                total = 0L;
+                break;
+            }
+            total += weights[i] = space + 1;
+        }
+        int index = 0;
+        if (total > 0) {
+            long r = ThreadLocalRandom.current().nextLong(total);
+            while ((r -= weights[index]) >= 0)
+                index++;
+        } else if (count > 1) {
+            index = ThreadLocalRandom.current().nextInt(count);
+        }
+        return getStorage(usable.get(index).getStorageDescriptor());
+    }
+
+    public List<Storage> getUsableStorages(List<StorageDescriptor> descriptors) throws IOException {
+        List<SharedStorage> usable = usableStorages(descriptors);
+        List<Storage> storages = new ArrayList<>(usable.size());
+        for (SharedStorage shared : usable)
+            storages.add(getStorage(shared.getStorageDescriptor()));
+        return storages;
+    }
+
+    private List<SharedStorage> usableStorages(List<StorageDescriptor> descriptors) throws IOException {
+        List<SharedStorage> usable = new ArrayList<>(descriptors.size());
         Iterator<StorageDescriptor> iter = descriptors.iterator();
         while (iter.hasNext()) {
-            Storage storage = getStorage(iter.next());
-            if (hasMinUsableSpace(storage)) {
-                return storage;
+            SharedStorage shared = getSharedStorage(iter.next());
+            if (hasMinUsableSpace(shared)) {
+                usable.add(shared);
+            } else {
+                LOG.info("No space left on {}", shared);
+                iter.remove();
             }
-            LOG.info("No space left on {}", storage);
-            storage.close();
-            iter.remove();
         }
-        throw new IOException("No space left on configured storage systems");
+        if (usable.isEmpty())
+            throw new IOException("No space left on configured storage systems");
+        return usable;
     }
 
-    private boolean hasMinUsableSpace(Storage storage) throws IOException {
-        StorageDescriptor descriptor = storage.getStorageDescriptor();
-        StorageThreshold storageThreshold = descriptor.getStorageThreshold();
+    private static boolean hasMinUsableSpace(SharedStorage shared) throws IOException {
+        StorageThreshold storageThreshold = shared.getStorageDescriptor().getStorageThreshold();
         if (storageThreshold == null)
             return true;
 
-        long usableSpace = storage.getUsableSpace();
+        long usableSpace = shared.estimatedUsableSpace();
         return usableSpace < 0 || usableSpace >= storageThreshold.getMinUsableDiskSpace();
     }
+
+    private void probeUsableSpace() {
+        List<SharedStorage> probed = new ArrayList<>();
+        synchronized (sharedStorages) {
+            for (SharedStorage shared : sharedStorages.values())
+                if (shared.isUsableSpaceProbed())
+                    probed.add(shared);
+        }
+        for (SharedStorage shared : probed) {
+            try {
+                shared.probeUsableSpace();
+            } catch (Throwable e) {
+                LOG.warn("Failed to probe usable space of {}:\n", shared, e);
+            }
+        }
+    }
 }
@@ -0,0 +1,253 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.storage;
+
+import org.dcm4che3.util.StreamUtils;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * Index of the entries of a ZIP object read from its central directory by ranged reads, so single entries
+ * can be decoded without streaming the preceding entries.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class ZipIndex {
+
+    private static final int EOCD_SIG = 0x06054b50;
+    private static final int CEN_SIG = 0x02014b50;
+    private static final int LOC_SIG = 0x04034b50;
+    private static final int EOCD_LEN = 22;
+    private static final int CEN_LEN = 46;
+    private static final int LOC_LEN = 30;
+    private static final long MAX_CEN_SIZE = 64 * 1024 * 1024;
+
+    private final Map<String,Entry> entries;
+
+    private ZipIndex(Map<String,Entry> entries) {
+        this.entries = entries;
+    }
+
+    public static final class Entry {
+        private final String name;
+        private final String comment;
+        private final int method;
+        private final long compressedSize;
+        private final long offset;
+        private long end;
+
+        private Entry(String name, String comment, int method, long compressedSize, long offset) {
+            this.name = name;
+            this.comment = comment;
+            this.method = method;
+            this.compressedSize = compressedSize;
+            this.offset = offset;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getComment() {
+            return comment;
+        }
+
+        @Override
+        public String toString() {
+            return "ZipIndex.Entry[name=" + name + ", offset=" + offset + ", compressedSize=" + compressedSize + "]";
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public Entry getEntry(String name) {
+        return entries.get(name);
+    }
+
+    public Collection<Entry> getEntries() {
+        return Collections.unmodifiableCollection(entries.values());
+    }
+
+    /**
+     * Read the central directory of the ZIP object referenced by {@code ctx}.
+     *
+     * @param ctx     Read Context with the Storage Path of the ZIP object
+     * @param zipSize size of the ZIP object
+     * @return index of the ZIP entries or {@code null}, if the ZIP object has a ZIP file comment or requires
+     *         ZIP64 extensions and has to be read sequentially
+     * @throws IOException if the ZIP object could not be read or is corrupt
+     */
+    public static ZipIndex read(ReadContext ctx, long zipSize) throws IOException {
+        if (zipSize < EOCD_LEN)
+            return null;
+
+        byte[] eocd = readRange(ctx, zipSize - EOCD_LEN, EOCD_LEN);
+        if (getInt(eocd, 0) != EOCD_SIG)
+            return null;
+
+        int numEntries = getShort(eocd, 10);
+        long cenSize = getUInt(eocd, 12);
+        long cenOffset = getUInt(eocd, 16);
+        if (numEntries == 0xffff || cenSize == 0xffffffffL || cenOffset == 0xffffffffL)
+            return null;
+
+        if (cenOffset + cenSize != zipSize - EOCD_LEN || cenSize > MAX_CEN_SIZE)
+            throw new ZipException("Invalid END header");
+
+        byte[] cen = readRange(ctx, cenOffset, (int) cenSize);
+        Map<String,Entry> entries = new LinkedHashMap<>(numEntries * 4 / 3 + 1);
+        Entry prev = null;
+        int pos = 0;
+        for (int i = 0; i < numEntries; i++) {
+            if (pos + CEN_LEN > cen.length || getInt(cen, pos) != CEN_SIG)
+                throw new ZipException("Invalid CEN header");
+
+            int method = getShort(cen, pos + 10);
+            long compressedSize = getUInt(cen, pos + 20);
+            int nameLen = getShort(cen, pos + 28);
+            int extraLen = getShort(cen, pos + 30);
+            int commentLen = getShort(cen, pos + 32);
+            long offset = getUInt(cen, pos + 42);
+            if (compressedSize == 0xffffffffL || offset == 0xffffffffL)
+                return null;
+
+            int namePos = pos + CEN_LEN;
+            pos = namePos + nameLen + extraLen + commentLen;
+            if (pos > cen.length)
+                throw new ZipException("Invalid CEN header");
+
+            String name = new String(cen, namePos, nameLen, StandardCharsets.UTF_8);
+            String comment = commentLen > 0
+                    ? new String(cen, namePos + nameLen + extraLen, commentLen, StandardCharsets.UTF_8)
+                    : null;
+            Entry entry = new Entry(name, comment, method, compressedSize, offset);
+            if (prev != null) {
+                if (offset < prev.offset)
+                    return null;
+                prev.end = offset;
+            }
+            entries.put(name, prev = entry);
+        }
+        if (prev != null)
+            prev.end = cenOffset;
+        return new ZipIndex(entries);
+    }
+
+    /**
+     * Open the (inflated) content of the specified entry by one ranged read.
+     *
+     * @param ctx   Read Context with the Storage Path of the ZIP object
+     * @param entry ZIP entry
+     * @return stream of the inflated content of the entry
+     * @throws IOException if the ZIP entry could not be read or is corrupt
+     */
+    public static InputStream openInputStream(ReadContext ctx, Entry entry) throws IOException {
+        ctx.setOffset(entry.offset);
+        ctx.setLength(entry.end - entry.offset);
+        InputStream in = ctx.getStorage().openInputStream(ctx);
+        try {
+            byte[] loc = new byte[LOC_LEN];
+            new DataInputStream(in).readFully(loc);
+            if (getInt(loc, 0) != LOC_SIG)
+                throw new ZipException("Invalid LOC header of " + entry);
+
+            StreamUtils.skipFully(in, getShort(loc, 26) + getShort(loc, 28));
+            switch (entry.method) {
+                case ZipEntry.STORED:
+                    return new LimitedInputStream(in, entry.compressedSize);
+                case ZipEntry.DEFLATED:
+                    // the range extends up to the next header, which provides the extra byte
+                    // the Inflater may require in nowrap mode
+                    return new InflaterInputStream(in, new Inflater(true)) {
+                        @Override
+                        public void close() throws IOException {
+                            try {
+                                super.close();
+                            } finally {
+                                inf.end();
+                            }
+                        }
+                    };
+                default:
+                    throw new ZipException("Unsupported compression method " + entry.method + " of " + entry);
+            }
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    private static byte[] readRange(ReadContext ctx, long offset, int length) throws IOException {
+        ctx.setOffset(offset);
+        ctx.setLength(length);
+        byte[] b = new byte[length];
+        try (InputStream in = ctx.getStorage().openInputStream(ctx)) {
+            new DataInputStream(in).readFully(b);
+        }
+        return b;
+    }
+
+    private static int getShort(byte[] b, int off) {
+        return (b[off] & 0xff) | (b[off + 1] & 0xff) << 8;
+    }
+
+    private static int getInt(byte[] b, int off) {
+        return getShort(b, off) | getShort(b, off + 2) << 16;
+    }
+
+    private static long getUInt(byte[] b, int off) {
+        return getInt(b, off) & 0xffffffffL;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.storage;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class LimitedInputStreamTest {
+
+    private static final byte[] DATA = { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9 };
+
+    @Test
+    public void testRead() throws Exception {
+        LimitedInputStream in = new LimitedInputStream(new ByteArrayInputStream(DATA), 3);
+        assertEquals(3, in.available());
+        assertEquals(0, in.read());
+        byte[] b = new byte[10];
+        assertEquals(2, in.read(b, 0, b.length));
+        assertEquals(1, b[0]);
+        assertEquals(2, b[1]);
+        assertEquals(-1, in.read());
+        assertEquals(-1, in.read(b, 0, b.length));
+        assertEquals(0, in.available());
+    }
+
+    @Test
+    public void testSkip() throws Exception {
+        LimitedInputStream in = new LimitedInputStream(new ByteArrayInputStream(DATA), 5);
+        assertEquals(3, in.skip(3));
+        assertEquals(2, in.skip(10));
+        assertEquals(0, in.skip(1));
+        assertEquals(-1, in.read());
+    }
+
+    @Test
+    public void testSkipAndLimit() throws Exception {
+        assertArrayEquals(new byte[]{ 4, 5, 6 },
+                readAll(LimitedInputStream.skipAndLimit(new ByteArrayInputStream(DATA), 4, 3)));
+        assertArrayEquals(new byte[]{ 8, 9 },
+                readAll(LimitedInputStream.skipAndLimit(new ByteArrayInputStream(DATA), 8, 5)));
+    }
+
+    @Test
+    public void testSkipAndLimitWithoutLength() throws Exception {
+        assertArrayEquals(new byte[]{ 7, 8, 9 },
+                readAll(LimitedInputStream.skipAndLimit(new ByteArrayInputStream(DATA), 7, -1)));
+    }
+
+    @Test
+    public void testSkipBeyondEndClosesStream() {
+        AtomicBoolean closed = new AtomicBoolean();
+        InputStream in = new ByteArrayInputStream(DATA) {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+        try {
+            LimitedInputStream.skipAndLimit(in, DATA.length + 1, 1);
+            fail("Expected EOFException");
+        } catch (IOException e) {
+            assertTrue(closed.get());
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] b = new byte[4];
+        int read;
+        while ((read = in.read(b, 0, b.length)) > 0)
+            out.write(b, 0, read);
+        return out.toByteArray();
+    }
+}
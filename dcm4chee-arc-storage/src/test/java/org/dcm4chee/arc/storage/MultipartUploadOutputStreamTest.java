@@ -0,0 +1,152 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.storage;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class MultipartUploadOutputStreamTest {
+
+    private static final int PART_SIZE = 16;
+
+    @Test
+    public void testSinglePart() throws Exception {
+        CountingPool pool = new CountingPool();
+        TestOutputStream out = new TestOutputStream(pool);
+        out.write(data(PART_SIZE));
+        out.close();
+        assertArrayEquals(data(PART_SIZE), out.singlePart);
+        assertTrue(out.parts.isEmpty());
+        assertEquals(0, pool.acquired);
+    }
+
+    @Test
+    public void testMultipart() throws Exception {
+        CountingPool pool = new CountingPool();
+        TestOutputStream out = new TestOutputStream(pool);
+        byte[] data = data(3 * PART_SIZE);
+        out.write(data);
+        out.close();
+        assertNull(out.singlePart);
+        assertEquals(Arrays.asList(1, 2, 3), out.completed);
+        ByteArrayOutputStream uploaded = new ByteArrayOutputStream();
+        for (byte[] part : out.parts)
+            uploaded.write(part);
+        assertArrayEquals(data, uploaded.toByteArray());
+        assertEquals("no buffer acquired after the last part", 2, pool.acquired);
+        assertEquals(pool.acquired, pool.released);
+    }
+
+    private static byte[] data(int length) {
+        byte[] b = new byte[length];
+        for (int i = 0; i < b.length; i++)
+            b[i] = (byte) i;
+        return b;
+    }
+
+    private static class CountingPool extends PartBufferPool {
+        int acquired;
+        int released;
+
+        CountingPool() {
+            super(PART_SIZE, 4);
+        }
+
+        @Override
+        public byte[] acquire() throws InterruptedIOException {
+            acquired++;
+            return super.acquire();
+        }
+
+        @Override
+        public void release(byte[] buffer) {
+            released++;
+            super.release(buffer);
+        }
+    }
+
+    private static class TestOutputStream extends MultipartUploadOutputStream<Integer> {
+        final List<byte[]> parts = new ArrayList<>();
+        List<Integer> completed;
+        byte[] singlePart;
+
+        TestOutputStream(PartBufferPool pool) {
+            super(Runnable::run, pool, 2, null);
+        }
+
+        @Override
+        protected void initiateMultipartUpload() {
+        }
+
+        @Override
+        protected Integer uploadPart(int partNumber, byte[] b, int len) {
+            parts.add(Arrays.copyOf(b, len));
+            return partNumber;
+        }
+
+        @Override
+        protected void completeMultipartUpload(List<Integer> parts) {
+            completed = new ArrayList<>(parts);
+        }
+
+        @Override
+        protected void abortMultipartUpload() {
+            fail("abortMultipartUpload");
+        }
+
+        @Override
+        protected void uploadSinglePart(byte[] b, int len) throws IOException {
+            singlePart = Arrays.copyOf(b, len);
+        }
+    }
+}
@@ -77,8 +77,7 @@ public class CStoreSCUImpl implements CStoreSCU {
             throws DicomServiceException {
         try {
             try {
-                ApplicationEntity localAE = ctx.getLocalApplicationEntity();
-                return localAE.connect(ctx.getDestinationAE(), createAARQ(ctx));
+                return connect(ctx);
             } catch (Exception e) {
                 throw new DicomServiceException(Status.UnableToPerformSubOperations, e);
             }
@@ -89,6 +88,11 @@ public class CStoreSCUImpl implements CStoreSCU {
         }
     }
 
+    Association connect(RetrieveContext ctx) throws Exception {
+        ApplicationEntity localAE = ctx.getLocalApplicationEntity();
+        return localAE.connect(ctx.getDestinationAE(), createAARQ(ctx));
+    }
+
     private AAssociateRQ createAARQ(RetrieveContext ctx) {
         AAssociateRQ aarq = new AAssociateRQ();
         ApplicationEntity localAE = ctx.getLocalApplicationEntity();
@@ -114,7 +118,7 @@ public class CStoreSCUImpl implements CStoreSCU {
     public RetrieveTask newRetrieveTaskSTORE(RetrieveContext ctx) throws DicomServiceException {
         Association storeas = openAssociation(ctx);
         ctx.setStoreAssociation(storeas);
-        return new RetrieveTaskImpl(ctx, storeas, retrieveStart, retrieveEnd);
+        return new RetrieveTaskImpl(ctx, storeas, this, retrieveStart, retrieveEnd);
     }
 
     @Override
@@ -123,7 +127,7 @@ public class CStoreSCUImpl implements CStoreSCU {
             throws DicomServiceException {
         Association storeas = openAssociation(ctx);
         ctx.setStoreAssociation(storeas);
-        RetrieveTaskImpl retrieveTask = new RetrieveTaskImpl(ctx, storeas, retrieveStart, retrieveEnd);
+        RetrieveTaskImpl retrieveTask = new RetrieveTaskImpl(ctx, storeas, this, retrieveStart, retrieveEnd);
         retrieveTask.setRequestAssociation(Dimse.C_MOVE_RQ, as, pc, rq);
         return retrieveTask;
     }
@@ -133,7 +137,7 @@ public class CStoreSCUImpl implements CStoreSCU {
             Association as, PresentationContext pc, Attributes rq, RetrieveContext ctx)
             throws DicomServiceException {
         ctx.setStoreAssociation(as);
-        RetrieveTaskImpl retrieveTask = new RetrieveTaskImpl(ctx, as, retrieveStart, retrieveEnd);
+        RetrieveTaskImpl retrieveTask = new RetrieveTaskImpl(ctx, as, this, retrieveStart, retrieveEnd);
         retrieveTask.setRequestAssociation(Dimse.C_GET_RQ, as, pc, rq);
         return retrieveTask;
     }
@@ -61,6 +61,10 @@ import org.slf4j.LoggerFactory;
 import javax.enterprise.event.Event;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -75,6 +79,8 @@ final class RetrieveTaskImpl implements RetrieveTask {
     private final Event<RetrieveContext> retrieveEnd;
     private final RetrieveContext ctx;
     private final Association storeas;
+    private final CStoreSCUImpl storeSCU;
+    private final List<Association> storeAssociations = new ArrayList<>();
     private final ArchiveAEExtension aeExt;
     private final String hostName;
     private Dimse dimserq;
@@ -84,16 +90,17 @@ final class RetrieveTaskImpl implements RetrieveTask {
     private int msgId;
     private boolean pendingRSP;
     private Duration pendingRSPInterval;
-    private final Collection<InstanceLocations> outstandingRSP =
-            Collections.synchronizedCollection(new ArrayList<InstanceLocations>());
+    private final Set<CStoreRSPHandler> outstandingRSP = ConcurrentHashMap.newKeySet();
     private volatile boolean canceled;
 
-    RetrieveTaskImpl(RetrieveContext ctx, Association storeas,
+    RetrieveTaskImpl(RetrieveContext ctx, Association storeas, CStoreSCUImpl storeSCU,
                      Event<RetrieveContext> retrieveStart, Event<RetrieveContext> retrieveEnd) {
         this.retrieveStart = retrieveStart;
         this.retrieveEnd = retrieveEnd;
         this.ctx = ctx;
         this.storeas = storeas;
+        this.storeSCU = storeSCU;
+        this.storeAssociations.add(storeas);
         this.aeExt = ctx.getArchiveAEExtension();
         this.hostName = ReverseDNS.hostNameOf(storeas.getSocket().getInetAddress());
     }
@@ -122,21 +129,26 @@ final class RetrieveTaskImpl implements RetrieveTask {
         try {
             if (ctx.getFallbackAssociation() == null)
                 startWritePendingRSP();
-            for (InstanceLocations match : ctx.getMatches()) {
-                if (canceled)
-                    break;
-
-                if (!ctx.copyToRetrieveCache(match))
-                    store(match);
+            Queue<List<InstanceLocations>> seriesQueue = seriesQueue();
+            if (seriesQueue.size() > 1 && openStoreAssociations(seriesQueue.size()) > 1) {
+                storeParallel(seriesQueue);
+            } else {
+                for (InstanceLocations match : ctx.getMatches()) {
+                    if (canceled)
+                        break;
+
+                    if (!ctx.copyToRetrieveCache(match))
+                        store(storeas, match);
+                }
             }
             ctx.copyToRetrieveCache(null);
             InstanceLocations match;
             while ((match = ctx.copiedToRetrieveCache()) != null && !canceled)
-                store(match);
+                store(storeas, match);
 
             waitForOutstandingCStoreRSP();
         } finally {
-            releaseStoreAssociation();
+            releaseStoreAssociations();
             waitForPendingCMoveForward();
             waitForPendingCStoreForward();
             updateCompleteness();
@@ -150,8 +162,75 @@ final class RetrieveTaskImpl implements RetrieveTask {
         retrieveEnd.fire(ctx);
     }
 
-    private void store(InstanceLocations inst) {
-        CStoreRSPHandler rspHandler = new CStoreRSPHandler(inst);
+    private Queue<List<InstanceLocations>> seriesQueue() {
+        Queue<List<InstanceLocations>> seriesQueue = new ConcurrentLinkedQueue<>();
+        if (dimserq == Dimse.C_GET_RQ || aeExt.retrieveStoreAssociations() <= 1)
+            return seriesQueue;
+
+        Map<String, List<InstanceLocations>> matchesBySeries = new LinkedHashMap<>();
+        for (InstanceLocations match : ctx.getMatches())
+            matchesBySeries.computeIfAbsent(match.getAttributes().getString(Tag.SeriesInstanceUID, ""),
+                    seriesIUID -> new ArrayList<>())
+                    .add(match);
+        seriesQueue.addAll(matchesBySeries.values());
+        return seriesQueue;
+    }
+
+    private int openStoreAssociations(int numberOfSeries) {
+        int maxAssociations = Math.min(aeExt.retrieveStoreAssociations(), numberOfSeries);
+        while (storeAssociations.size() < maxAssociations && !canceled) {
+            try {
+                storeAssociations.add(storeSCU.connect(ctx));
+            } catch (Exception e) {
+                LOG.warn("{}: failed to open additional association to {}:",
+                        rqas != null ? rqas : storeas, ctx.getDestinationAETitle(), e);
+                break;
+            }
+        }
+        return storeAssociations.size();
+    }
+
+    private void storeParallel(Queue<List<InstanceLocations>> seriesQueue) {
+        for (List<InstanceLocations> series : seriesQueue) {
+            Iterator<InstanceLocations> iter = series.iterator();
+            while (iter.hasNext())
+                if (ctx.copyToRetrieveCache(iter.next()))
+                    iter.remove();
+        }
+        int associations = storeAssociations.size();
+        Semaphore semaphore = new Semaphore(associations);
+        for (Association as : storeAssociations.subList(1, associations)) {
+            semaphore.acquireUninterruptibly();
+            try {
+                ctx.getRetrieveService().getDevice().execute(() -> {
+                    try {
+                        storeSeries(as, seriesQueue);
+                    } finally {
+                        semaphore.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                semaphore.release();
+                LOG.warn("{}: failed to send objects over association to {}:", rqas, as.getRemoteAET(), e);
+            }
+        }
+        storeSeries(storeas, seriesQueue);
+        semaphore.acquireUninterruptibly(associations);
+    }
+
+    private void storeSeries(Association as, Queue<List<InstanceLocations>> seriesQueue) {
+        List<InstanceLocations> series;
+        while (!canceled && (series = seriesQueue.poll()) != null)
+            for (InstanceLocations match : series) {
+                if (canceled)
+                    break;
+
+                store(as, match);
+            }
+    }
+
+    private void store(Association storeas, InstanceLocations inst) {
+        CStoreRSPHandler rspHandler = new CStoreRSPHandler(storeas, inst);
         String iuid = inst.getSopInstanceUID();
         String cuid = inst.getSopClassUID();
         int priority = ctx.getPriority();
@@ -168,7 +247,7 @@ final class RetrieveTaskImpl implements RetrieveTask {
                     iuid = coerce.remapUID(iuid);
 
                 DataWriter data = new TranscoderDataWriter(transcoder, coerce);
-                outstandingRSP.add(inst);
+                outstandingRSP.add(rspHandler);
                 if (ctx.getMoveOriginatorAETitle() != null) {
                     storeas.cstore(cuid, iuid, priority,
                             ctx.getMoveOriginatorAETitle(), ctx.getMoveOriginatorMessageID(),
@@ -179,7 +258,7 @@ final class RetrieveTaskImpl implements RetrieveTask {
                 }
             }
         } catch (Exception e) {
-            outstandingRSP.remove(inst);
+            removeOutstandingRSP(rspHandler);
             ctx.incrementFailed();
             ctx.addFailedSOPInstanceUID(iuid);
             LOG.warn("{}: failed to send {} to {}:", rqas != null ? rqas : storeas, inst, ctx.getDestinationAETitle(), e);
@@ -284,27 +363,28 @@ final class RetrieveTaskImpl implements RetrieveTask {
             ctx.getRetrieveService().updateCompleteness(ctx);
     }
 
-    private void removeOutstandingRSP(InstanceLocations inst) {
-        outstandingRSP.remove(inst);
-        synchronized (outstandingRSP) {
-            outstandingRSP.notifyAll();
-        }
+    private void removeOutstandingRSP(CStoreRSPHandler rspHandler) {
+        if (outstandingRSP.remove(rspHandler) && outstandingRSP.isEmpty())
+            synchronized (outstandingRSP) {
+                outstandingRSP.notifyAll();
+            }
     }
 
-    protected void releaseStoreAssociation() {
+    protected void releaseStoreAssociations() {
         if (dimserq != Dimse.C_GET_RQ)
-            try {
-                storeas.release();
-            } catch (IOException e) {
-                LOG.warn("{}: failed to release association to {}", rqas, storeas.getRemoteAET(), e);
-            }
+            for (Association as : storeAssociations)
+                try {
+                    as.release();
+                } catch (IOException e) {
+                    LOG.warn("{}: failed to release association to {}", rqas, as.getRemoteAET(), e);
+                }
     }
 
     private final class CStoreRSPHandler extends DimseRSPHandler {
 
         private final InstanceLocations inst;
 
-        public CStoreRSPHandler(InstanceLocations inst) {
+        public CStoreRSPHandler(Association storeas, InstanceLocations inst) {
             super(storeas.nextMessageID());
             this.inst = inst;
         }
@@ -323,13 +403,13 @@ final class RetrieveTaskImpl implements RetrieveTask {
             }
             if (pendingRSP)
                 writePendingRSP();
-            removeOutstandingRSP(inst);
+            removeOutstandingRSP(this);
         }
 
         @Override
         public void onClose(Association as) {
             super.onClose(as);
-            removeOutstandingRSP(inst);
+            removeOutstandingRSP(this);
         }
     }
 
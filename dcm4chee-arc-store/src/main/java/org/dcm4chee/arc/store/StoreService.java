@@ -16,6 +16,7 @@ import java.io.InputStream;
 import java.net.Socket;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.zip.ZipInputStream;
 
 /**
@@ -79,4 +80,6 @@ public interface StoreService {
     List<String> studyIUIDsByAccessionNo(String accNo);
 
     void addLocation(StoreSession storeSession, Long instancePk, Location location);
+
+    void addLocations(StoreSession storeSession, Map<Long, Location> locations);
 }
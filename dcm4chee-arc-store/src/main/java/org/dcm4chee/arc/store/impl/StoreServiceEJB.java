@@ -69,6 +69,7 @@ import org.dcm4chee.arc.store.StoreSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.ejb.EJBException;
 import javax.ejb.Stateless;
 import javax.inject.Inject;
 import javax.json.Json;
@@ -79,6 +80,7 @@ import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.Response;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.text.MessageFormat;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -220,7 +222,10 @@ public class StoreServiceEJB {
             copyLocations(ctx, instance, result);
 
         result.setStoredInstance(instance);
-        deleteQueryAttributes(instance);
+        if (rjNote != null || prevInstance != null && !equalQueryAttributes(prevInstance, instance))
+            deleteQueryAttributes(instance);
+        else if (prevInstance == null)
+            addToQueryAttributes(instance, arcDev);
         Series series = instance.getSeries();
         series.getStudy().resetSize();
         series.scheduleMetadataUpdate(arcAE.seriesMetadataDelay());
@@ -236,6 +241,26 @@ public class StoreServiceEJB {
         return result;
     }
 
+    /**
+     * Updates the DB for received instances of one Series with different SOP Instance UIDs in one transaction.
+     * After the first instance, Patient, Study and Series exist in the DB, so queries for the following instances
+     * do not flush the rows inserted for the previous instances, which lets Hibernate batch their inserts.
+     */
+    public void updateDB(List<StoreContext> ctxs, List<UpdateDBResult> results) {
+        for (int i = 0; i < ctxs.size(); i++) {
+            try {
+                updateDB(ctxs.get(i), results.get(i));
+            } catch (DicomServiceException e) {
+                // roll back the whole group
+                throw new EJBException(e);
+            }
+            if (i == 0) {
+                em.flush();
+                em.setFlushMode(FlushModeType.COMMIT);
+            }
+        }
+    }
+
     public List<Instance> restoreInstances(StoreSession session, String studyUID, String seriesUID, Duration duration)
             throws DicomServiceException {
         List<Series> seriesList = (seriesUID == null
@@ -316,6 +341,7 @@ public class StoreServiceEJB {
         for (Attributes studyRef : ctx.getAttributes().getSequence(Tag.CurrentRequestedProcedureEvidenceSequence)) {
             String studyUID = studyRef.getString(Tag.StudyInstanceUID);
             Series series = null;
+            boolean studyQueryAttrsDeleted = false;
             for (Attributes seriesRef : studyRef.getSequence(Tag.ReferencedSeriesSequence)) {
                 Instance inst = null;
                 String seriesUID = seriesRef.getString(Tag.SeriesInstanceUID);
@@ -340,6 +366,10 @@ public class StoreServiceEJB {
                     series.setRejectionState(rejectionState);
                     if (rejectionState == RejectionState.COMPLETE)
                         series.setExpirationDate(null);
+                    if (!studyQueryAttrsDeleted) {
+                        deleteStudyQueryAttributes(series.getStudy());
+                        studyQueryAttrsDeleted = true;
+                    }
                     deleteSeriesQueryAttributes(series);
                     series.scheduleMetadataUpdate(seriesMetadataDelay);
                     series.setInstancePurgeTime(null);
@@ -363,7 +393,8 @@ public class StoreServiceEJB {
                         study.getPatient().decrementNumberOfStudies();
                     }
                 }
-                deleteStudyQueryAttributes(study);
+                if (!studyQueryAttrsDeleted)
+                    deleteStudyQueryAttributes(study);
             }
         }
     }
@@ -571,8 +602,77 @@ public class StoreServiceEJB {
     private void deleteQueryAttributes(Instance instance) {
         Series series = instance.getSeries();
         Study study = series.getStudy();
-        deleteSeriesQueryAttributes(series);
         deleteStudyQueryAttributes(study);
+        deleteSeriesQueryAttributes(series);
+    }
+
+    private static boolean equalQueryAttributes(Instance prevInstance, Instance instance) {
+        return prevInstance.getSeries().getPk() == instance.getSeries().getPk()
+                && prevInstance.getRejectionNoteCode() == null
+                && prevInstance.getSopClassUID().equals(instance.getSopClassUID())
+                && Arrays.equals(prevInstance.getRetrieveAETs(), instance.getRetrieveAETs())
+                && prevInstance.getAvailability() == instance.getAvailability()
+                && Objects.equals(pkOf(prevInstance.getConceptNameCode()), pkOf(instance.getConceptNameCode()));
+    }
+
+    private static Long pkOf(CodeEntity code) {
+        return code != null ? code.getPk() : null;
+    }
+
+    private void addToQueryAttributes(Instance instance, ArchiveDeviceExtension arcDev) {
+        Series series = instance.getSeries();
+        Study study = series.getStudy();
+        List<StudyQueryAttributes> studyQueryAttrsList =
+                em.createNamedQuery(StudyQueryAttributes.FIND_FOR_STUDY, StudyQueryAttributes.class)
+                        .setParameter(1, study)
+                        .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                        .getResultList();
+        Map<String,SeriesQueryAttributes> seriesQueryAttrsMap = new HashMap<>();
+        for (SeriesQueryAttributes seriesQueryAttrs :
+                em.createNamedQuery(SeriesQueryAttributes.FIND_FOR_SERIES, SeriesQueryAttributes.class)
+                        .setParameter(1, series)
+                        .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                        .getResultList())
+            seriesQueryAttrsMap.put(seriesQueryAttrs.getViewID(), seriesQueryAttrs);
+
+        boolean firstOfSeries = seriesQueryAttrsMap.isEmpty() && !studyQueryAttrsList.isEmpty()
+                && em.createNamedQuery(Instance.COUNT_INSTANCES_OF_SERIES, Long.class)
+                    .setParameter(1, series)
+                    .getSingleResult() == 1L;
+        for (StudyQueryAttributes studyQueryAttrs : studyQueryAttrsList) {
+            QueryRetrieveView qrView = arcDev.getQueryRetrieveView(studyQueryAttrs.getViewID());
+            SeriesQueryAttributes seriesQueryAttrs = seriesQueryAttrsMap.remove(studyQueryAttrs.getViewID());
+            if (qrView == null || seriesQueryAttrs == null && !firstOfSeries) {
+                em.remove(studyQueryAttrs);
+                continue;
+            }
+            if (seriesQueryAttrs == null) {
+                seriesQueryAttrs = new SeriesQueryAttributes();
+                seriesQueryAttrs.setViewID(studyQueryAttrs.getViewID());
+                seriesQueryAttrs.setSeries(series);
+                em.persist(seriesQueryAttrs);
+            }
+            if (isVisible(instance, qrView)) {
+                studyQueryAttrs.addInstance(series.getModality(), seriesQueryAttrs.getNumberOfInstances() == 0,
+                        instance.getSopClassUID(), instance.getRetrieveAETs(), instance.getAvailability());
+                seriesQueryAttrs.addInstance(
+                        instance.getSopClassUID(), instance.getRetrieveAETs(), instance.getAvailability());
+            }
+        }
+        for (SeriesQueryAttributes seriesQueryAttrs : seriesQueryAttrsMap.values()) {
+            QueryRetrieveView qrView = arcDev.getQueryRetrieveView(seriesQueryAttrs.getViewID());
+            if (qrView == null)
+                em.remove(seriesQueryAttrs);
+            else if (isVisible(instance, qrView))
+                seriesQueryAttrs.addInstance(
+                        instance.getSopClassUID(), instance.getRetrieveAETs(), instance.getAvailability());
+        }
+    }
+
+    private static boolean isVisible(Instance instance, QueryRetrieveView qrView) {
+        CodeEntity conceptNameCode = instance.getConceptNameCode();
+        return !qrView.isHideNotRejectedInstances()
+                && (conceptNameCode == null || !qrView.hideRejectionNote(conceptNameCode.getCode()));
     }
 
     private void deleteStudyQueryAttributes(Study study) {
@@ -966,13 +1066,19 @@ public class StoreServiceEJB {
         if (pat != null)
             attrs.addAll(pat.getAttributes());
         String urlspec = new AttributesFormat(serviceURL).format(attrs);
-        StorePermission storePermission = storePermissionCache.get(urlspec);
-        if (storePermission == null) {
-            storePermission = queryStorePermission(session, urlspec);
-            storePermissionCache.put(urlspec, storePermission);
-        } else
-            LOG.debug("{}: Use cached result of Query Store Permission Service {} - {}",
-                    session, urlspec, storePermission);
+        StorePermission storePermission;
+        try {
+            storePermission = storePermissionCache.computeIfAbsent(urlspec, key -> {
+                try {
+                    return queryStorePermission(session, key);
+                } catch (DicomServiceException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw (DicomServiceException) e.getCause();
+        }
+        LOG.debug("{}: Use result of Query Store Permission Service {} - {}", session, urlspec, storePermission);
 
         if (storePermission.exception != null)
             throw storePermission.exception;
@@ -1224,6 +1330,15 @@ public class StoreServiceEJB {
         LOG.info("{}: Create {}", session, location);
     }
 
+    public void addLocations(StoreSession session, Map<Long, Location> locations) {
+        for (Map.Entry<Long, Location> entry : locations.entrySet()) {
+            Location location = entry.getValue();
+            location.setInstance(em.getReference(Instance.class, entry.getKey()));
+            em.persist(location);
+            LOG.info("{}: Create {}", session, location);
+        }
+    }
+
     public void addStorageID(String studyIUID, String storageID) {
         Tuple tuple = em.createNamedQuery(Study.STORAGE_IDS_BY_STUDY_UID, Tuple.class)
                 .setParameter(1, studyIUID)
@@ -1356,11 +1471,7 @@ public class StoreServiceEJB {
             }
     }
 
-    public void checkDuplicatePatientCreated(StoreContext ctx, UpdateDBResult result) {
-        IDWithIssuer pid = IDWithIssuer.pidOf(ctx.getAttributes());
-        if (pid == null)
-            return;
-
+    public void checkDuplicatePatientCreated(StoreContext ctx, IDWithIssuer pid, UpdateDBResult result) {
         List<Patient> patients = patientService.findPatients(pid);
         if (patients.size() == 1)
             return;
@@ -56,18 +56,20 @@ import org.dcm4che3.net.hl7.UnparsedHL7Message;
 import org.dcm4che3.net.service.DicomServiceException;
 import org.dcm4che3.util.StringUtils;
 import org.dcm4che3.util.UIDUtils;
-import org.dcm4chee.arc.Cache;
 import org.dcm4chee.arc.MergeMWLQueryParam;
 import org.dcm4chee.arc.MergeMWLCache;
+import org.dcm4chee.arc.PatientIDLock;
 import org.dcm4chee.arc.conf.*;
 import org.dcm4chee.arc.entity.*;
 import org.dcm4chee.arc.event.SoftwareConfiguration;
+import org.dcm4chee.arc.metrics.MetricsService;
 import org.dcm4chee.arc.mima.SupplementAssigningAuthorities;
 import org.dcm4chee.arc.store.InstanceLocations;
 import org.dcm4chee.arc.storage.*;
 import org.dcm4chee.arc.store.StoreContext;
 import org.dcm4chee.arc.store.StoreService;
 import org.dcm4chee.arc.store.StoreSession;
+import org.dcm4chee.arc.store.StoreSessionClosed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.SAXException;
@@ -82,12 +84,17 @@ import javax.servlet.http.HttpServletRequest;
 import javax.xml.transform.Templates;
 import javax.xml.transform.TransformerConfigurationException;
 import java.io.File;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.Socket;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
 import java.util.zip.ZipInputStream;
 
 
@@ -114,12 +121,29 @@ class StoreServiceImpl implements StoreService {
     @Inject
     private Event<StoreContext> storeEvent;
 
+    @Inject @StoreSessionClosed
+    private Event<StoreSession> storeSessionClosedEvent;
+
     @Inject
     private Event<SoftwareConfiguration> softwareConfigurationEvent;
 
     @Inject
     private MergeMWLCache mergeMWLCache;
 
+    @Inject
+    private PatientIDLock patientIDLock;
+
+    @Inject
+    private MetricsService metricsService;
+
+    private final AtomicBoolean updateDeviceConfigurationScheduled = new AtomicBoolean();
+    private final AtomicBoolean updateDeviceConfigurationPending = new AtomicBoolean();
+    private final Map<String,UpdateDBGroup> updateDBGroups = new ConcurrentHashMap<>();
+
+    void onClose(StoreSession session) {
+        storeSessionClosedEvent.fire(session);
+    }
+
     @Override
     public StoreSession newStoreSession(Association as) {
         StoreSessionImpl session = new StoreSessionImpl(this);
@@ -166,6 +190,8 @@ class StoreServiceImpl implements StoreService {
         List<File> bulkDataFiles = Collections.emptyList();
         try {
             String receiveTranferSyntax = ctx.getReceiveTranferSyntax();
+            TranscoderHandler handler = new TranscoderHandler(ctx);
+            long start = System.nanoTime();
             try (Transcoder transcoder = receiveTranferSyntax != null
                     ? new Transcoder(data, receiveTranferSyntax)
                     : new Transcoder(data)) {
@@ -177,7 +203,7 @@ class StoreServiceImpl implements StoreService {
                         ctx.getStoreSession().getArchiveAEExtension().getBulkDataSpoolDirectoryFile());
                 transcoder.setIncludeFileMetaInformation(true);
                 transcoder.setDeleteBulkDataFiles(false);
-                transcoder.transcode(new TranscoderHandler(ctx));
+                transcoder.transcode(handler);
                 bulkDataFiles = transcoder.getBulkDataFiles();
             } catch (StorageException e) {
                 LOG.warn("{}: Failed to store received object:\n", ctx.getStoreSession(), e);
@@ -185,6 +211,8 @@ class StoreServiceImpl implements StoreService {
             } catch (Throwable e) {
                 LOG.warn("{}: Failed to valueOf received object:\n", ctx.getStoreSession(), e);
                 throw new DicomServiceException(Status.ProcessingFailure, e);
+            } finally {
+                metricsService.timer("store_transcode_seconds").record(System.nanoTime() - start - handler.storageNanos);
             }
             if (ctx.getAcceptedStudyInstanceUID() != null
                     && !ctx.getAcceptedStudyInstanceUID().equals(ctx.getStudyInstanceUID())) {
@@ -214,6 +242,72 @@ class StoreServiceImpl implements StoreService {
     }
 
     private UpdateDBResult updateDB(StoreContext ctx) throws DicomServiceException {
+        long start = System.nanoTime();
+        try {
+            ArchiveAEExtension arcAE = ctx.getStoreSession().getArchiveAEExtension();
+            Duration groupCommitWindow = arcAE.storeUpdateDBGroupCommitWindow();
+            return groupCommitWindow != null && ctx.getSeriesInstanceUID() != null
+                    ? updateDBInGroup(ctx, groupCommitWindow, arcAE.storeUpdateDBGroupCommitMaxSize())
+                    : updateDBWithRetries(ctx);
+        } finally {
+            metricsService.timer("store_update_db_seconds").recordSince(start);
+        }
+    }
+
+    private UpdateDBResult updateDBInGroup(StoreContext ctx, Duration window, int maxSize)
+            throws DicomServiceException {
+        String seriesIUID = ctx.getSeriesInstanceUID();
+        UpdateDBGroup group;
+        UpdateDBGroup.Member member;
+        while ((member = (group = updateDBGroups.computeIfAbsent(seriesIUID, key -> new UpdateDBGroup(maxSize)))
+                .join(ctx)) == null)
+            updateDBGroups.remove(seriesIUID, group);
+
+        List<UpdateDBGroup.Member> members;
+        while ((members = group.lead(member, window.toMillis())) != null) {
+            try {
+                updateDB(members);
+            } finally {
+                if (group.completed(members))
+                    updateDBGroups.remove(seriesIUID, group);
+            }
+        }
+        return member.result();
+    }
+
+    private void updateDB(List<UpdateDBGroup.Member> members) {
+        if (members.size() > 1) {
+            StoreContext first = members.get(0).ctx;
+            List<StoreContext> ctxs = new ArrayList<>(members.size());
+            List<UpdateDBResult> results = new ArrayList<>(members.size());
+            for (UpdateDBGroup.Member member : members) {
+                ctxs.add(member.ctx);
+                results.add(new UpdateDBResult());
+            }
+            try {
+                long start = System.currentTimeMillis();
+                ejb.updateDB(ctxs, results);
+                LOG.info("{}: Updated DB for {} instances of Series[uid={}] in {} ms", first.getStoreSession(),
+                        members.size(), first.getSeriesInstanceUID(), System.currentTimeMillis() - start);
+                for (int i = 0; i < members.size(); i++)
+                    members.get(i).complete(results.get(i));
+                return;
+            } catch (Exception e) {
+                LOG.info("{}: Failed to update DB for {} instances of Series[uid={}] in one transaction" +
+                        " - update DB for each instance separately:\n", first.getStoreSession(), members.size(),
+                        first.getSeriesInstanceUID(), e);
+            }
+        }
+        for (UpdateDBGroup.Member member : members) {
+            try {
+                member.complete(updateDBWithRetries(member.ctx));
+            } catch (Exception e) {
+                member.fail(e);
+            }
+        }
+    }
+
+    private UpdateDBResult updateDBWithRetries(StoreContext ctx) throws DicomServiceException {
         StoreSession session = ctx.getStoreSession();
         ArchiveAEExtension arcAE = session.getArchiveAEExtension();
         ArchiveDeviceExtension arcDev = arcAE.getArchiveDeviceExtension();
@@ -242,18 +336,11 @@ class StoreServiceImpl implements StoreService {
     }
 
     private void postUpdateDB(StoreContext ctx, UpdateDBResult result) throws IOException {
+        long start = System.nanoTime();
         Instance instance = result.getCreatedInstance();
         if (instance != null) {
-            if (result.getCreatedPatient() != null) {
-                synchronized (this) {
-                    try {
-                        ejb.checkDuplicatePatientCreated(ctx, result);
-                    } catch (Exception e) {
-                        LOG.warn("{}: Failed to remove duplicate created {}:\n",
-                                ctx.getStoreSession(), result.getCreatedPatient(), e);
-                    }
-                }
-            }
+            if (result.getCreatedPatient() != null)
+                checkDuplicatePatientCreated(ctx, result);
             Series series = instance.getSeries();
             updateAttributes(ctx, series);
             ctx.getStoreSession().cacheSeries(series);
@@ -264,6 +351,23 @@ class StoreServiceImpl implements StoreService {
         ctx.setRejectionNote(result.getRejectionNote());
         ctx.setPreviousInstance(result.getPreviousInstance());
         ctx.setStoredInstance(result.getStoredInstance());
+        metricsService.timer("store_post_update_db_seconds").recordSince(start);
+    }
+
+    private void checkDuplicatePatientCreated(StoreContext ctx, UpdateDBResult result) {
+        IDWithIssuer pid = IDWithIssuer.pidOf(ctx.getAttributes());
+        if (pid == null)
+            return;
+
+        Lock lock = patientIDLock.lock(pid.getID());
+        try {
+            ejb.checkDuplicatePatientCreated(ctx, pid, result);
+        } catch (Exception e) {
+            LOG.warn("{}: Failed to remove duplicate created {}:\n",
+                    ctx.getStoreSession(), result.getCreatedPatient(), e);
+        } finally {
+            lock.unlock();
+        }
     }
 
     private void commitStorage(UpdateDBResult result) throws IOException {
@@ -283,6 +387,11 @@ class StoreServiceImpl implements StoreService {
         ejb.addLocation(session, instancePk, location);
     }
 
+    @Override
+    public void addLocations(StoreSession session, Map<Long, Location> locations) {
+        ejb.addLocations(session, locations);
+    }
+
     @Override
     public void addStorageID(String studyIUID, String storageID) {
         ejb.addStorageID(studyIUID, storageID);
@@ -384,11 +493,13 @@ class StoreServiceImpl implements StoreService {
 
     private void storeMetadata(StoreContext ctx) throws IOException {
         if (ctx.getStoreSession().getArchiveAEExtension().getMetadataStorageIDs().length > 0) {
+            long start = System.nanoTime();
             try (JsonGenerator gen = Json.createGenerator(openOutputStream(ctx, Location.ObjectType.METADATA))) {
                 JSONWriter jsonWriter = new JSONWriter(gen);
                 jsonWriter.setReplaceBulkDataURI("");
                 jsonWriter.write(ctx.getAttributes());
             }
+            metricsService.timer("store_metadata_write_seconds").recordSince(start);
         }
     }
 
@@ -407,24 +518,29 @@ class StoreServiceImpl implements StoreService {
     }
 
     private void coerceAttributes(StoreContext ctx) {
-        StoreSession session = ctx.getStoreSession();
-        ArchiveAttributeCoercion rule = session.getArchiveAEExtension().findAttributeCoercion(
-                session.getRemoteHostName(),
-                session.getCallingAET(),
-                TransferCapability.Role.SCU,
-                Dimse.C_STORE_RQ,
-                ctx.getSopClassUID());
-        if (rule == null)
-            return;
-
-        AttributesCoercion coercion = null;
-        coercion = coerceAttributesByXSL(ctx, rule, coercion);
-        coercion = mergeAttributesFromMWL(ctx, rule, coercion);
-        coercion = SupplementAssigningAuthorities.forInstance(rule.getSupplementFromDevice(), coercion);
-        coercion = rule.nullifyIssuerOfPatientID(ctx.getAttributes(), coercion);
-        coercion = NullifyAttributesCoercion.valueOf(rule.getNullifyTags(), coercion);
-        if (coercion != null)
-            coercion.coerce(ctx.getAttributes(), ctx.getCoercedAttributes());
+        long start = System.nanoTime();
+        try {
+            StoreSession session = ctx.getStoreSession();
+            ArchiveAttributeCoercion rule = session.getArchiveAEExtension().findAttributeCoercion(
+                    session.getRemoteHostName(),
+                    session.getCallingAET(),
+                    TransferCapability.Role.SCU,
+                    Dimse.C_STORE_RQ,
+                    ctx.getSopClassUID());
+            if (rule == null)
+                return;
+
+            AttributesCoercion coercion = null;
+            coercion = coerceAttributesByXSL(ctx, rule, coercion);
+            coercion = mergeAttributesFromMWL(ctx, rule, coercion);
+            coercion = SupplementAssigningAuthorities.forInstance(rule.getSupplementFromDevice(), coercion);
+            coercion = rule.nullifyIssuerOfPatientID(ctx.getAttributes(), coercion);
+            coercion = NullifyAttributesCoercion.valueOf(rule.getNullifyTags(), coercion);
+            if (coercion != null)
+                coercion.coerce(ctx.getAttributes(), ctx.getCoercedAttributes());
+        } finally {
+            metricsService.timer("store_coercion_seconds").recordSince(start);
+        }
     }
 
     private AttributesCoercion coerceAttributesByXSL(
@@ -472,15 +588,15 @@ class StoreServiceImpl implements StoreService {
         MergeMWLQueryParam queryParam =
                 MergeMWLQueryParam.valueOf(mergeMWLMatchingKey, ctx.getAttributes());
 
-        Cache.Entry<Attributes> entry = mergeMWLCache.getEntry(queryParam);
-        if (entry != null)
-            return entry.value();
+        return mergeMWLCache.computeIfAbsent(queryParam, key -> queryMWL(ctx, rule, key, tplURI));
+    }
 
+    private Attributes queryMWL(StoreContext ctx, ArchiveAttributeCoercion rule, MergeMWLQueryParam queryParam,
+            String tplURI) {
         List<Attributes> mwlItems = ejb.queryMWL(ctx, queryParam);
-        if (mwlItems == null) {
-            mergeMWLCache.put(queryParam, null);
+        if (mwlItems == null)
             return null;
-        }
+
         Attributes result = null;
         Sequence reqAttrsSeq = null;
         try {
@@ -499,7 +615,6 @@ class StoreServiceImpl implements StoreService {
         } catch (SAXException e) {
             LOG.error("{}: Failed to apply XSL: {}", ctx.getStoreSession(), tplURI, e);
         }
-        mergeMWLCache.put(queryParam, result);
         return result;
     }
 
@@ -519,6 +634,8 @@ class StoreServiceImpl implements StoreService {
 
     private final class TranscoderHandler implements Transcoder.Handler {
         private final StoreContext storeContext;
+        // time spent in opening of and writing to the Storage, excluded from store_transcode_seconds
+        private long storageNanos;
 
         private TranscoderHandler(StoreContext storeContext) {
             this.storeContext = storeContext;
@@ -533,7 +650,43 @@ class StoreServiceImpl implements StoreService {
                 transcoder.setCompressParams(compressionRule.getImageWriteParams());
                 storeContext.setStoreTranferSyntax(compressionRule.getTransferSyntax());
             }
-            return openOutputStream(storeContext, Location.ObjectType.DICOM_FILE);
+            long start = System.nanoTime();
+            try {
+                return new FilterOutputStream(openOutputStream(storeContext, Location.ObjectType.DICOM_FILE)) {
+                    @Override
+                    public void write(int b) throws IOException {
+                        long start = System.nanoTime();
+                        out.write(b);
+                        storageNanos += System.nanoTime() - start;
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        long start = System.nanoTime();
+                        out.write(b, off, len);
+                        storageNanos += System.nanoTime() - start;
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        long start = System.nanoTime();
+                        out.flush();
+                        storageNanos += System.nanoTime() - start;
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        long start = System.nanoTime();
+                        try {
+                            out.close();
+                        } finally {
+                            storageNanos += System.nanoTime() - start;
+                        }
+                    }
+                };
+            } finally {
+                storageNanos += System.nanoTime() - start;
+            }
         }
 
     }
@@ -550,7 +703,10 @@ class StoreServiceImpl implements StoreService {
         writeCtx.setStudyInstanceUID(storeContext.getStudyInstanceUID());
         writeCtx.setMessageDigest(storage.getStorageDescriptor().getMessageDigest());
         storeContext.setWriteContext(objectType, writeCtx);
-        return storage.openOutputStream(writeCtx);
+        String storageID = storage.getStorageDescriptor().getStorageID();
+        return metricsService.meter(storage.openOutputStream(writeCtx),
+                metricsService.timer("storage_write_seconds", "storage", storageID),
+                metricsService.counter("storage_write_bytes_total", "storage", storageID));
     }
 
     private Storage selectObjectStorage(StoreSession session) throws IOException {
@@ -561,23 +717,39 @@ class StoreServiceImpl implements StoreService {
         ArchiveDeviceExtension arcDev = arcAE.getArchiveDeviceExtension();
         String[] storageIDs = arcAE.getObjectStorageIDs();
         List<StorageDescriptor> descriptors = arcDev.getStorageDescriptors(storageIDs);
-        int storageCount = Math.min(arcAE.getObjectStorageCount(), descriptors.size());
-        if (storageCount > 1) {
-            int index = session.getSerialNo() % storageCount;
-            descriptors.add(0, descriptors.remove(index));
-        }
-        Storage storage = storageFactory.getUsableStorage(descriptors);
+        Storage storage = storageFactory.getUsableStorage(descriptors, arcAE.getObjectStorageCount());
         String storageID = storage.getStorageDescriptor().getStorageID();
         session.putStorage(storageID, storage);
         session.setObjectStorageID(storageID);
         if (descriptors.size() < storageIDs.length) {
             arcAE.setObjectStorageIDs(StorageDescriptor.storageIDsOf(descriptors));
-            updateDeviceConfiguration(arcDev);
+            updateDeviceConfigurationPending.set(true);
         }
+        scheduleUpdateDeviceConfiguration(arcDev);
         return storage;
     }
 
-    private void updateDeviceConfiguration(ArchiveDeviceExtension arcDev) {
+    /**
+     * Schedules the merge of pending changes of the Device configuration. Changes, which failed to merge, are kept
+     * pending, so their merge is retried on next selection of a Storage.
+     */
+    private void scheduleUpdateDeviceConfiguration(ArchiveDeviceExtension arcDev) {
+        if (updateDeviceConfigurationPending.get() && updateDeviceConfigurationScheduled.compareAndSet(false, true))
+            try {
+                arcDev.getDevice().execute(() -> {
+                    updateDeviceConfigurationScheduled.set(false);
+                    updateDeviceConfigurationPending.set(false);
+                    if (!updateDeviceConfiguration(arcDev))
+                        updateDeviceConfigurationPending.set(true);
+                });
+            } catch (RejectedExecutionException e) {
+                updateDeviceConfigurationScheduled.set(false);
+                LOG.warn("Failed to schedule update of Storage configuration of Device: {}:\n",
+                        arcDev.getDevice().getDeviceName(), e);
+            }
+    }
+
+    private boolean updateDeviceConfiguration(ArchiveDeviceExtension arcDev) {
         Device device = arcDev.getDevice();
         try {
             LOG.info("Update Storage configuration of Device: {}:\n", device.getDeviceName());
@@ -588,8 +760,10 @@ class StoreServiceImpl implements StoreService {
                             ? DicomConfiguration.Option.CONFIGURATION_CHANGES_VERBOSE
                             : DicomConfiguration.Option.CONFIGURATION_CHANGES));
             softwareConfigurationEvent.fire(new SoftwareConfiguration(null, device.getDeviceName(), diffs));
+            return true;
         } catch (ConfigurationException e) {
             LOG.warn("Failed to update Storage configuration of Device: {}:\n", device.getDeviceName(), e);
+            return false;
         }
     }
 
@@ -607,8 +781,9 @@ class StoreServiceImpl implements StoreService {
         session.setMetadataStorageID(storageID);
         if (descriptors.size() < storageIDs.length) {
             arcAE.setMetadataStorageIDs(StorageDescriptor.storageIDsOf(descriptors));
-            updateDeviceConfiguration(arcDev);
+            updateDeviceConfigurationPending.set(true);
         }
+        scheduleUpdateDeviceConfiguration(arcDev);
         return storage;
     }
 
@@ -79,7 +79,7 @@ class StoreSessionImpl implements StoreSession {
     private String calledAET;
     private Socket socket;
     private UnparsedHL7Message msg;
-    private final StoreService storeService;
+    private final StoreServiceImpl storeService;
     private final Map<String, Storage> storageMap = new HashMap<>();
     private Study cachedStudy;
     private final Map<String,Series> seriesCache = new HashMap<>();
@@ -92,7 +92,7 @@ class StoreSessionImpl implements StoreSession {
     private Attributes.UpdatePolicy patientUpdatePolicy;
     private Attributes.UpdatePolicy studyUpdatePolicy;
 
-    StoreSessionImpl(StoreService storeService) {
+    StoreSessionImpl(StoreServiceImpl storeService) {
         this.serialNo = prevSerialNo.incrementAndGet();
         this.storeService = storeService;
     }
@@ -244,8 +244,12 @@ class StoreSessionImpl implements StoreSession {
 
     @Override
     public void close() throws IOException {
-        for (Storage storage : storageMap.values())
-            SafeClose.close(storage);
+        try {
+            storeService.onClose(this);
+        } finally {
+            for (Storage storage : storageMap.values())
+                SafeClose.close(storage);
+        }
     }
 
     @Override
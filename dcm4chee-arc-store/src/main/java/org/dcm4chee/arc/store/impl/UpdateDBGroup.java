@@ -0,0 +1,182 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.store.impl;
+
+import org.dcm4che3.net.Status;
+import org.dcm4che3.net.service.DicomServiceException;
+import org.dcm4chee.arc.store.StoreContext;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Group commit of the DB updates for received instances of one Series. An instance received while no DB update
+ * for the Series is running becomes leader: it waits up to the configured window for further instances and
+ * updates the DB for all of them in one transaction. Instances received while that transaction is running wait,
+ * and are updated by the next leader in the next transaction. So instances received one after the other only pay
+ * the configured window, while concurrently received instances share one transaction.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+class UpdateDBGroup {
+
+    private final int maxSize;
+    private final List<Member> pending = new ArrayList<>();
+    private boolean running;
+    private boolean discarded;
+
+    UpdateDBGroup(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    static final class Member {
+        final StoreContext ctx;
+        private UpdateDBResult result;
+        private Exception exception;
+        private boolean done;
+
+        Member(StoreContext ctx) {
+            this.ctx = ctx;
+        }
+
+        void complete(UpdateDBResult result) {
+            this.result = result;
+        }
+
+        void fail(Exception e) {
+            this.exception = e;
+        }
+
+        UpdateDBResult result() throws DicomServiceException {
+            if (result != null)
+                return result;
+            if (exception instanceof DicomServiceException)
+                throw (DicomServiceException) exception;
+            if (exception instanceof RuntimeException)
+                throw (RuntimeException) exception;
+            throw new DicomServiceException(Status.ProcessingFailure, "Failed to update DB");
+        }
+    }
+
+    /**
+     * Adds the instance to the instances waiting for the update of the DB.
+     *
+     * @return member for the instance or {@code null}, if this group was already discarded
+     */
+    synchronized Member join(StoreContext ctx) {
+        if (discarded)
+            return null;
+
+        Member member = new Member(ctx);
+        pending.add(member);
+        notifyAll();
+        return member;
+    }
+
+    /**
+     * Waits until the DB was updated for the specified member by another thread, or until no other update is
+     * running. In the latter case, waits up to the specified window for further members, and returns the members
+     * for which the calling thread shall update the DB in one transaction. The returned members have different
+     * SOP Instance UIDs; members with the SOP Instance UID of a previous member remain for the next transaction.
+     *
+     * @return members for which the calling thread shall update the DB, or {@code null} if the DB was already
+     *         updated for the specified member
+     */
+    synchronized List<Member> lead(Member member, long window) {
+        boolean interrupted = false;
+        while (!member.done && running) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (member.done) {
+            if (interrupted)
+                Thread.currentThread().interrupt();
+            return null;
+        }
+        running = true;
+        long deadline = System.currentTimeMillis() + window;
+        long remaining;
+        while (!interrupted && pending.size() < maxSize && (remaining = deadline - System.currentTimeMillis()) > 0) {
+            try {
+                wait(remaining);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+        return removeMembers();
+    }
+
+    private List<Member> removeMembers() {
+        List<Member> members = new ArrayList<>(Math.min(pending.size(), maxSize));
+        Set<String> iuids = new HashSet<>();
+        for (Iterator<Member> iter = pending.iterator(); iter.hasNext() && members.size() < maxSize;) {
+            Member member = iter.next();
+            if (iuids.add(member.ctx.getSopInstanceUID())) {
+                members.add(member);
+                iter.remove();
+            }
+        }
+        return members;
+    }
+
+    /**
+     * Marks the DB as updated for the specified members, and wakes up waiting members.
+     *
+     * @return {@code true} if no further members are waiting and this group was discarded
+     */
+    synchronized boolean completed(List<Member> members) {
+        for (Member member : members)
+            member.done = true;
+        running = false;
+        discarded = pending.isEmpty();
+        notifyAll();
+        return discarded;
+    }
+}
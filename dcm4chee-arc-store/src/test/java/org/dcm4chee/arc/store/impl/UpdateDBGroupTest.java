@@ -0,0 +1,181 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.store.impl;
+
+import org.dcm4chee.arc.store.StoreContext;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class UpdateDBGroupTest {
+
+    @Test
+    public void testLeadWithoutOtherMembers() throws Exception {
+        UpdateDBGroup group = new UpdateDBGroup(10);
+        UpdateDBGroup.Member member = group.join(storeContext("1.1"));
+        long start = System.currentTimeMillis();
+        List<UpdateDBGroup.Member> members = group.lead(member, 0L);
+        assertTrue(System.currentTimeMillis() - start < 1000L);
+        assertEquals(Collections.singletonList(member), members);
+        UpdateDBResult result = new UpdateDBResult();
+        member.complete(result);
+        assertTrue(group.completed(members));
+        assertNull(group.lead(member, 0L));
+        assertSame(result, member.result());
+        assertNull(group.join(storeContext("1.2")));
+    }
+
+    @Test
+    public void testMembersReceivedDuringUpdate() throws Exception {
+        UpdateDBGroup group = new UpdateDBGroup(10);
+        UpdateDBGroup.Member leader = group.join(storeContext("1.1"));
+        List<UpdateDBGroup.Member> first = group.lead(leader, 0L);
+        assertEquals(Collections.singletonList(leader), first);
+        UpdateDBGroup.Member member2 = group.join(storeContext("1.2"));
+        UpdateDBGroup.Member member3 = group.join(storeContext("1.3"));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<UpdateDBGroup.Member>> lead2 = executor.submit(() -> group.lead(member2, 0L));
+            Future<List<UpdateDBGroup.Member>> lead3 = executor.submit(() -> group.lead(member3, 0L));
+            Thread.sleep(100);
+            assertFalse(lead2.isDone());
+            assertFalse(lead3.isDone());
+            assertFalse(group.completed(first));
+            long deadline = System.currentTimeMillis() + 10000L;
+            while (!lead2.isDone() && !lead3.isDone() && System.currentTimeMillis() < deadline)
+                Thread.sleep(10);
+            Future<List<UpdateDBGroup.Member>> leading = lead2.isDone() ? lead2 : lead3;
+            Future<List<UpdateDBGroup.Member>> following = leading == lead2 ? lead3 : lead2;
+            assertEquals(Arrays.asList(member2, member3), leading.get(1, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            assertFalse(following.isDone());
+            assertTrue(group.completed(Arrays.asList(member2, member3)));
+            assertNull(following.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSameSOPInstanceUIDInNextTransaction() throws Exception {
+        UpdateDBGroup group = new UpdateDBGroup(10);
+        UpdateDBGroup.Member member1 = group.join(storeContext("1.1"));
+        UpdateDBGroup.Member member2 = group.join(storeContext("1.1"));
+        UpdateDBGroup.Member member3 = group.join(storeContext("1.2"));
+        List<UpdateDBGroup.Member> first = group.lead(member1, 0L);
+        assertEquals(Arrays.asList(member1, member3), first);
+        assertFalse(group.completed(first));
+        List<UpdateDBGroup.Member> second = group.lead(member2, 0L);
+        assertEquals(Collections.singletonList(member2), second);
+        assertTrue(group.completed(second));
+    }
+
+    @Test
+    public void testMaxSize() throws Exception {
+        UpdateDBGroup group = new UpdateDBGroup(2);
+        UpdateDBGroup.Member member1 = group.join(storeContext("1.1"));
+        UpdateDBGroup.Member member2 = group.join(storeContext("1.2"));
+        UpdateDBGroup.Member member3 = group.join(storeContext("1.3"));
+        long start = System.currentTimeMillis();
+        List<UpdateDBGroup.Member> first = group.lead(member1, 10000L);
+        assertTrue(System.currentTimeMillis() - start < 1000L);
+        assertEquals(Arrays.asList(member1, member2), first);
+        assertFalse(group.completed(first));
+        assertEquals(Collections.singletonList(member3), group.lead(member3, 0L));
+    }
+
+    @Test
+    public void testWindowEndsWhenGroupIsFull() throws Exception {
+        UpdateDBGroup group = new UpdateDBGroup(2);
+        UpdateDBGroup.Member member1 = group.join(storeContext("1.1"));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<UpdateDBGroup.Member>> lead = executor.submit(() -> group.lead(member1, 10000L));
+            Thread.sleep(100);
+            assertFalse(lead.isDone());
+            UpdateDBGroup.Member member2 = group.join(storeContext("1.2"));
+            assertEquals(Arrays.asList(member1, member2), lead.get(1, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFailedMember() throws Exception {
+        UpdateDBGroup group = new UpdateDBGroup(10);
+        UpdateDBGroup.Member member = group.join(storeContext("1.1"));
+        List<UpdateDBGroup.Member> members = group.lead(member, 0L);
+        member.fail(new IllegalStateException());
+        group.completed(members);
+        member.result();
+    }
+
+    private static StoreContext storeContext(String iuid) {
+        return (StoreContext) Proxy.newProxyInstance(StoreContext.class.getClassLoader(),
+                new Class<?>[]{ StoreContext.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getSopInstanceUID":
+                            return iuid;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "StoreContext[iuid=" + iuid + ']';
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
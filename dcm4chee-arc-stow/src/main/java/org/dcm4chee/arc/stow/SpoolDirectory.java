@@ -0,0 +1,125 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.stow;
+
+import org.dcm4che3.data.BulkData;
+import org.dcm4che3.util.StreamUtils;
+import org.dcm4che3.util.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Temporary directory for the spooled Parts of one STOW-RS request, created on spooling the first Part.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+class SpoolDirectory {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SpoolDirectory.class);
+
+    private final String root;
+    private Path dir;
+
+    SpoolDirectory(String root) {
+        this.root = root;
+    }
+
+    SpoolFile spool(InputStream in) throws IOException {
+        if (dir == null)
+            dir = Files.createTempDirectory(
+                    Files.createDirectories(Paths.get(StringUtils.replaceSystemProperties(root))), null);
+        Path file = Files.createTempFile(dir, null, null);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            StreamUtils.copy(in, out);
+        }
+        return new SpoolFile(file);
+    }
+
+    void purge() {
+        if (dir == null)
+            return;
+
+        try {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+                for (Path file : files) {
+                    try {
+                        Files.delete(file);
+                    } catch (IOException e) {
+                        LOG.warn("Failed to delete bulkdata spool file {}", file, e);
+                    }
+                }
+            }
+            Files.delete(dir);
+        } catch (IOException e) {
+            LOG.warn("Failed to purge spool directory {}", dir, e);
+        }
+    }
+
+    static class SpoolFile {
+        private final Path file;
+
+        private SpoolFile(Path file) {
+            this.file = file;
+        }
+
+        InputStream openInputStream() throws IOException {
+            return new BufferedInputStream(Files.newInputStream(file));
+        }
+
+        BulkData toBulkData() throws IOException {
+            return new BulkData(file.toUri().toString(), 0, (int) Files.size(file), false);
+        }
+
+        void delete() throws IOException {
+            Files.deleteIfExists(file);
+        }
+    }
+}
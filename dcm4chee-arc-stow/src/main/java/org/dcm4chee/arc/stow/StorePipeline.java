@@ -0,0 +1,193 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.stow;
+
+import org.dcm4che3.net.ApplicationEntity;
+import org.dcm4che3.net.Device;
+import org.dcm4che3.net.service.DicomServiceException;
+import org.dcm4chee.arc.store.StoreContext;
+import org.dcm4chee.arc.store.StoreService;
+import org.dcm4chee.arc.store.StoreSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Stores instances of one STOW-RS request by up to {@code maxParallelism} concurrent tasks. Each task uses its
+ * own Store Session, because Store Sessions are not thread-safe. Results are returned in the order in which the
+ * instances were submitted, so the STOW-RS response does not depend on the order of completion.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+class StorePipeline implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StorePipeline.class);
+
+    private final StoreService service;
+    private final HttpServletRequest request;
+    private final ApplicationEntity ae;
+    private final Device device;
+    private final int maxParallelism;
+    private final Semaphore permits;
+    private final BlockingQueue<StoreSession> idleSessions = new LinkedBlockingQueue<>();
+    private final List<StoreSession> sessions = new ArrayList<>();
+    private final List<Future<Result>> results = new ArrayList<>();
+
+    StorePipeline(StoreService service, HttpServletRequest request, ApplicationEntity ae, Device device,
+            int maxParallelism) {
+        this.service = service;
+        this.request = maxParallelism > 1 ? new DetachedHttpServletRequest(request) : request;
+        this.ae = ae;
+        this.device = device;
+        this.maxParallelism = maxParallelism;
+        this.permits = new Semaphore(maxParallelism);
+    }
+
+    boolean isParallel() {
+        return maxParallelism > 1;
+    }
+
+    /**
+     * Submits the storage of one instance. Blocks while {@code maxParallelism} instances are in process. If
+     * {@code maxParallelism} is 1 or the executor rejects the task, the instance is stored by the calling thread.
+     */
+    void submit(Task task) throws IOException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException(e.getMessage());
+        }
+        StoreSession session = idleSessions.poll();
+        if (session == null)
+            sessions.add(session = service.newStoreSession(request, ae, null));
+        FutureTask<Result> future = new FutureTask<>(newCallable(task, session));
+        results.add(future);
+        if (isParallel())
+            try {
+                device.execute(future);
+                return;
+            } catch (RejectedExecutionException e) {
+                LOG.info("Failed to store instance in parallel - store it sequentially:\n", e);
+            }
+        future.run();
+        result(future);
+    }
+
+    private Callable<Result> newCallable(Task task, StoreSession session) {
+        return () -> {
+            try {
+                return task.store(session);
+            } finally {
+                idleSessions.offer(session);
+                permits.release();
+            }
+        };
+    }
+
+    /**
+     * Waits for the completion of all submitted instances and returns their results in submission order.
+     */
+    List<Result> results() throws IOException {
+        List<Result> list = new ArrayList<>(results.size());
+        for (Future<Result> future : results)
+            list.add(result(future));
+        return list;
+    }
+
+    private static Result result(Future<Result> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException(e.getMessage());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+                throw (IOException) cause;
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Waits for the completion of all submitted instances before closing the Store Sessions.
+     */
+    @Override
+    public void close() throws IOException {
+        permits.acquireUninterruptibly(maxParallelism);
+        IOException ex = null;
+        for (StoreSession session : sessions) {
+            try {
+                session.close();
+            } catch (IOException e) {
+                if (ex == null)
+                    ex = e;
+            }
+        }
+        if (ex != null)
+            throw ex;
+    }
+
+    @FunctionalInterface
+    interface Task {
+        Result store(StoreSession session) throws IOException;
+    }
+
+    static class Result {
+        final StoreContext ctx;
+        final DicomServiceException exception;
+
+        Result(StoreContext ctx, DicomServiceException exception) {
+            this.ctx = ctx;
+            this.exception = exception;
+        }
+    }
+}
@@ -78,9 +78,6 @@ import javax.ws.rs.core.Response;
 import javax.ws.rs.core.StreamingOutput;
 import javax.xml.transform.stream.StreamResult;
 import java.io.*;
-import java.nio.file.DirectoryStream;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.*;
 
 /**
@@ -134,7 +131,7 @@ public class StowRS {
     private final Attributes response = new Attributes();
     private Sequence sopSequence;
     private Sequence failedSOPSequence;
-    private java.nio.file.Path spoolDirectory;
+    private SpoolDirectory spoolDirectory;
     private Map<String, BulkDataWithMediaType> bulkdataMap = new HashMap<>();
 
     @Override
@@ -268,60 +265,46 @@ public class StowRS {
 
     private void store(AsyncResponse ar, InputStream in, final Input input, Output output)  throws Exception {
         LOG.info("Process POST {} from {}@{}", request.getRequestURI(), request.getRemoteUser(), request.getRemoteHost());
-        ar.register((CompletionCallback) throwable -> purgeSpoolDirectory());
-        final StoreSession session = service.newStoreSession(request, getApplicationEntity(), null);
-        new MultipartParser(boundary())
-                .parse(new BufferedInputStream(in), (partNumber, multipartInputStream) -> {
-                    Map<String, List<String>> headerParams = multipartInputStream.readHeaderParams();
-                    LOG.info("storeInstances: Extract Part #{}{}", partNumber, headerParams);
-                    String contentLocation = getHeaderParamValue(headerParams, "content-location");
-                    String contentType = getHeaderParamValue(headerParams, "content-type");
-                    MediaType mediaType = MediaType.valueOf(contentType);
-                    try {
-                        if (!input.readBodyPart(StowRS.this, session, multipartInputStream, mediaType, contentLocation)) {
-                            LOG.info("{}: Ignore Part with Content-Type={}", session, mediaType);
-                            multipartInputStream.skipAll();
+        ArchiveDeviceExtension arcDev = device.getDeviceExtensionNotNull(ArchiveDeviceExtension.class);
+        spoolDirectory = new SpoolDirectory(arcDev.getStowSpoolDirectory());
+        ar.register((CompletionCallback) throwable -> spoolDirectory.purge());
+        try (StorePipeline pipeline = new StorePipeline(
+                service, request, getApplicationEntity(), device, arcDev.getStowMaxParallelism())) {
+            new MultipartParser(boundary())
+                    .parse(new BufferedInputStream(in), (partNumber, multipartInputStream) -> {
+                        Map<String, List<String>> headerParams = multipartInputStream.readHeaderParams();
+                        LOG.info("storeInstances: Extract Part #{}{}", partNumber, headerParams);
+                        String contentLocation = getHeaderParamValue(headerParams, "content-location");
+                        String contentType = getHeaderParamValue(headerParams, "content-type");
+                        MediaType mediaType = MediaType.valueOf(contentType);
+                        try {
+                            if (!input.readBodyPart(StowRS.this, pipeline, multipartInputStream, mediaType, contentLocation)) {
+                                LOG.info("{}: Ignore Part with Content-Type={}", StowRS.this, mediaType);
+                                multipartInputStream.skipAll();
+                            }
+                        } catch (JsonParsingException e) {
+                            throw new WebApplicationException(
+                                    errResponse(e.getMessage() + " at location : " + e.getLocation(), Response.Status.BAD_REQUEST));
+                        } catch (Exception e) {
+                            if (instances.size() == 1)
+                                throw new WebApplicationException(e.getMessage());
+                            else
+                                throw new WebApplicationException("Failed to process Part #" + partNumber + headerParams, e);
                         }
-                    } catch (JsonParsingException e) {
-                        throw new WebApplicationException(
-                                errResponse(e.getMessage() + " at location : " + e.getLocation(), Response.Status.BAD_REQUEST));
-                    } catch (Exception e) {
-                        if (instances.size() == 1)
-                            throw new WebApplicationException(e.getMessage());
-                        else
-                            throw new WebApplicationException("Failed to process Part #" + partNumber + headerParams, e);
-                    }
-                });
-        int instanceNumber = 0;
-        for (Attributes instance : instances) 
-            storeDicomObject(session, instance, ++instanceNumber);
+                    });
+            int instanceNumber = 0;
+            for (Attributes instance : instances) {
+                int number = ++instanceNumber;
+                pipeline.submit(session -> storeDicomObject(session, instance, number));
+            }
+            pipeline.results().forEach(this::addResult);
+        }
 
         response.setString(Tag.RetrieveURL, VR.UR, retrieveURL());
         Response.ResponseBuilder responseBuilder = Response.status(status());
         ar.resume(responseBuilder.entity(output.entity(response)).header("Warning", response.getString(Tag.ErrorComment)).build());
     }
 
-    private void purgeSpoolDirectory() {
-        if (spoolDirectory == null)
-            return;
-
-        try {
-            try (DirectoryStream<java.nio.file.Path> dir = Files.newDirectoryStream(spoolDirectory)) {
-                for (java.nio.file.Path file : dir) {
-                    try {
-                        Files.delete(file);
-                    } catch (IOException e) {
-                        LOG.warn("Failed to delete bulkdata spool file {}", file, e);
-                    }
-                }
-            }
-            Files.delete(spoolDirectory);
-        } catch (IOException e) {
-            LOG.warn("Failed to purge spool directory {}", spoolDirectory, e);
-        }
-
-    }
-
     private String boundary() {
         String boundary = contentType.getParameters().get("boundary");
         if (boundary == null)
@@ -341,18 +324,23 @@ public class StowRS {
     private enum Input {
         DICOM {
             @Override
-            boolean readBodyPart(StowRS stowRS, StoreSession session, MultipartInputStream in,
+            boolean readBodyPart(StowRS stowRS, StorePipeline pipeline, MultipartInputStream in,
                                  MediaType mediaType, String contentLocation) throws Exception {
                 if (!MediaTypes.equalsIgnoreParameters(mediaType, MediaTypes.APPLICATION_DICOM_TYPE))
                     return false;
 
-                stowRS.storeDicomObject(session, in);
+                if (pipeline.isParallel()) {
+                    SpoolDirectory.SpoolFile spoolFile = stowRS.spoolDirectory.spool(in);
+                    pipeline.submit(session -> stowRS.storeDicomObject(session, spoolFile));
+                } else {
+                    pipeline.submit(session -> stowRS.storeDicomObject(session, in));
+                }
                 return true;
             }
         },
         METADATA_XML {
             @Override
-            boolean readBodyPart(StowRS stowRS, StoreSession session, MultipartInputStream in,
+            boolean readBodyPart(StowRS stowRS, StorePipeline pipeline, MultipartInputStream in,
                                  MediaType mediaType, String contentLocation) throws Exception {
                 if (!MediaTypes.equalsIgnoreParameters(mediaType, MediaTypes.APPLICATION_DICOM_XML_TYPE))
                     return stowRS.spoolBulkdata(in, mediaType, contentLocation);
@@ -363,7 +351,7 @@ public class StowRS {
         },
         METADATA_JSON {
             @Override
-            boolean readBodyPart(StowRS stowRS, StoreSession session, MultipartInputStream in,
+            boolean readBodyPart(StowRS stowRS, StorePipeline pipeline, MultipartInputStream in,
                                  MediaType mediaType, String contentLocation) throws Exception {
                 if (!MediaTypes.equalsIgnoreParameters(mediaType, MediaTypes.APPLICATION_DICOM_JSON_TYPE))
                     return stowRS.spoolBulkdata(in, mediaType, contentLocation);
@@ -374,25 +362,33 @@ public class StowRS {
             }
         };
 
-        abstract boolean readBodyPart(StowRS stowRS, StoreSession session, MultipartInputStream in,
+        abstract boolean readBodyPart(StowRS stowRS, StorePipeline pipeline, MultipartInputStream in,
                                       MediaType mediaType, String contentLocation) throws Exception;
     }
 
-    private void storeDicomObject(StoreSession session, MultipartInputStream in) throws IOException {
+    private StorePipeline.Result storeDicomObject(StoreSession session, SpoolDirectory.SpoolFile spoolFile)
+            throws IOException {
+        try (InputStream in = spoolFile.openInputStream()) {
+            return storeDicomObject(session, in);
+        } finally {
+            spoolFile.delete();
+        }
+    }
+
+    private StorePipeline.Result storeDicomObject(StoreSession session, InputStream in) throws IOException {
         StoreContext ctx = service.newStoreContext(session);
         ctx.setAcceptedStudyInstanceUID(acceptedStudyInstanceUID);
         try {
             service.store(ctx, in);
-            studyInstanceUIDs.add(ctx.getStudyInstanceUID());
-            sopSequence().add(mkSOPRefWithRetrieveURL(ctx));
+            return new StorePipeline.Result(ctx, null);
         } catch (DicomServiceException e) {
             LOG.info("{}: Failed to store {}", session, UID.nameOf(ctx.getSopClassUID()), e);
-            response.setString(Tag.ErrorComment, VR.LO, e.getMessage());
-            failedSOPSequence().add(mkSOPRefWithFailureReason(ctx, e));
+            return new StorePipeline.Result(ctx, e);
         }
     }
 
-    private void storeDicomObject(StoreSession session, Attributes attrs, int instanceNumber) throws IOException {
+    private StorePipeline.Result storeDicomObject(StoreSession session, Attributes attrs, int instanceNumber)
+            throws IOException {
         StoreContext ctx = service.newStoreContext(session);
         ctx.setAcceptedStudyInstanceUID(acceptedStudyInstanceUID);
         try {
@@ -400,13 +396,22 @@ public class StowRS {
             ctx.setReceiveTransferSyntax(MediaTypes.transferSyntaxOf(bulkdataWithMediaType.mediaType));
             supplementAttrs(session, attrs, instanceNumber, bulkdataWithMediaType);
             service.store(ctx, attrs);
-            studyInstanceUIDs.add(ctx.getStudyInstanceUID());
-            sopSequence().add(mkSOPRefWithRetrieveURL(ctx));
+            return new StorePipeline.Result(ctx, null);
         } catch (DicomServiceException e) {
             ctx.setAttributes(attrs);
             LOG.info("{}: Failed to store {}", session, UID.nameOf(ctx.getSopClassUID()), e);
-            response.setString(Tag.ErrorComment, VR.LO, e.getMessage());
-            failedSOPSequence().add(mkSOPRefWithFailureReason(ctx, e));
+            return new StorePipeline.Result(ctx, e);
+        }
+    }
+
+    private void addResult(StorePipeline.Result result) {
+        StoreContext ctx = result.ctx;
+        if (result.exception == null) {
+            studyInstanceUIDs.add(ctx.getStudyInstanceUID());
+            sopSequence().add(mkSOPRefWithRetrieveURL(ctx));
+        } else {
+            response.setString(Tag.ErrorComment, VR.LO, result.exception.getMessage());
+            failedSOPSequence().add(mkSOPRefWithFailureReason(ctx, result.exception));
         }
     }
 
@@ -543,13 +548,7 @@ public class StowRS {
     private boolean spoolBulkdata(MultipartInputStream in, MediaType mediaType,
                                   String contentLocation) {
         try {
-            if (spoolDirectory == null)
-                spoolDirectory = Files.createTempDirectory(spoolDirectoryRoot(), null);
-            java.nio.file.Path spoolFile = Files.createTempFile(spoolDirectory, null, null);
-            try (OutputStream out = Files.newOutputStream(spoolFile)) {
-                StreamUtils.copy(in, out);
-            }
-            bulkdataMap.put(contentLocation, new BulkDataWithMediaType(spoolFile, mediaType));
+            bulkdataMap.put(contentLocation, new BulkDataWithMediaType(spoolDirectory.spool(in), mediaType));
             return true;
         } catch (IOException e) {
             StringWriter sw = new StringWriter();
@@ -560,11 +559,6 @@ public class StowRS {
         }
     }
 
-    private java.nio.file.Path spoolDirectoryRoot() throws IOException {
-        return  Files.createDirectories(Paths.get(StringUtils.replaceSystemProperties(
-                device.getDeviceExtensionNotNull(ArchiveDeviceExtension.class).getStowSpoolDirectory())));
-    }
-
     private Attributes mkSOPRefWithRetrieveURL(StoreContext ctx) {
         Attributes attrs = mkSOPRef(ctx, 3);
         attrs.setString(Tag.RetrieveURL, VR.UR, retrieveURL(ctx));
@@ -651,8 +645,8 @@ public class StowRS {
         final BulkData bulkData;
         final MediaType mediaType;
 
-        private BulkDataWithMediaType(java.nio.file.Path path, MediaType mediaType) throws IOException {
-            this.bulkData = new BulkData(path.toUri().toString(), 0, (int) Files.size(path), false);
+        private BulkDataWithMediaType(SpoolDirectory.SpoolFile spoolFile, MediaType mediaType) throws IOException {
+            this.bulkData = spoolFile.toBulkData();
             this.mediaType = mediaType;
         }
     }
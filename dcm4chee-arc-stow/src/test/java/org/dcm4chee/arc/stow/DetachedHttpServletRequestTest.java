@@ -0,0 +1,114 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.stow;
+
+import org.junit.Test;
+
+import javax.servlet.http.HttpServletRequest;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class DetachedHttpServletRequestTest {
+
+    private static final String KEYCLOAK_SECURITY_CONTEXT = "org.keycloak.KeycloakSecurityContext";
+
+    @Test
+    public void testAccessFromOtherThread() throws Exception {
+        Object securityContext = new Object();
+        HttpServletRequest request = new DetachedHttpServletRequest(threadBoundRequest(securityContext));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> {
+                assertEquals("user", request.getRemoteUser());
+                assertEquals("host", request.getRemoteHost());
+                assertEquals("127.0.0.1", request.getRemoteAddr());
+                assertEquals("/dcm4chee-arc/aets/DCM4CHEE/rs/studies", request.getRequestURI());
+                assertEquals("http://host:8080/dcm4chee-arc/aets/DCM4CHEE/rs/studies",
+                        request.getRequestURL().toString());
+                assertNull(request.getQueryString());
+                assertSame(securityContext, request.getAttribute(KEYCLOAK_SECURITY_CONTEXT));
+                assertEquals(Collections.singletonList(KEYCLOAK_SECURITY_CONTEXT),
+                        Collections.list(request.getAttributeNames()));
+                return null;
+            }).get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Returns a request, which - like the JAX-RS proxy of the request - can only be accessed by the creating thread.
+     */
+    private static HttpServletRequest threadBoundRequest(Object securityContext) {
+        Thread requestThread = Thread.currentThread();
+        return (HttpServletRequest) Proxy.newProxyInstance(HttpServletRequest.class.getClassLoader(),
+                new Class<?>[]{HttpServletRequest.class},
+                (proxy, method, args) -> {
+                    if (Thread.currentThread() != requestThread)
+                        throw new IllegalStateException("No request bound to " + Thread.currentThread());
+                    switch (method.getName()) {
+                        case "getRemoteUser":
+                            return "user";
+                        case "getRemoteHost":
+                            return "host";
+                        case "getRemoteAddr":
+                            return "127.0.0.1";
+                        case "getRequestURI":
+                            return "/dcm4chee-arc/aets/DCM4CHEE/rs/studies";
+                        case "getRequestURL":
+                            return new StringBuffer("http://host:8080/dcm4chee-arc/aets/DCM4CHEE/rs/studies");
+                        case "getAttributeNames":
+                            return Collections.enumeration(Collections.singletonList(KEYCLOAK_SECURITY_CONTEXT));
+                        case "getAttribute":
+                            return KEYCLOAK_SECURITY_CONTEXT.equals(args[0]) ? securityContext : null;
+                    }
+                    return null;
+                });
+    }
+}
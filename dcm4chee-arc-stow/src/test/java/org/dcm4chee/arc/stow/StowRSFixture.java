@@ -0,0 +1,140 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.stow;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.UID;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.io.DicomOutputStream;
+import org.dcm4che3.util.UIDUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Generates STOW-RS request bodies of synthetic Secondary Capture instances of one Series, e.g. to measure
+ * the throughput of STOW-RS for different values of {@code dcmStowMaxParallelism}:
+ * <pre>
+ * java -cp ... org.dcm4chee.arc.stow.StowRSFixture stow.mime 100 512
+ * curl -X POST -H 'Content-Type: multipart/related;type="application/dicom";boundary=stow-rs-fixture' \
+ *     --data-binary @stow.mime http://localhost:8080/dcm4chee-arc/aets/DCM4CHEE/rs/studies
+ * </pre>
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+class StowRSFixture {
+
+    static final String BOUNDARY = "stow-rs-fixture";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: java org.dcm4chee.arc.stow.StowRSFixture <file> <instances> <rows/columns>");
+            System.exit(2);
+        }
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Paths.get(args[0])))) {
+            write(out, Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+        }
+    }
+
+    /**
+     * Writes multipart/related body with the specified number of {@code application/dicom} parts, each
+     * containing one instance with {@code size x size} 8 bit pixels.
+     */
+    static void write(OutputStream out, int instances, int size) throws IOException {
+        String studyIUID = UIDUtils.createUID();
+        String seriesIUID = UIDUtils.createUID();
+        byte[] pixelData = new byte[size * size];
+        for (int i = 0; i < pixelData.length; i++)
+            pixelData[i] = (byte) i;
+        for (int i = 1; i <= instances; i++) {
+            out.write(("--" + BOUNDARY + "\r\nContent-Type: application/dicom\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            Attributes attrs = instance(studyIUID, seriesIUID, i, size, pixelData);
+            // do not close the multipart stream with the DicomOutputStream
+            DicomOutputStream dos = new DicomOutputStream(new FilterOutputStream(out) {
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            }, UID.ExplicitVRLittleEndian);
+            dos.writeDataset(attrs.createFileMetaInformation(UID.ExplicitVRLittleEndian), attrs);
+            dos.close();
+            out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+        }
+        out.write(("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static Attributes instance(String studyIUID, String seriesIUID, int instanceNumber, int size,
+            byte[] pixelData) {
+        Attributes attrs = new Attributes();
+        attrs.setString(Tag.SOPClassUID, VR.UI, UID.SecondaryCaptureImageStorage);
+        attrs.setString(Tag.SOPInstanceUID, VR.UI, UIDUtils.createUID());
+        attrs.setString(Tag.Modality, VR.CS, "OT");
+        attrs.setString(Tag.PatientName, VR.PN, "STOW-RS^Fixture");
+        attrs.setString(Tag.PatientID, VR.LO, "STOW-RS-FIXTURE");
+        attrs.setString(Tag.StudyInstanceUID, VR.UI, studyIUID);
+        attrs.setString(Tag.SeriesInstanceUID, VR.UI, seriesIUID);
+        attrs.setInt(Tag.SeriesNumber, VR.IS, 1);
+        attrs.setInt(Tag.InstanceNumber, VR.IS, instanceNumber);
+        attrs.setInt(Tag.SamplesPerPixel, VR.US, 1);
+        attrs.setString(Tag.PhotometricInterpretation, VR.CS, "MONOCHROME2");
+        attrs.setInt(Tag.Rows, VR.US, size);
+        attrs.setInt(Tag.Columns, VR.US, size);
+        attrs.setInt(Tag.BitsAllocated, VR.US, 8);
+        attrs.setInt(Tag.BitsStored, VR.US, 8);
+        attrs.setInt(Tag.HighBit, VR.US, 7);
+        attrs.setInt(Tag.PixelRepresentation, VR.US, 0);
+        attrs.setBytes(Tag.PixelData, VR.OB, pixelData);
+        return attrs;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.stow;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.io.DicomInputStream;
+import org.dcm4che3.mime.MultipartParser;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class StowRSFixtureTest {
+
+    @Test
+    public void testWrite() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StowRSFixture.write(out, 3, 16);
+        List<Attributes> instances = new ArrayList<>();
+        new MultipartParser(StowRSFixture.BOUNDARY).parse(new ByteArrayInputStream(out.toByteArray()),
+                (partNumber, in) -> {
+                    Map<String, List<String>> headerParams = in.readHeaderParams();
+                    assertEquals("application/dicom", headerParams.get("content-type").get(0));
+                    try (DicomInputStream dis = new DicomInputStream(in)) {
+                        instances.add(dis.readDataset(-1, -1));
+                    }
+                });
+        assertEquals(3, instances.size());
+        HashSet<String> iuids = new HashSet<>();
+        for (int i = 0; i < instances.size(); i++) {
+            Attributes attrs = instances.get(i);
+            assertTrue(iuids.add(attrs.getString(Tag.SOPInstanceUID)));
+            assertEquals(instances.get(0).getString(Tag.SeriesInstanceUID), attrs.getString(Tag.SeriesInstanceUID));
+            assertEquals(i + 1, attrs.getInt(Tag.InstanceNumber, 0));
+            assertEquals(16 * 16, ((byte[]) attrs.getValue(Tag.PixelData)).length);
+        }
+    }
+}
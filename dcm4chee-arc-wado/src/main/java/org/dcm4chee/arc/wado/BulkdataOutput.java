@@ -42,16 +42,24 @@ package org.dcm4chee.arc.wado;
 
 import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.UID;
 import org.dcm4che3.io.DicomInputStream;
+import org.dcm4che3.util.SafeClose;
 import org.dcm4che3.util.StreamUtils;
 import org.dcm4che3.util.TagUtils;
+import org.dcm4chee.arc.entity.Location;
+import org.dcm4chee.arc.retrieve.LocationInputStream;
 import org.dcm4chee.arc.retrieve.RetrieveContext;
 import org.dcm4chee.arc.retrieve.RetrieveService;
 import org.dcm4chee.arc.store.InstanceLocations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.ws.rs.core.StreamingOutput;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 
 /**
  * @author Gunter Zeilinger <gunterze@gmail.com>
@@ -59,6 +67,8 @@ import java.io.OutputStream;
  */
 public class BulkdataOutput implements StreamingOutput {
 
+    private static final Logger LOG = LoggerFactory.getLogger(BulkdataOutput.class);
+
     private final RetrieveContext ctx;
     private final InstanceLocations inst;
     private final int[] attributePath;
@@ -72,37 +82,83 @@ public class BulkdataOutput implements StreamingOutput {
     @Override
     public void write(final OutputStream out) throws IOException {
         RetrieveService service = ctx.getRetrieveService();
-        try (DicomInputStream dis = service.openDicomInputStream(ctx, inst)) {
-            Attributes attrs = null;
-            for (int level = 0; level < attributePath.length; level++) {
-                if ((level & 1) == 0) {
-                    int stopTag = attributePath[level];
-                    if (attrs == null)
-                        attrs = dis.readDataset(-1, stopTag);
-                    else
-                        dis.readAttributes(attrs, -1, stopTag);
-                    if (dis.tag() != stopTag)
-                        throw new IOException(missingBulkdata());
-                } else {
-                    int index = attributePath[level];
-                    int i = 0;
-                    while (i < index && dis.readItemHeader()) {
-                        int len = dis.length();
-                        boolean undefLen = len == -1;
-                        if (undefLen) {
-                            Attributes item = new Attributes(attrs.bigEndian());
-                            dis.readAttributes(item, len, Tag.ItemDelimitationItem);
-                        } else {
-                            dis.skipFully(len);
-                        }
-                        ++i;
+        FileChannel channel = openFileChannel(service);
+        if (channel != null) {
+            try (FileChannel ch = channel) {
+                DicomInputStream dis = new DicomInputStream(Channels.newInputStream(ch));
+                int length = readToBulkdata(dis);
+                if (length == -1)
+                    StreamUtils.copy(dis, out, length);
+                else
+                    new FileChannelCopy().copy(ch, dis.getPosition(), length, out);
+            }
+            return;
+        }
+        LocationInputStream lis = service.openLocationInputStream(ctx, inst);
+        try (DicomInputStream dis = toDicomInputStream(lis)) {
+            StreamUtils.copy(dis, out, readToBulkdata(dis));
+        }
+    }
+
+    private FileChannel openFileChannel(RetrieveService service) {
+        for (Location location : inst.getLocations()) {
+            if (!Location.isDicomFile(location) || isDeflated(location.getTransferSyntaxUID()))
+                continue;
+
+            try {
+                FileChannel channel = service.openFileChannel(ctx, inst, location);
+                if (channel != null)
+                    return channel;
+            } catch (IOException e) {
+                LOG.info("Failed to open {} of {} - {}", location, inst, e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private int readToBulkdata(DicomInputStream dis) throws IOException {
+        Attributes attrs = null;
+        for (int level = 0; level < attributePath.length; level++) {
+            if ((level & 1) == 0) {
+                int stopTag = attributePath[level];
+                if (attrs == null)
+                    attrs = dis.readDataset(-1, stopTag);
+                else
+                    dis.readAttributes(attrs, -1, stopTag);
+                if (dis.tag() != stopTag)
+                    throw new IOException(missingBulkdata());
+            } else {
+                int index = attributePath[level];
+                int i = 0;
+                while (i < index && dis.readItemHeader()) {
+                    int len = dis.length();
+                    boolean undefLen = len == -1;
+                    if (undefLen) {
+                        Attributes item = new Attributes(attrs.bigEndian());
+                        dis.readAttributes(item, len, Tag.ItemDelimitationItem);
+                    } else {
+                        dis.skipFully(len);
                     }
-                    if (i < index || !dis.readItemHeader())
-                        throw new IOException(missingBulkdata());
+                    ++i;
                 }
+                if (i < index || !dis.readItemHeader())
+                    throw new IOException(missingBulkdata());
             }
-            StreamUtils.copy(dis, out, dis.length());
         }
+        return dis.length();
+    }
+
+    private static DicomInputStream toDicomInputStream(LocationInputStream lis) throws IOException {
+        try {
+            return new DicomInputStream(lis.stream);
+        } catch (IOException e) {
+            SafeClose.close(lis);
+            throw e;
+        }
+    }
+
+    private static boolean isDeflated(String tsuid) {
+        return UID.DeflatedExplicitVRLittleEndian.equals(tsuid) || UID.JPIPReferencedDeflate.equals(tsuid);
     }
 
     private String missingBulkdata() {
@@ -0,0 +1,109 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2018
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.wado;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Copies regions of a file to the response stream from its FileChannel, without the stream wrappers and buffering
+ * of the Storage input stream. If the response stream is a {@link WritableByteChannel}, the file content is
+ * transferred by {@link FileChannel#transferTo}, which lets the kernel transfer it to the socket without copying
+ * it through user space. Otherwise the file content is copied by positional reads into a buffer, which is reused
+ * for all regions copied by this instance.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+class FileChannelCopy {
+
+    private static final int BUFFER_SIZE = 65536;
+
+    private ByteBuffer buffer;
+
+    void copy(FileChannel channel, long position, long count, OutputStream out) throws IOException {
+        if (out instanceof WritableByteChannel) {
+            long transferred = transferTo(channel, position, count, (WritableByteChannel) out);
+            position += transferred;
+            count -= transferred;
+        }
+        bufferedCopy(channel, position, count, out);
+    }
+
+    private static long transferTo(FileChannel channel, long position, long count, WritableByteChannel target)
+            throws IOException {
+        long total = 0L;
+        long transferred;
+        while (total < count && (transferred = channel.transferTo(position + total, count - total, target)) > 0)
+            total += transferred;
+        return total;
+    }
+
+    private void bufferedCopy(FileChannel channel, long position, long count, OutputStream out)
+            throws IOException {
+        if (count <= 0)
+            return;
+
+        ByteBuffer buf = buffer();
+        while (count > 0) {
+            buf.clear();
+            if (buf.capacity() > count)
+                buf.limit((int) count);
+            int read = channel.read(buf, position);
+            if (read <= 0)
+                throw new EOFException();
+
+            out.write(buf.array(), 0, read);
+            position += read;
+            count -= read;
+        }
+    }
+
+    private ByteBuffer buffer() {
+        if (buffer == null)
+            buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        return buffer;
+    }
+}
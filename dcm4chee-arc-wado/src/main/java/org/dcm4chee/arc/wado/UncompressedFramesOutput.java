@@ -45,6 +45,8 @@ import org.dcm4che3.imageio.codec.ImageDescriptor;
 import org.dcm4che3.io.DicomInputStream;
 import org.dcm4che3.util.SafeClose;
 import org.dcm4che3.util.StreamUtils;
+import org.dcm4chee.arc.retrieve.FrameOffsetTable;
+import org.dcm4chee.arc.retrieve.LocationInputStream;
 import org.dcm4chee.arc.retrieve.RetrieveContext;
 import org.dcm4chee.arc.retrieve.RetrieveService;
 import org.dcm4chee.arc.store.InstanceLocations;
@@ -53,6 +55,7 @@ import javax.ws.rs.core.StreamingOutput;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
@@ -65,6 +68,12 @@ public class UncompressedFramesOutput implements StreamingOutput, Closeable {
     private final RetrieveContext ctx;
     private final InstanceLocations inst;
     private DicomInputStream dis;
+    private FrameOffsetTable frameOffsetTable;
+    private LocationInputStream framesInputStream;
+    private FileChannel fileChannel;
+    private FileChannelCopy fileChannelCopy;
+    private boolean fileChannelChecked;
+    private int nextFrameOfFramesInputStream;
     private final int[] frameList;
     private final Path[] spoolFiles;
     private final Path spoolDirectory;
@@ -83,9 +92,15 @@ public class UncompressedFramesOutput implements StreamingOutput, Closeable {
     @Override
     public void write(OutputStream out) throws IOException {
         try {
-            if (frameListIndex == 0)
+            if (frameListIndex == 0 && (frameOffsetTable = getFrameOffsetTable()) == null)
                 initDicomInputStream();
 
+            if (frameOffsetTable != null) {
+                writeFrame(out, frameListIndex++);
+                if (frameListIndex == frameList.length)
+                    close();
+                return;
+            }
             if (dis == null) {
                 Files.copy(spoolFiles[frameListIndex++], out);
                 return;
@@ -105,6 +120,42 @@ public class UncompressedFramesOutput implements StreamingOutput, Closeable {
         }
     }
 
+    private FrameOffsetTable getFrameOffsetTable() throws IOException {
+        FrameOffsetTable frameOffsetTable = ctx.getRetrieveService().getFrameOffsetTable(ctx, inst);
+        if (frameOffsetTable != null)
+            frameLength = frameOffsetTable.getFrameLength();
+        return frameOffsetTable;
+    }
+
+    private void writeFrame(OutputStream out, int index) throws IOException {
+        int frame = frameList[index];
+        if (!fileChannelChecked) {
+            fileChannel = ctx.getRetrieveService().openFileChannel(ctx, inst, frameOffsetTable.getLocation());
+            if (fileChannel != null)
+                fileChannelCopy = new FileChannelCopy();
+            fileChannelChecked = true;
+        }
+        if (fileChannel != null) {
+            fileChannelCopy.copy(fileChannel, frameOffsetTable.offsetOf(frame), frameLength, out);
+            return;
+        }
+        if (framesInputStream == null || nextFrameOfFramesInputStream != frame) {
+            SafeClose.close(framesInputStream);
+            framesInputStream = ctx.getRetrieveService().openFramesInputStream(
+                    ctx, inst, frameOffsetTable, frame, consecutiveFrames(index));
+            nextFrameOfFramesInputStream = frame;
+        }
+        StreamUtils.copy(framesInputStream.stream, out, frameLength);
+        nextFrameOfFramesInputStream++;
+    }
+
+    private int consecutiveFrames(int index) {
+        int numFrames = 1;
+        while (++index < frameList.length && frameList[index] == frameList[index - 1] + 1)
+            numFrames++;
+        return numFrames;
+    }
+
     private void skipFrame() throws IOException {
         for (int i = frameListIndex; i < frameList.length; i++) {
             if (frame == frameList[i]) {
@@ -138,6 +189,10 @@ public class UncompressedFramesOutput implements StreamingOutput, Closeable {
     @Override
     public void close() {
         SafeClose.close(dis);
+        SafeClose.close(framesInputStream);
+        SafeClose.close(fileChannel);
         dis = null;
+        framesInputStream = null;
+        fileChannel = null;
     }
 }
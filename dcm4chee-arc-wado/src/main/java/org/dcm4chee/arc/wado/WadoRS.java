@@ -434,6 +434,7 @@ public class WadoRS {
                 purgeSpoolDirectory();
                 ctx.setException(throwable);
                 retrieveEnd.fire(ctx);
+                SafeClose.close(ctx);
         });
         responseStatus = notAccepted.isEmpty() ? Response.Status.OK : Response.Status.PARTIAL_CONTENT;
         Object entity = output.entity(this, ctx, frameList, attributePath);